@@ -0,0 +1,195 @@
+package eco.backend.main_app.config;
+
+import eco.backend.main_app.EcoMainApp;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP-Lasttest der Anwendung mit Plattform- bzw. virtuellen Threads (spring.threads.virtual.enabled).
+ * Die Anwendung startet im Benchmark-Prozess auf einem freien Port mit temporärer Datenbank (Admin mit Demo-Daten
+ * und einem weiteren Jahr täglicher Zählerstände). 1000 Clients senden gleichzeitig je 5 Anfragen an einen Endpunkt:
+ * <ul>
+ *     <li>tracking: GET /api/tracking/get-all (Lesezugriff)</li>
+ *     <li>calculation: POST /api/calculation/run-and-save (Berechnung + Schreibzugriff)</li>
+ * </ul>
+ * Ergebnis in Anfragen pro Sekunde; p50/p99 der Antwortzeiten und fehlgeschlagene Anfragen werden am Ende ausgegeben.
+ * Ausführen: ./gradlew jmh -PjmhArgs="VirtualThreadLoadBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class VirtualThreadLoadBenchmark {
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 5;
+    private static final DateTimeFormatter JSON_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"tracking", "calculation"})
+    private String endpoint;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ExecutorService clients;
+    private HttpRequest request;
+
+    private final long[] latencies = new long[1 << 20];
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("eco-http-");
+        String secret = Base64.getEncoder().encodeToString("benchmark-secret-benchmark-secret".getBytes());
+        String hash = new BCryptPasswordEncoder(4).encode("admin");
+
+        context = SpringApplication.run(EcoMainApp.class,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                "--spring.datasource.url=jdbc:sqlite:" + directory.resolve("eco_app.db") + "?foreign_keys=true",
+                "--app.backup.directory=" + directory.resolve("backups"),
+                "--app.rate-limit.enabled=false",
+                // Warteschlange des Writers für alle Clients, damit gemessen und nicht abgelehnt wird
+                "--app.datasource.write-queue.capacity=" + CLIENTS,
+                "--app.datasource.write-queue.timeout-ms=120000",
+                "--logging.level.root=WARN",
+                "--logging.level.eco.backend.main_app=WARN",
+                "--spring.main.banner-mode=off",
+                "--JWT_SECRET=" + secret,
+                "--SMTP_USER_NAME=x", "--SMTP_PASSWORD=x",
+                "--ADMIN_NAME=admin", "--ADMIN_PASSWORD_HASH=" + hash, "--ADMIN_TFA_CODE=1",
+                "--TEST_USER_NAME=test", "--TEST_USER_EMAIL=test@example.com",
+                "--TEST_USER_PASSWORD_HASH=" + hash, "--TEST_USER_TFA_CODE=1");
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        // Login und Testdaten: ein Jahr täglicher Zählerstände im Anschluss an die Demo-Daten (bis 22.07.2025)
+        String login = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\"}")).build());
+        Matcher matcher = TOKEN.matcher(login);
+        if (!matcher.find()) { throw new IllegalStateException("Login fehlgeschlagen: " + login); }
+        String token = "Bearer " + matcher.group(1);
+
+        StringBuilder readings = new StringBuilder("[");
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        for (int day = 0; day < 365; day++) {
+            if (day > 0) { readings.append(','); }
+            readings.append("{\"value_kWh\":").append(54000 + day * 8.5)
+                    .append(",\"date\":\"").append(start.plusDays(day).format(JSON_DATE)).append("\"}");
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/tracking/import"))
+                .header("Authorization", token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(readings.append(']').toString())).build());
+
+        request = endpoint.equals("tracking")
+                ? HttpRequest.newBuilder(URI.create(baseUrl + "/api/tracking/get-all"))
+                    .header("Authorization", token).GET().build()
+                : HttpRequest.newBuilder(URI.create(baseUrl + "/api/calculation/run-and-save"))
+                    .header("Authorization", token).header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"endDate\":\"" + start.plusDays(364).format(JSON_DATE) + "\"}")).build();
+
+        clients = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetLatencies() {
+        recorded.set(0);
+        failures.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printLatencies() {
+        int count = (int) Math.min(recorded.get(), latencies.length);
+        if (count == 0) { return; }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("%n[%s/%s] p50 %.1f ms, p99 %.1f ms, max %.1f ms (%d Anfragen, %d fehlgeschlagen)%n",
+                threads, endpoint, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[count - 1] / 1e6,
+                count, failures.get());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        clients.shutdownNow();
+        context.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS * REQUESTS_PER_CLIENT)
+    public long concurrentClients() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) { failures.incrementAndGet(); }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    record(System.nanoTime() - start);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) { future.get(); }
+        return failures.get();
+    }
+
+    private void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        if (index < latencies.length) { latencies[(int) index] = nanos; }
+    }
+
+    private String send(HttpRequest httpRequest) throws Exception {
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(httpRequest.uri() + " -> " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+}
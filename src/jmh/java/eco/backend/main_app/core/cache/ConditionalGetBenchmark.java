@@ -0,0 +1,166 @@
+package eco.backend.main_app.core.cache;
+
+import eco.backend.main_app.EcoMainApp;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lasttest für das Abfragen (Polling) unveränderter Daten mit und ohne bedingte Anfrage (If-None-Match).
+ * Die Anwendung startet im Benchmark-Prozess auf einem freien Port mit temporärer Datenbank (Admin mit Demo-Daten,
+ * einem weiteren Jahr täglicher Zählerstände und gespeicherten Berechnungsergebnissen). 8 Clients fragen
+ * fortlaufend einen Endpunkt ab:
+ * <ul>
+ *     <li>tracking: GET /api/tracking/get-all</li>
+ *     <li>results: GET /api/calculation/get-results</li>
+ *     <li>config: GET /api/config</li>
+ * </ul>
+ * Ergebnis in Anfragen pro Sekunde; übertragene Bytes pro Anfrage werden am Ende jeder Iteration ausgegeben.
+ * Ausführen: ./gradlew jmh -PjmhArgs="ConditionalGetBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ConditionalGetBenchmark {
+
+    private static final DateTimeFormatter JSON_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Param({"tracking", "results", "config"})
+    private String endpoint;
+
+    @Param({"false", "true"})
+    private boolean conditional;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("eco-etag-");
+        String secret = Base64.getEncoder().encodeToString("benchmark-secret-benchmark-secret".getBytes());
+        String hash = new BCryptPasswordEncoder(4).encode("admin");
+
+        context = SpringApplication.run(EcoMainApp.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + directory.resolve("eco_app.db") + "?foreign_keys=true",
+                "--app.backup.directory=" + directory.resolve("backups"),
+                "--app.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.eco.backend.main_app=WARN",
+                "--spring.main.banner-mode=off",
+                "--JWT_SECRET=" + secret,
+                "--SMTP_USER_NAME=x", "--SMTP_PASSWORD=x",
+                "--ADMIN_NAME=admin", "--ADMIN_PASSWORD_HASH=" + hash, "--ADMIN_TFA_CODE=1",
+                "--TEST_USER_NAME=test", "--TEST_USER_EMAIL=test@example.com",
+                "--TEST_USER_PASSWORD_HASH=" + hash, "--TEST_USER_TFA_CODE=1");
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+        String login = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin\"}")).build()).body();
+        Matcher matcher = TOKEN.matcher(login);
+        if (!matcher.find()) { throw new IllegalStateException("Login fehlgeschlagen: " + login); }
+        String token = "Bearer " + matcher.group(1);
+
+        // Testdaten: ein Jahr täglicher Zählerstände im Anschluss an die Demo-Daten (bis 22.07.2025) + Ergebnisse
+        StringBuilder readings = new StringBuilder("[");
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        for (int day = 0; day < 365; day++) {
+            if (day > 0) { readings.append(','); }
+            readings.append("{\"value_kWh\":").append(54000 + day * 8.5)
+                    .append(",\"date\":\"").append(start.plusDays(day).format(JSON_DATE)).append("\"}");
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/tracking/import"))
+                .header("Authorization", token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(readings.append(']').toString())).build());
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/calculation/run-and-save"))
+                .header("Authorization", token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"endDate\":\"" + start.plusDays(364).format(JSON_DATE) + "\"}")).build());
+
+        String path = switch (endpoint) {
+            case "tracking" -> "/api/tracking/get-all";
+            case "results" -> "/api/calculation/get-results";
+            default -> "/api/config";
+        };
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", token).GET();
+
+        // Bedingte Anfrage: ETag der ersten Antwort mitsenden (Daten bleiben während der Messung unverändert)
+        if (conditional) {
+            String etag = send(builder.build()).headers().firstValue("ETag")
+                    .orElseThrow(() -> new IllegalStateException("Kein ETag für " + path));
+            builder.header("If-None-Match", etag);
+        }
+        request = builder.build();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        requests.set(0);
+        bytes.set(0);
+        failures.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printTransfer() {
+        long count = requests.get();
+        if (count == 0) { return; }
+        System.out.printf("%n[%s/%s] %.0f Bytes pro Anfrage (%d Anfragen, %d fehlgeschlagen)%n",
+                endpoint, conditional ? "If-None-Match" : "unbedingt", (double) bytes.get() / count, count, failures.get());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int poll() throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        int expected = conditional ? 304 : 200;
+        if (response.statusCode() != expected) { failures.incrementAndGet(); }
+
+        requests.incrementAndGet();
+        bytes.addAndGet(response.body().length);
+        return response.statusCode();
+    }
+
+    private HttpResponse<String> send(HttpRequest httpRequest) throws Exception {
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(httpRequest.uri() + " -> " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+}
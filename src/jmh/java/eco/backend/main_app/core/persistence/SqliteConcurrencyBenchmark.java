@@ -0,0 +1,189 @@
+package eco.backend.main_app.core.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lasttest der SQLite-Persistenz mit 1, 8 und 64 parallelen Clients gegen eine temporäre Datei.
+ * Jeder Client führt eine Mischung aus 80 % Lesezugriffen (Zählerstände eines Users) und
+ * 20 % Schreibzugriffen (neuester Stand lesen + neuen Stand einfügen, wie addEntry) aus.
+ * <ul>
+ *     <li>baseline: bisherige Konfiguration (ein Hikari-Pool mit Standardwerten, Rollback-Journal)</li>
+ *     <li>tuned: WAL-Modus, Reader-Pool und serieller Schreiber mit Warteschlange (DataSourceConfig)</li>
+ * </ul>
+ * Ergebnis in Operationen pro Sekunde; fehlgeschlagene Operationen (z.B. SQLITE_BUSY) werden am Ende ausgegeben.
+ * Ausführen: ./gradlew jmh -PjmhArgs="SqliteConcurrencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SqliteConcurrencyBenchmark {
+
+    private static final int OPERATIONS = 640;
+    private static final int USERS = 64;
+    private static final int READINGS_PER_USER = 200;
+
+    private static final TransactionDefinition READ_ONLY = readOnlyDefinition();
+
+    @Param({"1", "8", "64"})
+    private int clients;
+
+    @Param({"baseline", "tuned"})
+    private String setup;
+
+    private Path directory;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readTransaction;
+    private ExecutorService executor;
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("eco-load-");
+        String url = "jdbc:sqlite:" + directory.resolve("eco_app.db") + "?foreign_keys=true";
+
+        DataSource dataSource = setup.equals("tuned") ? tunedDataSource(url) : baselineDataSource(url);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readTransaction = new TransactionTemplate(transactionManager, READ_ONLY);
+
+        // Schema entspricht V1 (meter_readings)
+        jdbcTemplate.execute("""
+                CREATE TABLE meter_readings (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT, kwh_reading REAL NOT NULL,
+                    timestamp TEXT NOT NULL, user_id INTEGER NOT NULL)
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_readings_user ON meter_readings(user_id, timestamp)");
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            for (int day = 0; day < READINGS_PER_USER; day++) {
+                rows.add(new Object[]{day * 7.5, timestamp(day), user});
+            }
+        }
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO meter_readings (kwh_reading, timestamp, user_id) VALUES (?, ?, ?)", rows));
+
+        executor = Executors.newFixedThreadPool(clients);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        pools.forEach(HikariDataSource::close);
+        System.out.printf("%n[%s, %d Clients] Fehlgeschlagene Operationen: %d%n", setup, clients, failures.get());
+
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) { Files.deleteIfExists(file); }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long mixedWorkload() throws Exception {
+        List<Callable<Long>> tasks = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            tasks.add(() -> runClient(OPERATIONS / clients));
+        }
+
+        long rowsRead = 0;
+        for (var future : executor.invokeAll(tasks)) { rowsRead += future.get(); }
+        return rowsRead;
+    }
+
+    private long runClient(int operations) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long rowsRead = 0;
+
+        for (int i = 0; i < operations; i++) {
+            long userId = random.nextLong(1, USERS + 1);
+            try {
+                if (random.nextInt(5) == 0) {
+                    addReading(userId);
+                } else {
+                    rowsRead += readAll(userId);
+                }
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+            }
+        }
+        return rowsRead;
+    }
+
+    /** Entspricht dem vollständigen Laden aller Ablesungen eines Users */
+    private int readAll(long userId) {
+        return readTransaction.execute(status -> jdbcTemplate.query(
+                "SELECT id, kwh_reading, timestamp FROM meter_readings WHERE user_id = ? ORDER BY timestamp DESC",
+                (rs, rowNum) -> rs.getDouble(2), userId).size());
+    }
+
+    /** Entspricht addEntry: neuesten Stand lesen, validieren und neuen Stand einfügen */
+    private void addReading(long userId) {
+        writeTransaction.executeWithoutResult(status -> {
+            Double newest = jdbcTemplate.queryForObject(
+                    "SELECT MAX(kwh_reading) FROM meter_readings WHERE user_id = ?", Double.class, userId);
+            jdbcTemplate.update("INSERT INTO meter_readings (kwh_reading, timestamp, user_id) VALUES (?, ?, ?)",
+                    (newest == null ? 0 : newest) + 1.0, timestamp(READINGS_PER_USER), userId);
+        });
+    }
+
+    private DataSource baselineDataSource(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        HikariDataSource pool = new HikariDataSource(config);
+        pools.add(pool);
+        return pool;
+    }
+
+    private DataSource tunedDataSource(String url) {
+        SqliteDataSourceFactory.Tuning tuning = new SqliteDataSourceFactory.Tuning(5000, "NORMAL", 20000, 268435456L);
+        HikariDataSource writePool = SqliteDataSourceFactory.createWritePool(url, tuning, 11000);
+        HikariDataSource readPool = SqliteDataSourceFactory.createReadPool(url, tuning, 8);
+        pools.add(writePool);
+        pools.add(readPool);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new SerializedWriteDataSource(writePool, 256, 10000, new SimpleMeterRegistry()));
+        dataSource.setReadOnlyDataSource(readPool);
+        return dataSource;
+    }
+
+    private static String timestamp(int day) {
+        return LocalDate.of(2000, 1, 1).plusDays(day) + " 00:00:00";
+    }
+
+    private static TransactionDefinition readOnlyDefinition() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+}
@@ -0,0 +1,76 @@
+package eco.backend.main_app.core.security;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Kosten der Token-Erzeugung (Login) und der Token-Validierung pro Request (Filter + JwtService).
+ * <ul>
+ *     <li>generateToken: Token für einen User erzeugen und signieren</li>
+ *     <li>perCallParserAndKey: bisheriger Pfad (Key und Parser pro Aufruf, 4x Parsen + HMAC pro Request)</li>
+ *     <li>parseOnce: vorab erzeugter Key/Parser, einmaliges Parsen in TokenClaims</li>
+ * </ul>
+ * Ausführen: ./gradlew jmh -PjmhArgs="JwtValidationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("eco-benchmark-secret-0123456789abcdef".getBytes());
+
+    private JwtService jwtService;
+    private UserEntity user;
+    private AuthenticatedUser principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 1_200_000L);
+        user = new UserEntity("benchmark", "hash", "bench@example.org", "000000");
+        principal = AuthenticatedUser.of(user);
+        token = jwtService.getGeneratedToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.getGeneratedToken(user);
+    }
+
+    /** Neuer Pfad: Ein Parse pro Request, Validierung auf dem Record */
+    @Benchmark
+    public boolean parseOnce() {
+        TokenClaims claims = jwtService.parseToken(token);
+        return jwtService.isTokenValid(claims, principal);
+    }
+
+    /** Bisheriges Verhalten: extractUsername im Filter + isTokenValid (Subject, Version, Ablauf) */
+    @Benchmark
+    public boolean perCallParserAndKey() {
+        String username = extractClaim(token, Claims::getSubject);
+
+        return username.equals(user.getUsername())
+                && extractClaim(token, Claims::getSubject).equals(user.getUsername())
+                && !extractClaim(token, Claims::getExpiration).before(new Date())
+                && user.getTokenVersion().equals(extractClaim(token, claims -> claims.get("tokenVersion", Integer.class)));
+    }
+
+    private static <T> T extractClaim(String token, Function<Claims, T> resolver) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return resolver.apply(claims);
+    }
+}
@@ -0,0 +1,66 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reine Berechnungskosten über synthetische Zeitreihen (10 bis 1M Zählerstände).
+ * <ul>
+ *     <li>calculateAllPeriods: PeriodCalculator.calculateSinglePeriod für jede Ablesung gegen den Referenzeintrag (wie runCalculation)</li>
+ *     <li>estimateSkippedMonths: SEPA-Prüfung für jedes mögliche Startdatum der Reihe</li>
+ * </ul>
+ * Ausführen: ./gradlew jmh -PjmhArgs="CalculationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int readings;
+
+    private ConfigEntity config;
+    private LocalDate[] dates;
+    private double[] values;
+
+    @Setup
+    public void setUp() {
+        config = new ConfigEntity();
+
+        // Tägliche Ablesungen mit leicht schwankendem Verbrauch
+        dates = new LocalDate[readings];
+        values = new double[readings];
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        double value = 10_000;
+
+        for (int i = 0; i < readings; i++) {
+            dates[i] = start.plusDays(i);
+            value += 3.0 + (i % 7) * 0.25;
+            values[i] = value;
+        }
+    }
+
+    @Benchmark
+    public void calculateAllPeriods(Blackhole blackhole) {
+        for (int i = 1; i < readings; i++) {
+            CalculationResultsDto result = PeriodCalculator.calculateSinglePeriod(dates[0], values[0], dates[i], values[i], config, TariffSchedule.EMPTY);
+            blackhole.consume(result);
+        }
+    }
+
+    @Benchmark
+    public void estimateSkippedMonths(Blackhole blackhole) {
+        for (int i = 0; i < readings; i++) {
+            blackhole.consume(PeriodCalculator.estimateSkippedMonths(dates[i], config.getDueDay(), config.getSepaProcessingDays()));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffRepository.Tier;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleich des bisherigen Berechnungspfads mit dem spaltenweisen CalculationKernel.
+ * <ul>
+ *     <li>previousPath: Bisherige Berechnung je TrackingEntity (Boxing, ChronoUnit, DTO pro Zeile, Sortierung)</li>
+ *     <li>servicePath: PeriodCalculator.calculatePeriods (Spalten aufbauen, Kernel, DTOs)</li>
+ *     <li>kernel: Nur die Schleife des Kernels auf vorbereiteten Spalten</li>
+ *     <li>kernelTariffVersions: Schleife mit einer Tarifversion pro Jahr (Staffelpreise, Aufteilung an den Grenzen)</li>
+ *     <li>fleetSequential / fleetForkJoin: Neuberechnung vieler User nacheinander bzw. per Fork/Join</li>
+ * </ul>
+ * Beim Setup wird geprüft, dass alter und neuer Pfad bitgleiche Ergebnisse liefern.
+ * Ausführen: ./gradlew jmh -PjmhArgs="CalculationKernelBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationKernelBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int readings;
+
+    private ConfigEntity config;
+    private TrackingEntity refEntry;
+    private List<TrackingEntity> entries;           // absteigend sortiert (wie aus dem Repository)
+    private CalculationKernel.Input input;
+    private CalculationKernel.Input versionedInput;
+
+    @Setup
+    public void setUp() {
+        config = new ConfigEntity();
+
+        List<TrackingEntity> series = series(LocalDate.of(2000, 1, 1), readings, 3.0);
+        refEntry = series.getFirst();
+        entries = new ArrayList<>(series.subList(1, series.size()).reversed());
+        input = toInput(refEntry, series.subList(1, series.size()), config);
+
+        // Eine Tarifversion pro Jahr der Reihe, jede zweite mit Staffelpreisen
+        List<TariffVersion> versions = new ArrayList<>();
+        LocalDate first = refEntry.getTimestamp().toLocalDate();
+        LocalDate last = series.getLast().getTimestamp().toLocalDate();
+        for (LocalDate validFrom = first.plusDays(180); validFrom.isBefore(last); validFrom = validFrom.plusYears(1)) {
+            List<Tier> tiers = versions.size() % 2 == 0 ? List.of() : List.of(new Tier(2500, 0.38), new Tier(5000, 0.41));
+            versions.add(new TariffVersion(versions.size(), validFrom, 12.5, 0.33, 0.0205, versions.size() % 3 == 0 ? 0.07 : 0.19, tiers));
+        }
+        versionedInput = new CalculationKernel.Input(input.tariff(),
+                CalculationKernel.Rate.of(config, new TariffSchedule(versions), input.refEpochDay()),
+                input.refEpochDay(), input.refValue(), input.epochDays(), input.kWh());
+
+        List<CalculationResultsDto> expected = previousPath(refEntry, entries, config);
+        if (!expected.equals(PeriodCalculator.calculatePeriods(refEntry, entries, config, TariffSchedule.EMPTY))) {
+            throw new IllegalStateException("Kernel weicht von der bisherigen Berechnung ab");
+        }
+    }
+
+    @Benchmark
+    public List<CalculationResultsDto> previousPath() {
+        return previousPath(refEntry, entries, config);
+    }
+
+    @Benchmark
+    public List<CalculationResultsDto> servicePath() {
+        return PeriodCalculator.calculatePeriods(refEntry, entries, config, TariffSchedule.EMPTY);
+    }
+
+    @Benchmark
+    public CalculationKernel.Periods kernel() {
+        return CalculationKernel.compute(input);
+    }
+
+    @Benchmark
+    public CalculationKernel.Periods kernelTariffVersions() {
+        return CalculationKernel.compute(versionedInput);
+    }
+
+    /** 200 User mit je drei Jahren täglicher Ablesungen */
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        private final ForkJoinPool pool = ForkJoinPool.commonPool();
+        private List<CalculationKernel.Input> inputs;
+
+        @Setup
+        public void setUp() {
+            ConfigEntity config = new ConfigEntity();
+            inputs = new ArrayList<>();
+            for (int user = 0; user < 200; user++) {
+                List<TrackingEntity> series = series(LocalDate.of(2020, 1, 1).plusDays(user), 3 * 365, 2.0 + user % 5);
+                inputs.add(toInput(series.getFirst(), series.subList(1, series.size()), config));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fleetSequential(Fleet fleet, Blackhole blackhole) {
+        for (CalculationKernel.Input fleetInput : fleet.inputs) {
+            blackhole.consume(CalculationKernel.compute(fleetInput));
+        }
+    }
+
+    @Benchmark
+    public List<CalculationKernel.Periods> fleetForkJoin(Fleet fleet) {
+        return CalculationKernel.computeAll(fleet.inputs, fleet.pool);
+    }
+
+    /** Tägliche Ablesungen mit leicht schwankendem Verbrauch (aufsteigend) */
+    private static List<TrackingEntity> series(LocalDate start, int size, double baseConsumption) {
+        List<TrackingEntity> series = new ArrayList<>(size);
+        double value = 10_000;
+
+        for (int i = 0; i < size; i++) {
+            TrackingEntity entry = new TrackingEntity();
+            entry.setTimestamp(start.plusDays(i).atTime(8, 0));
+            entry.setReadingValue(value);
+            series.add(entry);
+            value += baseConsumption + (i % 7) * 0.25;
+        }
+        return series;
+    }
+
+    private static CalculationKernel.Input toInput(TrackingEntity ref, List<TrackingEntity> ascending, ConfigEntity config) {
+        int[] epochDays = new int[ascending.size()];
+        double[] kWh = new double[ascending.size()];
+        for (int i = 0; i < ascending.size(); i++) {
+            epochDays[i] = (int) ascending.get(i).getTimestamp().toLocalDate().toEpochDay();
+            kWh[i] = ascending.get(i).getReadingValue();
+        }
+
+        LocalDate refDate = ref.getTimestamp().toLocalDate();
+        return new CalculationKernel.Input(CalculationKernel.Tariff.of(config, 0), (int) refDate.toEpochDay(),
+                ref.getReadingValue(), epochDays, kWh);
+    }
+
+    /** Bisherige Berechnung (Stand vor dem Kernel) als Referenz */
+    private static List<CalculationResultsDto> previousPath(TrackingEntity ref, List<TrackingEntity> descending, ConfigEntity configData) {
+        List<CalculationResultsDto> results = new ArrayList<>(descending.size());
+
+        for (TrackingEntity currentEntry : descending) {
+            LocalDateTime refTimestamp = ref.getTimestamp();
+            if (!refTimestamp.isBefore(currentEntry.getTimestamp())) { throw new IllegalStateException(); }
+
+            LocalDate refDate = ref.getTimestamp().toLocalDate();
+            LocalDate currentDate = currentEntry.getTimestamp().toLocalDate();
+            long daysBetween = ChronoUnit.DAYS.between(refDate, currentDate);
+            double diffTrackedValues = currentEntry.getReadingValue() - ref.getReadingValue();
+
+            PeriodCalculator.SkippedMonthsResults skippedMonths = PeriodCalculator.estimateSkippedMonths(
+                    refDate, configData.getDueDay(), configData.getSepaProcessingDays());
+
+            double normConsumptionPerDay   = diffTrackedValues / daysBetween;
+            double netConsumptionPrice     = configData.getEnergyPrice() / (1 + configData.getVatRate()) - configData.getEnergyTax();
+            double netConsumptionCostPeriod = diffTrackedValues * netConsumptionPrice;
+            double netBasePrice            = configData.getBasePrice() / (1 + configData.getVatRate());
+            double netBaseCostPeriod       = netBasePrice * 12 / 365 * daysBetween;
+            double netEnergyTaxCostPeriod  = configData.getEnergyTax() * diffTrackedValues;
+            double netTotalCostPeriod      = netConsumptionCostPeriod + netBaseCostPeriod + netEnergyTaxCostPeriod;
+            double bruttoTotalCostPeriod   = netTotalCostPeriod * (1 + configData.getVatRate());
+            double paidAmountPeriod        = configData.getMonthlyAdvance() * (12 - skippedMonths.value()) / 365 * daysBetween;
+            double costDiffPeriod          = (paidAmountPeriod - bruttoTotalCostPeriod) + configData.getAdditionalCredit();
+
+            results.add(new CalculationResultsDto(configData.getMeterIdentifier(), refDate, currentDate, daysBetween,
+                    paidAmountPeriod, bruttoTotalCostPeriod, diffTrackedValues, costDiffPeriod, normConsumptionPerDay,
+                    skippedMonths.message()));
+        }
+
+        results.sort(Comparator.comparing(CalculationResultsDto::periodEnd));
+        return results;
+    }
+}
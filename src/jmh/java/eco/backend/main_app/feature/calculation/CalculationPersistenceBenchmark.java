@@ -0,0 +1,151 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.CalculationBatchRepository.ResultRow;
+import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nur die Speicherphase von run-and-save für 1k, 10k und 100k Perioden gegen eine temporäre SQLite-Datei
+ * (Laden und Berechnen inklusive: RunAndSaveBenchmark).
+ * <ul>
+ *     <li>jpaPerRowSelectAndSave: bisheriger Pfad über Hibernate (pro Periode Query + persist/merge)</li>
+ *     <li>batchedUpsert: einmaliges Laden, Abgleich im Speicher, Batch-Upsert über ON CONFLICT</li>
+ * </ul>
+ * Jede Iteration ändert alle Werte, damit beide Varianten jede Zeile schreiben müssen.
+ * Ausführen: ./gradlew jmh -PjmhArgs="CalculationPersistenceBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CalculationPersistenceBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1000", "10000", "100000"})
+    private int readings;
+
+    private Path dbFile;
+    private SingleConnectionDataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+    private CalculationBatchRepository batchRepository;
+    private SessionFactory sessionFactory;
+    private List<ResultRow> rows;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() throws Exception {
+        dbFile = Files.createTempFile("eco-bench-", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+
+        dataSource = new SingleConnectionDataSource(url, true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        batchRepository = new CalculationBatchRepository(jdbcTemplate);
+
+        // Schema entspricht V1 + V10
+        jdbcTemplate.execute("""
+                CREATE TABLE calculated_results (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT, period_start TEXT NOT NULL, period_end TEXT NOT NULL,
+                    days_period INTEGER NOT NULL, payments_period REAL NOT NULL, total_costs_period REAL NOT NULL,
+                    cost_diff_period REAL NOT NULL, sum_used_energy REAL NOT NULL, used_energy_per_day REAL NOT NULL,
+                    user_id INTEGER NOT NULL)
+                """);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX idx_results_user_period ON calculated_results(user_id, period_end)");
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(CalculationEntity.class)
+                .addAnnotatedClass(UserEntity.class)
+                .addAttributeConverter(DateTimeConverter.class, true)
+                .setProperty("hibernate.connection.url", url)
+                .setProperty("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect")
+                .buildSessionFactory();
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareRows() {
+        round++;
+        LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0);
+        rows = new ArrayList<>(readings);
+
+        for (int i = 1; i <= readings; i++) {
+            double kWh = i * 3.5 + round;
+            rows.add(new ResultRow(start, start.plusDays(i), i, i * 1.6, kWh * 0.35, i * 1.6 - kWh * 0.35,
+                    kWh, kWh / i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sessionFactory.close();
+        dataSource.destroy();
+        Files.deleteIfExists(dbFile);
+    }
+
+    /** Bisheriges Verhalten von saveResultsInEntity (findByUserIdAndPeriodEnd + save pro Periode) */
+    @Benchmark
+    public int jpaPerRowSelectAndSave() {
+        return sessionFactory.fromTransaction(session -> {
+            UserEntity user = session.getReference(UserEntity.class, USER_ID);
+
+            for (ResultRow row : rows) {
+                CalculationEntity entity = session.createSelectionQuery(
+                                "from CalculationEntity c where c.user.id = :userId and c.periodEnd = :periodEnd",
+                                CalculationEntity.class)
+                        .setParameter("userId", USER_ID)
+                        .setParameter("periodEnd", row.periodEnd())
+                        .uniqueResultOptional()
+                        .orElse(new CalculationEntity());
+
+                if (entity.getId() == null) {
+                    entity.setUser(user);
+                    entity.setPeriodEnd(row.periodEnd());
+                }
+                entity.setPeriodStart(row.periodStart());
+                entity.setTotalCostsPeriod(row.totalCostsPeriod());
+                entity.setCostDiffPeriod(row.costDiffPeriod());
+                entity.setDaysPeriod(row.daysPeriod());
+                entity.setSumUsedEnergy(row.sumUsedEnergy());
+                entity.setPaidAmountPeriod(row.paidAmountPeriod());
+                entity.setUsedEnergyPerDay(row.usedEnergyPerDay());
+
+                if (entity.getId() == null) { session.persist(entity); } else { session.merge(entity); }
+            }
+            return rows.size();
+        });
+    }
+
+    /** Neuer Pfad: einmal laden, im Speicher abgleichen, geänderte Zeilen per Batch-Upsert schreiben */
+    @Benchmark
+    public int batchedUpsert() {
+        return transactionTemplate.execute(status -> {
+            Map<LocalDateTime, ResultRow> existing = batchRepository.findAllByUserIdKeyedByPeriodEnd(USER_ID);
+
+            List<ResultRow> changed = new ArrayList<>();
+            for (ResultRow row : rows) {
+                if (!row.equals(existing.get(row.periodEnd()))) { changed.add(row); }
+            }
+
+            batchRepository.upsertAll(USER_ID, changed);
+            return changed.size();
+        });
+    }
+}
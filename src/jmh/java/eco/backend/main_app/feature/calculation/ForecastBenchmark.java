@@ -0,0 +1,73 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kosten der Prognose über synthetische Zeitreihen mit saisonalem Verbrauch.
+ * <ul>
+ *     <li>fit: Vollständige Anpassung des Modells (bei leerem Cache bzw. nach Änderungen)</li>
+ *     <li>append: Inkrementelle Übernahme einer neuen Ablesung</li>
+ *     <li>project: Prognose bis zum Ende des Abrechnungsjahres inkl. Kosten über den CalculationKernel (Cache-Treffer)</li>
+ * </ul>
+ * Ausführen: ./gradlew jmh -PjmhArgs="ForecastBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastBenchmark {
+
+    @Param({"36", "1095"})
+    private int readings;
+
+    private ConfigEntity config;
+    private int[] epochDays;
+    private double[] values;
+    private ConsumptionModel model;
+
+    @Setup
+    public void setUp() {
+        config = new ConfigEntity();
+
+        // Ablesungen über drei Jahre (monatlich bzw. täglich), Verbrauch im Winter höher
+        epochDays = new int[readings];
+        values = new double[readings];
+        int start = (int) LocalDate.of(2022, 1, 1).toEpochDay();
+        int step = 1095 / readings;
+        double value = 10_000;
+
+        for (int i = 0; i < readings; i++) {
+            epochDays[i] = start + i * step;
+            value += step * (4.0 + 1.5 * Math.cos(2 * Math.PI * epochDays[i] / 365.25));
+            values[i] = value;
+        }
+        model = ConsumptionModel.fit(epochDays, values, 730);
+    }
+
+    @Benchmark
+    public ConsumptionModel fit() {
+        return ConsumptionModel.fit(epochDays, values, 730);
+    }
+
+    @Benchmark
+    public ConsumptionModel append() {
+        return model.append(model.lastDay() + 30, model.lastValue() + 120);
+    }
+
+    @Benchmark
+    public CalculationKernel.Periods project() {
+        LocalDate yearStart = LocalDate.ofEpochDay(model.lastDay()).minusDays(100);
+        int end = (int) yearStart.plusYears(1).toEpochDay();
+        double projected = model.lastValue() + model.projectKwh(model.lastDay(), end);
+
+        return CalculationKernel.compute(PeriodCalculator.prepare(yearStart, model.lastValue() - 400,
+                new int[]{model.lastDay(), end}, new double[]{model.lastValue(), projected}, config, TariffSchedule.EMPTY).input());
+    }
+}
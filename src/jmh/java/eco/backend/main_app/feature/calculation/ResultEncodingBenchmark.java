@@ -0,0 +1,77 @@
+package eco.backend.main_app.feature.calculation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eco.backend.main_app.feature.calculation.dto.CalculationColumnsDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Darstellungen der Antwort von /api/calculation/run-and-save im Vergleich:
+ * <ul>
+ *     <li>json: Liste von CalculationResultsDto (aktuelles Format)</li>
+ *     <li>columnar: CalculationColumnsDto (ein Array pro Feld, Zähler-ID und Hinweistexte einmalig)</li>
+ * </ul>
+ * jeweils unkomprimiert (identity) und gzip-komprimiert wie durch Tomcat (server.compression).
+ * Gemessen wird die Zeit für Umwandlung, Serialisierung und ggf. Komprimierung; die Größe der Antwort in Bytes
+ * wird einmalig pro Parameterkombination ausgegeben. Die Ergebnisse entsprechen täglichen Zählerständen
+ * (1 Jahr bzw. 10 Jahre) mit gleichem Startdatum, gleicher Zähler-ID und gleichem Hinweistext in jeder Zeile.
+ * Ausführen: ./gradlew jmh -PjmhArgs="ResultEncodingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultEncodingBenchmark {
+
+    @Param({"365", "3650"})
+    private int results;
+
+    @Param({"json", "columnar"})
+    private String format;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    private ObjectMapper objectMapper;
+    private List<CalculationResultsDto> dtos;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = new ArrayList<>(results);
+
+        LocalDate start = LocalDate.of(2015, 7, 22);
+        String message = " 1 Abrechnungsmonat(e) wurde(n) übersprungen.";
+        double reading = 0;
+        for (int day = 1; day <= results; day++) {
+            reading += 7.5 + (day * 7919 % 100) / 37.0;
+            double costs = reading * 0.3467 + 11.9 * 12 / 365 * day;
+            double paid = 50.0 * 11 / 365 * day;
+            dtos.add(new CalculationResultsDto("XXXXX-METER-ID", start, start.plusDays(day), day,
+                    paid, costs, reading, paid - costs, reading / day, message));
+        }
+
+        System.out.printf("%n[%d Ergebnisse, %s/%s] %d Bytes%n", results, format, encoding, encode().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(buffer, 8192) : buffer) {
+            objectMapper.writeValue(out, format.equals("columnar") ? CalculationColumnsDto.fromResults(dtos) : dtos);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,55 @@
+package eco.backend.main_app.feature.calculation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson-Serialisierung der Antwort von /api/calculation/run-and-save (Liste von CalculationResultsDto).
+ * Der ObjectMapper entspricht der Spring-Boot-Standardkonfiguration.
+ * Ausführen: ./gradlew jmh -PjmhArgs="ResultSerializationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int results;
+
+    private ObjectMapper objectMapper;
+    private List<CalculationResultsDto> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = new ArrayList<>(results);
+
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 1; i <= results; i++) {
+            double kWh = i * 3.5;
+            dtos.add(new CalculationResultsDto("XXXXX-METER-ID", start, start.plusDays(i), i, i * 1.6,
+                    kWh * 0.35, kWh, i * 1.6 - kWh * 0.35, kWh / i, null));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public void writeToStream() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), dtos);
+    }
+}
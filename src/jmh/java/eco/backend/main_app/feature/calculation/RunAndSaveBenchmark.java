@@ -0,0 +1,193 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.CalculationBatchRepository.ResultRow;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * run-and-save von Anfang bis Ende für 1k, 10k und 100k Ablesungen gegen eine temporäre SQLite-Datei:
+ * Ablesungen laden (Hibernate wie runCalculation), alle Perioden berechnen, Ergebnisse speichern.
+ * <ul>
+ *     <li>perPeriodAndJpaSave: bisheriger Pfad (calculateSinglePeriod pro Ablesung, pro Periode Query + persist/merge)</li>
+ *     <li>kernelAndBatchedUpsert: aktueller Pfad (calculatePeriods über den CalculationKernel, Abgleich im Speicher, Batch-Upsert)</li>
+ * </ul>
+ * Jede Iteration erhöht alle Zählerstände nach dem Referenzeintrag, damit jede Periode neu geschrieben werden muss.
+ * Nur die Speicherphase misst der CalculationPersistenceBenchmark.
+ * Ausführen: ./gradlew jmh -PjmhArgs="RunAndSaveBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RunAndSaveBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1000", "10000", "100000"})
+    private int readings;
+
+    private Path dbFile;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private CalculationBatchRepository batchRepository;
+    private SessionFactory sessionFactory;
+    private ConfigEntity config;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() throws Exception {
+        dbFile = Files.createTempFile("eco-bench-", ".db");
+        String url = "jdbc:sqlite:" + dbFile;
+
+        dataSource = new SingleConnectionDataSource(url, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        batchRepository = new CalculationBatchRepository(jdbcTemplate);
+        config = new ConfigEntity();
+
+        // Schema entspricht V1 + V10 (nur die benötigten Tabellen)
+        jdbcTemplate.execute("""
+                CREATE TABLE meter_readings (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT, kwh_reading REAL NOT NULL, timestamp TEXT NOT NULL,
+                    user_id INTEGER NOT NULL)
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_readings_user ON meter_readings(user_id, timestamp)");
+        jdbcTemplate.execute("""
+                CREATE TABLE calculated_results (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT, period_start TEXT NOT NULL, period_end TEXT NOT NULL,
+                    days_period INTEGER NOT NULL, payments_period REAL NOT NULL, total_costs_period REAL NOT NULL,
+                    cost_diff_period REAL NOT NULL, sum_used_energy REAL NOT NULL, used_energy_per_day REAL NOT NULL,
+                    user_id INTEGER NOT NULL)
+                """);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX idx_results_user_period ON calculated_results(user_id, period_end)");
+
+        // Tägliche Ablesungen mit leicht schwankendem Verbrauch (erster Eintrag: Referenz)
+        LocalDateTime start = LocalDateTime.of(2000, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(readings);
+        double value = 10_000;
+        for (int i = 0; i < readings; i++) {
+            value += 3.0 + (i % 7) * 0.25;
+            rows.add(new Object[]{value, start.plusDays(i).format(DateTimeConverter.FORMATTER), USER_ID});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO meter_readings (kwh_reading, timestamp, user_id) VALUES (?, ?, ?)", rows);
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(TrackingEntity.class)
+                .addAnnotatedClass(CalculationEntity.class)
+                .addAnnotatedClass(UserEntity.class)
+                .addAttributeConverter(DateTimeConverter.class, true)
+                .setProperty("hibernate.connection.url", url)
+                .setProperty("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect")
+                .buildSessionFactory();
+    }
+
+    @Setup(Level.Iteration)
+    public void changeReadings() {
+        jdbcTemplate.update("UPDATE meter_readings SET kwh_reading = kwh_reading + 1 WHERE user_id = ? AND id > 1", USER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        sessionFactory.close();
+        dataSource.destroy();
+        Files.deleteIfExists(dbFile);
+    }
+
+    /** Bisheriges Verhalten: Perioden einzeln berechnen, dann findByUserIdAndPeriodEnd + save pro Periode */
+    @Benchmark
+    public int perPeriodAndJpaSave() {
+        List<TrackingEntity> trackedData = loadReadings();
+        TrackingEntity refEntry = trackedData.getLast();
+
+        List<CalculationResultsDto> results = new ArrayList<>(trackedData.size() - 1);
+        for (int i = trackedData.size() - 2; i >= 0; i--) {
+            TrackingEntity entry = trackedData.get(i);
+            results.add(PeriodCalculator.calculateSinglePeriod(
+                    refEntry.getTimestamp().toLocalDate(), refEntry.getReadingValue(),
+                    entry.getTimestamp().toLocalDate(), entry.getReadingValue(), config, TariffSchedule.EMPTY));
+        }
+
+        return sessionFactory.fromTransaction(session -> {
+            UserEntity user = session.getReference(UserEntity.class, USER_ID);
+
+            for (CalculationResultsDto result : results) {
+                LocalDateTime periodEnd = result.periodEnd().atStartOfDay();
+                CalculationEntity entity = session.createSelectionQuery(
+                                "from CalculationEntity c where c.user.id = :userId and c.periodEnd = :periodEnd",
+                                CalculationEntity.class)
+                        .setParameter("userId", USER_ID)
+                        .setParameter("periodEnd", periodEnd)
+                        .uniqueResultOptional()
+                        .orElse(new CalculationEntity());
+
+                if (entity.getId() == null) {
+                    entity.setUser(user);
+                    entity.setPeriodEnd(periodEnd);
+                }
+                entity.setPeriodStart(result.periodStart().atStartOfDay());
+                entity.setTotalCostsPeriod(result.totalCostsPeriod());
+                entity.setCostDiffPeriod(result.costDiffPeriod());
+                entity.setDaysPeriod(result.daysPeriod());
+                entity.setSumUsedEnergy(result.sumUsedEnergy());
+                entity.setPaidAmountPeriod(result.paidAmountPeriod());
+                entity.setUsedEnergyPerDay(result.usedEnergyPerDay());
+
+                if (entity.getId() == null) { session.persist(entity); } else { session.merge(entity); }
+            }
+            return results.size();
+        });
+    }
+
+    /** Aktueller Pfad: alle Perioden in einem Kernel-Durchlauf, einmal laden, abgleichen und per Batch-Upsert schreiben */
+    @Benchmark
+    public int kernelAndBatchedUpsert() {
+        List<TrackingEntity> trackedData = loadReadings();
+        List<CalculationResultsDto> results = PeriodCalculator.calculatePeriods(
+                trackedData.getLast(), trackedData.subList(0, trackedData.size() - 1), config, TariffSchedule.EMPTY);
+
+        return transactionTemplate.execute(status -> {
+            Map<LocalDateTime, ResultRow> existing = batchRepository.findAllByUserIdKeyedByPeriodEnd(USER_ID);
+
+            List<ResultRow> changed = new ArrayList<>();
+            for (CalculationResultsDto result : results) {
+                ResultRow row = new ResultRow(result.periodStart().atStartOfDay(), result.periodEnd().atStartOfDay(),
+                        result.daysPeriod(), result.paidAmountPeriod(), result.totalCostsPeriod(),
+                        result.costDiffPeriod(), result.sumUsedEnergy(), result.usedEnergyPerDay());
+                if (!row.equals(existing.get(row.periodEnd()))) { changed.add(row); }
+            }
+
+            batchRepository.upsertAll(USER_ID, changed);
+            return changed.size();
+        });
+    }
+
+    /** Hilfsmethode: Ablesungen absteigend wie findByUserIdOrderByTimestampDesc (neuester Eintrag zuerst) */
+    private List<TrackingEntity> loadReadings() {
+        return sessionFactory.fromSession(session -> session.createSelectionQuery(
+                        "from TrackingEntity t where t.user.id = :userId order by t.timestamp desc", TrackingEntity.class)
+                .setParameter("userId", USER_ID)
+                .getResultList());
+    }
+}
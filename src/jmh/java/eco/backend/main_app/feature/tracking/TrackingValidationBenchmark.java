@@ -0,0 +1,96 @@
+package eco.backend.main_app.feature.tracking;
+
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups der Eintrags-Validierung im ReadingIndex (10 bis 1M Zählerstände).
+ * <ul>
+ *     <li>findNewest: Neuester Eintrag wie in isValidTrackingValue</li>
+ *     <li>findNeighbours: Vorgänger/Nachfolger wie in isValidUpdatedDto</li>
+ *     <li>findEntryByDate: Binärsuche in der sortierten Liste (TrackingService.findEntryByDate)</li>
+ * </ul>
+ * Das Repository wird per Proxy simuliert, es findet kein Datenbankzugriff statt.
+ * Ausführen: ./gradlew jmh -PjmhArgs="TrackingValidationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackingValidationBenchmark {
+
+    private static final Long USER_ID = 1L;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int readings;
+
+    private ReadingIndex readingIndex;
+    private List<TrackingEntity> entities;
+    private LocalDate firstDate;
+    private int lookup;
+
+    /** Schlanke Projektion wie sie das Repository liefert */
+    private record View(Long getId, LocalDateTime getTimestamp, Double getReadingValue) implements TrackingRepository.ReadingView {}
+
+    @Setup
+    public void setUp() {
+        firstDate = LocalDate.of(2000, 1, 1);
+        List<TrackingRepository.ReadingView> views = new ArrayList<>(readings);
+        entities = new ArrayList<>(readings);
+
+        for (int i = 0; i < readings; i++) {
+            LocalDateTime timestamp = firstDate.plusDays(i).atTime(12, 0);
+            views.add(new View((long) i + 1, timestamp, 10_000.0 + i * 3.5));
+
+            TrackingEntity entity = new TrackingEntity();
+            entity.setTimestamp(timestamp);
+            entity.setReadingValue(10_000.0 + i * 3.5);
+            entities.add(entity);
+        }
+
+        TrackingRepository repository = (TrackingRepository) Proxy.newProxyInstance(
+                TrackingRepository.class.getClassLoader(),
+                new Class<?>[]{TrackingRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllProjectedByUserIdOrderByTimestampAsc")) { return views; }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        readingIndex = new ReadingIndex(repository, readings);
+    }
+
+    @Benchmark
+    public Optional<ReadingIndex.Reading> findNewest() {
+        return readingIndex.findNewest(USER_ID);
+    }
+
+    @Benchmark
+    public Object findNeighbours() {
+        LocalDate date = nextLookupDate();
+        Long currentId = date.toEpochDay() - firstDate.toEpochDay() + 1;
+
+        return readingIndex.findPredecessor(USER_ID, date, currentId).isPresent()
+                && readingIndex.findSuccessor(USER_ID, date, currentId).isPresent();
+    }
+
+    @Benchmark
+    public TrackingEntity findEntryByDate() {
+        return TrackingService.findEntryByDate(entities, nextLookupDate());
+    }
+
+    /** Hilfsmethode: Verteilt die Suchen über die gesamte Reihe */
+    private LocalDate nextLookupDate() {
+        lookup = (lookup + 7919) % readings;
+        return firstDate.plusDays(lookup);
+    }
+}
@@ -0,0 +1,33 @@
+package eco.backend.main_app.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsen der Datumsangaben aus den Requests ('dd.MM.yyyy').
+ * Ausführen: ./gradlew jmh -PjmhArgs="ReuseHelperBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReuseHelperBenchmark {
+
+    private final String[] dates = {"01.01.2024", "29.02.2024", "15.07.2025", "31.12.2025"};
+    private int index;
+
+    @Benchmark
+    public LocalDateTime getParsedDateTime() {
+        index = (index + 1) & 3;
+        return ReuseHelper.getParsedDateTime(dates[index]);
+    }
+
+    @Benchmark
+    public LocalDateTime getParsedDateTimeFallback() {
+        return ReuseHelper.getParsedDateTime("");
+    }
+}
@@ -0,0 +1,66 @@
+package eco.backend.main_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import eco.backend.main_app.core.persistence.SerializedWriteDataSource;
+import eco.backend.main_app.core.persistence.SqliteDataSourceFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * SQLite-Persistenz für parallele Zugriffe.
+ * Schreibende Transaktionen laufen seriell über eine Verbindung (WAL-Modus),
+ * schreibgeschützte Transaktionen (z.B. Repository-Lesezugriffe) über einen eigenen Reader-Pool.
+ * Die Weiche erfolgt beim ersten Statement anhand des Read-Only-Flags der Transaktion.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Bean
+    public SqliteDataSourceFactory.Tuning sqliteTuning(
+            @Value("${app.datasource.sqlite.busy-timeout-ms:5000}") int busyTimeoutMs,
+            @Value("${app.datasource.sqlite.synchronous:NORMAL}") String synchronous,
+            @Value("${app.datasource.sqlite.cache-size-kib:20000}") int cacheSizeKib,
+            @Value("${app.datasource.sqlite.mmap-size-bytes:268435456}") long mmapSizeBytes) {
+        return new SqliteDataSourceFactory.Tuning(busyTimeoutMs, synchronous, cacheSizeKib, mmapSizeBytes);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writeDataSource(SqliteDataSourceFactory.Tuning sqliteTuning,
+                                            @Value("${app.datasource.write-queue.timeout-ms:10000}") long timeoutMs) {
+        // Hikari wartet länger als die Warteschlange, damit die Zeitüberschreitung dort entsteht
+        return SqliteDataSourceFactory.createWritePool(url, sqliteTuning, timeoutMs + 1000);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(SqliteDataSourceFactory.Tuning sqliteTuning,
+                                           @Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                           @Value("${app.datasource.read-pool.size:8}") int poolSize) {
+        // writeDataSource als Parameter: Der Writer legt die Datei im WAL-Modus an, bevor Reader sie öffnen
+        return SqliteDataSourceFactory.createReadPool(url, sqliteTuning, poolSize);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                 @Qualifier("readDataSource") HikariDataSource readDataSource,
+                                 @Value("${app.datasource.write-queue.capacity:256}") int queueCapacity,
+                                 @Value("${app.datasource.write-queue.timeout-ms:10000}") long timeoutMs,
+                                 MeterRegistry meterRegistry) {
+        SerializedWriteDataSource writer = new SerializedWriteDataSource(writeDataSource, queueCapacity, timeoutMs, meterRegistry);
+
+        // Verbindung erst beim ersten Statement holen: Erst dann steht fest, ob die Transaktion read-only ist
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writer);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+}
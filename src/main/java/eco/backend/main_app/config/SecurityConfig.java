@@ -2,7 +2,11 @@ package eco.backend.main_app.config;
 
 import eco.backend.main_app.core.security.JwtAuthenticationFilter;
 import eco.backend.main_app.core.security.CustomAccessDeniedHandler;
+import eco.backend.main_app.core.security.PasswordHashingService;
+import eco.backend.main_app.core.security.RateLimitFilter;
 import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.utils.KeysetPage;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,8 +15,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -32,16 +34,22 @@ public class SecurityConfig {
     private final UserService userService; // Inject UserService
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final CustomAccessDeniedHandler accessDeniedHandler;
+    private final PasswordHashingService passwordHashingService;
+    private final RateLimitFilter rateLimitFilter;
 
     @Value("${app.cors.allowed-origins}")
     private List<String> allowedOrigins;
 
     public SecurityConfig(UserService userService,
                           JwtAuthenticationFilter jwtAuthFilter,
-                          CustomAccessDeniedHandler accessDeniedHandler) {
+                          CustomAccessDeniedHandler accessDeniedHandler,
+                          PasswordHashingService passwordHashingService,
+                          RateLimitFilter rateLimitFilter) {
         this.userService = userService;
         this.jwtAuthFilter = jwtAuthFilter;
         this.accessDeniedHandler = accessDeniedHandler;
+        this.passwordHashingService = passwordHashingService;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -53,6 +61,9 @@ public class SecurityConfig {
 
             // Routen konfigurieren
             .authorizeHttpRequests(auth -> auth
+                    // Async-Dispatch gestreamter Antworten (Export): Die ursprüngliche Anfrage wurde bereits geprüft,
+                    // der JWT-Kontext steht im zweiten Dispatch nicht mehr zur Verfügung
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     .requestMatchers(
                             "/api/auth/refresh-token",
                             "/api/auth/logout",
@@ -62,6 +73,9 @@ public class SecurityConfig {
                             "/api/auth/user/get-info"
                     ).authenticated()
 
+                    // Monitoring: Health-Check und Prometheus-Scrape ohne Token (Zugriff ggf. per Reverse-Proxy einschränken)
+                    .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+
                     // WICHTIG: Registrierung muss für JEDEN offen sein (permitAll)
                     .requestMatchers("/api/auth/**").permitAll()
                     .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -83,7 +97,9 @@ public class SecurityConfig {
 
             .authenticationProvider(authenticationProvider())
             // WICHTIG: Filter VOR dem Standard-UsernamePasswordAuthenticationFilter einfügen
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Rate-Limiting der Auth-Endpunkte nach dem JWT-Filter (angemeldeter User als Schlüssel verfügbar)
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -98,8 +114,11 @@ public class SecurityConfig {
         // Erlaubte HTTP-Methoden (OPTIONS ist zwingend erforderlich für Preflight-Requests)
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
 
-        // Erlaubte Header (Authorization für das JWT, Content-Type für JSON-Bodys)
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        // Erlaubte Header (Authorization für das JWT, Content-Type für JSON-Bodys, Bedingungen für 304-Antworten)
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match", "If-Modified-Since"));
+
+        // Für das Frontend lesbare Antwort-Header (Cursor der nächsten Seite, Datenstand)
+        configuration.setExposedHeaders(List.of(KeysetPage.NEXT_CURSOR_HEADER, "ETag", "Last-Modified"));
 
         // WICHTIG: Wenn AllowCredentials auf 'true' steht, darf allowedOrigins nicht "*" sein!
         configuration.setAllowCredentials(true);
@@ -115,7 +134,9 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        // BCrypt über den begrenzten Hashing-Pool; veraltete Hashes werden beim Login neu berechnet
+        authProvider.setPasswordEncoder(passwordHashingService);
+        authProvider.setUserDetailsPasswordService(userService);
         return authProvider;
     }
 
@@ -123,9 +144,4 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
@@ -0,0 +1,66 @@
+package eco.backend.main_app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Virtuelle Threads (spring.threads.virtual.enabled=true): Tomcat, der Async-Executor und der Scheduler laufen dann
+ * auf virtuellen Threads (Spring-Boot-Autokonfiguration).
+ * <p>
+ * Schutz vor Pinning: Aufrufe in den SQLite-Treiber (native Aufrufe, synchronized-Abschnitte) binden den virtuellen
+ * Thread an seinen Träger-Thread.
+ * <ul>
+ *     <li>Gleichzeitige Aufrufe sind durch die Verbindungs-Pools begrenzt (ein Writer, Reader-Pool). Jede Verbindung
+ *     wird nur von einem Thread genutzt, die synchronized-Abschnitte des Treibers sind also unbestritten.</li>
+ *     <li>Lang laufende native Aufrufe (Backup-API, integrity_check) laufen auf Plattform-Threads
+ *     (siehe DatabaseBackupService).</li>
+ *     <li>Pinning-Ereignisse werden über JFR erfasst (Metrik eco.jvm.threads.virtual.pinned), damit neue blockierende
+ *     Stellen auffallen.</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Bean(destroyMethod = "close")
+    public RecordingStream pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                               @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        Timer pinned = Timer.builder("eco.jvm.threads.virtual.pinned")
+                .description("Dauer, in der ein virtueller Thread seinen Träger-Thread blockiert hat")
+                .register(meterRegistry);
+
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+
+            List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+            logger.debug("Virtueller Thread {} ms gepinnt: {}", event.getDuration().toMillis(),
+                    frames.stream().limit(5).map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()).toList());
+        });
+        stream.startAsync();
+
+        logger.info("Virtuelle Threads aktiv ({} Träger-Threads), Pinning-Erkennung ab {} ms.", carrierParallelism(), thresholdMs);
+        return stream;
+    }
+
+    /** Anzahl der Träger-Threads des Schedulers für virtuelle Threads */
+    private static int carrierParallelism() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+    }
+}
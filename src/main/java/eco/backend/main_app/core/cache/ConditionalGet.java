@@ -0,0 +1,114 @@
+package eco.backend.main_app.core.cache;
+
+import eco.backend.main_app.core.cache.DataVersionStore.DataVersion;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Bedingte GET-Anfragen (If-None-Match / If-Modified-Since) auf Basis des Datenstands im DataVersionStore.
+ * Ist der Stand des Clients aktuell, wird 304 gesendet, ohne die Datenbank abzufragen oder die Antwort zu serialisieren.
+ * <p>
+ * Der ETag enthält Epoche, User-ID, Version, Ressource und Query-String (z.B. Zeitraum und Cursor), ist also je
+ * Darstellung eindeutig. Antworten sind nur für den jeweiligen User gültig (Cache-Control: private, no-cache).
+ * Der ETag ist schwach (W/), da die Antwort je nach Accept-Encoding komprimiert wird (gleicher Inhalt, andere Bytes);
+ * Tomcat komprimiert Antworten mit starkem ETag nicht.
+ */
+@Component
+public class ConditionalGet {
+
+    private final DataVersionStore dataVersionStore;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    public ConditionalGet(DataVersionStore dataVersionStore, UserService userService, MeterRegistry meterRegistry) {
+        this.dataVersionStore = dataVersionStore;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Liefert 304, falls der Client den aktuellen Stand besitzt, sonst die Antwort des Loaders mit ETag und Last-Modified.
+     *
+     * @param principal Angemeldeter User
+     * @param resource Name der Ressource (Teil des ETags)
+     * @param request Aktuelle Anfrage (Bedingungen und Query-String)
+     * @param loader Lädt die Antwort (nur bei geändertem Stand)
+     */
+    public <T> ResponseEntity<T> respond(UserDetails principal, String resource, HttpServletRequest request,
+                                         Supplier<ResponseEntity<T>> loader) {
+        if (!(principal instanceof AuthenticatedUser user)) { return loader.get(); }
+
+        // Version vor dem Laden lesen: Ändern sich die Daten währenddessen, passt der ETag nicht mehr zum neuen Stand
+        DataVersion version = dataVersionStore.current(user.id());
+        String etag = etag(user.id(), version, resource, request.getQueryString());
+        long lastModified = version.lastModified().toEpochMilli();
+
+        // Gesperrte User erhalten weiterhin die Fehlermeldung des Service
+        if (userService.hasValidStatus(user) && isNotModified(request, etag, lastModified)) {
+            meterRegistry.counter("eco.http.conditional", "resource", resource, "result", "not_modified").increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+
+        meterRegistry.counter("eco.http.conditional", "resource", resource, "result", "modified").increment();
+        ResponseEntity<T> response = loader.get();
+        if (!response.getStatusCode().is2xxSuccessful()) { return response; }
+
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response.getBody());
+    }
+
+    private String etag(Long userId, DataVersion version, String resource, String query) {
+        String tag = dataVersionStore.getEpoch() + "-" + userId + "-" + version.value() + "-" + resource;
+        if (query != null && !query.isEmpty()) {
+            tag += "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(query.getBytes(StandardCharsets.UTF_8));
+        }
+        return "W/\"" + tag + "\"";
+    }
+
+    /**
+     * If-None-Match hat Vorrang (schwacher Vergleich, W/ wird ignoriert);
+     * If-Modified-Since wird nur ohne If-None-Match ausgewertet (RFC 9110)
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String opaqueTag = etag.substring(2);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) { tag = tag.substring(2); }
+                if (tag.equals("*") || tag.equals(opaqueTag)) { return true; }
+            }
+            return false;
+        }
+
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            // Ungültiges Datum: Bedingung ignorieren
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package eco.backend.main_app.core.cache;
+
+import eco.backend.main_app.core.event.ConfigChangedEvent;
+import eco.backend.main_app.core.event.TrackingChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Datenstand pro User (Zähler + Zeitpunkt der letzten Änderung) als Grundlage für ETag und Last-Modified.
+ * Jeder Schreibzugriff auf Zählerstände, Berechnungsergebnisse oder die Konfiguration erhöht den Zähler
+ * nach dem Commit. Liest ein Client vor dem Commit, erhält er also höchstens alte Daten mit alter Version.
+ * <p>
+ * Der Stand liegt nur im Speicher. Die Epoche (zufällig pro Start) ist Teil des ETags, sodass nach einem Neustart
+ * keine Version eines früheren Laufs als aktuell gilt.
+ */
+@Component
+public class DataVersionStore {
+
+    /** Datenstand eines Users */
+    public record DataVersion(long value, Instant lastModified) {}
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Instant startedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    private final Map<Long, DataVersion> versions = new ConcurrentHashMap<>();
+
+    /** Aktueller Datenstand des Users (ohne Änderung seit dem Start: Version 0, Startzeitpunkt) */
+    public DataVersion current(Long userId) {
+        return versions.getOrDefault(userId, new DataVersion(0, startedAt));
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /** Erhöht den Datenstand des Users nach erfolgreichem Commit (ohne Transaktion sofort) */
+    public void bump(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(userId);
+            }
+        });
+    }
+
+    @EventListener
+    public void handleTrackingChange(TrackingChangedEvent event) {
+        bump(event.getUser().getId());
+    }
+
+    @EventListener
+    public void handleConfigChange(ConfigChangedEvent event) {
+        bump(event.getUser().getId());
+    }
+
+    // Last-Modified hat Sekundenauflösung: Jede Änderung rückt den Zeitpunkt um mindestens eine Sekunde vor,
+    // damit If-Modified-Since auch bei mehreren Änderungen innerhalb einer Sekunde greift
+    private void increment(Long userId) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        versions.compute(userId, (id, previous) -> {
+            DataVersion base = previous != null ? previous : new DataVersion(0, startedAt);
+            Instant lastModified = now.isAfter(base.lastModified()) ? now : base.lastModified().plusSeconds(1);
+            return new DataVersion(base.value() + 1, lastModified);
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package eco.backend.main_app.core.event;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import org.springframework.context.ApplicationEvent;
+
+/** Wird ausgelöst, nachdem die Konfiguration eines Users aktualisiert wurde. */
+public class ConfigChangedEvent extends ApplicationEvent {
+
+    private final UserEntity user;
+    private final ConfigEntity config;
+
+    public ConfigChangedEvent(Object source, UserEntity user, ConfigEntity config) {
+        super(source);
+        this.user = user;
+        this.config = config;
+    }
+
+    public UserEntity getUser() { return user; }
+    public ConfigEntity getConfig() { return config; }
+}
@@ -0,0 +1,36 @@
+package eco.backend.main_app.core.event;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wird ausgelöst, sobald sich die Zählerstände eines Users ändern.
+ * Bei UPDATED/DELETED enthält previousTimestamp den Zeitstempel vor der Änderung.
+ * Bei IMPORTED (mehrere Einträge) und CLEARED ist entry null.
+ */
+public class TrackingChangedEvent extends ApplicationEvent {
+
+    public enum ChangeType { ADDED, UPDATED, DELETED, IMPORTED, CLEARED }
+
+    private final UserEntity user;
+    private final ChangeType type;
+    private final TrackingEntity entry;
+    private final LocalDateTime previousTimestamp;
+
+    public TrackingChangedEvent(Object source, UserEntity user, ChangeType type,
+                                TrackingEntity entry, LocalDateTime previousTimestamp) {
+        super(source);
+        this.user = user;
+        this.type = type;
+        this.entry = entry;
+        this.previousTimestamp = previousTimestamp;
+    }
+
+    public UserEntity getUser() { return user; }
+    public ChangeType getType() { return type; }
+    public TrackingEntity getEntry() { return entry; }
+    public LocalDateTime getPreviousTimestamp() { return previousTimestamp; }
+}
@@ -1,6 +1,8 @@
 package eco.backend.main_app.core.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -25,6 +27,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatus()).body(errorResponse);
     }
 
+    // Überlastung: Client soll nach Retry-After erneut anfragen
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", ex.getStatus().value()); // 429
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(ex.getStatus())
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     // Fall 1: User ist deaktiviert
     @ExceptionHandler(DisabledException.class)
     public ResponseEntity<Map<String, Object>> handleDisabledException() {
@@ -56,4 +70,15 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
-}
\ No newline at end of file
+
+    // Datenbank ausgelastet (z.B. Schreibwarteschlange voll)
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleDatabaseBusy() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value()); // 503
+        response.put("error", "Datenbank ausgelastet.");
+        response.put("message", "Die Anfrage konnte nicht verarbeitet werden. Bitte später erneut versuchen.");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(response);
+    }
+}
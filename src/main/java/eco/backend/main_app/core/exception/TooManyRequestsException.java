@@ -0,0 +1,18 @@
+package eco.backend.main_app.core.exception;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Anfrage wurde wegen Überlastung abgelehnt (429). Der Client soll nach 'retryAfterSeconds' erneut anfragen.
+ */
+public class TooManyRequestsException extends GenericException {
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
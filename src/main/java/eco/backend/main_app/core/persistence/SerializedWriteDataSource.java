@@ -0,0 +1,123 @@
+package eco.backend.main_app.core.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warteschlange vor dem schreibenden Connection-Pool.
+ * Schreibende Transaktionen erhalten die Verbindung nacheinander in Ankunftsreihenfolge (faire Semaphore).
+ * Die Anzahl wartender Threads ist begrenzt: Ist die Warteschlange voll oder die Wartezeit abgelaufen,
+ * wird sofort eine SQLTransientConnectionException geworfen, statt weitere Threads zu blockieren.
+ */
+public class SerializedWriteDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerializedWriteDataSource.class);
+
+    private final Semaphore writePermit = new Semaphore(1, true);
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int capacity;
+    private final long timeoutMs;
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public SerializedWriteDataSource(DataSource writePool, int capacity, long timeoutMs, MeterRegistry meterRegistry) {
+        super(writePool);
+        this.capacity = capacity;
+        this.timeoutMs = timeoutMs;
+
+        Gauge.builder("eco.db.write.queue", waiting, AtomicInteger::get)
+                .description("Anzahl der Transaktionen, die auf die Schreibverbindung warten")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("eco.db.write.wait")
+                .description("Wartezeit auf die Schreibverbindung")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("eco.db.write.rejected")
+                .description("Abgewiesene Schreibzugriffe (Warteschlange voll oder Zeitüberschreitung)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            writePermit.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /** Aktuelle Länge der Warteschlange */
+    public int getQueueLength() {
+        return waiting.get();
+    }
+
+    private void acquire() throws SQLException {
+        if (waiting.incrementAndGet() > capacity) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            logger.warn("Schreibzugriff abgewiesen: Warteschlange voll ({} Einträge).", capacity);
+            throw new SQLTransientConnectionException("Schreibwarteschlange ist voll.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!writePermit.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                logger.warn("Schreibzugriff abgewiesen: Keine Schreibverbindung innerhalb von {} ms frei.", timeoutMs);
+                throw new SQLTransientConnectionException("Zeitüberschreitung beim Warten auf die Schreibverbindung.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Warten auf die Schreibverbindung unterbrochen.", e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Hilfsmethode: Gibt die Schreiberlaubnis genau einmal frei, sobald die Verbindung geschlossen wird */
+    private Connection releasingOnClose(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) { writePermit.release(); }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,65 @@
+package eco.backend.main_app.core.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Erzeugt die Connection-Pools für SQLite.
+ * <ul>
+ *     <li>Writer: genau eine Verbindung im WAL-Modus (SQLite erlaubt ohnehin nur einen Schreiber gleichzeitig)</li>
+ *     <li>Reader: mehrere schreibgeschützte Verbindungen, die dank WAL nicht auf den Schreiber warten</li>
+ * </ul>
+ */
+public final class SqliteDataSourceFactory {
+
+    /** Pragmas, die für jede Verbindung gesetzt werden */
+    public record Tuning(int busyTimeoutMs, String synchronous, int cacheSizeKib, long mmapSizeBytes) {}
+
+    private SqliteDataSourceFactory() {}
+
+    /** Pool mit einer einzigen schreibenden Verbindung */
+    public static HikariDataSource createWritePool(String url, Tuning tuning, long connectionTimeoutMs) {
+        SQLiteConfig config = baseConfig(tuning);
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(tuning.synchronous()));
+        config.enforceForeignKeys(true);
+
+        HikariConfig hikari = hikariConfig("eco-write", url, config, 1);
+        hikari.setConnectionTimeout(connectionTimeoutMs);
+        return new HikariDataSource(hikari);
+    }
+
+    /** Pool mit schreibgeschützten Verbindungen (erst nach dem Writer erzeugen, damit die Datei existiert) */
+    public static HikariDataSource createReadPool(String url, Tuning tuning, int poolSize) {
+        SQLiteConfig config = baseConfig(tuning);
+        config.setReadOnly(true);
+
+        HikariConfig hikari = hikariConfig("eco-read", url, config, poolSize);
+        hikari.setReadOnly(true);
+        return new HikariDataSource(hikari);
+    }
+
+    private static SQLiteConfig baseConfig(Tuning tuning) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(tuning.busyTimeoutMs());
+        // Negativer Wert = Größe in KiB statt in Seiten
+        config.setCacheSize(-tuning.cacheSizeKib());
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(tuning.mmapSizeBytes()));
+        config.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return config;
+    }
+
+    private static HikariConfig hikariConfig(String poolName, String url, SQLiteConfig config, int poolSize) {
+        SQLiteDataSource dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl(url);
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setDataSource(dataSource);
+        hikari.setMaximumPoolSize(poolSize);
+        hikari.setMinimumIdle(poolSize);
+        return hikari;
+    }
+}
@@ -0,0 +1,48 @@
+package eco.backend.main_app.core.security;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unveränderlicher Principal eines per JWT authentifizierten Users (SecurityContext und PrincipalCache).
+ * Enthält nur die Werte für Token-Prüfung, Autorisierung und Accountstatus. Änderungen am Account
+ * erfolgen immer an einer aus dem UserRepository geladenen Entity (siehe UserService.findUserByName).
+ */
+public record AuthenticatedUser(Long id,
+                                String username,
+                                String role,
+                                boolean enabled,
+                                boolean validatedEmail,
+                                Integer tokenVersion) implements UserDetails {
+
+    public static AuthenticatedUser of(UserEntity user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getUsername(),
+                user.getRole(),
+                user.getIsEnabled(),
+                user.getIsValidatedEmail(),
+                user.getTokenVersion()
+        );
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    // Kein Passwort-Hash im Principal (Authentifizierung per Token)
+    @Override
+    public String getPassword() { return null; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public boolean isEnabled() { return enabled; }
+}
@@ -2,6 +2,8 @@ package eco.backend.main_app.core.security;
 
 import eco.backend.main_app.feature.auth.UserService;
 import eco.backend.main_app.feature.auth.model.UserEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,16 +19,24 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserService userService,
+                                   PrincipalCache principalCache,
+                                   MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userService = userService;
+        this.principalCache = principalCache;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -51,25 +61,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 3. Token extrahieren (alles nach "Bearer ")
         jwt = authHeader.substring(7);
 
-        // Username aus dem Token holen
-        username = jwtService.extractUsername(jwt);
+        // Metrik: Dauer der Authentifizierung inkl. Ergebnis (Cache-Treffer, DB-Abfrage, abgelehnt, ungültiges Token)
+        Timer.Sample authSample = Timer.start(meterRegistry);
+        String result = "rejected";
 
-        // 4. Validierungsprozess
-        // Falls ein Username vorhanden UND aktuell noch niemand im SecurityContext authentifiziert ist
+        try {
+            // Token einmalig parsen und verifizieren, Username aus dem Token holen
+            final TokenClaims claims = jwtService.parseToken(jwt);
+            username = claims.subject();
+
+            // 4. Validierungsprozess
+            // Falls ein Username vorhanden UND aktuell noch niemand im SecurityContext authentifiziert ist
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // User aus der Datenbank laden
-                UserDetails userDetails = this.userService.loadUserByUsername(username);
+                // User aus dem Cache (passende Token-Version) oder aus der Datenbank laden
+                Optional<AuthenticatedUser> cachedUser = principalCache.get(username, claims.tokenVersion());
+                UserDetails userDetails = cachedUser.isPresent()
+                        ? cachedUser.get()
+                        : this.userService.loadUserByUsername(username);
 
                 if (userDetails instanceof UserEntity userEntity) {
+                    // Unveränderlicher Principal statt der Entity (wird zwischen Requests geteilt)
+                    userDetails = AuthenticatedUser.of(userEntity);
+                }
+
+                if (userDetails instanceof AuthenticatedUser principal) {
 
-                    // Validierung mit dem ECHTEN Datenbank-Objekt
-                    if (jwtService.isTokenValid(jwt, userEntity)) {
+                    // Validierung mit dem Stand aus der Datenbank (bzw. dem daraus erzeugten Cache-Eintrag)
+                    if (jwtService.isTokenValid(claims, principal)) {
+
+                        if (cachedUser.isEmpty()) { principalCache.put(principal); }
 
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                principal,
                                 null,
-                                userDetails.getAuthorities()
+                                principal.getAuthorities()
                         );
 
                         authToken.setDetails(
@@ -77,11 +103,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         );
 
                         SecurityContextHolder.getContext().setAuthentication(authToken);
+                        result = cachedUser.isPresent() ? "authenticated_cache" : "authenticated_db";
                     }
                 } else {
                     logger.warn("Loaded user is not an instance of UserEntity!");
                 }
             }
+        } catch (RuntimeException e) {
+            result = "invalid_token";
+            throw e;
+        } finally {
+            authSample.stop(meterRegistry.timer("eco.security.authentication", "result", result));
+        }
 
         // Kette fortsetzen
         filterChain.doFilter(request, response);
@@ -1,7 +1,7 @@
 package eco.backend.main_app.core.security;
 
 import eco.backend.main_app.feature.auth.model.UserEntity;
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -15,18 +15,23 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secretKey;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpirationMs;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final long jwtExpirationMs;
 
     private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
+    // Schlüssel und Parser werden einmalig beim Start erzeugt (thread-safe, unveränderlich)
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+    }
+
     // Token generieren (für Login)
     public String getGeneratedToken(UserEntity user) {
         Map<String, Object> claims = new HashMap<>();
@@ -44,54 +49,24 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    // Username aus Token extrahieren (für Validierung)
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Token einmalig parsen und Signatur prüfen (eine HMAC-Verifikation pro Request).
+     * Wirft eine JwtException bei ungültiger Signatur, fehlerhaftem Format oder abgelaufenem Token.
+     */
+    public TokenClaims parseToken(String token) {
+        return TokenClaims.of(jwtParser.parseSignedClaims(token).getPayload());
     }
 
     // Token validieren: Passt Token zum User & ist er nicht abgelaufen?
-    public boolean isTokenValid(String token, UserEntity user) {
+    public boolean isTokenValid(TokenClaims claims, AuthenticatedUser user) {
         logger.debug("Checking JWT validity ...");
 
-        final String username = extractUsername(token);
-        final Integer versionInToken = extractTokenVersion(token);
-        return (username.equals(user.getUsername()))
-                && !isTokenExpired(token)
-                && (versionInToken != null && versionInToken.equals(user.getTokenVersion()));
-    }
-
-    private Integer extractTokenVersion(String token) {
-        return extractClaim(token, claims -> claims.get("tokenVersion", Integer.class));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return (claims.subject() != null && claims.subject().equals(user.username()))
+                && !claims.isExpired()
+                && (claims.tokenVersion() != null && claims.tokenVersion().equals(user.tokenVersion()));
     }
-
 }
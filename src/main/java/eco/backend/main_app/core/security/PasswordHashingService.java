@@ -0,0 +1,154 @@
+package eco.backend.main_app.core.security;
+
+import eco.backend.main_app.core.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordEncoder (BCrypt), der das Hashen und Prüfen von Passwörtern auf einem begrenzten Worker-Pool ausführt.
+ * <ul>
+ *     <li>Höchstens so viele gleichzeitige BCrypt-Berechnungen wie Kerne, damit ein Login-Ansturm die übrigen Anfragen
+ *     nicht verdrängt. Ist zusätzlich die Warteschlange voll, wird die Anfrage mit 429 abgelehnt.</li>
+ *     <li>Der Kostenfaktor wird beim Start auf die Ziel-Dauer pro Hash kalibriert (oder fest konfiguriert).</li>
+ *     <li>Hashes mit geringerem Kostenfaktor werden beim nächsten Login neu berechnet
+ *     (upgradeEncoding, siehe UserService.updatePassword).</li>
+ * </ul>
+ */
+@Component
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final int CALIBRATION_RUNS = 3;
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final int cost;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${app.security.password.cost:0}") int configuredCost,
+                                  @Value("${app.security.password.target-ms:100}") long targetMs,
+                                  @Value("${app.security.password.min-cost:10}") int minCost,
+                                  @Value("${app.security.password.max-cost:14}") int maxCost,
+                                  @Value("${app.security.password.threads:0}") int threads,
+                                  @Value("${app.security.password.queue-capacity:64}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.cost = configuredCost > 0 ? configuredCost : calibrate(targetMs, minCost, maxCost);
+        this.encoder = new BCryptPasswordEncoder(cost);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("eco.password.hash.rejected")
+                .description("Wegen voller Warteschlange abgelehnte Hash-Anfragen")
+                .register(meterRegistry);
+        Gauge.builder("eco.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Wartende Hash-Anfragen")
+                .register(meterRegistry);
+        Gauge.builder("eco.password.bcrypt.cost", () -> cost)
+                .description("Aktueller BCrypt-Kostenfaktor")
+                .register(meterRegistry);
+
+        logger.info("Passwort-Hashing: BCrypt-Kostenfaktor {}, {} Threads, Warteschlange {}.", cost, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run("encode", () -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run("matches", () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** true, falls der Hash mit einem geringeren als dem aktuellen Kostenfaktor erstellt wurde */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /** Hilfsmethode: Führt die Berechnung im Worker-Pool aus; der aufrufende Thread wartet auf das Ergebnis */
+    private <T> T run(String operation, Callable<T> task) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Future<T> future;
+
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Passwort-Hashing ausgelastet ({} wartende Anfragen), Anfrage abgelehnt.", executor.getQueue().size());
+            throw new TooManyRequestsException("Zu viele gleichzeitige Anfragen. Bitte später erneut versuchen.", 1);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Passwort-Hashing wurde unterbrochen.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) { throw runtimeException; }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // Enthält die Wartezeit in der Warteschlange
+            sample.stop(meterRegistry.timer("eco.password.hash", "operation", operation));
+        }
+    }
+
+    /**
+     * Hilfsmethode: Misst die Dauer eines Hashes mit minCost und wählt den höchsten Kostenfaktor, dessen Dauer die
+     * Ziel-Dauer nicht überschreitet (jede Stufe verdoppelt den Aufwand).
+     */
+    private static int calibrate(long targetMs, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+
+        // Aufwärmen, damit die JIT-Kompilierung die Messung nicht verfälscht
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        double ratio = TimeUnit.MILLISECONDS.toNanos(targetMs) / (double) fastest;
+        int extra = ratio >= 2 ? (int) Math.floor(Math.log(ratio) / Math.log(2)) : 0;
+        int cost = Math.min(maxCost, minCost + extra);
+
+        logger.info("BCrypt-Kalibrierung: Kostenfaktor {} benötigt {} ms, Ziel {} ms -> Kostenfaktor {}.",
+                minCost, TimeUnit.NANOSECONDS.toMillis(fastest), targetMs, cost);
+        return cost;
+    }
+}
@@ -0,0 +1,92 @@
+package eco.backend.main_app.core.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache für authentifizierte User (unveränderlicher Principal) des JwtAuthenticationFilter.
+ * Ein Eintrag gilt nur für die Token-Version, mit der er geladen wurde, und läuft nach der TTL ab.
+ * Der Speicher ist begrenzt: Selten genutzte Einträge werden per LRU verdrängt.
+ * Änderungen am Account müssen den Eintrag über invalidate() entfernen.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final long ttlNanos;
+    private final Map<String, CachedPrincipal> principals;
+
+    private record CachedPrincipal(AuthenticatedUser user, long expiresAt) {}
+
+    public PrincipalCache(@Value("${app.security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+
+        // LRU: Zugriffsreihenfolge, ältester Eintrag wird bei Überschreitung entfernt
+        this.principals = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Liefert den User, falls ein gültiger Eintrag für Username und Token-Version existiert */
+    public Optional<AuthenticatedUser> get(String username, Integer tokenVersion) {
+        if (ttlNanos <= 0 || tokenVersion == null) { return Optional.empty(); }
+
+        synchronized (principals) {
+            CachedPrincipal cached = principals.get(username);
+            if (cached == null) { return Optional.empty(); }
+
+            if (System.nanoTime() - cached.expiresAt() > 0 || !tokenVersion.equals(cached.user().tokenVersion())) {
+                principals.remove(username);
+                return Optional.empty();
+            }
+            return Optional.of(cached.user());
+        }
+    }
+
+    /** Übernimmt einen erfolgreich validierten User in den Cache */
+    public void put(AuthenticatedUser user) {
+        if (ttlNanos <= 0) { return; }
+
+        synchronized (principals) {
+            principals.put(user.username(), new CachedPrincipal(user, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Entfernt den User aus dem Cache (sofort und erneut nach Abschluss der Transaktion,
+     * damit kein zwischenzeitlich geladener, veralteter Stand bestehen bleibt).
+     */
+    public void invalidate(String username) {
+        remove(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(username);
+                }
+            });
+        }
+    }
+
+    private void remove(String username) {
+        synchronized (principals) {
+            if (principals.remove(username) != null) {
+                logger.debug("Principal-Cache für {} invalidiert.", username);
+            }
+        }
+    }
+}
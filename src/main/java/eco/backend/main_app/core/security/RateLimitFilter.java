@@ -0,0 +1,207 @@
+package eco.backend.main_app.core.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eco.backend.main_app.core.security.TokenBucketStore.Limit;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-Limiting der öffentlichen Auth-Endpunkte (BCrypt-Berechnung bzw. E-Mail-Versand je Anfrage).
+ * Jede Anfrage verbraucht ein Token aus dem Bucket der IP und, falls bestimmbar, aus dem Bucket des Users
+ * (Username/E-Mail aus dem JSON-Body bzw. angemeldeter User). Ist einer der Buckets leer, wird mit 429 und
+ * Retry-After geantwortet. Bodys über MAX_BODY_BYTES werden nicht gepuffert, sondern mit 413 abgelehnt
+ * (die Auth-Anfragen sind wenige hundert Bytes groß). Läuft nach dem JwtAuthenticationFilter (siehe SecurityConfig).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Limits eines Endpunkts; 'identityField' ist das Feld im JSON-Body (null: angemeldeter User) */
+    private record Rule(String name, Limit perIp, Limit perUser, String identityField) {}
+
+    private final TokenBucketStore bucketStore;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Rule> rules = new HashMap<>();
+
+    public RateLimitFilter(TokenBucketStore bucketStore,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.period-seconds:60}") long periodSeconds,
+                           @Value("${app.rate-limit.login.per-ip:20}") int loginPerIp,
+                           @Value("${app.rate-limit.login.per-user:5}") int loginPerUser,
+                           @Value("${app.rate-limit.register.per-ip:5}") int registerPerIp,
+                           @Value("${app.rate-limit.register.per-user:3}") int registerPerUser,
+                           @Value("${app.rate-limit.resend-email.per-ip:10}") int resendPerIp,
+                           @Value("${app.rate-limit.resend-email.per-user:3}") int resendPerUser,
+                           @Value("${app.rate-limit.password-request.per-ip:10}") int passwordRequestPerIp,
+                           @Value("${app.rate-limit.password-request.per-user:3}") int passwordRequestPerUser,
+                           @Value("${app.rate-limit.password-reset.per-ip:10}") int passwordResetPerIp,
+                           @Value("${app.rate-limit.password-reset.per-user:5}") int passwordResetPerUser) {
+        this.bucketStore = bucketStore;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+
+        Duration period = Duration.ofSeconds(periodSeconds);
+        rules.put("/api/auth/login", rule("login", loginPerIp, loginPerUser, period, "username"));
+        rules.put("/api/auth/register", rule("register", registerPerIp, registerPerUser, period, "username"));
+        rules.put("/api/auth/resend-email", rule("resend-email", resendPerIp, resendPerUser, period, null));
+        rules.put("/api/auth/user-password/request", rule("password-request", passwordRequestPerIp, passwordRequestPerUser, period, "email"));
+        rules.put("/api/auth/user-password/reset", rule("password-reset", passwordResetPerIp, passwordResetPerUser, period, "email"));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !rules.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Rule rule = rules.get(request.getServletPath());
+        HttpServletRequest forwarded = request;
+
+        // 1. Bucket der IP
+        long waitNanos = bucketStore.tryAcquire("ip:" + rule.name() + ":" + request.getRemoteAddr(), rule.perIp());
+        String rejectedBy = "ip";
+
+        // 2. Bucket des Users (nur, wenn die IP noch Tokens hat)
+        if (waitNanos == 0) {
+            String identity;
+            if (rule.identityField() == null) {
+                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+                identity = auth != null ? auth.getName() : null;
+            } else {
+                // Angekündigte Länge vorab prüfen, sonst höchstens MAX_BODY_BYTES + 1 Bytes einlesen
+                CachedBodyRequest cached = request.getContentLengthLong() > MAX_BODY_BYTES
+                        ? null : new CachedBodyRequest(request);
+                if (cached == null || cached.isTooLarge()) {
+                    meterRegistry.counter("eco.ratelimit.rejected", "endpoint", rule.name(), "key", "body").increment();
+                    logger.warn("Body für {} zu groß ({}).", rule.name(), request.getRemoteAddr());
+                    writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Anfrage zu groß.");
+                    return;
+                }
+                forwarded = cached;
+                identity = cached.readField(rule.identityField());
+            }
+
+            if (identity != null && !identity.isBlank()) {
+                waitNanos = bucketStore.tryAcquire("user:" + rule.name() + ":" + identity.toLowerCase(Locale.ROOT), rule.perUser());
+                rejectedBy = "user";
+            }
+        }
+
+        if (waitNanos > 0) {
+            meterRegistry.counter("eco.ratelimit.rejected", "endpoint", rule.name(), "key", rejectedBy).increment();
+            logger.warn("Rate-Limit für {} überschritten ({}: {}).", rule.name(), rejectedBy, request.getRemoteAddr());
+            writeTooManyRequests(response, waitNanos);
+            return;
+        }
+
+        meterRegistry.counter("eco.ratelimit.hits", "endpoint", rule.name()).increment();
+        filterChain.doFilter(forwarded, response);
+    }
+
+    /** Hilfsmethode: 429 mit Retry-After in ganzen Sekunden (aufgerundet) */
+    private static void writeTooManyRequests(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS,
+                "Zu viele Anfragen. Bitte in " + retryAfterSeconds + " Sekunden erneut versuchen.");
+    }
+
+    /** Hilfsmethode: Fehlerantwort im Format des GlobalExceptionHandler */
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", status.value());
+        body.put("message", message);
+
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static Rule rule(String name, int perIp, int perUser, Duration period, String identityField) {
+        return new Rule(name, new Limit(perIp, period), new Limit(perUser, period), identityField);
+    }
+
+    /** Liest den (kleinen) JSON-Body einmalig ein (höchstens MAX_BODY_BYTES + 1) und stellt ihn dem Controller erneut bereit */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        }
+
+        /** True, wenn der Body das Limit überschreitet (z.B. bei Chunked-Übertragung ohne Content-Length) */
+        boolean isTooLarge() {
+            return body.length > MAX_BODY_BYTES;
+        }
+
+        /** Wert des Feldes oder null (ungültiger Body wird vom Controller selbst abgelehnt) */
+        String readField(String field) {
+            if (body.length == 0) { return null; }
+            try {
+                JsonNode value = objectMapper.readTree(body).get(field);
+                return value != null && value.isTextual() ? value.asText() : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override public boolean isFinished() { return in.available() == 0; }
+                @Override public boolean isReady() { return true; }
+                @Override public void setReadListener(ReadListener listener) { throw new UnsupportedOperationException(); }
+                @Override public int read() { return in.read(); }
+                @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
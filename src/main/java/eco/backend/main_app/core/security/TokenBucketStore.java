@@ -0,0 +1,114 @@
+package eco.backend.main_app.core.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Lock-freie Token-Buckets für das Rate-Limiting.
+ * Jeder Bucket ist ein einzelner AtomicLong mit dem "theoretischen Ankunftszeitpunkt" (GCRA): Eine Anfrage schiebt ihn
+ * um das Emissionsintervall (Periode / Kapazität) vor und wird abgelehnt, wenn er mehr als eine Periode in der
+ * Zukunft läge. Aktualisiert wird per compareAndSet, ohne Sperren.
+ * <p>
+ * Die Buckets sind auf mehrere Maps (Stripes) mit fester Maximalgröße verteilt. Volle Buckets (Zeitpunkt in der
+ * Vergangenheit) entsprechen einem fehlenden Eintrag und werden periodisch entfernt, der Speicher bleibt also konstant.
+ */
+@Component
+public class TokenBucketStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketStore.class);
+    private static final int STRIPES = 16;
+
+    /** Kapazität (maximaler Burst) und Periode, in der sich der Bucket vollständig auffüllt */
+    public record Limit(int capacity, Duration period) {
+        long periodNanos() { return period.toNanos(); }
+        long emissionIntervalNanos() { return period.toNanos() / capacity; }
+    }
+
+    private final List<ConcurrentHashMap<String, AtomicLong>> stripes;
+    private final int maxEntriesPerStripe;
+    private final MeterRegistry meterRegistry;
+
+    public TokenBucketStore(MeterRegistry meterRegistry,
+                            @Value("${app.rate-limit.max-entries:100000}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        this.stripes = Stream.generate(ConcurrentHashMap<String, AtomicLong>::new).limit(STRIPES).toList();
+    }
+
+    /** Gauge erst nach vollständiger Initialisierung registrieren (Registry hält eine Referenz auf den Store) */
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("eco.ratelimit.buckets", this, TokenBucketStore::size)
+                .description("Anzahl aktiver Rate-Limit-Buckets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Entnimmt ein Token aus dem Bucket 'key'.
+     *
+     * @return 0, falls erlaubt; sonst die Wartezeit in Nanosekunden bis zum nächsten freien Token
+     */
+    public long tryAcquire(String key, Limit limit) {
+        long now = System.nanoTime();
+        ConcurrentHashMap<String, AtomicLong> stripe = stripe(key);
+
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            // Neuer Bucket: Bei voller Stripe zuerst abgelaufene Buckets entfernen, sonst ablehnen (Speicher begrenzt)
+            if (stripe.size() >= maxEntriesPerStripe) {
+                evict(stripe, now);
+                if (stripe.size() >= maxEntriesPerStripe) { return limit.emissionIntervalNanos(); }
+            }
+            bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + limit.emissionIntervalNanos();
+            long excess = next - now - limit.periodNanos();
+
+            if (excess > 0) { return excess; }
+            if (bucket.compareAndSet(tat, next)) { return 0; }
+        }
+    }
+
+    /** Entfernt regelmäßig alle wieder vollen Buckets */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) { removed += evict(stripe, now); }
+
+        if (removed > 0) { logger.debug("Rate-Limiting: {} inaktive Buckets entfernt.", removed); }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) { size += stripe.size(); }
+        return size;
+    }
+
+    // Ein gleichzeitig entnommenes Token eines gerade entfernten (vollen) Buckets geht höchstens einmal verloren
+    private static int evict(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        int before = stripe.size();
+        stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - stripe.size();
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+    }
+}
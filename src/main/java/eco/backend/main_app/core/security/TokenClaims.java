@@ -0,0 +1,31 @@
+package eco.backend.main_app.core.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Einmalig geparste und verifizierte Claims eines JWT.
+ * Wird pro Request genau einmal erzeugt und von Filter und JwtService gemeinsam genutzt.
+ */
+public record TokenClaims(
+        String subject,                 // Username
+        Integer tokenVersion,           // Token-Version zum Zeitpunkt der Ausstellung
+        String role,                    // Rolle des Users (USER, ADMIN)
+        boolean hasValidStatus,         // Account aktiv und E-Mail bestätigt
+        Date expiration                 // Ablaufzeitpunkt
+) {
+    static TokenClaims of(Claims claims) {
+        return new TokenClaims(
+                claims.getSubject(),
+                claims.get("tokenVersion", Integer.class),
+                claims.get("userRole", String.class),
+                Boolean.TRUE.equals(claims.get("hasValidStatus", Boolean.class)),
+                claims.getExpiration()
+        );
+    }
+
+    public boolean isExpired() {
+        return expiration == null || expiration.before(new Date());
+    }
+}
@@ -1,6 +1,7 @@
 package eco.backend.main_app.feature.auth;
 
 import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.exception.TooManyRequestsException;
 import eco.backend.main_app.core.security.JwtService;
 import eco.backend.main_app.feature.auth.dto.*;
 import eco.backend.main_app.feature.auth.model.UserEntity;
@@ -50,6 +51,8 @@ public class AuthController {
                             "message", "Registrierung erfolgreich abgeschlossen.",
                             "username", request.username()
                     ));
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             throw new GenericException(
                     e.getMessage(),
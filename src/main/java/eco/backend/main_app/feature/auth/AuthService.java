@@ -1,6 +1,7 @@
 package eco.backend.main_app.feature.auth;
 
 import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.PrincipalCache;
 import eco.backend.main_app.feature.auth.admin.dto.UpdatePasswordRequest;
 import eco.backend.main_app.feature.auth.dto.*;
 import eco.backend.main_app.utils.AppConstants;
@@ -13,6 +14,8 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import eco.backend.main_app.feature.auth.model.UserEntity;
 import eco.backend.main_app.core.event.UserRegisteredEvent;
@@ -29,6 +32,8 @@ public class AuthService {
     private final ApplicationEventPublisher eventPublisher;
     private final EmailService emailService;
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
     private final SecureRandom secureRandom = new SecureRandom();
@@ -42,7 +47,9 @@ public class AuthService {
                        AuthenticationManager authenticationManager,
                        ApplicationEventPublisher eventPublisher,
                        EmailService emailService,
-                       UserService userService) {
+                       UserService userService,
+                       PrincipalCache principalCache,
+                       PlatformTransactionManager transactionManager) {
 
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
@@ -50,9 +57,11 @@ public class AuthService {
         this.eventPublisher = eventPublisher;
         this.emailService = emailService;
         this.userService = userService;
+        this.principalCache = principalCache;
+        // Schreibende Abschnitte ohne Passwort-Hashing: BCrypt läuft vorher, damit die Schreibverbindung nicht blockiert
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public void register(RegisterRequest dto) {
         logger.debug("Registrierung...");
 
@@ -67,23 +76,29 @@ public class AuthService {
         try {
             String tfaCode = generateRandomCode();
 
-            // 2. HASHING
+            // 2. HASHING (vor der Transaktion)
             String encodedPassword = passwordEncoder.encode(dto.password());
 
-            // 3. Entity erstellen
-            UserEntity registeredUser = new UserEntity(dto.username(), encodedPassword, dto.email(), tfaCode);
+            transactionTemplate.executeWithoutResult(status -> {
+                // 3. Entity erstellen
+                UserEntity registeredUser = new UserEntity(dto.username(), encodedPassword, dto.email(), tfaCode);
 
-            // 4. Speichern
-            userRepository.save(registeredUser);
+                // 4. Speichern
+                userRepository.save(registeredUser);
 
-            // 5. Event auslösen
-            eventPublisher.publishEvent(new UserRegisteredEvent(this, registeredUser));
+                // 5. Event auslösen
+                eventPublisher.publishEvent(new UserRegisteredEvent(this, registeredUser));
 
-            // 6. E-Mail senden
-            emailService.sendVerificationEmail(dto.username(), dto.email(), tfaCode, AppConstants.TEXT_VERIFY_ACTION);
+                // 6. E-Mail senden
+                emailService.sendVerificationEmail(dto.username(), dto.email(), tfaCode, AppConstants.TEXT_VERIFY_ACTION);
+            });
 
             logger.debug("Account wurde erfolgreich registriert.");
         }
+        catch( GenericException e ){
+            // Fachliche Fehler unverändert weitergeben (z.B. 429 bei Überlastung, 503 bei vollem Postausgang)
+            throw e;
+        }
         catch( Exception e ){
             logger.error("Fehler beim Registrieren des Accounts: {}", e.getMessage());
 
@@ -94,17 +109,18 @@ public class AuthService {
         }
     }
 
-    @Transactional
     public UserEntity authenticateUser(LoginRequest request) {
 
         logger.debug("Authentifizierung des Users {} ...", request.username());
 
-        // AuthenticationManager prüft Username & Passwort gegen die DB
+        // AuthenticationManager prüft Username & Passwort gegen die DB (ohne Schreibtransaktion, BCrypt im Hashing-Pool)
         Authentication auth = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password())
         );
 
-        UserEntity user = (UserEntity) auth.getPrincipal();
+        // Token-Version am aktuellen Stand aus der DB ändern (nicht am Principal der Authentifizierung)
+        UserEntity user = userRepository.findByUsername(auth.getName())
+                .orElseThrow(() -> new GenericException("Account nicht gefunden.", HttpStatus.NOT_FOUND));
 
         int nextVersion = user.getTokenVersion() + 1;
 
@@ -117,6 +133,7 @@ public class AuthService {
         }
 
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         logger.debug("User ist authentifiziert.");
 
@@ -130,6 +147,7 @@ public class AuthService {
 
         // Version hochzählen: Token wird ungültig
         user.updateTokenVersion();
+        principalCache.invalidate(username);
         return userRepository.save(user);
     }
 
@@ -176,6 +194,7 @@ public class AuthService {
         user.setTfaCode(generateRandomCode());
 
         userRepository.save(user);
+        principalCache.invalidate(username);
     }
 
     /**
@@ -215,6 +234,7 @@ public class AuthService {
         user.setPassword(encodedPassword);
 
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         logger.debug("Passwort wurde aktualisiert.");
     }
 
@@ -239,6 +259,8 @@ public class AuthService {
         user.setUsername(dto.newUserName());
 
         userRepository.save(user);
+        principalCache.invalidate(currentUserName);
+        principalCache.invalidate(dto.newUserName());
         logger.debug("Username wurde aktualisiert.");
     }
 
@@ -272,7 +294,6 @@ public class AuthService {
         emailService.sendVerificationEmail(user.getUsername(), user.getEmail(), tfaCode, AppConstants.TEXT_RESET_PASSWORD);
     }
 
-    @Transactional
     public void updateAdminPassword(String username, UpdatePasswordRequest dto){
         logger.debug("Aktualisiere Admin-Passwort...");
 
@@ -286,6 +307,7 @@ public class AuthService {
         user.setPassword(encodedPassword);
 
         userRepository.save(user);
+        principalCache.invalidate(username);
         logger.debug("Admin-Passwort wurde erfolgreich geändert.");
     }
 
@@ -0,0 +1,213 @@
+package eco.backend.main_app.feature.auth;
+
+import eco.backend.main_app.feature.auth.EmailOutboxRepository.OutboxMail;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versendet die Mails aus dem Postausgang auf einem eigenen virtuellen Thread.
+ * Fällige Mails werden gebündelt über eine SMTP-Verbindung pro Batch gesendet. Fehlgeschlagene Mails werden mit
+ * exponentiellem Backoff erneut versucht und nach der maximalen Anzahl an Versuchen als FAILED markiert.
+ * Der Versand wird nach dem Commit neuer Mails sofort geweckt, spätestens aber nach dem Poll-Intervall.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository repository;
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final Duration initialRetryDelay;
+    private final Duration maxRetryDelay;
+    private final int maxAttempts;
+
+    // Liest den Absender aus application.properties
+    @Value("${app.email.sender}")
+    private String senderAddress;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository repository,
+                                 JavaMailSender mailSender,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.email.outbox.poll-interval-ms:5000}") long pollIntervalMs,
+                                 @Value("${app.email.outbox.retry.initial-delay-seconds:30}") long initialRetryDelaySeconds,
+                                 @Value("${app.email.outbox.retry.max-delay-seconds:3600}") long maxRetryDelaySeconds,
+                                 @Value("${app.email.outbox.retry.max-attempts:8}") int maxAttempts) {
+        this.repository = repository;
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.initialRetryDelay = Duration.ofSeconds(initialRetryDelaySeconds);
+        this.maxRetryDelay = Duration.ofSeconds(maxRetryDelaySeconds);
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("eco.email.outbox.pending", pending, AtomicLong::get)
+                .description("Anzahl offener Mails im Postausgang")
+                .register(meterRegistry);
+    }
+
+    /** Startet den Versand erst, wenn die Anwendung vollständig hochgefahren ist (offene Mails werden fortgesetzt) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("email-outbox").start(this::run);
+        logger.info("E-Mail-Postausgang gestartet (Batchgröße {}, Poll-Intervall {} ms).", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release();
+        if (worker != null) { worker.join(Duration.ofSeconds(10)); }
+    }
+
+    /** Weckt den Versand auf (z.B. nach dem Commit neuer Mails) */
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                drain();
+            } catch (Exception e) {
+                logger.error("Fehler beim Abarbeiten des E-Mail-Postausgangs: {}", e.getMessage());
+            }
+
+            try {
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Sendet alle fälligen Mails in Batches */
+    private void drain() {
+        List<OutboxMail> batch;
+        do {
+            batch = repository.findDue(LocalDateTime.now(), batchSize);
+            if (!batch.isEmpty()) { sendBatch(batch); }
+        } while (running && batch.size() == batchSize);
+
+        pending.set(repository.countPending());
+    }
+
+    private void sendBatch(List<OutboxMail> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+
+        // JavaMailSender öffnet für alle Nachrichten eines Aufrufs nur eine SMTP-Verbindung
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(messages, e);
+        }
+        String outcome = failures.isEmpty() ? "success" : failures.size() < messages.length ? "partial" : "failure";
+        sample.stop(meterRegistry.timer("eco.email.send", "outcome", outcome));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMail> sent = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMail mail = batch.get(i);
+            Exception failure = failures.get(messages[i]);
+
+            if (failure == null) {
+                sent.add(mail);
+                Timer.builder("eco.email.outbox.latency")
+                        .description("Zeit vom Einreihen bis zum Versand")
+                        .tag("type", mail.type())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(Duration.between(mail.createdAt(), now));
+            } else {
+                handleFailure(mail, failure, now);
+            }
+        }
+
+        repository.deleteSent(sent);
+        logger.debug("E-Mail-Batch verarbeitet: {} gesendet, {} fehlgeschlagen.", sent.size(), failures.size());
+    }
+
+    /** Hilfsmethode: Plant einen erneuten Versuch oder markiert die Mail endgültig als fehlgeschlagen */
+    private void handleFailure(OutboxMail mail, Exception failure, LocalDateTime now) {
+        int attempt = mail.attempts() + 1;
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) { error = error.substring(0, MAX_ERROR_LENGTH); }
+
+        if (attempt >= maxAttempts) {
+            repository.markFailed(mail, error);
+            meterRegistry.counter("eco.email.outbox.failed", "type", mail.type()).increment();
+            logger.error("E-Mail ({}) an {} nach {} Versuchen endgültig fehlgeschlagen: {}", mail.type(), mail.recipient(), attempt, error);
+            return;
+        }
+
+        Duration delay = retryDelay(attempt);
+        repository.scheduleRetry(mail, now.plus(delay), error);
+        meterRegistry.counter("eco.email.outbox.retries", "type", mail.type()).increment();
+        logger.warn("E-Mail ({}) an {} fehlgeschlagen (Versuch {}), neuer Versuch in {} s: {}",
+                mail.type(), mail.recipient(), attempt, delay.toSeconds(), error);
+    }
+
+    /** Exponentielles Backoff: initialDelay * 2^(Versuch - 1), begrenzt auf maxDelay */
+    private Duration retryDelay(int attempt) {
+        Duration delay = initialRetryDelay.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    private SimpleMailMessage toMessage(OutboxMail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+
+        message.setFrom(senderAddress);
+        message.setTo(mail.recipient());
+        message.setSubject(mail.subject());
+        message.setText(mail.body());
+
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        for (SimpleMailMessage message : messages) { failures.put(message, e); }
+        return failures;
+    }
+}
@@ -0,0 +1,108 @@
+package eco.backend.main_app.feature.auth;
+
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Zugriff auf den Postausgang 'email_outbox' über JDBC.
+ * Einreihen erfolgt in der laufenden Transaktion des Aufrufers, Abrufen fälliger Mails über den Reader-Pool.
+ */
+@Repository
+public class EmailOutboxRepository {
+
+    private static final String PENDING = "PENDING";
+    private static final String FAILED = "FAILED";
+
+    // Einfügen oder offene Mail ersetzen in einer Anweisung (Konfliktziel ist der partielle Index idx_outbox_pending_dedup)
+    private static final String UPSERT = """
+            INSERT INTO email_outbox (type, recipient, dedup_key, subject, body, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)
+            ON CONFLICT (dedup_key) WHERE status = 'PENDING' DO UPDATE
+            SET subject = excluded.subject, body = excluded.body, attempts = 0, version = version + 1,
+                next_attempt_at = excluded.next_attempt_at, last_error = NULL
+            RETURNING version
+            """;
+
+    private static final String SELECT_DUE = """
+            SELECT id, version, type, recipient, subject, body, attempts, created_at FROM email_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at ASC, id ASC LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+
+    /** Eine offene Mail aus dem Postausgang */
+    public record OutboxMail(long id, int version, String type, String recipient, String subject, String body,
+                             int attempts, LocalDateTime createdAt) {}
+
+    public EmailOutboxRepository(JdbcTemplate jdbcTemplate, @Qualifier("readDataSource") DataSource readDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+    }
+
+    /**
+     * Reiht eine Mail ein. Existiert bereits eine offene Mail mit demselben Schlüssel, wird sie ersetzt.
+     * Einfügen und Ersetzen erfolgen atomar, sodass parallele Anfragen keine doppelte offene Mail erzeugen.
+     *
+     * @return true, falls eine offene Mail ersetzt wurde (Deduplizierung)
+     */
+    public boolean enqueue(String type, String recipient, String dedupKey, String subject, String body, LocalDateTime now) {
+        String timestamp = now.format(DateTimeConverter.FORMATTER);
+
+        Integer version = jdbcTemplate.queryForObject(UPSERT, Integer.class,
+                type, recipient, dedupKey, subject, body, timestamp, timestamp);
+
+        // Neue Mails starten mit Version 0, ersetzte wurden hochgezählt
+        return version != null && version > 0;
+    }
+
+    /** Fällige Mails, älteste zuerst */
+    public List<OutboxMail> findDue(LocalDateTime now, int limit) {
+        return readJdbcTemplate.query(SELECT_DUE, (rs, rowNum) -> new OutboxMail(
+                rs.getLong("id"),
+                rs.getInt("version"),
+                rs.getString("type"),
+                rs.getString("recipient"),
+                rs.getString("subject"),
+                rs.getString("body"),
+                rs.getInt("attempts"),
+                LocalDateTime.parse(rs.getString("created_at"), DateTimeConverter.FORMATTER)
+        ), now.format(DateTimeConverter.FORMATTER), limit);
+    }
+
+    public long countPending() {
+        Long count = readJdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE status = ?", Long.class, PENDING);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Versendete Mails werden entfernt (keine Verifizierungscodes im Klartext aufbewahren).
+     * Wurde eine Mail während des Versands ersetzt (neue Version), bleibt sie für den nächsten Durchlauf erhalten.
+     */
+    public void deleteSent(List<OutboxMail> mails) {
+        if (mails.isEmpty()) { return; }
+
+        jdbcTemplate.batchUpdate("DELETE FROM email_outbox WHERE id = ? AND version = ?", mails, mails.size(), (ps, mail) -> {
+            ps.setLong(1, mail.id());
+            ps.setInt(2, mail.version());
+        });
+    }
+
+    /** Erneuter Versuch zu einem späteren Zeitpunkt */
+    public void scheduleRetry(OutboxMail mail, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update("UPDATE email_outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ? AND version = ?",
+                mail.attempts() + 1, nextAttemptAt.format(DateTimeConverter.FORMATTER), error, mail.id(), mail.version());
+    }
+
+    /** Endgültig fehlgeschlagen: Mail bleibt zur Analyse erhalten, der Text wird geleert */
+    public void markFailed(OutboxMail mail, String error) {
+        jdbcTemplate.update("UPDATE email_outbox SET status = ?, attempts = ?, body = '', last_error = ? WHERE id = ? AND version = ?",
+                FAILED, mail.attempts() + 1, error, mail.id(), mail.version());
+    }
+}
@@ -1,103 +1,86 @@
 package eco.backend.main_app.feature.auth;
 
+import eco.backend.main_app.core.exception.GenericException;
 import eco.backend.main_app.utils.AppConstants;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Reiht E-Mails im persistenten Postausgang ein. Der Versand erfolgt gebündelt durch den EmailOutboxDispatcher,
+ * sodass Anfragen nicht auf den SMTP-Server warten und Mails bei Fehlern oder Neustarts nicht verloren gehen.
+ */
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
-    private final JavaMailSender mailSender;
-
-    // Liest den Absender aus application.properties
-    @Value("${app.email.sender}")
-    private String senderAddress;
-
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
+    private final long capacity;
+
+    public EmailService(EmailOutboxRepository outboxRepository,
+                        EmailOutboxDispatcher dispatcher,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.email.outbox.capacity:10000}") long capacity) {
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
+        this.meterRegistry = meterRegistry;
+        this.capacity = capacity;
     }
 
     /**
-     * Sendet eine Verifizierungs E-Mail über den konfigurierten SMTP Server.
+     * Reiht eine Verifizierungs E-Mail ein. Ein erneut angeforderter Code ersetzt eine noch nicht versendete Mail.
      */
-    @Async
     public void sendVerificationEmail(String name, String toEmail, String tfaCode, String text) {
-        try {
-            logger.debug("Sende Verifizierungs-E-Mail an {} ...", toEmail);
-            SimpleMailMessage message = getVerificationMailMessage(name, toEmail, tfaCode, text);
-
-            mailSender.send(message);
-            logger.debug("Verifizierungs-E-Mail an {} wurde erfolgreich gesendet.", toEmail);
-
-        } catch (Exception e) {
-            logger.error("Fehler beim Senden der Verifizierungs-E-Mail an {}: {}", toEmail, e.getMessage());
-        }
+        enqueue("verification", toEmail, "Dein Verifizierungscode", text.formatted(name, tfaCode));
     }
 
-    @Async
     public void sendUserStatusEmail(String name, String toEmail, Boolean isEnabled) {
-        try {
-            logger.debug("Sende Status E-Mail an {} ...", toEmail);
-            SimpleMailMessage message = getUserStatusMailMessage(name, toEmail, isEnabled ? "aktiviert" : "deaktiviert");
-
-            mailSender.send(message);
-            logger.debug("Status E-Mail an {} wurde erfolgreich gesendet.", toEmail);
-
-        } catch (Exception e) {
-            logger.error("Fehler beim Senden der Status E-Mail an {}: {}", toEmail, e.getMessage());
-        }
+        enqueue("status", toEmail, "Dein Profilstatus wurde durch den Admin geändert.",
+                AppConstants.TEXT_USER_STATUS_CHANGED_BY_ADMIN.formatted(name, isEnabled ? "aktiviert" : "deaktiviert"));
     }
 
-    @Async
     public void sendUserRemovedEmail(String name, String toEmail) {
-        try {
-            logger.debug("Sende E-Mail an {} ...", toEmail);
-            SimpleMailMessage message = getUserRemovedMailMessage(name, toEmail);
-
-            mailSender.send(message);
-            logger.debug("E-Mail an {} wurde erfolgreich gesendet.", toEmail);
-
-        } catch (Exception e) {
-            logger.error("Fehler beim Senden der E-Mail an {}: {}", toEmail, e.getMessage());
-        }
+        enqueue("removed", toEmail, "Dein Profil wurde durch den Admin gelöscht.",
+                AppConstants.TEXT_USER_REMOVED_BY_ADMIN.formatted(name));
     }
 
-    private SimpleMailMessage getUserStatusMailMessage(String name, String toEmail, String status) {
-        SimpleMailMessage message = new SimpleMailMessage();
-
-        message.setFrom(senderAddress);
-        message.setTo(toEmail);
-        message.setSubject("Dein Profilstatus wurde durch den Admin geändert.");
-        message.setText(AppConstants.TEXT_USER_STATUS_CHANGED_BY_ADMIN.formatted(name, status));
-
-        return message;
-    }
-
-    private SimpleMailMessage getVerificationMailMessage(String name, String toEmail, String tfaCode, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-
-        message.setFrom(senderAddress);
-        message.setTo(toEmail);
-        message.setSubject("Dein Verifizierungscode");
-        message.setText(text.formatted(name, tfaCode));
-
-        return message;
-    }
-
-    private SimpleMailMessage getUserRemovedMailMessage(String name, String toEmail) {
-        SimpleMailMessage message = new SimpleMailMessage();
+    /**
+     * Hilfsmethode: Reiht die Mail in der laufenden Transaktion ein und weckt den Versand nach dem Commit.
+     * Ist der Postausgang voll, wird die Anfrage abgelehnt (Backpressure statt unbegrenzt wachsender Warteschlange).
+     */
+    private void enqueue(String type, String toEmail, String subject, String text) {
+        if (outboxRepository.countPending() >= capacity) {
+            meterRegistry.counter("eco.email.outbox.rejected", "type", type).increment();
+            logger.warn("E-Mail-Postausgang voll ({} offene Mails), E-Mail an {} abgelehnt.", capacity, toEmail);
+            throw new GenericException("E-Mail-Versand ist derzeit ausgelastet. Bitte später erneut versuchen.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
 
-        message.setFrom(senderAddress);
-        message.setTo(toEmail);
-        message.setSubject("Dein Profil wurde durch den Admin gelöscht.");
-        message.setText(AppConstants.TEXT_USER_REMOVED_BY_ADMIN.formatted(name));
+        String dedupKey = type + ":" + toEmail.toLowerCase(Locale.ROOT);
+        if (outboxRepository.enqueue(type, toEmail, dedupKey, subject, text, LocalDateTime.now())) {
+            meterRegistry.counter("eco.email.outbox.deduplicated", "type", type).increment();
+            logger.debug("Offene E-Mail ({}) an {} wurde ersetzt.", type, toEmail);
+        } else {
+            logger.debug("E-Mail ({}) an {} eingereiht.", type, toEmail);
+        }
 
-        return message;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { dispatcher.wakeUp(); }
+            });
+        } else {
+            dispatcher.wakeUp();
+        }
     }
 }
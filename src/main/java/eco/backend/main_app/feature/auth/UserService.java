@@ -1,13 +1,18 @@
 package eco.backend.main_app.feature.auth;
 
 import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.core.security.PrincipalCache;
 import eco.backend.main_app.feature.auth.admin.dto.ListUserRequest;
 import eco.backend.main_app.feature.auth.model.UserEntity;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,14 +20,16 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
-    public UserService(UserRepository userRepository, EmailService emailService) {
+    public UserService(UserRepository userRepository, EmailService emailService, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.emailService = emailService;
+        this.principalCache = principalCache;
     }
 
     // Diese Methode wird von Spring Security aufgerufen beim Login
@@ -32,12 +39,34 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Account nicht gefunden."));
     }
 
-    // Hilfsmethode für eigene Services
+    // Wird beim Login aufgerufen, wenn der gespeicherte Hash einen veralteten Kostenfaktor hat (neuer Hash bereits berechnet)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity entity = (UserEntity) user;
+        entity.setPassword(newPassword);
+
+        logger.debug("Passwort-Hash von {} wurde mit aktuellem Kostenfaktor neu berechnet.", entity.getUsername());
+        principalCache.invalidate(entity.getUsername());
+        return userRepository.save(entity);
+    }
+
+    // Hilfsmethode für eigene Services: Lädt den User aus der DB (verwaltete Entity, für alle Schreibzugriffe)
     public UserEntity findUserByName(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new GenericException("Account nicht gefunden.", HttpStatus.NOT_FOUND));
     }
 
+    // Hilfsmethode für Lesezugriffe: Nutzt den bereits authentifizierten User aus dem SecurityContext (keine DB-Abfrage)
+    public AuthenticatedUser findPrincipalByName(String username) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal && principal.username().equals(username)) {
+            return principal;
+        }
+
+        return AuthenticatedUser.of(findUserByName(username));
+    }
+
     public UserEntity findUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new GenericException("Account nicht gefunden.", HttpStatus.NOT_FOUND));
@@ -59,6 +88,7 @@ public class UserService implements UserDetailsService {
             emailService.sendUserRemovedEmail(user.getUsername(), user.getEmail());
         }
         userRepository.deleteById(userId);
+        principalCache.invalidate(user.getUsername());
     }
 
     @Transactional
@@ -75,6 +105,7 @@ public class UserService implements UserDetailsService {
 
         user.setEnabled(enabled);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
     }
 
     public boolean isAdmin(Long userId) {
@@ -102,7 +133,11 @@ public class UserService implements UserDetailsService {
     }
 
     public boolean hasValidStatus(UserEntity user){
+        return hasValidStatus(AuthenticatedUser.of(user));
+    }
+
+    public boolean hasValidStatus(AuthenticatedUser user){
         logger.debug("Prüfe Accountstatus... ");
-        return ((user.getIsEnabled() && user.getIsValidatedEmail()) || isAdmin(user.getId()));
+        return ((user.enabled() && user.validatedEmail()) || "ADMIN".equals(user.role()));
     }
 }
@@ -6,6 +6,8 @@ import eco.backend.main_app.feature.auth.admin.dto.ListUserRequest;
 import eco.backend.main_app.feature.auth.admin.dto.UpdatePasswordRequest;
 import eco.backend.main_app.feature.auth.admin.dto.UserStatusRequest;
 import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.FleetRecomputeService;
+import eco.backend.main_app.feature.calculation.dto.RecomputeRunDto;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,10 +26,12 @@ public class AdminController {
 
     private final UserService userService;
     private final AuthService authService;
+    private final FleetRecomputeService recomputeService;
 
-    public AdminController(UserService userService, AuthService authService) {
+    public AdminController(UserService userService, AuthService authService, FleetRecomputeService recomputeService) {
         this.userService = userService;
         this.authService = authService;
+        this.recomputeService = recomputeService;
     }
 
     // User entfernen
@@ -72,4 +76,28 @@ public class AdminController {
         authService.updateAdminPassword(userDetails.getUsername(), dto);
         return ResponseEntity.ok(Map.of("message", "Admin Passwort wurde erfolgreich geändert."));
     }
+
+    /**
+     * POST /api/admin/recompute: Startet die Neuberechnung der gespeicherten Ergebnisse aller User (202)
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<RecomputeRunDto> startRecompute() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(recomputeService.start("ADMIN"));
+    }
+
+    /**
+     * GET /api/admin/recompute: Fortschritt, Durchsatz und geschätzte Restdauer des aktuellen bzw. letzten Laufs
+     */
+    @GetMapping("/recompute")
+    public ResponseEntity<RecomputeRunDto> getRecomputeStatus() {
+        return ResponseEntity.ok(recomputeService.status());
+    }
+
+    /**
+     * DELETE /api/admin/recompute: Bricht den laufenden Lauf ab
+     */
+    @DeleteMapping("/recompute")
+    public ResponseEntity<RecomputeRunDto> cancelRecompute() {
+        return ResponseEntity.ok(recomputeService.cancel());
+    }
 }
@@ -0,0 +1,206 @@
+package eco.backend.main_app.feature.backup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Inhaltsadressierter Speicher für differenzielle Backups.
+ * Ein Snapshot wird in Blöcke fester Größe (Vielfaches der SQLite-Seitengröße) zerlegt. Jeder Block wird über
+ * seinen SHA-256-Hash abgelegt; bereits vorhandene Blöcke werden nicht erneut geschrieben. Pro Snapshot entsteht
+ * ein Manifest mit der Liste der Block-Hashes, aus dem der Snapshot jederzeit wiederhergestellt werden kann.
+ * Unveränderte Seiten gegenüber früheren Snapshots kosten damit nur einen Hash-Vergleich, aber keinen Schreibzugriff.
+ * <p>
+ * Bewusst ohne Spring-Abhängigkeiten, damit das BackupRestoreTool die Klasse eigenständig nutzen kann.
+ */
+public class BackupChunkStore {
+
+    public static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String MANIFEST_VERSION = "eco-backup-manifest 1";
+
+    private final Path chunkDirectory;
+    private final int chunkSize;
+
+    /** Inhalt eines Manifests: Dateigröße, Blockgröße, Hash der Gesamtdatei und Block-Hashes in Reihenfolge */
+    public record Manifest(long size, int chunkSize, String sha256, List<String> chunks) {}
+
+    /** Ergebnis eines Snapshots: Anzahl Blöcke und davon neu geschriebene Blöcke/Bytes */
+    public record StoreResult(int chunks, int newChunks, long bytesWritten) {}
+
+    public BackupChunkStore(Path chunkDirectory, int chunkSize) {
+        this.chunkDirectory = chunkDirectory;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Zerlegt den Snapshot in Blöcke, legt neue Blöcke ab und schreibt das Manifest (als letzten Schritt, atomar).
+     *
+     * @param snapshot Unkomprimierte Datenbankdatei
+     * @param manifestFile Zieldatei des Manifests
+     */
+    public StoreResult store(Path snapshot, Path manifestFile) throws IOException {
+        Files.createDirectories(chunkDirectory);
+
+        MessageDigest fileDigest = sha256();
+        List<String> chunks = new ArrayList<>();
+        int newChunks = 0;
+        long bytesWritten = 0;
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            while (readFully(channel, buffer) > 0) {
+                byte[] chunk = Arrays.copyOf(buffer.array(), buffer.position());
+                fileDigest.update(chunk);
+
+                String hash = HexFormat.of().formatHex(sha256().digest(chunk));
+                chunks.add(hash);
+
+                Path chunkFile = chunkPath(hash);
+                if (!Files.exists(chunkFile)) {
+                    bytesWritten += writeChunk(chunk, chunkFile);
+                    newChunks++;
+                }
+                buffer.clear();
+            }
+        }
+
+        Manifest manifest = new Manifest(Files.size(snapshot), chunkSize, HexFormat.of().formatHex(fileDigest.digest()), chunks);
+        writeManifest(manifest, manifestFile);
+        return new StoreResult(chunks.size(), newChunks, bytesWritten);
+    }
+
+    /**
+     * Baut den Snapshot eines Manifests aus den Blöcken wieder auf und prüft den Hash der Gesamtdatei.
+     *
+     * @throws IOException Falls Blöcke fehlen oder der Hash nicht übereinstimmt
+     */
+    public void restore(Path manifestFile, Path target) throws IOException {
+        Manifest manifest = readManifest(manifestFile);
+        MessageDigest fileDigest = sha256();
+
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (String hash : manifest.chunks()) {
+                Path chunkFile = chunkPath(hash);
+                if (!Files.exists(chunkFile)) {
+                    throw new IOException("Block " + hash + " fehlt im Backup-Speicher.");
+                }
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(chunkFile))) {
+                    byte[] chunk = in.readAllBytes();
+                    fileDigest.update(chunk);
+                    out.write(chunk);
+                }
+            }
+        }
+
+        String actual = HexFormat.of().formatHex(fileDigest.digest());
+        if (!actual.equals(manifest.sha256()) || Files.size(target) != manifest.size()) {
+            throw new IOException("Wiederhergestellte Datei stimmt nicht mit dem Manifest " + manifestFile.getFileName() + " überein.");
+        }
+    }
+
+    /**
+     * Entfernt alle Blöcke, die von keinem der übergebenen Manifeste mehr referenziert werden.
+     *
+     * @return Anzahl gelöschter Blöcke
+     */
+    public int removeUnreferenced(List<Path> manifestFiles) throws IOException {
+        if (!Files.isDirectory(chunkDirectory)) { return 0; }
+
+        Set<String> referenced = new HashSet<>();
+        for (Path manifestFile : manifestFiles) {
+            referenced.addAll(readManifest(manifestFile).chunks());
+        }
+
+        int removed = 0;
+        try (Stream<Path> files = Files.walk(chunkDirectory)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                String hash = file.getFileName().toString().replace(".gz", "");
+                if (!referenced.contains(hash)) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    public static Manifest readManifest(Path manifestFile) throws IOException {
+        List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.US_ASCII);
+        if (lines.size() < 4 || !lines.get(0).equals(MANIFEST_VERSION)) {
+            throw new IOException("Ungültiges Manifest: " + manifestFile.getFileName());
+        }
+
+        long size = Long.parseLong(value(lines.get(1), "size"));
+        int chunkSize = Integer.parseInt(value(lines.get(2), "chunk-size"));
+        String sha256 = value(lines.get(3), "sha256");
+        return new Manifest(size, chunkSize, sha256, List.copyOf(lines.subList(4, lines.size())));
+    }
+
+    private static void writeManifest(Manifest manifest, Path manifestFile) throws IOException {
+        List<String> lines = new ArrayList<>(manifest.chunks().size() + 4);
+        lines.add(MANIFEST_VERSION);
+        lines.add("size " + manifest.size());
+        lines.add("chunk-size " + manifest.chunkSize());
+        lines.add("sha256 " + manifest.sha256());
+        lines.addAll(manifest.chunks());
+
+        Path temp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        Files.write(temp, lines, StandardCharsets.US_ASCII);
+        Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Hilfsmethode: Schreibt einen Block komprimiert (erst temporär, dann atomar verschieben) */
+    private static long writeChunk(byte[] chunk, Path chunkFile) throws IOException {
+        Files.createDirectories(chunkFile.getParent());
+        Path temp = chunkFile.resolveSibling(chunkFile.getFileName() + ".tmp");
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            out.write(chunk);
+        }
+        Files.move(temp, chunkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(chunkFile);
+    }
+
+    /** Blöcke werden nach den ersten zwei Hex-Zeichen auf Unterordner verteilt */
+    private Path chunkPath(String hash) {
+        return chunkDirectory.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) { break; }
+        }
+        return buffer.position();
+    }
+
+    private static String value(String line, String key) throws IOException {
+        if (!line.startsWith(key + " ")) { throw new IOException("Manifest-Feld '" + key + "' fehlt."); }
+        return line.substring(key.length() + 1);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package eco.backend.main_app.feature.backup;
+
+import org.sqlite.SQLiteConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Wiederherstellung eines Backups ohne laufende Anwendung.
+ * Unterstützt vollständige Backups (.db.gz) und differenzielle Backups (.manifest + Blöcke im Ordner 'chunks').
+ * Die wiederhergestellte Datei wird per PRAGMA integrity_check geprüft; eine bestehende Zieldatei wird nie überschrieben.
+ * <p>
+ * Aufruf: ./gradlew restoreBackup -Pbackup=&lt;Zeitstempel|latest|list&gt; -Ptarget=&lt;Zieldatei&gt; [-PbackupDir=database/backups]
+ */
+public final class BackupRestoreTool {
+
+    private static final String FILE_PREFIX = "eco_app_backup_";
+
+    private BackupRestoreTool() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Aufruf: BackupRestoreTool <Backup-Ordner> <Zeitstempel|latest|list> [Zieldatei]");
+            System.exit(1);
+        }
+
+        Path backupDirectory = Path.of(args[0]);
+        List<Path> backups = listBackups(backupDirectory);
+
+        if (args[1].equals("list")) {
+            backups.forEach(backup -> System.out.println(backup.getFileName()));
+            return;
+        }
+        if (args.length < 3) {
+            System.err.println("Zieldatei fehlt.");
+            System.exit(1);
+        }
+
+        Path backupFile = select(backups, args[1]);
+        Path target = Path.of(args[2]);
+        if (Files.exists(target)) {
+            System.err.println("Zieldatei " + target + " existiert bereits und wird nicht überschrieben.");
+            System.exit(1);
+        }
+
+        restore(backupFile, target);
+        List<String> problems = integrityCheck(target);
+        if (!isOk(problems)) {
+            System.err.println("Integritätsprüfung fehlgeschlagen: " + problems);
+            System.exit(2);
+        }
+        System.out.println("Backup " + backupFile.getFileName() + " wiederhergestellt nach " + target.toAbsolutePath());
+    }
+
+    /**
+     * Stellt ein Backup (gzip-Datei oder Manifest) als Datenbankdatei wieder her.
+     *
+     * @param backupFile Backup-Datei im Backup-Ordner
+     * @param target Zieldatei (wird überschrieben)
+     */
+    public static void restore(Path backupFile, Path target) throws IOException {
+        if (backupFile.getFileName().toString().endsWith(BackupChunkStore.MANIFEST_SUFFIX)) {
+            BackupChunkStore.Manifest manifest = BackupChunkStore.readManifest(backupFile);
+            new BackupChunkStore(backupFile.resolveSibling("chunks"), manifest.chunkSize()).restore(backupFile, target);
+            return;
+        }
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(backupFile), 64 * 1024)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Führt PRAGMA integrity_check auf der Datei aus (Ergebnis "ok" bei intakter Datenbank) */
+    public static List<String> integrityCheck(Path databaseFile) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+
+        List<String> result = new ArrayList<>();
+        try (Connection connection = config.createConnection("jdbc:sqlite:" + databaseFile);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA integrity_check")) {
+            while (rs.next()) { result.add(rs.getString(1)); }
+        }
+        return result;
+    }
+
+    public static boolean isOk(List<String> integrityCheckResult) {
+        return integrityCheckResult.size() == 1 && "ok".equals(integrityCheckResult.get(0));
+    }
+
+    /** Alle wiederherstellbaren Backups, ältestes zuerst (der Zeitstempel im Namen sortiert lexikographisch) */
+    private static List<Path> listBackups(Path backupDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX)
+                                && (name.endsWith(".db.gz") || name.endsWith(BackupChunkStore.MANIFEST_SUFFIX));
+                    })
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private static Path select(List<Path> backups, String timestamp) {
+        if (backups.isEmpty()) { throw new IllegalArgumentException("Keine Backups gefunden."); }
+        if (timestamp.equals("latest")) { return backups.get(backups.size() - 1); }
+
+        return backups.stream()
+                .filter(backup -> backup.getFileName().toString().startsWith(FILE_PREFIX + timestamp + "."))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Kein Backup mit Zeitstempel " + timestamp + " gefunden."));
+    }
+}
@@ -0,0 +1,67 @@
+package eco.backend.main_app.feature.backup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Aufbewahrung nach dem Generationenprinzip (täglich/wöchentlich/monatlich).
+ * Behalten wird jeweils das neueste Backup der letzten N Tage, Wochen und Monate;
+ * ein Backup kann mehrere Stufen gleichzeitig abdecken. Alle übrigen Backups werden gelöscht.
+ */
+@Component
+public class BackupRetentionPolicy {
+
+    private final int keepDaily;
+    private final int keepWeekly;
+    private final int keepMonthly;
+
+    /** Ein vorhandenes Backup mit seinem Erstellungszeitpunkt */
+    public record BackupFile(Path path, LocalDateTime createdAt) {}
+
+    public BackupRetentionPolicy(@Value("${app.backup.retention.daily:7}") int keepDaily,
+                                 @Value("${app.backup.retention.weekly:4}") int keepWeekly,
+                                 @Value("${app.backup.retention.monthly:12}") int keepMonthly) {
+        this.keepDaily = keepDaily;
+        this.keepWeekly = keepWeekly;
+        this.keepMonthly = keepMonthly;
+    }
+
+    /**
+     * Ermittelt die zu löschenden Backups.
+     *
+     * @param backups Alle vorhandenen Backups (beliebige Reihenfolge)
+     * @return Backups, die von keiner Stufe mehr benötigt werden
+     */
+    public List<BackupFile> selectExpired(List<BackupFile> backups) {
+        List<BackupFile> newestFirst = new ArrayList<>(backups);
+        newestFirst.sort(Comparator.comparing(BackupFile::createdAt).reversed());
+
+        Set<BackupFile> keep = new HashSet<>();
+        keepNewestPerBucket(newestFirst, keepDaily, b -> b.createdAt().toLocalDate(), keep);
+        keepNewestPerBucket(newestFirst, keepWeekly,
+                b -> b.createdAt().get(IsoFields.WEEK_BASED_YEAR) * 100 + b.createdAt().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), keep);
+        keepNewestPerBucket(newestFirst, keepMonthly, b -> b.createdAt().getYear() * 100 + b.createdAt().getMonthValue(), keep);
+
+        return newestFirst.stream().filter(b -> !keep.contains(b)).toList();
+    }
+
+    /** Hilfsmethode: Behält das neueste Backup der ersten 'limit' Zeiträume (Tag, Woche oder Monat) */
+    private static void keepNewestPerBucket(List<BackupFile> newestFirst, int limit,
+                                            Function<BackupFile, Object> bucketOf, Set<BackupFile> keep) {
+        Set<Object> buckets = new HashSet<>();
+        for (BackupFile backup : newestFirst) {
+            if (buckets.size() >= limit) { return; }
+            if (buckets.add(bucketOf.apply(backup))) { keep.add(backup); }
+        }
+    }
+}
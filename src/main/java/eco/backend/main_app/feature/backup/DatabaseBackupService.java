@@ -1,45 +1,233 @@
 package eco.backend.main_app.feature.backup;
 
+import eco.backend.main_app.feature.backup.BackupRetentionPolicy.BackupFile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Online-Backups der SQLite-Datenbank.
+ * <ol>
+ *     <li>Snapshot über die SQLite-Backup-API (seitenweise, Schreiber laufen im WAL-Modus weiter)</li>
+ *     <li>Modus 'full': Komprimierung als gzip-Stream;
+ *         Modus 'differential': nur geänderte Blöcke im BackupChunkStore ablegen, dazu ein Manifest</li>
+ *     <li>Prüfung: Backup wiederherstellen, öffnen und PRAGMA integrity_check ausführen</li>
+ *     <li>Aufbewahrung nach BackupRetentionPolicy (nicht mehr referenzierte Blöcke werden entfernt)</li>
+ * </ol>
+ */
 @Service
 public class DatabaseBackupService {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseBackupService.class);
 
-    // Jeden Tag um 03:00 Uhr nachts ausführen
-    @Scheduled(cron = "0 0 3 * * ?")
-    public void backupDatabase() {
-        try {
-            Path sourceFile = Path.of("database/eco_app.db");
+    private static final String FILE_PREFIX = "eco_app_backup_";
+    private static final String FILE_SUFFIX = ".db.gz";
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
+    // Erfasst auch unkomprimierte Kopien aus älteren Versionen, damit sie der Aufbewahrung unterliegen
+    private static final Pattern BACKUP_FILE =
+            Pattern.compile(FILE_PREFIX + "(\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2})(\\.db|\\.db\\.gz|\\.manifest)");
+    private static final int BUSY_RETRIES = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-            if (!Files.exists(sourceFile)) {
-                logger.warn("Kein Backup erstellt: Die Datenbankdatei '{}' existiert nicht.", sourceFile.toAbsolutePath());
-                return;
-            }
+    private final DataSource readDataSource;
+    private final BackupRetentionPolicy retentionPolicy;
+    private final MeterRegistry meterRegistry;
+    private final Path backupDirectory;
+    private final int pagesPerStep;
+    private final int stepSleepMs;
+    private final boolean differential;
+    private final BackupChunkStore chunkStore;
+
+    private final DistributionSummary rawSize;
+    private final DistributionSummary compressedSize;
+    private final DistributionSummary deltaSize;
+
+    public DatabaseBackupService(@Qualifier("readDataSource") DataSource readDataSource,
+                                 BackupRetentionPolicy retentionPolicy,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.backup.directory:database/backups}") Path backupDirectory,
+                                 @Value("${app.backup.pages-per-step:256}") int pagesPerStep,
+                                 @Value("${app.backup.step-sleep-ms:10}") int stepSleepMs,
+                                 @Value("${app.backup.mode:differential}") String mode,
+                                 @Value("${app.backup.differential.chunk-size-kib:64}") int chunkSizeKib) {
+        this.readDataSource = readDataSource;
+        this.retentionPolicy = retentionPolicy;
+        this.meterRegistry = meterRegistry;
+        this.backupDirectory = backupDirectory;
+        this.pagesPerStep = pagesPerStep;
+        this.stepSleepMs = stepSleepMs;
+        this.differential = mode.equalsIgnoreCase("differential");
+        this.chunkStore = new BackupChunkStore(backupDirectory.resolve("chunks"), chunkSizeKib * 1024);
 
+        this.rawSize = backupSize(meterRegistry, "raw");
+        this.compressedSize = backupSize(meterRegistry, "gzip");
+        this.deltaSize = backupSize(meterRegistry, "delta");
+    }
+
+    // Standard: Jeden Tag um 03:00 Uhr nachts ausführen
+    @Scheduled(cron = "${app.backup.cron:0 0 3 * * ?}")
+    public void backupDatabase() throws InterruptedException {
+        // Die Backup-API läuft mitsamt Pausen vollständig im nativen Treiber und würde einen virtuellen Thread
+        // (Scheduler mit spring.threads.virtual.enabled) für die gesamte Dauer an seinen Träger-Thread binden
+        Thread.ofPlatform().name("db-backup").start(this::createBackup).join();
+    }
+
+    private void createBackup() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+
+        try {
             // Zeitstempel generieren (z.B. 2026-03-14_03-00)
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm"));
-            Path backupFile = Path.of("database/backups/eco_app_backup_" + timestamp + ".db");
+            String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+            Path backupFile = backupDirectory.resolve(FILE_PREFIX + timestamp
+                    + (differential ? BackupChunkStore.MANIFEST_SUFFIX : FILE_SUFFIX));
 
             // Backup-Ordner anlegen, falls er nicht existiert
-            Files.createDirectories(backupFile.getParent());
+            Files.createDirectories(backupDirectory);
 
-            // Datei kopieren
-            Files.copy(sourceFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
+            Path snapshot = Files.createTempFile(backupDirectory, "snapshot-", ".tmp");
+            try {
+                createSnapshot(snapshot);
+                rawSize.record(Files.size(snapshot));
 
-            logger.info("Backup erfolgreich erstellt: {} ", backupFile.getFileName());
+                if (differential) {
+                    storeDelta(snapshot, backupFile);
+                } else {
+                    compress(snapshot, backupFile);
+                    compressedSize.record(Files.size(backupFile));
+                }
+            } finally {
+                Files.deleteIfExists(snapshot);
+            }
+
+            if (!verify(backupFile)) {
+                Files.deleteIfExists(backupFile);
+                outcome = "corrupt";
+                logger.error("Backup {} hat die Integritätsprüfung nicht bestanden und wurde verworfen.", backupFile.getFileName());
+                return;
+            }
+
+            outcome = "success";
+            logger.info("Backup erfolgreich erstellt und geprüft: {} ", backupFile.getFileName());
+
+            applyRetention();
 
         } catch (Exception e) {
-            System.err.println("Fehler beim Datenbank-Backup: " + e.getMessage());
+            logger.error("Fehler beim Datenbank-Backup: {}", e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("eco.backup.duration", "outcome", outcome));
+        }
+    }
+
+    /** Hilfsmethode: Kopiert die laufende Datenbank seitenweise über die Backup-API in eine Datei */
+    private void createSnapshot(Path snapshot) throws SQLException {
+        try (Connection connection = readDataSource.getConnection()) {
+            int result = connection.unwrap(SQLiteConnection.class).getDatabase().backup("main", snapshot.toString(),
+                    (remaining, pageCount) -> logger.trace("Backup: {} von {} Seiten verbleibend.", remaining, pageCount),
+                    stepSleepMs, BUSY_RETRIES, pagesPerStep);
+
+            if (result != 0) {
+                throw new SQLException("SQLite-Backup fehlgeschlagen (Code " + result + ").");
+            }
         }
+
+        // Snapshot als eigenständige Datei ohne -wal/-shm speichern
+        try (Connection connection = new SQLiteConfig().createConnection("jdbc:sqlite:" + snapshot);
+             Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=DELETE");
+        }
+    }
+
+    /** Hilfsmethode: Legt nur die seit früheren Snapshots geänderten Blöcke ab */
+    private void storeDelta(Path snapshot, Path manifestFile) throws IOException {
+        BackupChunkStore.StoreResult result = chunkStore.store(snapshot, manifestFile);
+
+        deltaSize.record(result.bytesWritten());
+        meterRegistry.counter("eco.backup.chunks", "state", "new").increment(result.newChunks());
+        meterRegistry.counter("eco.backup.chunks", "state", "reused").increment(result.chunks() - result.newChunks());
+        logger.info("Differenzielles Backup: {} von {} Blöcken neu ({} Bytes geschrieben).",
+                result.newChunks(), result.chunks(), result.bytesWritten());
+    }
+
+    /** Hilfsmethode: Stellt das Backup in einer temporären Datei wieder her und prüft dessen Integrität */
+    private boolean verify(Path backupFile) throws IOException, SQLException {
+        Path restored = Files.createTempFile(backupDirectory, "verify-", ".tmp");
+        try {
+            BackupRestoreTool.restore(backupFile, restored);
+            List<String> problems = BackupRestoreTool.integrityCheck(restored);
+
+            boolean ok = BackupRestoreTool.isOk(problems);
+            meterRegistry.counter("eco.backup.verification", "outcome", ok ? "ok" : "failed").increment();
+            if (!ok) { logger.error("Integritätsprüfung von {}: {}", backupFile.getFileName(), problems); }
+            return ok;
+        } finally {
+            Files.deleteIfExists(restored);
+        }
+    }
+
+    /** Hilfsmethode: Löscht Backups, die von keiner Aufbewahrungsstufe mehr benötigt werden */
+    private void applyRetention() throws IOException {
+        List<BackupFile> backups = new ArrayList<>();
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            files.forEach(file -> {
+                Matcher matcher = BACKUP_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    backups.add(new BackupFile(file, LocalDateTime.parse(matcher.group(1), TIMESTAMP_FORMATTER)));
+                }
+            });
+        }
+
+        for (BackupFile expired : retentionPolicy.selectExpired(backups)) {
+            Files.deleteIfExists(expired.path());
+            meterRegistry.counter("eco.backup.deleted").increment();
+            logger.info("Altes Backup gelöscht: {}", expired.path().getFileName());
+        }
+
+        // Blöcke entfernen, die kein verbliebenes Manifest mehr benötigt
+        List<Path> manifests;
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            manifests = files.filter(file -> file.getFileName().toString().endsWith(BackupChunkStore.MANIFEST_SUFFIX)).toList();
+        }
+        int removedChunks = chunkStore.removeUnreferenced(manifests);
+        if (removedChunks > 0) { logger.info("{} nicht mehr benötigte Backup-Blöcke entfernt.", removedChunks); }
+    }
+
+    private static void compress(Path source, Path target) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            Files.copy(source, out);
+        }
+    }
+
+    private static DistributionSummary backupSize(MeterRegistry meterRegistry, String format) {
+        return DistributionSummary.builder("eco.backup.size")
+                .description("Größe der erstellten Backups")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .register(meterRegistry);
     }
 }
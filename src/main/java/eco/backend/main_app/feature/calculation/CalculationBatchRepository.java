@@ -0,0 +1,126 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk-Zugriff auf 'calculated_results' über JDBC-Batching.
+ * Ersetzt das zeilenweise SELECT + INSERT/UPDATE über JPA (2N Round-Trips) durch
+ * ein einmaliges Laden und einen gebündelten Upsert auf den eindeutigen Index idx_results_user_period.
+ */
+@Repository
+public class CalculationBatchRepository {
+
+    private static final String SELECT_BY_USER = """
+            SELECT id, period_start, period_end, days_period, payments_period, total_costs_period,
+                   cost_diff_period, sum_used_energy, used_energy_per_day
+            FROM calculated_results WHERE user_id = ?
+            """;
+
+    private static final String UPSERT = """
+            INSERT INTO calculated_results (period_start, period_end, days_period, payments_period, total_costs_period,
+                                            cost_diff_period, sum_used_energy, used_energy_per_day, user_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(user_id, period_end) DO UPDATE SET
+                period_start        = excluded.period_start,
+                days_period         = excluded.days_period,
+                payments_period     = excluded.payments_period,
+                total_costs_period  = excluded.total_costs_period,
+                cost_diff_period    = excluded.cost_diff_period,
+                sum_used_energy     = excluded.sum_used_energy,
+                used_energy_per_day = excluded.used_energy_per_day
+            """;
+
+    private static final String DELETE_BY_PERIOD_END = "DELETE FROM calculated_results WHERE user_id = ? AND period_end = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CalculationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Gespeicherter Datensatz (ohne Entity-Overhead) */
+    public record ResultRow(LocalDateTime periodStart,
+                            LocalDateTime periodEnd,
+                            long daysPeriod,
+                            double paidAmountPeriod,
+                            double totalCostsPeriod,
+                            double costDiffPeriod,
+                            double sumUsedEnergy,
+                            double usedEnergyPerDay) {}
+
+    /** Lädt alle Ergebnisse eines Users einmalig, indiziert nach Enddatum */
+    public Map<LocalDateTime, ResultRow> findAllByUserIdKeyedByPeriodEnd(Long userId) {
+        Map<LocalDateTime, ResultRow> rows = new HashMap<>();
+
+        jdbcTemplate.query(SELECT_BY_USER, rs -> {
+            ResultRow row = new ResultRow(
+                    parseTimestamp(rs.getString("period_start")),
+                    parseTimestamp(rs.getString("period_end")),
+                    rs.getLong("days_period"),
+                    rs.getDouble("payments_period"),
+                    rs.getDouble("total_costs_period"),
+                    rs.getDouble("cost_diff_period"),
+                    rs.getDouble("sum_used_energy"),
+                    rs.getDouble("used_energy_per_day")
+            );
+            rows.put(row.periodEnd(), row);
+        }, userId);
+
+        return rows;
+    }
+
+    /**
+     * Hilfsmethode: Schnelles Parsen des festen DB-Formats 'yyyy-MM-dd HH:mm:ss'.
+     * DateTimeFormatter.parse ist beim Laden großer Historien der dominierende Kostenfaktor.
+     */
+    private static LocalDateTime parseTimestamp(String value) {
+        if (value.length() != AppConstants.DB_DATE_PATTERN.length()) {
+            return LocalDateTime.parse(value, DateTimeConverter.FORMATTER);
+        }
+        return LocalDateTime.of(
+                Integer.parseInt(value, 0, 4, 10),
+                Integer.parseInt(value, 5, 7, 10),
+                Integer.parseInt(value, 8, 10, 10),
+                Integer.parseInt(value, 11, 13, 10),
+                Integer.parseInt(value, 14, 16, 10),
+                Integer.parseInt(value, 17, 19, 10)
+        );
+    }
+
+    /** Fügt neue Zeilen ein bzw. aktualisiert bestehende (ein Batch, ein Statement) */
+    public void upsertAll(Long userId, List<ResultRow> rows) {
+        if (rows.isEmpty()) { return; }
+
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.periodStart().format(DateTimeConverter.FORMATTER));
+            ps.setString(2, row.periodEnd().format(DateTimeConverter.FORMATTER));
+            ps.setLong(3, row.daysPeriod());
+            ps.setDouble(4, row.paidAmountPeriod());
+            ps.setDouble(5, row.totalCostsPeriod());
+            ps.setDouble(6, row.costDiffPeriod());
+            ps.setDouble(7, row.sumUsedEnergy());
+            ps.setDouble(8, row.usedEnergyPerDay());
+            ps.setLong(9, userId);
+        });
+    }
+
+    /** Entfernt die Zeilen eines Users mit den angegebenen Enddaten */
+    public void deleteByPeriodEnds(Long userId, Collection<LocalDateTime> periodEnds) {
+        if (periodEnds.isEmpty()) { return; }
+
+        List<LocalDateTime> ends = List.copyOf(periodEnds);
+        jdbcTemplate.batchUpdate(DELETE_BY_PERIOD_END, ends, ends.size(), (ps, periodEnd) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, periodEnd.format(DateTimeConverter.FORMATTER));
+        });
+    }
+}
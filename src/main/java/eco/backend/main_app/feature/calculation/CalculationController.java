@@ -1,10 +1,17 @@
 package eco.backend.main_app.feature.calculation;
 
 
+import eco.backend.main_app.core.cache.ConditionalGet;
+import eco.backend.main_app.feature.calculation.dto.CalculationColumnsDto;
 import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
 import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.calculation.dto.ForecastDto;
 import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+import eco.backend.main_app.utils.KeysetPage;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 
 @RestController
@@ -19,9 +27,13 @@ import java.util.Map;
 public class CalculationController {
 
     private final CalculationService calculationService;
+    private final ForecastService forecastService;
+    private final ConditionalGet conditionalGet;
 
-    public CalculationController(CalculationService calculationService) {
+    public CalculationController(CalculationService calculationService, ForecastService forecastService, ConditionalGet conditionalGet) {
         this.calculationService = calculationService;
+        this.forecastService = forecastService;
+        this.conditionalGet = conditionalGet;
     }
 
     /**
@@ -29,26 +41,55 @@ public class CalculationController {
      */
     @PostMapping("/run-and-save")
     public ResponseEntity<List<CalculationResultsDto>> runCalculation(@AuthenticationPrincipal UserDetails userDetails, @RequestBody CalculationRequestDto dto) {
-        List<CalculationResultsDto> results = calculationService.runCalculation(userDetails.getUsername(), dto);
-        calculationService.saveResultsInEntity(userDetails.getUsername(), results);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(runAndSave(userDetails, dto));
+    }
 
-        return ResponseEntity.ok(results);
+    /**
+     * POST /api/calculation/run-and-save mit Accept: application/vnd.eco.columnar+json: Ergebnisse spaltenweise
+     */
+    @PostMapping(value = "/run-and-save", produces = CalculationColumnsDto.MEDIA_TYPE)
+    public ResponseEntity<CalculationColumnsDto> runCalculationColumnar(@AuthenticationPrincipal UserDetails userDetails, @RequestBody CalculationRequestDto dto) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(CalculationColumnsDto.fromResults(runAndSave(userDetails, dto)));
     }
 
     /**
-     * GET /api/calculation/get-results: Lädt die gespeicherten Daten
+     * GET /api/calculation/get-results?from=&to=&limit=&cursor=: Lädt die gespeicherten Daten (optional im Zeitraum
+     * und seitenweise). Folgen weitere Ergebnisse, enthält der Header X-Next-Cursor den Cursor für die nächste Seite.
+     * Bedingte Anfragen (If-None-Match) werden bei unverändertem Datenstand mit 304 beantwortet.
      */
     @GetMapping("/get-results")
-    public ResponseEntity<?> loadSavedResults( @AuthenticationPrincipal UserDetails userDetails ) {
-        List<CalculationEntity> history = calculationService.getHistory(userDetails.getUsername());
+    public ResponseEntity<?> loadSavedResults(@AuthenticationPrincipal UserDetails userDetails,
+                                              @RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor,
+                                              HttpServletRequest request) {
+        return conditionalGet.respond(userDetails, "results", request,
+                () -> loadPage(userDetails, from, to, limit, cursor, items -> items));
+    }
 
-        if (history.isEmpty()) {
-            return ResponseEntity
-                    .status(HttpStatus.NOT_FOUND)
-                    .body("No data found.");
-        }
+    /**
+     * GET /api/calculation/get-results mit Accept: application/vnd.eco.columnar+json: Gespeicherte Daten spaltenweise
+     */
+    @GetMapping(value = "/get-results", produces = CalculationColumnsDto.MEDIA_TYPE)
+    public ResponseEntity<?> loadSavedResultsColumnar(@AuthenticationPrincipal UserDetails userDetails,
+                                                      @RequestParam(required = false) String from,
+                                                      @RequestParam(required = false) String to,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String cursor,
+                                                      HttpServletRequest request) {
+        return conditionalGet.respond(userDetails, "results-columnar", request,
+                () -> loadPage(userDetails, from, to, limit, cursor, CalculationColumnsDto::fromEntities));
+    }
 
-        return ResponseEntity.ok(history);
+    /**
+     * GET /api/calculation/forecast: Prognose von Verbrauch, Kosten und Restbetrag zum Ende des Abrechnungsjahres
+     * (bei unverändertem Datenstand 304)
+     */
+    @GetMapping("/forecast")
+    public ResponseEntity<ForecastDto> getForecast(@AuthenticationPrincipal UserDetails userDetails, HttpServletRequest request) {
+        return conditionalGet.respond(userDetails, "forecast", request,
+                () -> ResponseEntity.ok(forecastService.getForecast(userDetails.getUsername())));
     }
 
     /**
@@ -59,5 +100,30 @@ public class CalculationController {
         calculationService.deleteAllEntries(user.getUsername());
         return ResponseEntity.ok(Map.of("message", "Alle Berechnungsdaten wurden erfolgreich gelöscht."));
     }
-}
 
+    private List<CalculationResultsDto> runAndSave(UserDetails userDetails, CalculationRequestDto dto) {
+        List<CalculationResultsDto> results = calculationService.runCalculation(userDetails.getUsername(), dto);
+        calculationService.saveResultsInEntity(userDetails.getUsername(), results);
+        return results;
+    }
+
+    /** Hilfsfunktion: Lädt eine Seite der gespeicherten Ergebnisse und wandelt sie in die angefragte Darstellung um */
+    private ResponseEntity<?> loadPage(UserDetails userDetails, String from, String to, Integer limit, String cursor,
+                                       Function<List<CalculationEntity>, ?> representation) {
+        KeysetPage<CalculationEntity> page = calculationService.getHistoryPage(userDetails.getUsername(), from, to, limit, cursor);
+
+        // Leere Folgeseiten sind gültig, nur ohne Cursor bedeutet eine leere Seite "keine Daten"
+        if (page.items().isEmpty() && (cursor == null || cursor.isBlank())) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("No data found.");
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(KeysetPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(representation.apply(page.items()));
+    }
+}
@@ -0,0 +1,58 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationJobDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+
+@RestController
+@RequestMapping("/api/calculation/jobs")
+public class CalculationJobController {
+
+    private final CalculationJobService jobService;
+
+    public CalculationJobController(CalculationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * POST /api/calculation/jobs: Reiht eine Berechnung ein (202 mit Auftrags-ID, Location verweist auf den Status).
+     * Wartet für den User bereits ein Auftrag, wird die Anfrage mit diesem zusammengeführt.
+     */
+    @PostMapping
+    public ResponseEntity<CalculationJobDto> submit(@AuthenticationPrincipal UserDetails userDetails, @RequestBody(required = false) CalculationRequestDto dto) {
+        CalculationJobDto job = jobService.submit(userDetails.getUsername(), dto);
+        return ResponseEntity.accepted().location(URI.create("/api/calculation/jobs/" + job.jobId())).body(job);
+    }
+
+    /**
+     * GET /api/calculation/jobs/{id}: Status des Auftrags
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CalculationJobDto> getJob(@AuthenticationPrincipal UserDetails userDetails, @PathVariable long id) {
+        return ResponseEntity.ok(jobService.getJob(userDetails.getUsername(), id));
+    }
+
+    /**
+     * GET /api/calculation/jobs/{id}/result: Zusammenfassung des abgeschlossenen Auftrags mit Verweis auf die
+     * gespeicherten Ergebnisse (409, solange nicht verfügbar)
+     */
+    @GetMapping(value = "/{id}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getResult(@AuthenticationPrincipal UserDetails userDetails, @PathVariable long id) {
+        return ResponseEntity.ok(jobService.getResult(userDetails.getUsername(), id));
+    }
+
+    /**
+     * DELETE /api/calculation/jobs/{id}: Bricht den Auftrag ab (laufende Aufträge vor dem Speichern der Ergebnisse)
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<CalculationJobDto> cancel(@AuthenticationPrincipal UserDetails userDetails, @PathVariable long id) {
+        return ResponseEntity.ok(jobService.cancel(userDetails.getUsername(), id));
+    }
+}
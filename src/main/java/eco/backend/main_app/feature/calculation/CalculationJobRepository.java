@@ -0,0 +1,220 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Zugriff auf die Berechnungsaufträge 'calculation_jobs' über JDBC.
+ * Schreibzugriffe laufen in der Transaktion des Aufrufers; Statusänderungen prüfen den erwarteten Status,
+ * damit Abbruch und Abschluss eines Auftrags sich nicht gegenseitig überschreiben.
+ */
+@Repository
+public class CalculationJobRepository {
+
+    /** Status eines Auftrags */
+    public enum Status { PENDING, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    /** Auftrag (ohne Ergebnis) */
+    public record CalculationJob(long id, long userId, Status status, String endDate, int submissions,
+                                 boolean cancelRequested, LocalDateTime submittedAt, LocalDateTime startedAt,
+                                 LocalDateTime finishedAt, Integer resultCount, String error) {}
+
+    private static final String COLUMNS = """
+            id, user_id, status, end_date, submissions, cancel_requested, submitted_at, started_at, finished_at,
+            result_count, error
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO calculation_jobs (user_id, status, end_date, submitted_at) VALUES (?, 'PENDING', ?, ?)
+            """;
+
+    // Ältester wartender Auftrag eines Users ohne laufenden Auftrag (Aufträge eines Users laufen nacheinander)
+    private static final String SELECT_NEXT = "SELECT " + COLUMNS + """
+            FROM calculation_jobs j
+            WHERE j.status = 'PENDING'
+              AND NOT EXISTS (SELECT 1 FROM calculation_jobs r WHERE r.user_id = j.user_id AND r.status = 'RUNNING')
+            ORDER BY j.id LIMIT 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+
+    public CalculationJobRepository(JdbcTemplate jdbcTemplate, @Qualifier("readDataSource") DataSource readDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+    }
+
+    /**
+     * Führt die Anfrage mit dem wartenden Auftrag des Users zusammen (neues Enddatum gilt).
+     *
+     * @return ID des wartenden Auftrags (leer, falls keiner wartet)
+     */
+    public Optional<Long> coalesce(long userId, String endDate) {
+        Optional<Long> pendingId = jdbcTemplate.queryForList(
+                "SELECT id FROM calculation_jobs WHERE user_id = ? AND status = 'PENDING'", Long.class, userId)
+                .stream().findFirst();
+
+        pendingId.ifPresent(id -> jdbcTemplate.update(
+                "UPDATE calculation_jobs SET end_date = ?, submissions = submissions + 1 WHERE id = ? AND status = 'PENDING'",
+                endDate, id));
+        return pendingId;
+    }
+
+    /** Reiht einen neuen Auftrag ein */
+    public long insert(long userId, String endDate, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            ps.setString(2, endDate);
+            ps.setString(3, format(now));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Number.class).longValue();
+    }
+
+    public long countPending() {
+        Long count = readJdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM calculation_jobs WHERE status = 'PENDING'", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /** Auftrag des Users (fremde Aufträge sind nicht sichtbar) */
+    public Optional<CalculationJob> find(long id, long userId) {
+        return readJdbcTemplate.query("SELECT " + COLUMNS + " FROM calculation_jobs WHERE id = ? AND user_id = ?",
+                JOB_MAPPER, id, userId).stream().findFirst();
+    }
+
+    /** Wie find, aber über die Schreibverbindung (sieht Änderungen der laufenden Transaktion) */
+    public Optional<CalculationJob> findCurrent(long id, long userId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM calculation_jobs WHERE id = ? AND user_id = ?",
+                JOB_MAPPER, id, userId).stream().findFirst();
+    }
+
+    /** Ergebnis (Zusammenfassung als JSON) eines erfolgreich abgeschlossenen Auftrags des Users */
+    public Optional<String> findResult(long id, long userId) {
+        return readJdbcTemplate.queryForList(
+                "SELECT result FROM calculation_jobs WHERE id = ? AND user_id = ? AND status = 'SUCCEEDED'",
+                String.class, id, userId).stream().findFirst();
+    }
+
+    /**
+     * Übernimmt den nächsten ausführbaren Auftrag (PENDING -> RUNNING).
+     *
+     * @return Übernommener Auftrag (leer, falls keiner ausführbar ist oder ihn ein anderer Worker übernommen hat)
+     */
+    public Optional<CalculationJob> claimNext(LocalDateTime now) {
+        Optional<CalculationJob> next = jdbcTemplate.query(SELECT_NEXT, JOB_MAPPER).stream().findFirst();
+        if (next.isEmpty()) { return Optional.empty(); }
+
+        CalculationJob job = next.get();
+        int claimed = jdbcTemplate.update(
+                "UPDATE calculation_jobs SET status = 'RUNNING', started_at = ? WHERE id = ? AND status = 'PENDING'",
+                format(now), job.id());
+        if (claimed == 0) { return Optional.empty(); }
+
+        return Optional.of(new CalculationJob(job.id(), job.userId(), Status.RUNNING, job.endDate(), job.submissions(),
+                false, job.submittedAt(), now, null, null, null));
+    }
+
+    /** Abschluss eines laufenden Auftrags; schlägt fehl, falls währenddessen der Abbruch angefordert wurde */
+    public boolean markSucceeded(long id, int resultCount, String result, LocalDateTime now) {
+        return jdbcTemplate.update("""
+                UPDATE calculation_jobs SET status = 'SUCCEEDED', finished_at = ?, result_count = ?, result = ?
+                WHERE id = ? AND status = 'RUNNING' AND cancel_requested = 0
+                """, format(now), resultCount, result, id) > 0;
+    }
+
+    public void markFailed(long id, String error, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE calculation_jobs SET status = 'FAILED', finished_at = ?, error = ? WHERE id = ? AND status = 'RUNNING'",
+                format(now), error, id);
+    }
+
+    /** Beendet einen laufenden Auftrag nach angefordertem Abbruch */
+    public void markCancelled(long id, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE calculation_jobs SET status = 'CANCELLED', finished_at = ? WHERE id = ? AND status = 'RUNNING'",
+                format(now), id);
+    }
+
+    /** Prüft, ob für den laufenden Auftrag der Abbruch angefordert wurde (gelöschte Aufträge gelten als abgebrochen) */
+    public boolean isCancelRequested(long id) {
+        return jdbcTemplate.queryForList("SELECT cancel_requested FROM calculation_jobs WHERE id = ?", Integer.class, id)
+                .stream().findFirst().map(flag -> flag == 1).orElse(true);
+    }
+
+    /**
+     * Bricht einen Auftrag des Users ab: Wartende Aufträge sofort, laufende am nächsten Prüfpunkt des Workers.
+     *
+     * @return true, falls der Auftrag abgebrochen bzw. der Abbruch angefordert wurde
+     */
+    public boolean cancel(long id, long userId, LocalDateTime now) {
+        int cancelled = jdbcTemplate.update(
+                "UPDATE calculation_jobs SET status = 'CANCELLED', finished_at = ? WHERE id = ? AND user_id = ? AND status = 'PENDING'",
+                format(now), id, userId);
+        if (cancelled > 0) { return true; }
+
+        return jdbcTemplate.update(
+                "UPDATE calculation_jobs SET cancel_requested = 1 WHERE id = ? AND user_id = ? AND status = 'RUNNING'",
+                id, userId) > 0;
+    }
+
+    /**
+     * Beim Start: Durch einen Neustart unterbrochene Aufträge erneut einreihen. Wartet für den User bereits ein
+     * neuerer Auftrag, ersetzt dieser den unterbrochenen (der unterbrochene wird abgebrochen).
+     *
+     * @return Anzahl der erneut eingereihten Aufträge
+     */
+    public int requeueInterrupted(LocalDateTime now) {
+        jdbcTemplate.update("""
+                UPDATE calculation_jobs SET status = 'CANCELLED', finished_at = ?, error = 'Nach Neustart durch neueren Auftrag ersetzt.'
+                WHERE status = 'RUNNING'
+                  AND EXISTS (SELECT 1 FROM calculation_jobs p WHERE p.user_id = calculation_jobs.user_id AND p.status = 'PENDING')
+                """, format(now));
+        jdbcTemplate.update("UPDATE calculation_jobs SET status = 'CANCELLED', finished_at = ? WHERE status = 'RUNNING' AND cancel_requested = 1",
+                format(now));
+        return jdbcTemplate.update("UPDATE calculation_jobs SET status = 'PENDING', started_at = NULL WHERE status = 'RUNNING'");
+    }
+
+    /** Entfernt abgeschlossene Aufträge (inkl. Ergebnis), die vor 'cutoff' beendet wurden */
+    public int deleteFinishedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM calculation_jobs WHERE status IN ('SUCCEEDED', 'FAILED', 'CANCELLED') AND finished_at < ?",
+                format(cutoff));
+    }
+
+    private static final RowMapper<CalculationJob> JOB_MAPPER = (rs, rowNum) -> new CalculationJob(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            Status.valueOf(rs.getString("status")),
+            rs.getString("end_date"),
+            rs.getInt("submissions"),
+            rs.getInt("cancel_requested") == 1,
+            parse(rs, "submitted_at"),
+            parse(rs, "started_at"),
+            parse(rs, "finished_at"),
+            rs.getObject("result_count") == null ? null : rs.getInt("result_count"),
+            rs.getString("error")
+    );
+
+    private static LocalDateTime parse(ResultSet rs, String column) throws SQLException {
+        String value = rs.getString(column);
+        return value == null ? null : LocalDateTime.parse(value, DateTimeConverter.FORMATTER);
+    }
+
+    private static String format(LocalDateTime timestamp) {
+        return timestamp.format(DateTimeConverter.FORMATTER);
+    }
+}
@@ -0,0 +1,156 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.exception.TooManyRequestsException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.calculation.CalculationJobRepository.CalculationJob;
+import eco.backend.main_app.feature.calculation.CalculationJobRepository.Status;
+import eco.backend.main_app.feature.calculation.dto.CalculationJobDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
+import eco.backend.main_app.utils.ReuseHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Asynchrone Berechnungen: Aufträge werden persistent eingereiht und vom CalculationJobWorker abgearbeitet.
+ * Pro User wartet höchstens ein Auftrag; weitere Anfragen werden mit ihm zusammengeführt (das Enddatum der
+ * neuesten Anfrage gilt). Die Anzahl wartender Aufträge ist begrenzt (bei voller Warteschlange 429).
+ */
+@Service
+public class CalculationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculationJobService.class);
+
+    private final CalculationJobRepository jobRepository;
+    private final CalculationJobWorker worker;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final long capacity;
+
+    public CalculationJobService(CalculationJobRepository jobRepository,
+                                 CalculationJobWorker worker,
+                                 UserService userService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.calculation.jobs.queue-capacity:100}") long capacity) {
+        this.jobRepository = jobRepository;
+        this.worker = worker;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reiht eine Berechnung ein (Ergebnisse werden wie bei run-and-save gespeichert).
+     *
+     * @param username Name des (authentifizierten) Users
+     * @param requestDto DTO mit Enddatum (erforderlich, wie bei run-and-save)
+     * @return Neuer bzw. zusammengeführter Auftrag
+     */
+    @Transactional
+    public CalculationJobDto submit(String username, CalculationRequestDto requestDto) {
+        AuthenticatedUser user = findValidUser(username);
+
+        // Datum vorab prüfen, damit ungültige Anfragen nicht erst im Worker scheitern
+        String endDate = requestDto == null ? null : requestDto.endDate();
+        if (ReuseHelper.getParsedDateOrDefault(endDate, null) == null) {
+            throw new GenericException("Enddatum (endDate) fehlt.", HttpStatus.BAD_REQUEST);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Long> pendingId = jobRepository.coalesce(user.id(), endDate);
+        if (pendingId.isPresent()) {
+            meterRegistry.counter("eco.calculation.jobs.submitted", "result", "coalesced").increment();
+            logger.debug("Berechnungsanfrage von User-ID {} mit wartendem Auftrag {} zusammengeführt.", user.id(), pendingId.get());
+            return currentState(pendingId.get(), user.id());
+        }
+
+        if (jobRepository.countPending() >= capacity) {
+            meterRegistry.counter("eco.calculation.jobs.submitted", "result", "rejected").increment();
+            logger.warn("Warteschlange der Berechnungsaufträge voll ({} wartende Aufträge), Anfrage abgelehnt.", capacity);
+            throw new TooManyRequestsException("Zu viele wartende Berechnungen. Bitte später erneut versuchen.", 5);
+        }
+
+        long jobId = jobRepository.insert(user.id(), endDate, now);
+        meterRegistry.counter("eco.calculation.jobs.submitted", "result", "queued").increment();
+        wakeUpWorkerAfterCommit();
+
+        return currentState(jobId, user.id());
+    }
+
+    /** Status eines Auftrags des Users */
+    public CalculationJobDto getJob(String username, long jobId) {
+        AuthenticatedUser user = findValidUser(username);
+        return CalculationJobDto.of(findJob(jobId, user.id()));
+    }
+
+    /**
+     * Ergebnis eines erfolgreich abgeschlossenen Auftrags (CalculationJobResultDto als JSON: Anzahl und Zeitraum
+     * der Perioden, letzte Periode und Verweis auf die gespeicherten Ergebnisse).
+     * Solange der Auftrag nicht erfolgreich abgeschlossen ist, wird 409 mit dem aktuellen Status gemeldet.
+     */
+    public String getResult(String username, long jobId) {
+        AuthenticatedUser user = findValidUser(username);
+        CalculationJob job = findJob(jobId, user.id());
+
+        if (job.status() != Status.SUCCEEDED) {
+            throw new GenericException("Kein Ergebnis verfügbar (Status: " + job.status() + ").", HttpStatus.CONFLICT);
+        }
+        return jobRepository.findResult(jobId, user.id())
+                .orElseThrow(() -> new GenericException("Auftrag nicht gefunden.", HttpStatus.NOT_FOUND));
+    }
+
+    /** Bricht einen wartenden Auftrag sofort ab bzw. fordert den Abbruch eines laufenden Auftrags an */
+    @Transactional
+    public CalculationJobDto cancel(String username, long jobId) {
+        AuthenticatedUser user = findValidUser(username);
+
+        if (!jobRepository.cancel(jobId, user.id(), LocalDateTime.now())) {
+            CalculationJob job = findJob(jobId, user.id());
+            throw new GenericException("Auftrag ist bereits beendet (Status: " + job.status() + ").", HttpStatus.CONFLICT);
+        }
+
+        meterRegistry.counter("eco.calculation.jobs.cancel").increment();
+        return currentState(jobId, user.id());
+    }
+
+    private AuthenticatedUser findValidUser(String username) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Invalid user status.", HttpStatus.FORBIDDEN);
+        }
+        return user;
+    }
+
+    private CalculationJob findJob(long jobId, long userId) {
+        return jobRepository.find(jobId, userId)
+                .orElseThrow(() -> new GenericException("Auftrag nicht gefunden.", HttpStatus.NOT_FOUND));
+    }
+
+    /** Hilfsfunktion: Stand des Auftrags innerhalb der laufenden Schreibtransaktion */
+    private CalculationJobDto currentState(long jobId, long userId) {
+        return CalculationJobDto.of(jobRepository.findCurrent(jobId, userId)
+                .orElseThrow(() -> new GenericException("Auftrag nicht gefunden.", HttpStatus.NOT_FOUND)));
+    }
+
+    private void wakeUpWorkerAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { worker.wakeUp(); }
+            });
+        } else {
+            worker.wakeUp();
+        }
+    }
+}
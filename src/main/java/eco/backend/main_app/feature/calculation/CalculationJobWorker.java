@@ -0,0 +1,226 @@
+package eco.backend.main_app.feature.calculation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eco.backend.main_app.core.cache.DataVersionStore;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.CalculationJobRepository.CalculationJob;
+import eco.backend.main_app.feature.calculation.dto.CalculationJobResultDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arbeitet die Berechnungsaufträge auf einer festen Anzahl virtueller Worker-Threads ab.
+ * Aufträge eines Users laufen nacheinander; das Speichern der Ergebnisse und der Abschluss des Auftrags erfolgen
+ * in einer Transaktion. Gespeichert wird nur, wenn sich der Datenstand des Users seit dem Laden nicht geändert hat;
+ * andernfalls wird die Berechnung einmalig mit dem neuen Stand wiederholt, danach schlägt der Auftrag fehl. Ein durch Neustart unterbrochener Auftrag hat daher nichts gespeichert und wird beim Start
+ * erneut eingereiht. Ein angeforderter Abbruch wird vor dem Speichern geprüft (die Berechnung selbst läuft zu Ende).
+ * Die Worker werden nach dem Commit neuer Aufträge sofort geweckt, spätestens aber nach dem Poll-Intervall.
+ */
+@Component
+public class CalculationJobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculationJobWorker.class);
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final CalculationJobRepository repository;
+    private final CalculationService calculationService;
+    private final DataVersionStore dataVersionStore;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final int workers;
+    private final long pollIntervalMs;
+    private final Duration retention;
+
+    private final Object claimLock = new Object();
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public CalculationJobWorker(CalculationJobRepository repository,
+                                CalculationService calculationService,
+                                DataVersionStore dataVersionStore,
+                                UserService userService,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.calculation.jobs.workers:2}") int workers,
+                                @Value("${app.calculation.jobs.poll-interval-ms:5000}") long pollIntervalMs,
+                                @Value("${app.calculation.jobs.retention-hours:24}") long retentionHours) {
+        this.repository = repository;
+        this.calculationService = calculationService;
+        this.dataVersionStore = dataVersionStore;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.workers = Math.max(1, workers);
+        this.pollIntervalMs = pollIntervalMs;
+        this.retention = Duration.ofHours(retentionHours);
+
+        // Wird beim Abruf der Metrik gezählt, damit der Wert auch bei ausgelasteten Workern aktuell bleibt
+        Gauge.builder("eco.calculation.jobs.pending", repository, CalculationJobRepository::countPending)
+                .description("Anzahl wartender Berechnungsaufträge")
+                .register(meterRegistry);
+    }
+
+    /** Startet die Worker erst, wenn die Anwendung vollständig hochgefahren ist (unterbrochene Aufträge werden fortgesetzt) */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int requeued = repository.requeueInterrupted(LocalDateTime.now());
+        if (requeued > 0) {
+            logger.info("{} unterbrochene(r) Berechnungsauftrag/-aufträge erneut eingereiht.", requeued);
+        }
+
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("calculation-job-" + i).start(this::run));
+        }
+        logger.info("Berechnungsaufträge: {} Worker gestartet (Poll-Intervall {} ms).", workers, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUp.release(workers);
+        for (Thread thread : threads) { thread.join(Duration.ofSeconds(10)); }
+    }
+
+    /** Weckt einen Worker auf (z.B. nach dem Commit eines neuen Auftrags) */
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    /** Entfernt abgeschlossene Aufträge nach Ablauf der Aufbewahrungszeit */
+    @Scheduled(fixedDelayString = "${app.calculation.jobs.cleanup-interval-ms:3600000}")
+    public void removeExpired() {
+        int removed = repository.deleteFinishedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            logger.debug("{} abgeschlossene Berechnungsaufträge entfernt.", removed);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (runNext()) { continue; }
+            } catch (Exception e) {
+                logger.error("Fehler beim Abarbeiten der Berechnungsaufträge: {}", e.getMessage());
+            }
+
+            try {
+                wakeUp.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Führt den nächsten ausführbaren Auftrag aus (false: keiner vorhanden) */
+    private boolean runNext() {
+        Optional<CalculationJob> claimed;
+        synchronized (claimLock) {
+            claimed = repository.claimNext(LocalDateTime.now());
+        }
+        if (claimed.isEmpty()) { return false; }
+
+        CalculationJob job = claimed.get();
+        Timer.builder("eco.calculation.job.wait")
+                .description("Wartezeit vom Einreichen bis zum Start eines Berechnungsauftrags")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(job.submittedAt(), job.startedAt()));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = execute(job);
+        sample.stop(meterRegistry.timer("eco.calculation.job.duration", "outcome", outcome));
+        return true;
+    }
+
+    /** Ergebnis des Speicherns innerhalb der Transaktion */
+    private enum SaveOutcome { SAVED, CANCELLED, CONFLICT }
+
+    /** Berechnet und speichert die Ergebnisse eines Auftrags; liefert das Ergebnis für die Metriken */
+    private String execute(CalculationJob job) {
+        try {
+            UserEntity user = userService.findUserById(job.userId());
+
+            for (int attempt = 1; ; attempt++) {
+                // Datenstand vor dem Laden: Änderungen während der Berechnung werden beim Speichern erkannt
+                long loadedVersion = dataVersionStore.current(user.getId()).value();
+                List<CalculationResultsDto> results = calculationService.runCalculation(user.getUsername(), new CalculationRequestDto(job.endDate()));
+
+                // Prüfpunkt: Abbruch vor dem Speichern
+                if (repository.isCancelRequested(job.id())) {
+                    repository.markCancelled(job.id(), LocalDateTime.now());
+                    logger.debug("Berechnungsauftrag {} abgebrochen.", job.id());
+                    return "cancelled";
+                }
+
+                // Nur eine Zusammenfassung am Auftrag speichern (die Perioden stehen in 'calculated_results')
+                String result = objectMapper.writeValueAsString(CalculationJobResultDto.of(results));
+                SaveOutcome outcome = transactionTemplate.execute(status -> {
+                    if (!calculationService.saveResultsIfCurrent(user, results, loadedVersion)) { return SaveOutcome.CONFLICT; }
+                    if (repository.markSucceeded(job.id(), results.size(), result, LocalDateTime.now())) { return SaveOutcome.SAVED; }
+
+                    // Abbruch während des Speicherns angefordert: Ergebnisse verwerfen
+                    status.setRollbackOnly();
+                    return SaveOutcome.CANCELLED;
+                });
+
+                if (outcome == SaveOutcome.SAVED) {
+                    logger.debug("Berechnungsauftrag {} abgeschlossen ({} Perioden).", job.id(), results.size());
+                    return "succeeded";
+                }
+                if (outcome != SaveOutcome.CONFLICT) {
+                    repository.markCancelled(job.id(), LocalDateTime.now());
+                    return "cancelled";
+                }
+
+                // Zählerstände oder Config während der Berechnung geändert: veralteten Stand nicht speichern
+                if (attempt >= MAX_ATTEMPTS) {
+                    repository.markFailed(job.id(), "Datenstand während der Berechnung geändert. Bitte erneut einreichen.", LocalDateTime.now());
+                    logger.debug("Berechnungsauftrag {} verworfen: Datenstand wiederholt geändert.", job.id());
+                    return "conflict";
+                }
+                logger.debug("Berechnungsauftrag {}: Datenstand geändert, Berechnung wird wiederholt.", job.id());
+            }
+
+        } catch (GenericException e) {
+            repository.markFailed(job.id(), e.getMessage(), LocalDateTime.now());
+            logger.debug("Berechnungsauftrag {} fehlgeschlagen: {}", job.id(), e.getMessage());
+            return "failed";
+
+        } catch (Exception e) {
+            repository.markFailed(job.id(), "Fehler bei Berechnung.", LocalDateTime.now());
+            logger.error("Berechnungsauftrag {} fehlgeschlagen: {}", job.id(), e.getMessage());
+            return "failed";
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rechenkern der Kostenberechnung auf primitiven Arrays (spaltenweise Ein- und Ausgabe).
+ * Alle Tarifwerte, die nicht vom Eintrag abhängen, werden vorab einmalig in {@link Tariff} zusammengefasst;
+ * die Schleife enthält danach nur noch Arithmetik ohne Objekte, Boxing oder Datumsfunktionen (vektorisierbar).
+ * Die Rechenreihenfolge entspricht der bisherigen Einzelberechnung, die Ergebnisse sind bitgleich.
+ * <p>
+ * Mit Tarifversionen ({@link Rate}) wird jede Periode an den Tarifgrenzen aufgeteilt: Der Zählerstand an einer Grenze
+ * wird zwischen den benachbarten Ablesungen linear interpoliert, jeder Abschnitt wird mit seinem Tarif bewertet.
+ * Da alle Perioden am Referenzdatum beginnen, werden die Kosten abgeschlossener Abschnitte fortlaufend summiert
+ * (ein Durchlauf über die Ablesungen und die Grenzen).
+ */
+public final class CalculationKernel {
+
+    private static final int DAYS_IN_YEAR = 365;
+    private static final int MONTHS_IN_YEAR = 12;
+
+    // Ab dieser Anzahl an Perioden lohnt sich die Aufteilung auf mehrere Threads
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private CalculationKernel() {}
+
+    /**
+     * Tarifwerte einer Berechnung als primitive Felder (aus ConfigEntity und Referenzdatum abgeleitet).
+     *
+     * @param netEnergyPricePerKWh Netto-Verbrauchspreis inkl. Stromsteuer-Abzug [EUR/kWh]
+     * @param energyTaxPerKWh Stromsteuer [EUR/kWh]
+     * @param netBasePricePerDay Netto-Grundpreis pro Tag [EUR/Tag]
+     * @param vatFactor 1 + Umsatzsteuer
+     * @param paidAmountPerDay Abschlag pro Tag unter Berücksichtigung verschobener Abrechnungsmonate [EUR/Tag]
+     * @param additionalCredit Guthaben [EUR]
+     */
+    public record Tariff(double netEnergyPricePerKWh, double energyTaxPerKWh, double netBasePricePerDay,
+                         double vatFactor, double paidAmountPerDay, double additionalCredit) {
+
+        public static Tariff of(ConfigEntity config, int skippedMonths) {
+            double vatFactor = 1 + config.getVatRate();
+            return new Tariff(
+                    config.getEnergyPrice() / vatFactor - config.getEnergyTax(),
+                    config.getEnergyTax(),
+                    config.getBasePrice() / vatFactor * MONTHS_IN_YEAR / DAYS_IN_YEAR,
+                    vatFactor,
+                    config.getMonthlyAdvance() * (MONTHS_IN_YEAR - skippedMonths) / DAYS_IN_YEAR,
+                    config.getAdditionalCredit()
+            );
+        }
+    }
+
+    /**
+     * Preise eines Tarifabschnitts ab 'fromEpochDay' (bis zum Beginn des nächsten Abschnitts).
+     * Der Netto-Verbrauchspreis ist gestaffelt: Ab tierFromKWh[k] (Verbrauch seit dem Referenzdatum) gilt
+     * netEnergyPrices[k]; tierFromKWh[0] ist 0, Verbrauch darunter (z.B. negativer Verbrauch) gilt als erste Stufe.
+     *
+     * @param fromEpochDay Erster Tag des Abschnitts (Tage seit Epoche)
+     * @param netBasePricePerDay Netto-Grundpreis pro Tag [EUR/Tag]
+     * @param vatFactor 1 + Umsatzsteuer
+     * @param energyTaxPerKWh Stromsteuer [EUR/kWh]
+     * @param tierFromKWh Untere Grenzen der Stufen [kWh], aufsteigend
+     * @param netEnergyPrices Netto-Verbrauchspreis inkl. Stromsteuer-Abzug je Stufe [EUR/kWh]
+     */
+    public record Rate(int fromEpochDay, double netBasePricePerDay, double vatFactor, double energyTaxPerKWh,
+                       double[] tierFromKWh, double[] netEnergyPrices) {
+
+        /** Tarif aus der Config (gilt vor der ersten Tarifversion) */
+        public static Rate of(ConfigEntity config, int fromEpochDay) {
+            double vatFactor = 1 + config.getVatRate();
+            return new Rate(fromEpochDay, config.getBasePrice() / vatFactor * MONTHS_IN_YEAR / DAYS_IN_YEAR, vatFactor,
+                    config.getEnergyTax(), new double[]{0}, new double[]{config.getEnergyPrice() / vatFactor - config.getEnergyTax()});
+        }
+
+        /** Tarifversion inkl. Staffelpreise */
+        public static Rate of(TariffVersion version, int fromEpochDay) {
+            double vatFactor = 1 + version.vatRate();
+            int tiers = version.tiers().size() + 1;
+            double[] tierFromKWh = new double[tiers];
+            double[] netEnergyPrices = new double[tiers];
+
+            netEnergyPrices[0] = version.energyPrice() / vatFactor - version.energyTax();
+            for (int k = 1; k < tiers; k++) {
+                tierFromKWh[k] = version.tiers().get(k - 1).fromKwh();
+                netEnergyPrices[k] = version.tiers().get(k - 1).energyPrice() / vatFactor - version.energyTax();
+            }
+            return new Rate(fromEpochDay, version.basePrice() / vatFactor * MONTHS_IN_YEAR / DAYS_IN_YEAR, vatFactor,
+                    version.energyTax(), tierFromKWh, netEnergyPrices);
+        }
+
+        /**
+         * Tarifabschnitte ab dem Referenzdatum aus dem Intervall-Index des Users.
+         *
+         * @return Abschnitte (der erste gilt am Referenzdatum) oder null, falls nur der Tarif aus der Config gilt
+         */
+        public static Rate[] of(ConfigEntity config, TariffSchedule schedule, int refEpochDay) {
+            if (schedule == null || schedule.isEmpty()) { return null; }
+
+            int first = schedule.indexAt(refEpochDay);
+            Rate[] rates = new Rate[schedule.size() - Math.max(first, 0) + (first < 0 ? 1 : 0)];
+            int r = 0;
+
+            if (first < 0) {
+                rates[r++] = of(config, refEpochDay);
+                first = 0;
+            }
+            for (int i = first; i < schedule.size(); i++) {
+                rates[r++] = of(schedule.version(i), Math.max(schedule.validFrom(i), refEpochDay));
+            }
+            return rates;
+        }
+
+        /** Brutto-Kosten des Abschnitts vom Tag 'fromDay' (Verbrauch 'fromUsed') bis 'toDay' (Verbrauch 'toUsed') */
+        double cost(int fromDay, double fromUsed, int toDay, double toUsed) {
+            double used = toUsed - fromUsed;
+            return (energyCost(fromUsed, toUsed) + energyTaxPerKWh * used + netBasePricePerDay * (toDay - fromDay)) * vatFactor;
+        }
+
+        /** Netto-Verbrauchskosten zwischen zwei Verbrauchsständen (Integral über die Stufen) */
+        private double energyCost(double fromUsed, double toUsed) {
+            if (toUsed < fromUsed) { return -energyCost(toUsed, fromUsed); }
+
+            double sum = 0;
+            for (int k = 0; k < netEnergyPrices.length; k++) {
+                double lower = k == 0 ? Double.NEGATIVE_INFINITY : tierFromKWh[k];
+                double upper = k + 1 < tierFromKWh.length ? tierFromKWh[k + 1] : Double.POSITIVE_INFINITY;
+                double overlap = Math.min(toUsed, upper) - Math.max(fromUsed, lower);
+                if (overlap > 0) {
+                    sum += overlap * netEnergyPrices[k];
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Eingabe einer Berechnung: Referenzeintrag und die Ablesungen danach (Tage seit Epoche, aufsteigend).
+     * Ohne Tarifabschnitte (rates == null) gelten die Preise aus 'tariff' für den gesamten Zeitraum;
+     * mit Tarifabschnitten liefert 'tariff' nur Abschlag und Guthaben.
+     */
+    public record Input(Tariff tariff, Rate[] rates, int refEpochDay, double refValue, int[] epochDays, double[] kWh) {
+
+        public Input(Tariff tariff, int refEpochDay, double refValue, int[] epochDays, double[] kWh) {
+            this(tariff, null, refEpochDay, refValue, epochDays, kWh);
+        }
+    }
+
+    /**
+     * Ergebnisse spaltenweise: Index i gehört zur Periode vom Referenzdatum bis epochDays[i].
+     */
+    public record Periods(int refEpochDay, int[] epochDays, int[] daysPeriod, double[] paidAmountPeriod,
+                          double[] totalCostsPeriod, double[] sumUsedEnergy, double[] costDiffPeriod,
+                          double[] usedEnergyPerDay) {
+
+        public int size() { return epochDays.length; }
+
+        /** Wandelt die Spalten in die bisherigen Ergebnis-DTOs um (eine Zeile pro Periode) */
+        public List<CalculationResultsDto> toResults(String meterIdentifier, String logMessage) {
+            LocalDate periodStart = LocalDate.ofEpochDay(refEpochDay);
+            List<CalculationResultsDto> results = new ArrayList<>(size());
+
+            for (int i = 0; i < size(); i++) {
+                results.add(new CalculationResultsDto(
+                        meterIdentifier,
+                        periodStart,
+                        LocalDate.ofEpochDay(epochDays[i]),
+                        daysPeriod[i],
+                        paidAmountPeriod[i],
+                        totalCostsPeriod[i],
+                        sumUsedEnergy[i],
+                        costDiffPeriod[i],
+                        usedEnergyPerDay[i],
+                        logMessage
+                ));
+            }
+            return results;
+        }
+    }
+
+    /** Berechnet alle Perioden einer Eingabe */
+    public static Periods compute(Input input) {
+        int n = input.epochDays().length;
+        Periods periods = new Periods(input.refEpochDay(), input.epochDays(), new int[n], new double[n], new double[n],
+                new double[n], new double[n], new double[n]);
+
+        if (input.rates() == null) {
+            computeRange(input, periods, 0, n);
+        } else {
+            computeSegmented(input, periods);
+        }
+        return periods;
+    }
+
+    /**
+     * Berechnet mehrere Eingaben (z.B. alle User bei einer Neuberechnung durch den Admin) per Fork/Join.
+     * Aufgeteilt wird nach Eingaben und bei sehr langen Reihen zusätzlich innerhalb einer Eingabe.
+     *
+     * @return Ergebnisse in der Reihenfolge der Eingaben
+     */
+    public static List<Periods> computeAll(List<Input> inputs, ForkJoinPool pool) {
+        List<Periods> results = new ArrayList<>(inputs.size());
+        for (Input input : inputs) {
+            int n = input.epochDays().length;
+            results.add(new Periods(input.refEpochDay(), input.epochDays(), new int[n], new double[n], new double[n],
+                    new double[n], new double[n], new double[n]));
+        }
+
+        pool.invoke(new InputsTask(inputs, results, 0, inputs.size()));
+        return results;
+    }
+
+    /** Die eigentliche Schleife: Ausgabe-Spalten [from, to) */
+    private static void computeRange(Input input, Periods out, int from, int to) {
+        Tariff tariff = input.tariff();
+        double netEnergyPrice = tariff.netEnergyPricePerKWh();
+        double energyTax = tariff.energyTaxPerKWh();
+        double netBasePerDay = tariff.netBasePricePerDay();
+        double vatFactor = tariff.vatFactor();
+        double paidPerDay = tariff.paidAmountPerDay();
+        double credit = tariff.additionalCredit();
+        int refDay = input.refEpochDay();
+        double refValue = input.refValue();
+
+        int[] epochDays = input.epochDays();
+        double[] kWh = input.kWh();
+
+        int[] daysPeriod = out.daysPeriod();
+        double[] paid = out.paidAmountPeriod();
+        double[] totalCosts = out.totalCostsPeriod();
+        double[] usedEnergy = out.sumUsedEnergy();
+        double[] costDiff = out.costDiffPeriod();
+        double[] perDay = out.usedEnergyPerDay();
+
+        for (int i = from; i < to; i++) {
+            int days = epochDays[i] - refDay;
+            double diff = kWh[i] - refValue;
+
+            double netTotal = diff * netEnergyPrice + netBasePerDay * days + energyTax * diff;
+            double brutto = netTotal * vatFactor;
+            double paidAmount = paidPerDay * days;
+
+            daysPeriod[i] = days;
+            usedEnergy[i] = diff;
+            perDay[i] = diff / days;
+            totalCosts[i] = brutto;
+            paid[i] = paidAmount;
+            costDiff[i] = (paidAmount - brutto) + credit;
+        }
+    }
+
+    /**
+     * Schleife mit Tarifabschnitten: Die Abschnitte werden parallel zu den Ablesungen durchlaufen.
+     * Eine Grenze zwischen zwei Ablesungen schließt den laufenden Abschnitt mit dem interpolierten Verbrauch ab.
+     */
+    private static void computeSegmented(Input input, Periods out) {
+        Rate[] rates = input.rates();
+        double paidPerDay = input.tariff().paidAmountPerDay();
+        double credit = input.tariff().additionalCredit();
+        int refDay = input.refEpochDay();
+        double refValue = input.refValue();
+
+        int[] epochDays = input.epochDays();
+        double[] kWh = input.kWh();
+
+        int rate = 0;                       // Aktueller Abschnitt
+        int segmentDay = refDay;            // Beginn des aktuellen Abschnitts
+        double segmentUsed = 0;             // Verbrauch seit dem Referenzdatum zu Beginn des Abschnitts
+        double closedCosts = 0;             // Brutto-Kosten der abgeschlossenen Abschnitte
+        int previousDay = refDay;
+        double previousUsed = 0;
+
+        for (int i = 0; i < epochDays.length; i++) {
+            int day = epochDays[i];
+            double used = kWh[i] - refValue;
+
+            // Grenzen nach der vorherigen Ablesung (daher previousDay < boundary <= day)
+            while (rate + 1 < rates.length && rates[rate + 1].fromEpochDay() <= day) {
+                int boundary = rates[rate + 1].fromEpochDay();
+                double boundaryUsed = previousUsed + (used - previousUsed) * (boundary - previousDay) / (day - previousDay);
+
+                closedCosts += rates[rate].cost(segmentDay, segmentUsed, boundary, boundaryUsed);
+                segmentDay = boundary;
+                segmentUsed = boundaryUsed;
+                rate++;
+            }
+
+            int days = day - refDay;
+            double brutto = closedCosts + rates[rate].cost(segmentDay, segmentUsed, day, used);
+            double paidAmount = paidPerDay * days;
+
+            out.daysPeriod()[i] = days;
+            out.sumUsedEnergy()[i] = used;
+            out.usedEnergyPerDay()[i] = used / days;
+            out.totalCostsPeriod()[i] = brutto;
+            out.paidAmountPeriod()[i] = paidAmount;
+            out.costDiffPeriod()[i] = (paidAmount - brutto) + credit;
+
+            previousDay = day;
+            previousUsed = used;
+        }
+    }
+
+    /** Fork/Join über die Eingaben (halbiert die Liste, bis eine Eingabe übrig bleibt) */
+    private static final class InputsTask extends RecursiveTask<Void> {
+        private final List<Input> inputs;
+        private final List<Periods> results;
+        private final int from;
+        private final int to;
+
+        InputsTask(List<Input> inputs, List<Periods> results, int from, int to) {
+            this.inputs = inputs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from == 1) {
+                Input input = inputs.get(from);
+                if (input.rates() == null) {
+                    new RangeTask(input, results.get(from), 0, input.epochDays().length).compute();
+                } else {
+                    // Abschnitte bauen aufeinander auf (fortlaufende Summe), daher keine Aufteilung innerhalb der Reihe
+                    computeSegmented(input, results.get(from));
+                }
+                return null;
+            }
+            if (to == from) { return null; }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new InputsTask(inputs, results, from, mid), new InputsTask(inputs, results, mid, to));
+            return null;
+        }
+    }
+
+    /** Fork/Join innerhalb einer sehr langen Reihe */
+    private static final class RangeTask extends RecursiveTask<Void> {
+        private final Input input;
+        private final Periods out;
+        private final int from;
+        private final int to;
+
+        RangeTask(Input input, Periods out, int from, int to) {
+            this.input = input;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                computeRange(input, out, from, to);
+                return null;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(input, out, from, mid), new RangeTask(input, out, mid, to));
+            return null;
+        }
+    }
+}
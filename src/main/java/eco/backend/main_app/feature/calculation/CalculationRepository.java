@@ -1,23 +1,37 @@
 package eco.backend.main_app.feature.calculation;
 
 import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface CalculationRepository extends JpaRepository<CalculationEntity, Long> {
 
     // Historie abrufen (neuester Eintrag zuerst)
     List<CalculationEntity> findByUserIdOrderByPeriodEndDesc(Long userId);
 
-    // Historie abrufen (ältester Eintrag zuerst)
-    List<CalculationEntity> findByUserIdOrderByPeriodEndAsc(Long userId);
+    // Keyset-Paginierung über idx_results_user_period (user_id, period_end ist eindeutig):
+    // Ergebnisse mit Enddatum nach 'after' (Zeitraumbeginn oder Cursor, vom Aufrufer bestimmt) und vor 'to', ältester Eintrag zuerst
+    @Query("""
+            SELECT c FROM CalculationEntity c
+            WHERE c.user.id = :userId AND c.periodEnd > :after AND c.periodEnd < :to
+            ORDER BY c.periodEnd ASC
+            """)
+    List<CalculationEntity> findPage(Long userId, LocalDateTime after, LocalDateTime to, Limit limit);
 
     // Optional; Suche nach exaktem Eintrag (User + End-Zeitpunkt)
     Optional<CalculationEntity> findByUserIdAndPeriodEnd(Long userId, LocalDateTime periodEnd);
 
+    // Prüft, ob der User gespeicherte Ergebnisse besitzt
+    boolean existsByUserId(Long userId);
+
     // Löscht alle Einträge einer bestimmten User-ID
+    @Transactional
     void deleteByUserId(Long userId);
 }
@@ -1,31 +1,49 @@
 package eco.backend.main_app.feature.calculation;
 
+import eco.backend.main_app.core.cache.DataVersionStore;
+import eco.backend.main_app.core.event.ConfigChangedEvent;
+import eco.backend.main_app.core.event.TrackingChangedEvent;
 import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
 import eco.backend.main_app.feature.auth.UserService;
 import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.CalculationBatchRepository.ResultRow;
+import eco.backend.main_app.feature.calculation.PeriodCalculator.PreparedCalculation;
 import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
 import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
 import eco.backend.main_app.feature.calculation.model.CalculationEntity;
 import eco.backend.main_app.feature.configuration.ConfigService;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.TariffService;
 import eco.backend.main_app.feature.configuration.model.ConfigEntity;
 import eco.backend.main_app.feature.tracking.TrackingRepository;
 import eco.backend.main_app.feature.tracking.TrackingService;
 import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import eco.backend.main_app.utils.KeysetPage;
 import eco.backend.main_app.utils.ReuseHelper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Service
@@ -35,19 +53,62 @@ public class CalculationService {
     private final ConfigService configService;
     private final TrackingService trackingService;
     private final CalculationRepository calculationRepository;
+    private final CalculationBatchRepository calculationBatchRepository;
+    private final MeterRegistry meterRegistry;
+    private final DataVersionStore dataVersionStore;
+    private final TariffService tariffService;
     private static final Logger logger = LoggerFactory.getLogger(CalculationService.class);
 
+    // Zustand der inkrementellen Berechnung pro User (Referenzeintrag + Fingerprint der Config)
+    private final Map<Long, CalculationState> calculationStates = new ConcurrentHashMap<>();
+
+    @Value("${app.calculation.incremental:true}")
+    private boolean incrementalEnabled;
+
+    @Value("${app.pagination.max-limit:1000}")
+    private int maxPageLimit;
+
+    // Metriken: Dauer der Phasen (Laden, Berechnen, Speichern) und Anzahl der Perioden pro Berechnung
+    private final Timer loadTimer;
+    private final Timer computeTimer;
+    private final Timer saveTimer;
+    private final DistributionSummary periodsSummary;
+
     public CalculationService(TrackingRepository trackingRepository,
                               UserService userService,
                               ConfigService configService,
                               TrackingService trackingService,
-                              CalculationRepository calculationRepository) {
+                              CalculationRepository calculationRepository,
+                              CalculationBatchRepository calculationBatchRepository,
+                              MeterRegistry meterRegistry,
+                              DataVersionStore dataVersionStore,
+                              TariffService tariffService) {
 
         this.trackingRepository = trackingRepository;
         this.userService = userService;
         this.configService = configService;
         this.trackingService = trackingService;
         this.calculationRepository = calculationRepository;
+        this.calculationBatchRepository = calculationBatchRepository;
+        this.meterRegistry = meterRegistry;
+        this.dataVersionStore = dataVersionStore;
+        this.tariffService = tariffService;
+
+        this.loadTimer = phaseTimer("load", meterRegistry);
+        this.computeTimer = phaseTimer("compute", meterRegistry);
+        this.saveTimer = phaseTimer("save", meterRegistry);
+        this.periodsSummary = DistributionSummary.builder("eco.calculation.periods")
+                .description("Anzahl der berechneten Perioden pro Berechnung")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer phaseTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder("eco.calculation.duration")
+                .description("Dauer der Berechnungsphasen")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
@@ -60,9 +121,10 @@ public class CalculationService {
      */
      public List<CalculationResultsDto> runCalculation(String username, CalculationRequestDto requestDto) {
         logger.debug("Starte Berechnung ...");
+        Timer.Sample loadSample = Timer.start(meterRegistry);
 
         int MIN_DATA_POINTS = 2; // Mindestanzahl der Datenpunkte für die Berechnung
-        UserEntity user = userService.findUserByName(username);
+        AuthenticatedUser user = userService.findPrincipalByName(username);
 
         if (!userService.hasValidStatus(user)) {
             throw new GenericException("Invalid user status.", HttpStatus.FORBIDDEN);
@@ -75,49 +137,79 @@ public class CalculationService {
 
         // Getrackte Daten für den Zeitraum laden, sonst Fallback auf alle Daten (absteigend sortiert: neuester Eintrag zuerst)
         List<TrackingEntity> trackedData = (startDate == null || endDate == null) ?
-                trackingRepository.findByUserIdOrderByTimestampDesc(user.getId()) :
-                trackingRepository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(user.getId(), startDate, endDate);
+                trackingRepository.findByUserIdOrderByTimestampDesc(user.id()) :
+                trackingRepository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(user.id(), startDate, endDate);
 
         if (trackedData.size() < MIN_DATA_POINTS) {
             throw new GenericException("Nicht genügend Datenpunkte. Mindestens " + MIN_DATA_POINTS + " Datenpunkte erforderlich.", HttpStatus.BAD_REQUEST);
         }
 
          Optional<TrackingEntity> result = (endDate != null) ?
-                 findEntryByUserAndDate(user.getId(), endDate.toLocalDate()) :
+                 findEntryByUserAndDate(user.id(), endDate.toLocalDate()) :
                  Optional.empty();
 
          if (result.isEmpty()) {
              throw new GenericException("Kein Eintrag gefunden für das gegebene Datum.", HttpStatus.BAD_REQUEST);
          }
 
-         TrackingEntity refEntry = (startDate == null) ? trackedData.getLast() : trackingService.findEntryByDate(trackedData, startDate.toLocalDate());
+         TrackingEntity refEntry = (startDate == null) ? trackedData.getLast() : TrackingService.findEntryByDate(trackedData, startDate.toLocalDate());
+         TariffSchedule schedule = tariffService.getSchedule(user.id());
+         loadSample.stop(loadTimer);
 
-         List<CalculationResultsDto> results = new ArrayList<>();
+         List<CalculationResultsDto> results = computeTimer.record(
+                 () -> PeriodCalculator.calculatePeriods(refEntry, trackedData.subList(0, trackedData.size() - 1), configData, schedule));
+         periodsSummary.record(results.size());
 
-        // Iteration über alle aufeinanderfolgenden Einträge
-        for (int i = 0; i < trackedData.size() - 1; i++) {
+        logger.debug("Berechnung für {} period(s) durchgeführt.", results.size());
+        logger.debug("Anzahl der Datenpunkte: {}", trackedData.size());
 
-            TrackingEntity currentEntry = trackedData.get(i);
+        rememberState(user.id(), refEntry, configData, schedule);
+        return results;
+    }
 
-            // Datum-Validierung pro Paar
-            if (!validDates(refEntry.getTimestamp(), currentEntry.getTimestamp())) {
-                throw new GenericException(
-                        "Ungültige Datumswerte: Die Startdatum muss vor dem Enddatum liegen.",
-                        HttpStatus.BAD_REQUEST
-                );
-            }
+    /** Hilfsfunktion: Berechnet eine vorbereitete vollständige Berechnung (mit Metriken) */
+    private List<CalculationResultsDto> computeFull(PreparedCalculation prepared) {
+        List<CalculationResultsDto> results = computeTimer.record(prepared::compute);
+        periodsSummary.record(results.size());
+        return results;
+    }
+
+    /**
+     * Lädt die Eingabe des CalculationKernel für einen vollständigen Neuaufbau (ohne die Berechnung selbst).
+     * Wird von der Neuberechnung aller User genutzt, die die Eingaben gesammelt per Fork/Join berechnet. Der Zustand
+     * des inkrementellen Modus bleibt unverändert, da der geladene Stand beim Speichern bereits veraltet sein kann.
+     *
+     * @param user Der User
+     * @param configData Aktuelle Konfiguration des Users
+     * @return Vorbereitete Berechnung (leer, falls kein Referenzeintrag bzw. keine Einträge existieren)
+     */
+    Optional<PreparedCalculation> prepareFullCalculation(UserEntity user, ConfigEntity configData) {
+        return prepareFullCalculation(user, configData, false);
+    }
 
-            // Berechnung für jedes Paar ausführen und Ergebnis sammeln
-            CalculationResultsDto singleResult = calculateSinglePeriod(refEntry, currentEntry, configData);
-            results.add(singleResult);
+    /** Hilfsfunktion: Wie prepareFullCalculation, übernimmt optional den Zustand für den inkrementellen Modus */
+    private Optional<PreparedCalculation> prepareFullCalculation(UserEntity user, ConfigEntity configData, boolean remember) {
+        Timer.Sample loadSample = Timer.start(meterRegistry);
+        List<TrackingEntity> allData = trackingRepository.findByUserIdOrderByTimestampDesc(user.getId());
+
+        // Ohne Referenzdatum gilt wie bei runCalculation der älteste Eintrag als Referenz
+        Optional<TrackingEntity> refEntry = (configData.getReferenceDate() == null) ?
+                Optional.ofNullable(allData.isEmpty() ? null : allData.getLast()) :
+                findEntryByUserAndDate(user.getId(), configData.getReferenceDate().toLocalDate());
+
+        if (refEntry.isEmpty()) {
+            loadSample.stop(loadTimer);
+            return Optional.empty();
         }
 
-        logger.debug("Berechnung für {} period(s) durchgeführt.", results.size());
-        logger.debug("Anzahl der Datenpunkte: {}", trackedData.size());
+        List<TrackingEntity> trackedData = allData.stream()
+                .filter(e -> PeriodCalculator.validDates(refEntry.get().getTimestamp(), e.getTimestamp()))
+                .toList();
+        TariffSchedule schedule = tariffService.getSchedule(user.getId());
+        loadSample.stop(loadTimer);
 
-        // Rückgabe der sortierten Liste
-        results.sort(Comparator.comparing(CalculationResultsDto::periodEnd));
-        return results;
+        if (remember) { rememberState(user.getId(), refEntry.get(), configData, schedule); }
+        return Optional.of(PeriodCalculator.prepareColumns(refEntry.get(), trackedData, configData, schedule));
     }
 
     public Optional<TrackingEntity> findEntryByUserAndDate(Long userId, LocalDate date) {
@@ -127,172 +219,427 @@ public class CalculationService {
         return trackingRepository.findFirstByUserIdAndTimestampBetween(userId, start, end);
     }
 
-    private CalculationResultsDto calculateSinglePeriod(TrackingEntity refEntry,
-                                                        TrackingEntity currentEntry,
-                                                        ConfigEntity configData) {
-        int DAYS_IN_YEAR = 365;
-        int MONTHS_IN_YEAR = 12;
-        String logMessage = null;
-
-        try {
-            long daysBetween = ChronoUnit.DAYS.between(
-                    refEntry.getTimestamp().toLocalDate(),
-                    currentEntry.getTimestamp().toLocalDate()
-            );
-
-            double diffTrackedValues = currentEntry.getReadingValue() - refEntry.getReadingValue();
+    /**
+     * Speichert oder aktualisiert das Berechnungsergebnis in der Datenbank.
+     *
+     * @param username Der Name des (authentifizierten) Users
+     * @param resultsList Das DTO als Liste mit den Berechnungsergebnissen
+     */
+    @Transactional
+    public void saveResultsInEntity(String username, List<CalculationResultsDto> resultsList) {
+        saveResultsInEntity(userService.findUserByName(username), resultsList);
+    }
 
-            SkippedMonthsResults skippedMonths = estimateSkippedMonths(
-                    refEntry.getTimestamp().toLocalDate(),
-                    configData.getDueDay(),
-                    configData.getSepaProcessingDays()
-            );
+    @Transactional
+    public void saveResultsInEntity(UserEntity user, List<CalculationResultsDto> resultsList) {
+        persistResults(user, resultsList, false, null);
+    }
 
-            if (skippedMonths.message != null) { logMessage = skippedMonths.message; }
-
-            double normConsumptionPerDay   = diffTrackedValues / daysBetween;
-            double netConsumptionPrice     = configData.getEnergyPrice() / (1 + configData.getVatRate()) - configData.getEnergyTax();
-            double netConsumptionCostPeriod = diffTrackedValues * netConsumptionPrice;
-            double netBasePrice            = configData.getBasePrice() / (1 + configData.getVatRate());
-            double netBaseCostPeriod       = netBasePrice * MONTHS_IN_YEAR / DAYS_IN_YEAR * daysBetween;
-            double netEnergyTaxCostPeriod  = configData.getEnergyTax() * diffTrackedValues;
-            double netTotalCostPeriod      = netConsumptionCostPeriod + netBaseCostPeriod + netEnergyTaxCostPeriod;
-            double bruttoTotalCostPeriod   = netTotalCostPeriod * (1 + configData.getVatRate());
-            double paidAmountPeriod        = configData.getMonthlyAdvance() * (MONTHS_IN_YEAR - skippedMonths.value) / DAYS_IN_YEAR * daysBetween;
-            double costDiffPeriod          = (paidAmountPeriod - bruttoTotalCostPeriod) + configData.getAdditionalCredit();
-
-            return new CalculationResultsDto(
-                    configData.getMeterIdentifier(),
-                    refEntry.getTimestamp().toLocalDate(),
-                    currentEntry.getTimestamp().toLocalDate(),
-                    daysBetween,
-                    paidAmountPeriod,
-                    bruttoTotalCostPeriod,
-                    diffTrackedValues,
-                    costDiffPeriod,
-                    normConsumptionPerDay,
-                    logMessage
-            );
-        } catch (Exception e) {
-            logger.error("Fehler bei Berechnung: {}", e.getMessage());
-            throw new GenericException("Fehler bei Berechnung: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    /**
+     * Speichert die Ergebnisse wie saveResultsInEntity, sofern sich der Datenstand seit dem Laden der Eingaben
+     * nicht geändert hat (z.B. Berechnungsaufträge, deren Eingaben beim Speichern veraltet sein können).
+     *
+     * @param user Der User
+     * @param resultsList Ergebnisse der Berechnung
+     * @param loadedVersion Datenstand des Users (DataVersionStore) vor dem Laden der Eingaben
+     * @return false, falls sich der Datenstand zwischenzeitlich geändert hat (nichts gespeichert)
+     */
+    @Transactional
+    public boolean saveResultsIfCurrent(UserEntity user, List<CalculationResultsDto> resultsList, long loadedVersion) {
+        return persistResults(user, resultsList, false, loadedVersion);
     }
 
     /**
-     * Hilfsfunktion prüft, ob das Startdatum vor dem Enddatum liegt.
+     * Ersetzt alle gespeicherten Ergebnisse des Users (Zeilen ohne zugehöriges Ergebnis werden entfernt), sofern
+     * sich der Datenstand seit dem Laden der Eingaben nicht geändert hat.
      *
-     * @param startDate Startdatum
-     * @param endDate Enddatum
+     * @param user Der User
+     * @param resultsList Ergebnisse eines vollständigen Neuaufbaus
+     * @param loadedVersion Datenstand des Users (DataVersionStore) vor dem Laden der Eingaben
+     * @return false, falls sich der Datenstand zwischenzeitlich geändert hat (nichts gespeichert)
      */
-    private boolean validDates(LocalDateTime startDate, LocalDateTime endDate){
-        return startDate.isBefore(endDate);
+    @Transactional
+    public boolean replaceResults(UserEntity user, List<CalculationResultsDto> resultsList, long loadedVersion) {
+        return persistResults(user, resultsList, true, loadedVersion);
     }
 
     /**
-     * Speichert oder aktualisiert das Berechnungsergebnis in der Datenbank.
+     * Persistiert die Ergebnisse gebündelt: Bestehende Zeilen werden einmalig geladen (indiziert nach Enddatum),
+     * im Speicher abgeglichen und nur neue bzw. geänderte Zeilen per Batch-Upsert geschrieben.
      *
-     * @param username Der Name des (authentifizierten) Users
+     * @param user Der (authentifizierte) User
      * @param resultsList Das DTO als Liste mit den Berechnungsergebnissen
+     * @param removeStale true: Zeilen ohne zugehöriges Ergebnis werden entfernt (vollständiger Neuaufbau)
+     * @param expectedVersion Nur speichern, falls der Datenstand des Users noch diesem Wert entspricht (null: immer)
+     * @return false, falls der Datenstand abweicht (nichts gespeichert)
      */
-    @Transactional
-    public void saveResultsInEntity(String username, List<CalculationResultsDto> resultsList) {
+    private boolean persistResults(UserEntity user, List<CalculationResultsDto> resultsList, boolean removeStale, Long expectedVersion) {
         logger.debug("Speichern von {} Berechnungsergebnissen...", resultsList.size());
+        Timer.Sample saveSample = Timer.start(meterRegistry);
 
-        UserEntity user = userService.findUserByName(username);
+        Map<LocalDateTime, ResultRow> existingRows = calculationBatchRepository.findAllByUserIdKeyedByPeriodEnd(user.getId());
 
-        // Iteration über alle Ergebnisse in der Liste
-        for (CalculationResultsDto results : resultsList) {
-
-            LocalDateTime startTimestamp = results.periodStart().atStartOfDay();
-            LocalDateTime endTimestamp = results.periodEnd().atStartOfDay();
+        // Erst nach dem ersten Statement prüfen: Die Transaktion hält dann die Schreibverbindung, und jede zuvor
+        // committete Änderung hat den Datenstand bereits erhöht (Schreibzugriffe laufen seriell)
+        if (expectedVersion != null && dataVersionStore.current(user.getId()).value() != expectedVersion) {
+            saveSample.stop(saveTimer);
+            return false;
+        }
+        List<ResultRow> rowsToWrite = new ArrayList<>();
 
-            // Prüfen: Gibt es schon einen Eintrag für dieses Enddatum?
-            // Verhindert Duplikate bei mehrfacher Berechnung am selben Tag.
-            CalculationEntity entityToSave = calculationRepository
-                    .findByUserIdAndPeriodEnd(user.getId(), endTimestamp)
-                    .orElse(new CalculationEntity());
+        for (CalculationResultsDto results : resultsList) {
+            ResultRow row = new ResultRow(
+                    results.periodStart().atStartOfDay(),
+                    results.periodEnd().atStartOfDay(),
+                    results.daysPeriod(),
+                    results.paidAmountPeriod(),
+                    results.totalCostsPeriod(),
+                    results.costDiffPeriod(),
+                    results.sumUsedEnergy(),
+                    results.usedEnergyPerDay()
+            );
 
-            // Bei neuer Entity: User und Enddatum einmalig setzen
-            if (entityToSave.getId() == null) {
-                entityToSave.setUser(user);
-                entityToSave.setPeriodEnd(endTimestamp);
+            // Unveränderte Zeilen werden nicht erneut geschrieben
+            ResultRow existingRow = existingRows.remove(row.periodEnd());
+            if (!row.equals(existingRow)) {
+                rowsToWrite.add(row);
             }
+        }
 
-            // Diese Werte werden IMMER aktualisiert (unverändert)
-            entityToSave.setPeriodStart(startTimestamp);
-            entityToSave.setTotalCostsPeriod(results.totalCostsPeriod());
-            entityToSave.setCostDiffPeriod(results.costDiffPeriod());
-            entityToSave.setDaysPeriod(results.daysPeriod());
-            entityToSave.setSumUsedEnergy(results.sumUsedEnergy());
-            entityToSave.setPaidAmountPeriod(results.paidAmountPeriod());
-            entityToSave.setUsedEnergyPerDay(results.usedEnergyPerDay());
+        calculationBatchRepository.upsertAll(user.getId(), rowsToWrite);
 
-            calculationRepository.save(entityToSave);
+        if (removeStale) {
+            calculationBatchRepository.deleteByPeriodEnds(user.getId(), existingRows.keySet());
+        }
 
+        // Neuer Datenstand für bedingte Anfragen (nur bei tatsächlichen Änderungen)
+        if (!rowsToWrite.isEmpty() || (removeStale && !existingRows.isEmpty())) {
+            dataVersionStore.bump(user.getId());
         }
 
-        logger.debug("Alle Berechnungsergebnisse gespeichert.");
+        saveSample.stop(saveTimer);
+        logger.debug("Berechnungsergebnisse gespeichert ({} geschrieben, {} unverändert).",
+                rowsToWrite.size(), resultsList.size() - rowsToWrite.size());
+        return true;
     }
 
     /**
-     * Ruft nur die gespeicherte Historie ab (ohne Neuberechnung).
+     * Ruft die gespeicherte Historie seitenweise ab (Keyset-Paginierung nach Enddatum, ältester Eintrag zuerst).
+     * Ohne Parameter wird die gesamte Historie geladen.
      *
      * @param username Der Name des (authentifizierten) Users
+     * @param from Erstes Enddatum (optional, dd.MM.yyyy)
+     * @param to Letztes Enddatum (optional, dd.MM.yyyy)
+     * @param limit Seitengröße (optional, höchstens app.pagination.max-limit)
+     * @param cursor Cursor der vorherigen Seite (optional)
      */
-    public List<CalculationEntity> getHistory(String username) {
+    public KeysetPage<CalculationEntity> getHistoryPage(String username, String from, String to, Integer limit, String cursor) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+
+        LocalDateTime start = ReuseHelper.getParsedDateOrDefault(from, AppConstants.MIN_QUERY_DATE).atStartOfDay();
+        LocalDateTime end = ReuseHelper.getParsedDateOrDefault(to, AppConstants.MAX_QUERY_DATE).plusDays(1).atStartOfDay();
+        Integer pageLimit = KeysetPage.checkLimit(limit, maxPageLimit);
+
+        // Untergrenze: Anfang des Zeitraums (Enddaten sind sekundengenau) oder der spätere Cursor der vorherigen Seite
+        List<String> position = KeysetPage.decode(cursor, 1);
+        LocalDateTime after = start.minusSeconds(1);
+        if (position != null) {
+            try {
+                LocalDateTime cursorEnd = LocalDateTime.parse(position.getFirst(), DateTimeConverter.FORMATTER);
+                if (cursorEnd.isAfter(after)) { after = cursorEnd; }
+            } catch (DateTimeParseException e) {
+                throw new GenericException("Ungültiger Cursor.", HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        List<CalculationEntity> rows = calculationRepository.findPage(user.id(), after, end, KeysetPage.fetchLimit(pageLimit));
+        return KeysetPage.of(rows, pageLimit, result -> List.of(result.getPeriodEnd().format(DateTimeConverter.FORMATTER)));
+    }
+
+    /** Hilfsfunktion löscht alle Berechnungsergebnisse des Users */
+    @Transactional
+    public void deleteAllEntries(String username) {
         UserEntity user = userService.findUserByName(username);
+        calculationRepository.deleteByUserId(user.getId());
+        calculationStates.remove(user.getId());
+        dataVersionStore.bump(user.getId());
+        logger.debug("Alle Berechnungsergebnisse wurden gelöscht von User: {}", user.getUsername());
+    }
 
-        return calculationRepository.findByUserIdOrderByPeriodEndAsc(user.getId());
+    /**
+     * Inkrementeller Modus: Aktualisiert nur die Ergebnisse, deren Periode den geänderten Eintrag enthält.
+     * Ergebnisse werden nur gepflegt, wenn der User bereits gespeicherte Berechnungen besitzt.
+     * Betrifft die Änderung den Referenzeintrag, werden alle Ergebnisse neu aufgebaut.
+     * Läuft in der Transaktion der Änderung; Fehler der Berechnung werden protokolliert und dürfen die Änderung
+     * am Zählerstand nicht zurückrollen (siehe discardState).
+     */
+    @EventListener
+    public void handleTrackingChange(TrackingChangedEvent event) {
+        if (!incrementalEnabled) { return; }
+
+        try {
+            applyTrackingChange(event);
+        } catch (RuntimeException e) {
+            discardState(event.getUser().getId(), e);
+        }
+    }
+
+    /** Hilfsfunktion: Übernimmt die Änderung an einem Zählerstand in die gespeicherten Ergebnisse */
+    private void applyTrackingChange(TrackingChangedEvent event) {
+        Long userId = event.getUser().getId();
+        meterRegistry.counter("eco.calculation.incremental", "type", event.getType().name().toLowerCase()).increment();
+
+        if (event.getType() == TrackingChangedEvent.ChangeType.CLEARED) {
+            if (calculationRepository.existsByUserId(userId)) {
+                calculationRepository.deleteByUserId(userId);
+            }
+            calculationStates.remove(userId);
+            return;
+        }
+
+        // Import mehrerer Einträge: Vollständiger Neuaufbau, falls bereits Ergebnisse gepflegt werden
+        if (event.getType() == TrackingChangedEvent.ChangeType.IMPORTED) {
+            if (calculationStates.containsKey(userId) || calculationRepository.existsByUserId(userId)) {
+                rebuildResults(event.getUser());
+            }
+            return;
+        }
+
+        CalculationState state = loadState(event.getUser());
+        if (state == null) {
+            // Gespeicherte Ergebnisse ohne auffindbaren Referenzeintrag (z.B. gelöscht, Zustand nicht im Speicher)
+            if (calculationRepository.existsByUserId(userId)) {
+                rebuildResults(event.getUser());
+            }
+            return;
+        }
+
+        TrackingEntity entry = event.getEntry();
+        LocalDateTime previous = event.getPreviousTimestamp();
+
+        // Änderung am Referenzeintrag: Alle Perioden sind betroffen
+        boolean touchesReference = entry.getTimestamp().toLocalDate().isEqual(state.referenceDate())
+                || (previous != null && previous.toLocalDate().isEqual(state.referenceDate()));
+
+        if (touchesReference) {
+            rebuildResults(event.getUser());
+            return;
+        }
+
+        // Neue bzw. geänderte Periode berechnen (nur Einträge nach dem Referenzdatum), vor dem ersten Schreibzugriff
+        boolean changed = event.getType() != TrackingChangedEvent.ChangeType.DELETED
+                && entry.getTimestamp().toLocalDate().isAfter(state.referenceDate());
+        List<CalculationResultsDto> results;
+
+        if (state.schedule().hasBoundaryAfter((int) state.referenceDate().toEpochDay())) {
+            results = calculateSegmentedChange(userId, state, entry, previous, changed);
+        } else {
+            results = !changed ? List.of() : List.of(PeriodCalculator.calculateSinglePeriod(
+                    state.referenceDate(), state.referenceValue(),
+                    entry.getTimestamp().toLocalDate(), entry.getReadingValue(),
+                    state.config(), state.schedule()
+            ));
+        }
+
+        // Alte Periode entfernen (Datum geändert oder Eintrag gelöscht)
+        if (previous != null && (event.getType() == TrackingChangedEvent.ChangeType.DELETED
+                || !previous.toLocalDate().isEqual(entry.getTimestamp().toLocalDate()))) {
+            calculationBatchRepository.deleteByPeriodEnds(userId, List.of(previous.toLocalDate().atStartOfDay()));
+        }
+
+        if (!results.isEmpty()) {
+            persistResults(event.getUser(), results, false, null);
+        }
+
+        logger.debug("Inkrementelle Berechnung für User-ID {} durchgeführt ({}).", userId, event.getType());
     }
 
     /**
-     * Hilfsfunktion berechnet die voraussichtliche Anzahl der verschobenen Abrechnungsmonate
-     * anhand der übergebenen Parameter.
-     * Diese Abrechnungsmonate werden nicht einfach übersprungen, sondern zum späteren Zeitpunkt verschoben.
-     *
-     * @param startDate Startdatum des Abrechnungszeitraums
-     * @param dueDay Abbuchungstag im Monat
-     * @param sepaProcessingDays Anzahl der Tage für die Lastschriftankündigung (SEPA)
-     *
-     * @return SkippedMonthsResults: record (int value, String message)
+     * Hilfsfunktion: Inkrementeller Modus mit Tarifgrenzen nach dem Referenzdatum.
+     * Der Verbrauch an einer Grenze wird aus den beiden angrenzenden Ablesungen interpoliert. Liegt eine Grenze zwischen
+     * den Nachbarn der alten bzw. neuen Position des Eintrags, ändern sich alle Perioden ab dieser Grenze; sonst nur die
+     * Periode des Eintrags selbst. Die Tarifabschnitte werden erst bei Änderungen an Config oder Tarifversionen neu aufgebaut.
      */
-    private SkippedMonthsResults estimateSkippedMonths(LocalDate startDate, Integer dueDay, Integer sepaProcessingDays) {
+    private List<CalculationResultsDto> calculateSegmentedChange(Long userId, CalculationState state, TrackingEntity entry,
+                                                                 LocalDateTime previous, boolean changed) {
+        TreeMap<Integer, TrackingEntity> targets = new TreeMap<>();
+        if (changed) { targets.put(day(entry.getTimestamp()), entry); }
+
+        int firstBoundary = Integer.MAX_VALUE;
+        if (changed) { firstBoundary = firstBoundaryBetweenNeighbours(userId, state, entry.getTimestamp(), entry.getId()); }
+        if (previous != null) {
+            firstBoundary = Math.min(firstBoundary, firstBoundaryBetweenNeighbours(userId, state, previous, entry.getId()));
+        }
 
-        int skippedMonths = 0; // Zähler für übersprungene Monate
-        String message = null;
+        if (firstBoundary != Integer.MAX_VALUE) {
+            trackingRepository.findByUserIdAndTimestampBetweenOrderByTimestampDesc(userId,
+                    LocalDate.ofEpochDay(firstBoundary).atStartOfDay(), AppConstants.MAX_QUERY_DATE.atTime(LocalTime.MAX))
+                    .forEach(reading -> targets.put(day(reading.getTimestamp()), reading));
+        }
+        return targets.isEmpty() ? List.of() : calculateSegmentedPeriods(userId, state, targets);
+    }
 
-        // Basis-Startpunkt finden
-        LocalDate currentDue = startDate.withDayOfMonth(dueDay);
+    /**
+     * Hilfsfunktion: Erste Tarifgrenze zwischen dem Vorgänger (bzw. Referenzdatum) und dem Nachfolger der Position
+     * (Vorgänger < Grenze <= Nachfolger, wie im CalculationKernel); Integer.MAX_VALUE, falls keine Grenze betroffen ist.
+     */
+    private int firstBoundaryBetweenNeighbours(Long userId, CalculationState state, LocalDateTime position, Long entryId) {
+        int refDay = (int) state.referenceDate().toEpochDay();
+        int lower = trackingRepository.findFirstByUserIdAndTimestampLessThanEqualAndIdNotOrderByTimestampDesc(userId, position, entryId)
+                .map(reading -> Math.max(day(reading.getTimestamp()), refDay))
+                .orElse(refDay);
+        int upper = trackingRepository.findFirstByUserIdAndTimestampGreaterThanEqualAndIdNotOrderByTimestampAsc(userId, position, entryId)
+                .map(reading -> day(reading.getTimestamp()))
+                .orElse(Integer.MAX_VALUE);
+
+        TariffSchedule schedule = state.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            int boundary = schedule.validFrom(i);
+            if (boundary > lower && boundary <= upper) { return boundary; }
+        }
+        return Integer.MAX_VALUE;
+    }
 
-        // Wenn der Stichtag im Startmonat schon vorbei ist (z.B. Start: 22.07., dueDay: 05.),
-        // muss es logisch eh erst im nächsten Monat weitergehen.
-        if (currentDue.isBefore(startDate)) {
-            currentDue = currentDue.plusMonths(1);
+    /**
+     * Hilfsfunktion: Berechnet die Perioden bis zu den Ablesungen 'targets' (nach Tag) mit Tarifabschnitten.
+     * Neben den Zielen werden nur die Ablesungen direkt vor und ab jeder Tarifgrenze benötigt; sie sind auch in der
+     * vollständigen Reihe benachbart, sodass der CalculationKernel dieselben Werte (bitgleich) liefert.
+     */
+    private List<CalculationResultsDto> calculateSegmentedPeriods(Long userId, CalculationState state,
+                                                                  TreeMap<Integer, TrackingEntity> targets) {
+        int refDay = (int) state.referenceDate().toEpochDay();
+        int lastDay = targets.lastKey();
+        TreeMap<Integer, Double> readings = new TreeMap<>();
+        targets.forEach((day, reading) -> readings.put(day, reading.getReadingValue()));
+
+        TariffSchedule schedule = state.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            int boundary = schedule.validFrom(i);
+            if (boundary <= refDay || boundary > lastDay) { continue; }
+
+            LocalDateTime boundaryStart = LocalDate.ofEpochDay(boundary).atStartOfDay();
+            trackingRepository.findFirstByUserIdAndTimestampLessThanOrderByTimestampDesc(userId, boundaryStart)
+                    .filter(reading -> day(reading.getTimestamp()) > refDay)
+                    .ifPresent(reading -> readings.put(day(reading.getTimestamp()), reading.getReadingValue()));
+            trackingRepository.findFirstByUserIdAndTimestampGreaterThanEqualOrderByTimestampAsc(userId, boundaryStart)
+                    .ifPresent(reading -> readings.put(day(reading.getTimestamp()), reading.getReadingValue()));
         }
 
-        // SEPA-Check (Business-Logik)
-        // Wenn der erste theoretische Termin zu nah am Startdatum liegt -> Überspringen
-        if (ChronoUnit.DAYS.between(startDate, currentDue) <= sepaProcessingDays) {
-            skippedMonths++;
+        int[] epochDays = readings.keySet().stream().mapToInt(Integer::intValue).toArray();
+        double[] values = readings.values().stream().mapToDouble(Double::doubleValue).toArray();
+        List<CalculationResultsDto> periods = PeriodCalculator.prepare(state.referenceDate(), state.referenceValue(),
+                epochDays, values, state.config(), schedule).compute();
+
+        return periods.stream()
+                .filter(period -> targets.containsKey((int) period.periodEnd().toEpochDay()))
+                .toList();
+    }
+
+    private static int day(LocalDateTime timestamp) {
+        return (int) timestamp.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Inkrementeller Modus: Ein vollständiger Neuaufbau erfolgt nur, wenn sich Tarif-/Abrechnungswerte,
+     * die Tarifversionen oder das Referenzdatum geändert haben.
+     */
+    @EventListener
+    public void handleConfigChange(ConfigChangedEvent event) {
+        if (!incrementalEnabled) { return; }
+
+        Long userId = event.getUser().getId();
+        try {
+            CalculationState state = calculationStates.get(userId);
+
+            if (state != null && state.fingerprint().equals(ConfigFingerprint.of(event.getConfig(), tariffService.getSchedule(userId)))) {
+                return;
+            }
+
+            if (state != null || calculationRepository.existsByUserId(userId)) {
+                rebuildResults(event.getUser());
+            }
+        } catch (RuntimeException e) {
+            discardState(userId, e);
         }
+    }
+
+    /**
+     * Hilfsfunktion: Fehler der abgeleiteten Ergebnisse (z.B. ungültige Config) werden nicht an die auslösende
+     * Änderung weitergegeben. Der Zustand wird verworfen; die Berechnung über den Endpunkt meldet den Fehler weiterhin.
+     * Alle Berechnungen erfolgen vor dem ersten Schreibzugriff, sodass keine teilweise aktualisierten Ergebnisse entstehen.
+     */
+    private void discardState(Long userId, RuntimeException e) {
+        calculationStates.remove(userId);
+        meterRegistry.counter("eco.calculation.incremental.failures").increment();
+        logger.error("Inkrementelle Berechnung für User-ID {} fehlgeschlagen, Zustand verworfen: {}", userId, e.getMessage());
+    }
+
+    /** Hilfsfunktion: Ersetzt alle gespeicherten Ergebnisse durch eine vollständige Neuberechnung */
+    private void rebuildResults(UserEntity user) {
+        logger.debug("Vollständiger Neuaufbau der Berechnungsergebnisse für User-ID {} ...", user.getId());
+        meterRegistry.counter("eco.calculation.rebuilds").increment();
+
+        calculationStates.remove(user.getId());
+        ConfigEntity configData = configService.getConfigByUsername(user.getUsername());
+        Optional<PreparedCalculation> prepared = prepareFullCalculation(user, configData, true);
 
-        // Message ausgeben
-        if (skippedMonths > 0) {
-            message = " " + skippedMonths + " Abrechnungsmonat(e) wurde(n) übersprungen.";
+        // Ohne Referenzeintrag (z.B. gelöscht) sind die gespeicherten Ergebnisse ungültig und werden entfernt
+        if (prepared.isEmpty()) {
+            if (calculationRepository.existsByUserId(user.getId())) {
+                calculationRepository.deleteByUserId(user.getId());
+                dataVersionStore.bump(user.getId());
+            }
+            logger.warn("Kein Referenzeintrag für User-ID {} gefunden, gespeicherte Ergebnisse wurden entfernt.", user.getId());
+            return;
         }
-        logger.debug(message);
 
-        return new SkippedMonthsResults(skippedMonths, message);
+        persistResults(user, computeFull(prepared.get()), true, null);
     }
 
-    private record SkippedMonthsResults(int value, String message) {}
+    /** Hilfsfunktion: Lädt den Berechnungszustand (oder baut ihn aus Config und Referenzeintrag auf) */
+    private CalculationState loadState(UserEntity user) {
+        CalculationState state = calculationStates.get(user.getId());
+        if (state != null) { return state; }
 
-    /** Hilfsfunktion löscht alle Berechnungsergebnisse des Users */
-    @Transactional
-    public void deleteAllEntries(String username) {
-        UserEntity user = userService.findUserByName(username);
-        calculationRepository.deleteByUserId(user.getId());
-        logger.debug("Alle Berechnungsergebnisse wurden gelöscht von User: {}", user.getUsername());
+        // Ohne gespeicherte Ergebnisse wird nichts inkrementell gepflegt
+        if (!calculationRepository.existsByUserId(user.getId())) { return null; }
+
+        ConfigEntity configData = configService.getConfigByUsername(user.getUsername());
+        if (configData.getReferenceDate() == null) { return null; }
+
+        TariffSchedule schedule = tariffService.getSchedule(user.getId());
+        return findEntryByUserAndDate(user.getId(), configData.getReferenceDate().toLocalDate())
+                .map(refEntry -> rememberState(user.getId(), refEntry, configData, schedule))
+                .orElse(null);
+    }
+
+    private CalculationState rememberState(Long userId, TrackingEntity refEntry, ConfigEntity configData, TariffSchedule schedule) {
+        CalculationState state = new CalculationState(
+                refEntry.getTimestamp().toLocalDate(),
+                refEntry.getReadingValue(),
+                configData,
+                schedule,
+                ConfigFingerprint.of(configData, schedule)
+        );
+        calculationStates.put(userId, state);
+        return state;
+    }
+
+    /** Zustand der inkrementellen Berechnung: Referenzeintrag, die zugrunde liegende Config und die Tarifversionen */
+    private record CalculationState(LocalDate referenceDate, double referenceValue, ConfigEntity config,
+                                    TariffSchedule schedule, ConfigFingerprint fingerprint) {}
+
+    /** Alle Config-Werte, die in die Berechnung einfließen (ohne Zählernummer), inkl. Tarifversionen */
+    private record ConfigFingerprint(Double basePrice, Double energyPrice, Double energyTax, Double vatRate,
+                                     Double monthlyAdvance, Double additionalCredit, Integer dueDay,
+                                     Integer sepaProcessingDays, LocalDateTime referenceDate, TariffSchedule schedule) {
+
+        static ConfigFingerprint of(ConfigEntity config, TariffSchedule schedule) {
+            return new ConfigFingerprint(
+                    config.getBasePrice(), config.getEnergyPrice(), config.getEnergyTax(), config.getVatRate(),
+                    config.getMonthlyAdvance(), config.getAdditionalCredit(), config.getDueDay(),
+                    config.getSepaProcessingDays(), config.getReferenceDate(), schedule
+            );
+        }
     }
 }
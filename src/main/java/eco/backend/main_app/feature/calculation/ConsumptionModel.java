@@ -0,0 +1,154 @@
+package eco.backend.main_app.feature.calculation;
+
+/**
+ * Saisonales Modell des Tagesverbrauchs: verbrauch(t) = mean + cosine * cos(ωt) + sine * sin(ωt) mit ω = 2π / 365,25.
+ * <p>
+ * Angepasst wird per gewichteter Kleinste-Quadrate-Schätzung über die Intervalle zwischen aufeinanderfolgenden Ablesungen:
+ * Das Integral des Modells über ein Intervall soll dem abgelesenen Verbrauch entsprechen. Gewichtet wird mit 1 / Intervalllänge
+ * (Vergleich der Durchschnittsverbräuche) und einem exponentiellen Abklingen nach Alter (Halbwertszeit in Tagen).
+ * Das Modell hält nur die Normalgleichungen (9 Werte); eine neue Ablesung nach der neuesten wird daher in O(1) übernommen:
+ * Alle Gewichte werden um das Abklingen seit der letzten Ablesung skaliert und das neue Intervall wird addiert.
+ * <p>
+ * Die saisonalen Terme werden erst geschätzt, wenn die Ablesungen mindestens ein Jahr abdecken; davor gilt ein konstanter Verbrauch.
+ */
+final class ConsumptionModel {
+
+    private static final double OMEGA = 2 * Math.PI / 365.25;
+    private static final int MIN_SEASONAL_SPAN_DAYS = 365;
+    private static final int MIN_SEASONAL_INTERVALS = 4;
+
+    // Normalgleichungen (X^T W X symmetrisch als s00, s01, s02, s11, s12, s22 und X^T W y als y0, y1, y2)
+    private final double[] normal;
+    private final int intervals;
+    private final int firstDay;
+    private final int lastDay;
+    private final double lastValue;
+    private final double halfLifeDays;
+
+    private final double mean;
+    private final double cosine;
+    private final double sine;
+    private final boolean seasonal;
+
+    private ConsumptionModel(double[] normal, int intervals, int firstDay, int lastDay, double lastValue, double halfLifeDays) {
+        this.normal = normal;
+        this.intervals = intervals;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.lastValue = lastValue;
+        this.halfLifeDays = halfLifeDays;
+
+        double[] coefficients = (lastDay - firstDay >= MIN_SEASONAL_SPAN_DAYS && intervals >= MIN_SEASONAL_INTERVALS)
+                ? solveSeasonal(normal) : null;
+
+        if (coefficients != null) {
+            this.mean = coefficients[0];
+            this.cosine = coefficients[1];
+            this.sine = coefficients[2];
+            this.seasonal = true;
+        } else {
+            this.mean = normal[0] > 0 ? normal[6] / normal[0] : 0;
+            this.cosine = 0;
+            this.sine = 0;
+            this.seasonal = false;
+        }
+    }
+
+    /**
+     * Passt das Modell an eine Zeitreihe an.
+     *
+     * @param epochDays Tage der Ablesungen (aufsteigend)
+     * @param kWh Zählerstände
+     * @param halfLifeDays Halbwertszeit der Gewichtung [Tage]
+     */
+    static ConsumptionModel fit(int[] epochDays, double[] kWh, double halfLifeDays) {
+        int last = epochDays.length - 1;
+        double[] normal = new double[9];
+        int intervals = 0;
+
+        for (int i = 1; i <= last; i++) {
+            double decay = Math.pow(0.5, (epochDays[last] - epochDays[i]) / halfLifeDays);
+            if (addInterval(normal, epochDays[i - 1], kWh[i - 1], epochDays[i], kWh[i], decay)) {
+                intervals++;
+            }
+        }
+        return new ConsumptionModel(normal, intervals, epochDays[0], epochDays[last], kWh[last], halfLifeDays);
+    }
+
+    /**
+     * Übernimmt eine Ablesung nach der neuesten (inkrementelle Anpassung).
+     *
+     * @return Neues Modell (das bestehende bleibt unverändert)
+     */
+    ConsumptionModel append(int epochDay, double value) {
+        double[] next = normal.clone();
+        double decay = Math.pow(0.5, (epochDay - lastDay) / halfLifeDays);
+        for (int k = 0; k < next.length; k++) {
+            next[k] *= decay;
+        }
+
+        boolean added = addInterval(next, lastDay, lastValue, epochDay, value, 1);
+        return new ConsumptionModel(next, intervals + (added ? 1 : 0), firstDay, epochDay, value, halfLifeDays);
+    }
+
+    /** Erwarteter Verbrauch zwischen zwei Tagen (Integral des Modells, nicht negativ) [kWh] */
+    double projectKwh(int fromDay, int toDay) {
+        double[] x = features(fromDay, toDay);
+        return Math.max(0, mean * x[0] + cosine * x[1] + sine * x[2]);
+    }
+
+    /** Erwarteter Verbrauch am Tag [kWh/Tag] */
+    double ratePerDay(int epochDay) {
+        return Math.max(0, mean + cosine * Math.cos(OMEGA * epochDay) + sine * Math.sin(OMEGA * epochDay));
+    }
+
+    double meanPerDay() { return mean; }
+    boolean isSeasonal() { return seasonal; }
+    int intervals() { return intervals; }
+    int lastDay() { return lastDay; }
+    double lastValue() { return lastValue; }
+
+    /** Hilfsfunktion: Addiert ein Intervall zu den Normalgleichungen (false bei Intervallen ohne Dauer) */
+    private static boolean addInterval(double[] normal, int fromDay, double fromValue, int toDay, double toValue, double decay) {
+        int days = toDay - fromDay;
+        if (days <= 0) { return false; }
+
+        double[] x = features(fromDay, toDay);
+        double y = toValue - fromValue;
+        double w = decay / days;
+
+        normal[0] += w * x[0] * x[0];
+        normal[1] += w * x[0] * x[1];
+        normal[2] += w * x[0] * x[2];
+        normal[3] += w * x[1] * x[1];
+        normal[4] += w * x[1] * x[2];
+        normal[5] += w * x[2] * x[2];
+        normal[6] += w * x[0] * y;
+        normal[7] += w * x[1] * y;
+        normal[8] += w * x[2] * y;
+        return true;
+    }
+
+    /** Integrale von 1, cos(ωt) und sin(ωt) über [fromDay, toDay] */
+    private static double[] features(int fromDay, int toDay) {
+        return new double[]{
+                toDay - fromDay,
+                (Math.sin(OMEGA * toDay) - Math.sin(OMEGA * fromDay)) / OMEGA,
+                (Math.cos(OMEGA * fromDay) - Math.cos(OMEGA * toDay)) / OMEGA
+        };
+    }
+
+    /** Löst die 3x3-Normalgleichungen (Cramersche Regel); null, falls das System (nahezu) singulär ist */
+    private static double[] solveSeasonal(double[] n) {
+        double a = n[0], b = n[1], c = n[2], d = n[3], e = n[4], f = n[5];
+        double det = a * (d * f - e * e) - b * (b * f - c * e) + c * (b * e - c * d);
+        if (!(Math.abs(det) > 1e-9 * a * d * f)) { return null; }
+
+        double y0 = n[6], y1 = n[7], y2 = n[8];
+        return new double[]{
+                (y0 * (d * f - e * e) - b * (y1 * f - e * y2) + c * (y1 * e - d * y2)) / det,
+                (a * (y1 * f - e * y2) - y0 * (b * f - c * e) + c * (b * y2 - y1 * c)) / det,
+                (a * (d * y2 - y1 * e) - b * (b * y2 - y1 * c) + y0 * (b * e - c * d)) / det
+        };
+    }
+}
@@ -0,0 +1,362 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.core.cache.DataVersionStore;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.PeriodCalculator.PreparedCalculation;
+import eco.backend.main_app.feature.calculation.RecomputeRunRepository.RecomputeRun;
+import eco.backend.main_app.feature.calculation.RecomputeRunRepository.Status;
+import eco.backend.main_app.feature.calculation.dto.RecomputeRunDto;
+import eco.backend.main_app.feature.configuration.ConfigService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Neuberechnung der gespeicherten Ergebnisse aller User (durch den Admin oder zeitgesteuert ausgelöst).
+ * Die User werden abschnittsweise per Cursor gelesen; je Abschnitt:
+ * <ol>
+ *     <li>Laden: Zählerstände und Config parallel auf einem begrenzten Pool (Reader-Pool der Datenbank)</li>
+ *     <li>Berechnen: Alle Eingaben gesammelt im CalculationKernel (Fork/Join)</li>
+ *     <li>Speichern: Pro User eine kurze Schreibtransaktion mit gebündeltem Upsert, danach eine Pause, damit
+ *         die Schreibverbindung höchstens zum konfigurierten Anteil belegt ist und wartende Anfragen vorgehen.
+ *         Gespeichert wird nur, wenn sich der Datenstand des Users (DataVersionStore) seit dem Laden nicht geändert
+ *         hat; andernfalls wird der User einmal mit aktuellem Stand neu geladen und berechnet</li>
+ *     <li>Checkpoint: Fortschritt sichern; nach einem Absturz wird der Lauf beim Start ab hier fortgesetzt
+ *         (ein teilweise gespeicherter Abschnitt wird wiederholt, unveränderte Zeilen werden nicht erneut geschrieben)</li>
+ * </ol>
+ */
+@Service
+public class FleetRecomputeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetRecomputeService.class);
+
+    private static final Duration PROGRESS_LOG_INTERVAL = Duration.ofSeconds(10);
+    private static final long MAX_YIELD_MS = 1000;
+
+    private final RecomputeRunRepository runRepository;
+    private final CalculationService calculationService;
+    private final UserService userService;
+    private final ConfigService configService;
+    private final DataVersionStore dataVersionStore;
+    private final MeterRegistry meterRegistry;
+
+    private final int workers;
+    private final int pageSize;
+    private final double writerShare;
+
+    private final Timer pageTimer;
+    private final AtomicLong remainingUsers = new AtomicLong();
+    private final AtomicLong etaSeconds = new AtomicLong();
+
+    private Thread runner;
+    private volatile boolean cancelRequested;
+    private volatile boolean stopping;
+    private volatile Progress progress;
+    private Gauge writeQueue;
+
+    public FleetRecomputeService(RecomputeRunRepository runRepository,
+                                 CalculationService calculationService,
+                                 UserService userService,
+                                 ConfigService configService,
+                                 DataVersionStore dataVersionStore,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.calculation.recompute.workers:4}") int workers,
+                                 @Value("${app.calculation.recompute.page-size:50}") int pageSize,
+                                 @Value("${app.calculation.recompute.writer-share:0.5}") double writerShare) {
+        this.runRepository = runRepository;
+        this.calculationService = calculationService;
+        this.userService = userService;
+        this.configService = configService;
+        this.dataVersionStore = dataVersionStore;
+        this.meterRegistry = meterRegistry;
+        this.workers = Math.max(1, workers);
+        this.pageSize = Math.max(1, pageSize);
+        this.writerShare = Math.min(1.0, Math.max(0.05, writerShare));
+
+        this.pageTimer = Timer.builder("eco.calculation.recompute.page")
+                .description("Dauer eines Abschnitts der Neuberechnung (Laden, Berechnen, Speichern)")
+                .register(meterRegistry);
+        Gauge.builder("eco.calculation.recompute.remaining", remainingUsers, AtomicLong::get)
+                .description("Verbleibende User der laufenden Neuberechnung")
+                .register(meterRegistry);
+        Gauge.builder("eco.calculation.recompute.eta", etaSeconds, AtomicLong::get)
+                .description("Geschätzte Restdauer der laufenden Neuberechnung in Sekunden")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /** Setzt einen durch Neustart unterbrochenen Lauf am letzten Checkpoint fort */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resumeInterrupted() {
+        runRepository.findRunning().ifPresent(run -> {
+            logger.info("Neuberechnung {} wird ab User-ID {} fortgesetzt ({}/{} User bearbeitet).",
+                    run.id(), run.lastUserId(), run.processedUsers(), run.totalUsers());
+            launch(run);
+        });
+    }
+
+    /** Zeitgesteuerte Neuberechnung (Standard: deaktiviert) */
+    @Scheduled(cron = "${app.calculation.recompute.cron:-}")
+    public void scheduledRecompute() {
+        try {
+            start("SCHEDULED");
+        } catch (GenericException e) {
+            logger.info("Zeitgesteuerte Neuberechnung übersprungen: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Startet einen neuen Lauf.
+     *
+     * @param triggeredBy Auslöser (ADMIN oder SCHEDULED)
+     * @return Status des neuen Laufs
+     */
+    public synchronized RecomputeRunDto start(String triggeredBy) {
+        if (isActive() || runRepository.findRunning().isPresent()) {
+            throw new GenericException("Eine Neuberechnung läuft bereits.", HttpStatus.CONFLICT);
+        }
+
+        long totalUsers = runRepository.countUsers();
+        long runId = runRepository.insert(triggeredBy, totalUsers, LocalDateTime.now());
+        RecomputeRun run = runRepository.findRunning()
+                .filter(r -> r.id() == runId)
+                .orElseThrow(() -> new GenericException("Neuberechnung konnte nicht gestartet werden.", HttpStatus.INTERNAL_SERVER_ERROR));
+
+        logger.info("Neuberechnung {} gestartet ({}, {} User).", runId, triggeredBy, totalUsers);
+        launch(run);
+        return status();
+    }
+
+    /** Status des aktuellen bzw. letzten Laufs inkl. Durchsatz und geschätzter Restdauer */
+    public RecomputeRunDto status() {
+        RecomputeRun run = runRepository.findLatest()
+                .orElseThrow(() -> new GenericException("Bisher wurde keine Neuberechnung ausgeführt.", HttpStatus.NOT_FOUND));
+
+        Progress current = progress;
+        if (run.status() != Status.RUNNING || current == null || current.runId() != run.id()) {
+            return RecomputeRunDto.of(run, null, null);
+        }
+
+        double rate = current.usersPerSecond(run.processedUsers());
+        return RecomputeRunDto.of(run, rate, eta(run.totalUsers() - run.processedUsers(), rate));
+    }
+
+    /** Bricht den laufenden Lauf nach dem aktuellen User ab */
+    public synchronized RecomputeRunDto cancel() {
+        if (!isActive()) {
+            throw new GenericException("Es läuft keine Neuberechnung.", HttpStatus.CONFLICT);
+        }
+
+        cancelRequested = true;
+        return status();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Der Lauf bleibt RUNNING und wird beim nächsten Start am Checkpoint fortgesetzt
+        stopping = true;
+        Thread current;
+        synchronized (this) { current = runner; }
+        if (current != null) { current.join(Duration.ofSeconds(10)); }
+    }
+
+    private boolean isActive() {
+        return runner != null && runner.isAlive();
+    }
+
+    private void launch(RecomputeRun run) {
+        cancelRequested = false;
+        progress = new Progress(run.id(), System.nanoTime(), run.processedUsers());
+        // Plattform-Threads: Die nativen SQLite-Aufrufe würden virtuelle Threads an ihren Träger-Thread binden und
+        // bei wenigen Kernen andere virtuelle Threads (inkl. Inhaber der Schreibverbindung) verdrängen
+        runner = Thread.ofPlatform().daemon().name("recompute-run-" + run.id()).start(() -> execute(run));
+    }
+
+    /** Arbeitet alle Abschnitte ab dem Checkpoint ab */
+    private void execute(RecomputeRun run) {
+        long cursor = run.lastUserId();
+        long processed = run.processedUsers();
+        long nextLog = System.nanoTime() + PROGRESS_LOG_INTERVAL.toNanos();
+
+        try (ExecutorService loaders = Executors.newFixedThreadPool(workers, Thread.ofPlatform().daemon().name("recompute-load-", 0).factory())) {
+            while (!stopping && !cancelRequested) {
+                List<Long> userIds = runRepository.findUserIdsAfter(cursor, pageSize);
+                if (userIds.isEmpty()) { break; }
+
+                Timer.Sample sample = Timer.start(meterRegistry);
+                PageOutcome outcome = processPage(userIds, loaders);
+                sample.stop(pageTimer);
+
+                // Abbruch mitten im Abschnitt: Abschnitt wird beim Fortsetzen wiederholt
+                if (outcome.interrupted()) { break; }
+
+                cursor = userIds.getLast();
+                processed += userIds.size();
+                runRepository.checkpoint(run.id(), cursor, userIds.size(), outcome.skipped(), outcome.failed(), LocalDateTime.now());
+
+                double rate = progress.usersPerSecond(processed);
+                remainingUsers.set(Math.max(0, run.totalUsers() - processed));
+                etaSeconds.set(Optional.ofNullable(eta(run.totalUsers() - processed, rate)).orElse(0L));
+
+                if (System.nanoTime() >= nextLog) {
+                    nextLog = System.nanoTime() + PROGRESS_LOG_INTERVAL.toNanos();
+                    logger.info("Neuberechnung {}: {}/{} User ({} User/s, Restdauer ca. {} s).",
+                            run.id(), processed, run.totalUsers(), String.format("%.1f", rate), etaSeconds.get());
+                }
+            }
+
+            if (stopping) {
+                logger.info("Neuberechnung {} beim Herunterfahren unterbrochen ({}/{} User).", run.id(), processed, run.totalUsers());
+                return;
+            }
+
+            Status status = cancelRequested ? Status.CANCELLED : Status.COMPLETED;
+            runRepository.finish(run.id(), status, null, LocalDateTime.now());
+            logger.info("Neuberechnung {} beendet: {} ({}/{} User in {} s).", run.id(), status, processed, run.totalUsers(),
+                    Duration.ofNanos(System.nanoTime() - progress.startNanos()).toSeconds());
+
+        } catch (Exception e) {
+            runRepository.finish(run.id(), Status.FAILED, e.getMessage(), LocalDateTime.now());
+            logger.error("Neuberechnung {} fehlgeschlagen: {}", run.id(), e.getMessage());
+        } finally {
+            remainingUsers.set(0);
+            etaSeconds.set(0);
+        }
+    }
+
+    /** Lädt, berechnet und speichert einen Abschnitt */
+    private PageOutcome processPage(List<Long> userIds, ExecutorService loaders) throws InterruptedException {
+        List<Future<Loaded>> futures = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            futures.add(loaders.submit(() -> load(userId)));
+        }
+
+        long failed = 0;
+        List<Loaded> loaded = new ArrayList<>(userIds.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Optional.ofNullable(futures.get(i).get()).ifPresent(loaded::add);
+            } catch (ExecutionException e) {
+                failed++;
+                logger.warn("Neuberechnung: Laden von User-ID {} fehlgeschlagen: {}", userIds.get(i), e.getCause().getMessage());
+                meterRegistry.counter("eco.calculation.recompute.users", "outcome", "failed").increment();
+            }
+        }
+        long skipped = userIds.size() - failed - loaded.size();
+        meterRegistry.counter("eco.calculation.recompute.users", "outcome", "skipped").increment(skipped);
+
+        List<CalculationKernel.Periods> periods = CalculationKernel.computeAll(
+                loaded.stream().map(l -> l.prepared().input()).toList(), ForkJoinPool.commonPool());
+
+        for (int i = 0; i < loaded.size(); i++) {
+            if (stopping || cancelRequested) { return new PageOutcome(skipped, failed, true); }
+
+            Loaded entry = loaded.get(i);
+            try {
+                long start = System.nanoTime();
+                boolean saved = calculationService.replaceResults(entry.user(), entry.prepared().toResults(periods.get(i)), entry.version());
+
+                // Zwischenzeitlich geändert (z.B. neue Ablesung): Einmal mit aktuellem Stand wiederholen
+                Loaded reloaded = saved ? null : load(entry.user().getId());
+                if (reloaded != null) {
+                    saved = calculationService.replaceResults(reloaded.user(), reloaded.prepared().compute(), reloaded.version());
+                }
+                throttle(System.nanoTime() - start);
+
+                if (saved) {
+                    meterRegistry.counter("eco.calculation.recompute.users", "outcome", "recomputed").increment();
+                } else {
+                    skipped++;
+                    logger.debug("Neuberechnung: User-ID {} übersprungen (Datenstand während der Berechnung geändert).", entry.user().getId());
+                    meterRegistry.counter("eco.calculation.recompute.users", "outcome", "conflict").increment();
+                }
+            } catch (RuntimeException e) {
+                failed++;
+                logger.warn("Neuberechnung: Speichern für User-ID {} fehlgeschlagen: {}", entry.user().getId(), e.getMessage());
+                meterRegistry.counter("eco.calculation.recompute.users", "outcome", "failed").increment();
+            }
+        }
+        return new PageOutcome(skipped, failed, false);
+    }
+
+    /**
+     * Eingabe eines Users (null: übersprungen, z.B. gesperrt oder ohne Referenzeintrag).
+     * Der Datenstand wird vor dem Laden gelesen, damit jede später committete Änderung beim Speichern erkannt wird.
+     */
+    private Loaded load(Long userId) {
+        long version = dataVersionStore.current(userId).value();
+        UserEntity user = userService.findUserById(userId);
+        if (!userService.hasValidStatus(user)) { return null; }
+
+        return calculationService.prepareFullCalculation(user, configService.getConfigByUsername(user.getUsername()))
+                .map(prepared -> new Loaded(user, prepared, version))
+                .orElse(null);
+    }
+
+    /**
+     * Begrenzt den Anteil der Schreibverbindung: Nach einer Schreibdauer d folgt eine Pause von d * (1 - Anteil) / Anteil.
+     * Warten andere Transaktionen auf die Schreibverbindung, wird zusätzlich gewartet, bis die Warteschlange leer ist.
+     */
+    private void throttle(long writeNanos) {
+        try {
+            long pauseNanos = (long) (writeNanos * (1 - writerShare) / writerShare);
+            Thread.sleep(Duration.ofNanos(pauseNanos));
+
+            long deadline = System.currentTimeMillis() + MAX_YIELD_MS;
+            while (writeQueueLength() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Länge der Warteschlange vor der Schreibverbindung (Gauge der SerializedWriteDataSource) */
+    private double writeQueueLength() {
+        if (writeQueue == null) {
+            writeQueue = meterRegistry.find("eco.db.write.queue").gauge();
+        }
+        return writeQueue == null ? 0 : writeQueue.value();
+    }
+
+    private static Long eta(long remaining, double usersPerSecond) {
+        if (usersPerSecond <= 0) { return null; }
+        return (long) Math.ceil(Math.max(0, remaining) / usersPerSecond);
+    }
+
+    private record Loaded(UserEntity user, PreparedCalculation prepared, long version) {}
+
+    private record PageOutcome(long skipped, long failed, boolean interrupted) {}
+
+    /** Durchsatz seit dem Start bzw. Fortsetzen des Laufs */
+    private record Progress(long runId, long startNanos, long startProcessed) {
+
+        double usersPerSecond(long processed) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return seconds <= 0 ? 0 : (processed - startProcessed) / seconds;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.core.event.ConfigChangedEvent;
+import eco.backend.main_app.core.event.TrackingChangedEvent;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.calculation.PeriodCalculator.PreparedCalculation;
+import eco.backend.main_app.feature.calculation.dto.ForecastDto;
+import eco.backend.main_app.feature.configuration.ConfigService;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.TariffService;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.tracking.TrackingRepository;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prognose des Verbrauchs und des Restbetrags zum Ende des laufenden Abrechnungsjahres.
+ * <ul>
+ *     <li>Das Abrechnungsjahr beginnt am Referenzdatum (bzw. an dessen letztem Jahrestag vor der neuesten Ablesung).</li>
+ *     <li>Der Verbrauch bis zur neuesten Ablesung ist gemessen, der Rest des Jahres wird mit dem saisonalen
+ *     {@link ConsumptionModel} prognostiziert. Kosten, Abschläge (inkl. verschobener Abrechnungsmonate) und
+ *     Tarifversionen werden wie bei den Perioden über den CalculationKernel berechnet.</li>
+ *     <li>Modell und Stützstellen (Zählerstand am Jahresbeginn und an den Tarifgrenzen) werden pro User zwischengespeichert
+ *     (LRU). Neue Ablesungen nach der neuesten werden nach dem Commit in O(1) übernommen; andere Änderungen an
+ *     Zählerständen oder Config entfernen den Eintrag, das Modell wird bei der nächsten Anfrage neu angepasst.</li>
+ * </ul>
+ */
+@Service
+public class ForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastService.class);
+    private static final int MIN_DATA_POINTS = 2;
+    private static final int GENERATION_STRIPES = 64;
+
+    private final TrackingRepository trackingRepository;
+    private final UserService userService;
+    private final ConfigService configService;
+    private final TariffService tariffService;
+    private final CalculationService calculationService;
+    private final MeterRegistry meterRegistry;
+    private final double halfLifeDays;
+    private final Map<Long, ForecastState> states;
+
+    // Änderungszähler pro User (Stripe): eine während der Anpassung committete Änderung verwirft das Ergebnis
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public ForecastService(TrackingRepository trackingRepository,
+                           UserService userService,
+                           ConfigService configService,
+                           TariffService tariffService,
+                           CalculationService calculationService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.calculation.forecast.half-life-days:730}") double halfLifeDays,
+                           @Value("${app.calculation.forecast.cache.max-entries:10000}") int maxEntries) {
+
+        this.trackingRepository = trackingRepository;
+        this.userService = userService;
+        this.configService = configService;
+        this.tariffService = tariffService;
+        this.calculationService = calculationService;
+        this.meterRegistry = meterRegistry;
+        this.halfLifeDays = halfLifeDays;
+
+        // LRU: Zugriffsreihenfolge, ältester Eintrag wird bei Überschreitung entfernt
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ForecastState> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Zwischengespeicherter Stand eines Users: Modell, die zugrunde liegende Config und Tarifversionen,
+     * der Referenzeintrag sowie die Stützstellen im laufenden Abrechnungsjahr (Tarifgrenzen vor der neuesten Ablesung).
+     */
+    private record ForecastState(ConsumptionModel model, ConfigEntity config, TariffSchedule schedule,
+                                 LocalDate referenceDate, LocalDate yearStart, double yearStartValue,
+                                 int[] anchorDays, double[] anchorValues) {}
+
+    /**
+     * Prognose zum Ende des laufenden Abrechnungsjahres.
+     *
+     * @param username Name des (authentifizierten) Users
+     */
+    public ForecastDto getForecast(String username) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Invalid user status.", HttpStatus.FORBIDDEN);
+        }
+
+        ForecastState state;
+        synchronized (states) {
+            state = states.get(user.id());
+        }
+        if (state == null) {
+            long generationBefore = generations.get(stripe(user.id()));
+            state = fit(user);
+
+            synchronized (states) {
+                // Nur speichern, wenn während der Anpassung keine Änderung an Zählerständen oder Config erfolgt ist
+                if (generations.get(stripe(user.id())) == generationBefore) {
+                    states.put(user.id(), state);
+                }
+            }
+        }
+        return project(state);
+    }
+
+    /** Übernimmt neue Ablesungen nach dem Commit inkrementell, bei anderen Änderungen wird das Modell verworfen */
+    @EventListener
+    public void handleTrackingChange(TrackingChangedEvent event) {
+        Long userId = event.getUser().getId();
+
+        if (event.getType() != TrackingChangedEvent.ChangeType.ADDED) {
+            evict(userId);
+            return;
+        }
+
+        int day = (int) event.getEntry().getTimestamp().toLocalDate().toEpochDay();
+        double value = event.getEntry().getReadingValue();
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(userId));
+            synchronized (states) {
+                ForecastState state = states.get(userId);
+                if (state == null) { return; }
+
+                // Ohne Referenzdatum setzt die erste neue Ablesung das Referenzdatum (ohne ConfigChangedEvent)
+                if (day > state.model().lastDay() && state.config().getReferenceDate() != null) {
+                    states.put(userId, append(state, day, value));
+                    count("append");
+                } else {
+                    // Ablesung vor der neuesten bzw. neues Referenzdatum: Neuanpassung bei der nächsten Anfrage
+                    states.remove(userId);
+                    count("evict");
+                }
+            }
+        });
+    }
+
+    /** Referenzdatum, Abschlag oder Tarifversionen geändert: Stützstellen und Config werden neu geladen */
+    @EventListener
+    public void handleConfigChange(ConfigChangedEvent event) {
+        evict(event.getUser().getId());
+    }
+
+    /** Hilfsfunktion: Passt das Modell an alle Ablesungen des Users an und ermittelt die Stützstellen */
+    private ForecastState fit(AuthenticatedUser user) {
+        ConfigEntity config = configService.getConfigByUsername(user.getUsername());
+        List<TrackingEntity> descending = trackingRepository.findByUserIdOrderByTimestampDesc(user.id());
+
+        if (descending.size() < MIN_DATA_POINTS) {
+            throw new GenericException("Nicht genügend Datenpunkte. Mindestens " + MIN_DATA_POINTS + " Datenpunkte erforderlich.", HttpStatus.BAD_REQUEST);
+        }
+
+        // Ohne Referenzdatum gilt wie bei der Berechnung der älteste Eintrag als Referenz
+        TrackingEntity refEntry = (config.getReferenceDate() == null) ? descending.getLast() :
+                calculationService.findEntryByUserAndDate(user.id(), config.getReferenceDate().toLocalDate())
+                        .orElseThrow(() -> new GenericException("Kein Eintrag für das Referenzdatum gefunden.", HttpStatus.BAD_REQUEST));
+
+        int size = descending.size();
+        int[] epochDays = new int[size];
+        double[] readings = new double[size];
+        for (int i = 0; i < size; i++) {
+            TrackingEntity entry = descending.get(size - 1 - i);
+            epochDays[i] = (int) entry.getTimestamp().toLocalDate().toEpochDay();
+            readings[i] = entry.getReadingValue();
+        }
+
+        ConsumptionModel model = ConsumptionModel.fit(epochDays, readings, halfLifeDays);
+        TariffSchedule schedule = tariffService.getSchedule(user.id());
+        LocalDate referenceDate = refEntry.getTimestamp().toLocalDate();
+        LocalDate yearStart = yearStart(referenceDate, model.lastDay());
+
+        double yearStartValue = yearStart.isEqual(referenceDate) ?
+                refEntry.getReadingValue() : valueAt(epochDays, readings, (int) yearStart.toEpochDay());
+
+        int[] anchorDays = boundaries(schedule, (int) yearStart.toEpochDay(), model.lastDay());
+        double[] anchorValues = new double[anchorDays.length];
+        for (int i = 0; i < anchorDays.length; i++) {
+            anchorValues[i] = valueAt(epochDays, readings, anchorDays[i]);
+        }
+
+        count("fit");
+        logger.debug("Prognosemodell für User-ID {} angepasst ({} Intervalle, saisonal: {}).",
+                user.id(), model.intervals(), model.isSeasonal());
+        return new ForecastState(model, config, schedule, referenceDate, yearStart, yearStartValue, anchorDays, anchorValues);
+    }
+
+    /**
+     * Hilfsfunktion: Übernimmt eine Ablesung nach der neuesten. Neue Stützstellen liegen zwischen der bisherigen
+     * und der neuen Ablesung und werden zwischen beiden interpoliert (wie im CalculationKernel).
+     */
+    private ForecastState append(ForecastState state, int day, double value) {
+        ConsumptionModel previous = state.model();
+        ConsumptionModel model = previous.append(day, value);
+        LocalDate yearStart = yearStart(state.referenceDate(), day);
+        int yearStartDay = (int) yearStart.toEpochDay();
+
+        // Neues Abrechnungsjahr: Der Jahrestag liegt nach der bisherigen neuesten Ablesung
+        boolean newYear = !yearStart.isEqual(state.yearStart());
+        double yearStartValue = newYear ?
+                interpolate(previous.lastDay(), previous.lastValue(), day, value, yearStartDay) : state.yearStartValue();
+
+        int[] added = boundaries(state.schedule(), newYear ? yearStartDay : Math.max(yearStartDay, previous.lastDay() - 1), day);
+        int kept = newYear ? 0 : state.anchorDays().length;
+
+        int[] anchorDays = Arrays.copyOf(state.anchorDays(), kept + added.length);
+        double[] anchorValues = Arrays.copyOf(state.anchorValues(), kept + added.length);
+        for (int i = 0; i < added.length; i++) {
+            anchorDays[kept + i] = added[i];
+            anchorValues[kept + i] = interpolate(previous.lastDay(), previous.lastValue(), day, value, added[i]);
+        }
+
+        return new ForecastState(model, state.config(), state.schedule(), state.referenceDate(),
+                yearStart, yearStartValue, anchorDays, anchorValues);
+    }
+
+    /** Hilfsfunktion: Berechnet Kosten und Restbetrag aus den Stützstellen, der neuesten Ablesung und der Prognose */
+    private ForecastDto project(ForecastState state) {
+        ConsumptionModel model = state.model();
+        int start = (int) state.yearStart().toEpochDay();
+        LocalDate yearEnd = state.yearStart().plusYears(1);
+        int end = (int) yearEnd.toEpochDay();
+        int asOf = model.lastDay();
+
+        // Zukünftige Tarifgrenzen werden mit dem prognostizierten Zählerstand belegt
+        int[] future = boundaries(state.schedule(), asOf, end);
+        int anchors = state.anchorDays().length;
+        int asOfIndex = asOf > start ? anchors : -1;
+        int size = anchors + (asOfIndex >= 0 ? 1 : 0) + future.length + 1;
+
+        int[] epochDays = Arrays.copyOf(state.anchorDays(), size);
+        double[] readings = Arrays.copyOf(state.anchorValues(), size);
+        int i = anchors;
+        if (asOfIndex >= 0) {
+            epochDays[i] = asOf;
+            readings[i++] = model.lastValue();
+        }
+        for (int boundary : future) {
+            epochDays[i] = boundary;
+            readings[i++] = model.lastValue() + model.projectKwh(asOf, boundary);
+        }
+        epochDays[i] = end;
+        readings[i] = model.lastValue() + model.projectKwh(asOf, end);
+
+        PreparedCalculation prepared = PeriodCalculator.prepare(state.yearStart(), state.yearStartValue(),
+                epochDays, readings, state.config(), state.schedule());
+        CalculationKernel.Periods periods = CalculationKernel.compute(prepared.input());
+        int last = periods.size() - 1;
+
+        double usedSoFar = asOfIndex >= 0 ? periods.sumUsedEnergy()[asOfIndex] : 0;
+        double costsSoFar = asOfIndex >= 0 ? periods.totalCostsPeriod()[asOfIndex] : 0;
+        double paidSoFar = asOfIndex >= 0 ? periods.paidAmountPeriod()[asOfIndex] : 0;
+        double diffSoFar = asOfIndex >= 0 ? periods.costDiffPeriod()[asOfIndex] : state.config().getAdditionalCredit();
+
+        return new ForecastDto(
+                prepared.meterIdentifier(),
+                state.yearStart(),
+                yearEnd,
+                LocalDate.ofEpochDay(asOf),
+                asOf - start,
+                end - asOf,
+                usedSoFar,
+                periods.sumUsedEnergy()[last] - usedSoFar,
+                periods.sumUsedEnergy()[last],
+                costsSoFar,
+                periods.totalCostsPeriod()[last],
+                paidSoFar,
+                periods.paidAmountPeriod()[last],
+                diffSoFar,
+                periods.costDiffPeriod()[last],
+                model.ratePerDay(asOf),
+                model.isSeasonal(),
+                model.intervals(),
+                prepared.logMessage()
+        );
+    }
+
+    /** Beginn des Abrechnungsjahres, das die Ablesung enthält (letzter Jahrestag des Referenzdatums) */
+    private static LocalDate yearStart(LocalDate referenceDate, int lastDay) {
+        LocalDate last = LocalDate.ofEpochDay(lastDay);
+        return last.isAfter(referenceDate) ? referenceDate.plusYears(ChronoUnit.YEARS.between(referenceDate, last)) : referenceDate;
+    }
+
+    /** Beginn der Tarifversionen im Bereich (afterDay, beforeDay) */
+    private static int[] boundaries(TariffSchedule schedule, int afterDay, int beforeDay) {
+        int first = schedule.indexAt(afterDay) + 1;
+        int last = first;
+        while (last < schedule.size() && schedule.validFrom(last) < beforeDay) {
+            last++;
+        }
+
+        int[] days = new int[last - first];
+        for (int i = first; i < last; i++) {
+            days[i - first] = schedule.validFrom(i);
+        }
+        return days;
+    }
+
+    /** Zählerstand am Tag: Ablesung am Tag oder lineare Interpolation zwischen Vorgänger und Nachfolger */
+    private static double valueAt(int[] epochDays, double[] readings, int day) {
+        int position = Arrays.binarySearch(epochDays, day);
+        if (position >= 0) {
+            // Bei mehreren Ablesungen am Tag gilt die erste (wie im CalculationKernel)
+            while (position > 0 && epochDays[position - 1] == day) { position--; }
+            return readings[position];
+        }
+
+        int next = -position - 1;
+        if (next == 0) { return readings[0]; }
+        if (next == epochDays.length) { return readings[epochDays.length - 1]; }
+        return interpolate(epochDays[next - 1], readings[next - 1], epochDays[next], readings[next], day);
+    }
+
+    private static double interpolate(int fromDay, double fromValue, int toDay, double toValue, int day) {
+        if (day >= toDay) { return toValue; }
+        return fromValue + (toValue - fromValue) * (day - fromDay) / (toDay - fromDay);
+    }
+
+    /** Entfernt den Stand sofort und erneut nach Abschluss der Transaktion (kein zwischenzeitlich geladener Stand) */
+    private void evict(Long userId) {
+        remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        synchronized (states) {
+            if (states.remove(userId) != null) {
+                count("evict");
+            }
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (GENERATION_STRIPES - 1));
+    }
+
+    /** Führt die Aktion nach erfolgreichem Commit aus (ohne Transaktion sofort) */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void count(String type) {
+        meterRegistry.counter("eco.calculation.forecast.updates", "type", type).increment();
+    }
+}
@@ -0,0 +1,171 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Reine Funktionen der Periodenberechnung ohne Datenbankzugriff: Überführt Referenzeintrag, Ablesungen, Config
+ * und Tarifversionen in die Eingabe des CalculationKernel und ermittelt die verschobenen Abrechnungsmonate.
+ */
+final class PeriodCalculator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeriodCalculator.class);
+
+    private PeriodCalculator() {}
+
+    /** Hilfsfunktion: Berechnet je Eintrag die Periode ab dem Referenzeintrag (aufgeteilt an den Tarifgrenzen) */
+    static List<CalculationResultsDto> calculatePeriods(TrackingEntity refEntry,
+                                                        List<TrackingEntity> entries,
+                                                        ConfigEntity configData,
+                                                        TariffSchedule schedule) {
+        return prepareColumns(refEntry, entries, configData, schedule).compute();
+    }
+
+    /** Hilfsfunktion: Überführt die Einträge (absteigend sortiert) in die Spalten des CalculationKernel */
+    static PreparedCalculation prepareColumns(TrackingEntity refEntry,
+                                              List<TrackingEntity> entries,
+                                              ConfigEntity configData,
+                                              TariffSchedule schedule) {
+        int size = entries.size();
+        int[] epochDays = new int[size];
+        double[] readings = new double[size];
+
+        // Iteration vom ältesten zum neuesten Eintrag
+        for (int i = 0; i < size; i++) {
+            TrackingEntity currentEntry = entries.get(size - 1 - i);
+
+            // Datum-Validierung pro Paar
+            if (!validDates(refEntry.getTimestamp(), currentEntry.getTimestamp())) {
+                throw new GenericException(
+                        "Ungültige Datumswerte: Die Startdatum muss vor dem Enddatum liegen.",
+                        HttpStatus.BAD_REQUEST
+                );
+            }
+
+            epochDays[i] = (int) currentEntry.getTimestamp().toLocalDate().toEpochDay();
+            readings[i] = currentEntry.getReadingValue();
+        }
+
+        return prepare(refEntry.getTimestamp().toLocalDate(), refEntry.getReadingValue(), epochDays, readings, configData, schedule);
+    }
+
+    /** Berechnet eine einzelne Periode vom Referenzeintrag bis zur Ablesung (inkrementeller Modus) */
+    static CalculationResultsDto calculateSinglePeriod(LocalDate refDate,
+                                                       double refValue,
+                                                       LocalDate currentDate,
+                                                       double currentValue,
+                                                       ConfigEntity configData,
+                                                       TariffSchedule schedule) {
+        return prepare(refDate, refValue, new int[]{(int) currentDate.toEpochDay()}, new double[]{currentValue}, configData, schedule)
+                .compute()
+                .getFirst();
+    }
+
+    /**
+     * Bereitet die Perioden vom Referenzeintrag bis zu den übergebenen Ablesungen vor (Tage seit Epoche, aufsteigend).
+     * Die Tarifwerte und die verschobenen Abrechnungsmonate hängen nur vom Referenzeintrag ab und werden einmalig ermittelt;
+     * gelten Tarifversionen, werden die Abschnitte ab dem Referenzdatum einmalig aus dem Intervall-Index entnommen.
+     * Wird auch von der Prognose genutzt (Referenz: Beginn des Abrechnungsjahres, Ablesungen teils prognostiziert).
+     */
+    static PreparedCalculation prepare(LocalDate refDate,
+                                       double refValue,
+                                       int[] epochDays,
+                                       double[] readings,
+                                       ConfigEntity configData,
+                                       TariffSchedule schedule) {
+        try {
+            SkippedMonthsResults skippedMonths = estimateSkippedMonths(
+                    refDate,
+                    configData.getDueDay(),
+                    configData.getSepaProcessingDays()
+            );
+
+            int refEpochDay = (int) refDate.toEpochDay();
+            CalculationKernel.Input input = new CalculationKernel.Input(
+                    CalculationKernel.Tariff.of(configData, skippedMonths.value()),
+                    CalculationKernel.Rate.of(configData, schedule, refEpochDay),
+                    refEpochDay, refValue, epochDays, readings
+            );
+
+            return new PreparedCalculation(input, configData.getMeterIdentifier(), skippedMonths.message());
+        } catch (Exception e) {
+            logger.error("Fehler bei Berechnung: {}", e.getMessage());
+            throw new GenericException("Fehler bei Berechnung: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /** Eingabe des CalculationKernel und die Werte, die für die Ergebnis-DTOs zusätzlich benötigt werden */
+    record PreparedCalculation(CalculationKernel.Input input, String meterIdentifier, String logMessage) {
+
+        List<CalculationResultsDto> compute() {
+            return toResults(CalculationKernel.compute(input));
+        }
+
+        List<CalculationResultsDto> toResults(CalculationKernel.Periods periods) {
+            return periods.toResults(meterIdentifier, logMessage);
+        }
+    }
+
+    /**
+     * Hilfsfunktion prüft, ob das Startdatum vor dem Enddatum liegt.
+     *
+     * @param startDate Startdatum
+     * @param endDate Enddatum
+     */
+    static boolean validDates(LocalDateTime startDate, LocalDateTime endDate){
+        return startDate.isBefore(endDate);
+    }
+
+    /**
+     * Hilfsfunktion berechnet die voraussichtliche Anzahl der verschobenen Abrechnungsmonate
+     * anhand der übergebenen Parameter.
+     * Diese Abrechnungsmonate werden nicht einfach übersprungen, sondern zum späteren Zeitpunkt verschoben.
+     *
+     * @param startDate Startdatum des Abrechnungszeitraums
+     * @param dueDay Abbuchungstag im Monat
+     * @param sepaProcessingDays Anzahl der Tage für die Lastschriftankündigung (SEPA)
+     *
+     * @return SkippedMonthsResults: record (int value, String message)
+     */
+    static SkippedMonthsResults estimateSkippedMonths(LocalDate startDate, Integer dueDay, Integer sepaProcessingDays) {
+
+        int skippedMonths = 0; // Zähler für übersprungene Monate
+        String message = null;
+
+        // Basis-Startpunkt finden
+        LocalDate currentDue = startDate.withDayOfMonth(dueDay);
+
+        // Wenn der Stichtag im Startmonat schon vorbei ist (z.B. Start: 22.07., dueDay: 05.),
+        // muss es logisch eh erst im nächsten Monat weitergehen.
+        if (currentDue.isBefore(startDate)) {
+            currentDue = currentDue.plusMonths(1);
+        }
+
+        // SEPA-Check (Business-Logik)
+        // Wenn der erste theoretische Termin zu nah am Startdatum liegt -> Überspringen
+        if (ChronoUnit.DAYS.between(startDate, currentDue) <= sepaProcessingDays) {
+            skippedMonths++;
+        }
+
+        // Message ausgeben
+        if (skippedMonths > 0) {
+            message = " " + skippedMonths + " Abrechnungsmonat(e) wurde(n) übersprungen.";
+        }
+        logger.debug(message);
+
+        return new SkippedMonthsResults(skippedMonths, message);
+    }
+
+    record SkippedMonthsResults(int value, String message) {}
+}
@@ -0,0 +1,127 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Zugriff auf die Läufe der Neuberechnung 'recompute_runs' und den Cursor über die betroffenen User.
+ * Die User werden per Keyset über den eindeutigen Index idx_results_user_period abgerufen (nur User mit Ergebnissen).
+ */
+@Repository
+public class RecomputeRunRepository {
+
+    /** Status eines Laufs */
+    public enum Status { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    /** Lauf inkl. Checkpoint */
+    public record RecomputeRun(long id, String triggeredBy, Status status, long totalUsers, long processedUsers,
+                               long skippedUsers, long failedUsers, long lastUserId, LocalDateTime startedAt,
+                               LocalDateTime updatedAt, LocalDateTime finishedAt, String error) {}
+
+    private static final String COLUMNS = """
+            id, triggered_by, status, total_users, processed_users, skipped_users, failed_users, last_user_id,
+            started_at, updated_at, finished_at, error
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+
+    public RecomputeRunRepository(JdbcTemplate jdbcTemplate, @Qualifier("readDataSource") DataSource readDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+    }
+
+    /** Nächster Abschnitt der User mit gespeicherten Ergebnissen (aufsteigend nach ID, nach 'afterUserId') */
+    public List<Long> findUserIdsAfter(long afterUserId, int limit) {
+        return readJdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM calculated_results WHERE user_id > ? ORDER BY user_id LIMIT ?",
+                Long.class, afterUserId, limit);
+    }
+
+    public long countUsers() {
+        Long count = readJdbcTemplate.queryForObject("SELECT COUNT(DISTINCT user_id) FROM calculated_results", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /** Laufender Lauf (über die Schreibverbindung, damit ein soeben angelegter Lauf sichtbar ist) */
+    public Optional<RecomputeRun> findRunning() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM recompute_runs WHERE status = 'RUNNING'", RUN_MAPPER)
+                .stream().findFirst();
+    }
+
+    public Optional<RecomputeRun> findLatest() {
+        return readJdbcTemplate.query("SELECT " + COLUMNS + " FROM recompute_runs ORDER BY id DESC LIMIT 1", RUN_MAPPER)
+                .stream().findFirst();
+    }
+
+    public long insert(String triggeredBy, long totalUsers, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO recompute_runs (triggered_by, status, total_users, started_at, updated_at)
+                    VALUES (?, 'RUNNING', ?, ?, ?)
+                    """, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, triggeredBy);
+            ps.setLong(2, totalUsers);
+            ps.setString(3, format(now));
+            ps.setString(4, format(now));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Number.class).longValue();
+    }
+
+    /** Sichert den Fortschritt nach einem Abschnitt (Zähler werden addiert) */
+    public void checkpoint(long id, long lastUserId, long processed, long skipped, long failed, LocalDateTime now) {
+        jdbcTemplate.update("""
+                UPDATE recompute_runs
+                SET last_user_id = ?, processed_users = processed_users + ?, skipped_users = skipped_users + ?,
+                    failed_users = failed_users + ?, updated_at = ?
+                WHERE id = ? AND status = 'RUNNING'
+                """, lastUserId, processed, skipped, failed, format(now), id);
+    }
+
+    public void finish(long id, Status status, String error, LocalDateTime now) {
+        jdbcTemplate.update("""
+                UPDATE recompute_runs SET status = ?, error = ?, updated_at = ?, finished_at = ?
+                WHERE id = ? AND status = 'RUNNING'
+                """, status.name(), error, format(now), format(now), id);
+    }
+
+    private static final RowMapper<RecomputeRun> RUN_MAPPER = (rs, rowNum) -> new RecomputeRun(
+            rs.getLong("id"),
+            rs.getString("triggered_by"),
+            Status.valueOf(rs.getString("status")),
+            rs.getLong("total_users"),
+            rs.getLong("processed_users"),
+            rs.getLong("skipped_users"),
+            rs.getLong("failed_users"),
+            rs.getLong("last_user_id"),
+            parse(rs, "started_at"),
+            parse(rs, "updated_at"),
+            parse(rs, "finished_at"),
+            rs.getString("error")
+    );
+
+    private static LocalDateTime parse(ResultSet rs, String column) throws SQLException {
+        String value = rs.getString(column);
+        return value == null ? null : LocalDateTime.parse(value, DateTimeConverter.FORMATTER);
+    }
+
+    private static String format(LocalDateTime timestamp) {
+        return timestamp.format(DateTimeConverter.FORMATTER);
+    }
+}
@@ -0,0 +1,98 @@
+package eco.backend.main_app.feature.calculation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spaltenweise Darstellung einer Ergebnisliste (Accept: application/vnd.eco.columnar+json).
+ * Statt eines Objekts pro Zeile enthält jedes Feld ein Array mit einem Wert pro Zeile (gleicher Index = gleiche Zeile).
+ * Die Zähler-ID steht einmalig im Kopf; Hinweistexte werden einmalig in 'messages' übertragen und pro Zeile
+ * über 'messageIndex' referenziert (-1: kein Hinweis). Nicht belegte Felder entfallen.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CalculationColumnsDto(
+        String meterIdentifier,         // Zähler-ID (für alle Zeilen einer Berechnung gleich)
+        int size,                       // Anzahl der Zeilen
+        long[] ids,                     // IDs der gespeicherten Ergebnisse (nur get-results)
+        LocalDate[] periodStart,
+        LocalDate[] periodEnd,
+        long[] daysPeriod,
+        double[] paidAmountPeriod,
+        double[] totalCostsPeriod,
+        double[] sumUsedEnergy,
+        double[] costDiffPeriod,
+        double[] usedEnergyPerDay,
+        List<String> messages,          // Verschiedene Hinweistexte
+        int[] messageIndex              // Index in 'messages' pro Zeile
+) {
+
+    public static final String MEDIA_TYPE = "application/vnd.eco.columnar+json";
+
+    /** Ergebnisse einer Berechnung (run-and-save) */
+    public static CalculationColumnsDto fromResults(List<CalculationResultsDto> results) {
+        int size = results.size();
+        LocalDate[] periodStart = new LocalDate[size], periodEnd = new LocalDate[size];
+        long[] daysPeriod = new long[size];
+        double[] paid = new double[size], costs = new double[size], energy = new double[size],
+                diff = new double[size], perDay = new double[size];
+        int[] messageIndex = new int[size];
+
+        List<String> messages = new ArrayList<>();
+        Map<String, Integer> messageIds = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            CalculationResultsDto row = results.get(i);
+            periodStart[i] = row.periodStart();
+            periodEnd[i] = row.periodEnd();
+            daysPeriod[i] = row.daysPeriod();
+            paid[i] = row.paidAmountPeriod();
+            costs[i] = row.totalCostsPeriod();
+            energy[i] = row.sumUsedEnergy();
+            diff[i] = row.costDiffPeriod();
+            perDay[i] = row.usedEnergyPerDay();
+
+            messageIndex[i] = row.logMessage() == null ? -1 : messageIds.computeIfAbsent(row.logMessage(), message -> {
+                messages.add(message);
+                return messages.size() - 1;
+            });
+        }
+
+        String meterIdentifier = size == 0 ? null : results.getFirst().id();
+        return new CalculationColumnsDto(meterIdentifier, size, null, periodStart, periodEnd, daysPeriod,
+                paid, costs, energy, diff, perDay,
+                messages.isEmpty() ? null : messages,
+                messages.isEmpty() ? null : messageIndex);
+    }
+
+    /** Gespeicherte Ergebnisse (get-results); Perioden beginnen immer um 00:00 Uhr und werden als Datum übertragen */
+    public static CalculationColumnsDto fromEntities(List<CalculationEntity> entities) {
+        int size = entities.size();
+        long[] ids = new long[size];
+        LocalDate[] periodStart = new LocalDate[size], periodEnd = new LocalDate[size];
+        long[] daysPeriod = new long[size];
+        double[] paid = new double[size], costs = new double[size], energy = new double[size],
+                diff = new double[size], perDay = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            CalculationEntity row = entities.get(i);
+            ids[i] = row.getId();
+            periodStart[i] = row.getPeriodStart().toLocalDate();
+            periodEnd[i] = row.getPeriodEnd().toLocalDate();
+            daysPeriod[i] = row.getDaysPeriod();
+            paid[i] = row.getPaidAmountPeriod();
+            costs[i] = row.getTotalCostsPeriod();
+            energy[i] = row.getSumUsedEnergy();
+            diff[i] = row.getCostDiffPeriod();
+            perDay[i] = row.getUsedEnergyPerDay();
+        }
+
+        return new CalculationColumnsDto(null, size, ids, periodStart, periodEnd, daysPeriod,
+                paid, costs, energy, diff, perDay, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package eco.backend.main_app.feature.calculation.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import eco.backend.main_app.feature.calculation.CalculationJobRepository.CalculationJob;
+import eco.backend.main_app.utils.AppConstants;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CalculationJobDto(
+        long jobId,
+        String status,                  // PENDING, RUNNING, SUCCEEDED, FAILED oder CANCELLED
+        String endDate,                 // Enddatum der Berechnung
+        int submissions,                // Anzahl der zusammengeführten Anfragen
+        boolean cancelRequested,        // Abbruch angefordert (laufender Auftrag)
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime submittedAt,
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime startedAt,
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime finishedAt,
+        Integer resultCount,            // Anzahl der berechneten Perioden (nur SUCCEEDED)
+        String error                    // Fehlermeldung (nur FAILED)
+) {
+
+    public static CalculationJobDto of(CalculationJob job) {
+        return new CalculationJobDto(job.id(), job.status().name(), job.endDate(), job.submissions(), job.cancelRequested(),
+                job.submittedAt(), job.startedAt(), job.finishedAt(), job.resultCount(), job.error());
+    }
+}
@@ -0,0 +1,28 @@
+package eco.backend.main_app.feature.calculation.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import eco.backend.main_app.utils.AppConstants;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CalculationJobResultDto(
+        int periods,                        // Anzahl der berechneten (und gespeicherten) Perioden
+        LocalDate firstPeriodEnd,           // Enddatum der ersten Periode
+        LocalDate lastPeriodEnd,            // Enddatum der letzten Periode
+        CalculationResultsDto lastPeriod,   // Letzte Periode (Referenzdatum bis Enddatum)
+        String results                      // Verweis auf die gespeicherten Ergebnisse (get-results im Zeitraum)
+) {
+
+    /** Zusammenfassung statt der vollständigen Liste: Die Perioden liegen bereits in 'calculated_results' */
+    public static CalculationJobResultDto of(List<CalculationResultsDto> results) {
+        if (results.isEmpty()) { return new CalculationJobResultDto(0, null, null, null, null); }
+
+        LocalDate first = results.getFirst().periodEnd();
+        LocalDate last = results.getLast().periodEnd();
+        return new CalculationJobResultDto(results.size(), first, last, results.getLast(),
+                "/api/calculation/get-results?from=" + first.format(AppConstants.JSON_DATE_FORMATTER)
+                        + "&to=" + last.format(AppConstants.JSON_DATE_FORMATTER));
+    }
+}
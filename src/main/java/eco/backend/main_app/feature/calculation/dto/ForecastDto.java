@@ -0,0 +1,25 @@
+package eco.backend.main_app.feature.calculation.dto;
+
+import java.time.LocalDate;
+
+public record ForecastDto(
+        String id,                      // Zähler-ID
+        LocalDate billingYearStart,     // Beginn des laufenden Abrechnungsjahres (Referenzdatum bzw. dessen Jahrestag)
+        LocalDate billingYearEnd,       // Ende des Abrechnungsjahres
+        LocalDate lastReadingDate,      // Neueste Ablesung (Stand der Prognose)
+        long daysElapsed,               // Tage vom Beginn des Abrechnungsjahres bis zur neuesten Ablesung
+        long daysRemaining,             // Prognostizierte Tage bis zum Ende des Abrechnungsjahres
+        double usedEnergySoFar,         // Bisheriger Verbrauch im Abrechnungsjahr [kWh]
+        double projectedEnergy,         // Prognostizierter Verbrauch bis zum Ende des Abrechnungsjahres [kWh]
+        double expectedEnergy,          // Erwarteter Verbrauch im gesamten Abrechnungsjahr [kWh]
+        double costsSoFar,              // Bisherige Gesamtkosten (brutto) [€]
+        double expectedCosts,           // Erwartete Gesamtkosten (brutto) zum Ende des Abrechnungsjahres [€]
+        double paidAmountSoFar,         // Bisherige Einzahlungen [€]
+        double expectedPaidAmount,      // Erwartete Einzahlungen zum Ende des Abrechnungsjahres [€]
+        double costDiffSoFar,           // Bisheriger Restbetrag [€]: Positiv = Guthaben, Negativ = Nachzahlung
+        double expectedCostDiff,        // Erwarteter Restbetrag zum Ende des Abrechnungsjahres [€]
+        double expectedEnergyPerDay,    // Erwarteter Verbrauch pro Tag laut Modell am Stand der Prognose [kWh/Tag]
+        boolean seasonalModel,          // true: Saisonales Modell (Ablesungen über mindestens ein Jahr), sonst konstanter Verbrauch
+        int fittedIntervals,            // Anzahl der Intervalle zwischen Ablesungen, auf denen das Modell beruht
+        String logMessage
+) {}
@@ -0,0 +1,35 @@
+package eco.backend.main_app.feature.calculation.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import eco.backend.main_app.feature.calculation.RecomputeRunRepository.RecomputeRun;
+import eco.backend.main_app.utils.AppConstants;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RecomputeRunDto(
+        long runId,
+        String triggeredBy,             // ADMIN oder SCHEDULED
+        String status,                  // RUNNING, COMPLETED, CANCELLED oder FAILED
+        long totalUsers,                // User mit gespeicherten Ergebnissen beim Start
+        long processedUsers,            // Bearbeitete User (inkl. übersprungener und fehlgeschlagener)
+        long skippedUsers,
+        long failedUsers,
+        Double usersPerSecond,          // Durchsatz des laufenden Laufs (nur RUNNING)
+        Long etaSeconds,                // Geschätzte Restdauer in Sekunden (nur RUNNING)
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime startedAt,
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime updatedAt,
+        @JsonFormat(pattern = AppConstants.JSON_DATE_TIME_PATTERN)
+        LocalDateTime finishedAt,
+        String error
+) {
+
+    public static RecomputeRunDto of(RecomputeRun run, Double usersPerSecond, Long etaSeconds) {
+        return new RecomputeRunDto(run.id(), run.triggeredBy(), run.status().name(), run.totalUsers(),
+                run.processedUsers(), run.skippedUsers(), run.failedUsers(), usersPerSecond, etaSeconds,
+                run.startedAt(), run.updatedAt(), run.finishedAt(), run.error());
+    }
+}
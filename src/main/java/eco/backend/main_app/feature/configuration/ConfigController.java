@@ -1,7 +1,9 @@
 package eco.backend.main_app.feature.configuration;
 
+import eco.backend.main_app.core.cache.ConditionalGet;
 import eco.backend.main_app.feature.configuration.dto.ConfigDto;
 import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,18 +14,20 @@ import org.springframework.web.bind.annotation.*;
 public class ConfigController {
 
     private final ConfigService configService;
+    private final ConditionalGet conditionalGet;
 
-    public ConfigController(ConfigService configService) {
+    public ConfigController(ConfigService configService, ConditionalGet conditionalGet) {
         this.configService = configService;
+        this.conditionalGet = conditionalGet;
     }
 
     /**
-     * GET /api/config: Lädt die Konfiguration des eingeloggten Users.
+     * GET /api/config: Lädt die Konfiguration des eingeloggten Users (bei unverändertem Datenstand 304).
      */
     @GetMapping
-    public ResponseEntity<ConfigEntity> getConfig(@AuthenticationPrincipal UserDetails userDetails) {
-        ConfigEntity config = configService.getConfigByUsername(userDetails.getUsername());
-        return ResponseEntity.ok(config);
+    public ResponseEntity<ConfigEntity> getConfig(@AuthenticationPrincipal UserDetails userDetails, HttpServletRequest request) {
+        return conditionalGet.respond(userDetails, "config", request,
+                () -> ResponseEntity.ok(configService.getConfigByUsername(userDetails.getUsername())));
     }
 
     /**
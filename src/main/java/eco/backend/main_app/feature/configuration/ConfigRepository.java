@@ -2,9 +2,11 @@ package eco.backend.main_app.feature.configuration;
 
 import eco.backend.main_app.feature.configuration.model.ConfigEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface ConfigRepository extends JpaRepository<ConfigEntity, Long> {
     // Finde genau eine Config anhand der User-ID
     Optional<ConfigEntity> findByUserId(Long userId);
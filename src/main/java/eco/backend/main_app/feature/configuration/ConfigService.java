@@ -5,12 +5,15 @@ import eco.backend.main_app.feature.auth.UserService;
 import eco.backend.main_app.feature.auth.model.UserEntity;
 import eco.backend.main_app.feature.configuration.dto.ConfigDto;
 import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.core.event.ConfigChangedEvent;
 import eco.backend.main_app.core.event.UserRegisteredEvent;
+import eco.backend.main_app.core.security.AuthenticatedUser;
 import eco.backend.main_app.feature.tracking.TrackingRepository;
 import eco.backend.main_app.feature.tracking.model.TrackingEntity;
 import eco.backend.main_app.utils.ReuseHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import jakarta.transaction.Transactional;
 import org.springframework.http.HttpStatus;
@@ -25,15 +28,18 @@ public class ConfigService {
     private final ConfigRepository configRepository;
     private final UserService userService;
     private final TrackingRepository trackingRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(ConfigService.class);
 
     public ConfigService(ConfigRepository configRepository,
                          UserService userService,
-                         TrackingRepository trackingRepository) {
+                         TrackingRepository trackingRepository,
+                         ApplicationEventPublisher eventPublisher) {
 
         this.configRepository = configRepository;
         this.userService = userService;
         this.trackingRepository = trackingRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -41,12 +47,12 @@ public class ConfigService {
      * Falls noch keine in der DB existiert, wird eine Fehlermeldung zurückgegeben.
      */
     public ConfigEntity getConfigByUsername(String username) {
-        UserEntity user = userService.findUserByName(username);
-        if(!userService.hasValidStatus(userService.findUserByName(username))){
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if(!userService.hasValidStatus(user)){
             throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
         }
 
-        return configRepository.findByUserId(user.getId())
+        return configRepository.findByUserId(user.id())
                 .orElseThrow(() ->  new GenericException(
                         "Konfiguration wurde nicht gefunden.",
                         HttpStatus.INTERNAL_SERVER_ERROR)
@@ -77,7 +83,7 @@ public class ConfigService {
     public ConfigEntity updateConfig(String username, ConfigDto dto) {
         logger.debug("Aktualisierung der Konfiguration für {} ...", username);
 
-        if(!userService.hasValidStatus(userService.findUserByName(username))){
+        if(!userService.hasValidStatus(userService.findPrincipalByName(username))){
             throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
         }
 
@@ -97,20 +103,22 @@ public class ConfigService {
         // Referenzdatum für die Berechnung aktualisieren
         if (dto.referenceDate() != null && !dto.referenceDate().isBlank()){
             LocalDateTime timestamp = ReuseHelper.getParsedDateTimeNoFallback(dto.referenceDate());
-            UserEntity user = userService.findUserByName(username);
+            AuthenticatedUser user = userService.findPrincipalByName(username);
 
             LocalDateTime start = timestamp.toLocalDate().atStartOfDay();
             LocalDateTime end = timestamp.toLocalDate().atTime(LocalTime.MAX);
 
             // Prüfen, ob ein Eintrag für das Referenzdatum existiert
-            TrackingEntity foundEntry = trackingRepository.findFirstByUserIdAndTimestampBetween(user.getId(), start, end)
+            TrackingEntity foundEntry = trackingRepository.findFirstByUserIdAndTimestampBetween(user.id(), start, end)
                     .orElseThrow(() -> new GenericException("Kein Eintrag für das Referenzdatum gefunden.", HttpStatus.BAD_REQUEST));
 
             config.setReferenceDate(foundEntry.getTimestamp());
         }
-        logger.debug("Konfiguration wurde erfolgreich aktualisiert.");
-
         // Speichern der Änderungen
-        return configRepository.save(config);
+        ConfigEntity savedConfig = configRepository.save(config);
+        eventPublisher.publishEvent(new ConfigChangedEvent(this, config.getUser(), savedConfig));
+
+        logger.debug("Konfiguration wurde erfolgreich aktualisiert.");
+        return savedConfig;
     }
 }
@@ -0,0 +1,46 @@
+package eco.backend.main_app.feature.configuration;
+
+import eco.backend.main_app.feature.configuration.dto.TariffVersionDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/config/tariffs")
+public class TariffController {
+
+    private final TariffService tariffService;
+
+    public TariffController(TariffService tariffService) {
+        this.tariffService = tariffService;
+    }
+
+    /**
+     * GET /api/config/tariffs: Lädt alle Tarifversionen des eingeloggten Users.
+     */
+    @GetMapping
+    public ResponseEntity<List<TariffVersionDto>> getVersions(@AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(tariffService.getVersions(userDetails.getUsername()));
+    }
+
+    /**
+     * POST /api/config/tariffs: Legt eine Tarifversion ab 'validFrom' an (z.B. Anbieterwechsel oder neue Umsatzsteuer).
+     */
+    @PostMapping
+    public ResponseEntity<TariffVersionDto> addVersion(@AuthenticationPrincipal UserDetails userDetails, @RequestBody TariffVersionDto dto) {
+        return ResponseEntity.ok(tariffService.addVersion(userDetails.getUsername(), dto));
+    }
+
+    /**
+     * DELETE /api/config/tariffs/{id}: Entfernt eine Tarifversion.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, String>> deleteVersion(@AuthenticationPrincipal UserDetails userDetails, @PathVariable long id) {
+        tariffService.deleteVersion(userDetails.getUsername(), id);
+        return ResponseEntity.ok(Map.of("message", "Tarifversion wurde erfolgreich entfernt."));
+    }
+}
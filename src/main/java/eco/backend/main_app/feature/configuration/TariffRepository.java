@@ -0,0 +1,120 @@
+package eco.backend.main_app.feature.configuration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC-Zugriff auf die Tarifversionen 'tariff_versions' und deren Staffelpreise 'tariff_tiers'.
+ * Versionen und Stufen werden mit einer Abfrage geladen (aufsteigend nach Gültigkeitsbeginn bzw. Stufengrenze).
+ */
+@Repository
+public class TariffRepository {
+
+    /** Staffelpreis: Ab 'fromKwh' (Verbrauch seit dem Referenzdatum) gilt 'energyPrice' (brutto) */
+    public record Tier(double fromKwh, double energyPrice) {}
+
+    /** Tarifversion ab 'validFrom' (Preise brutto wie in der Config) */
+    public record TariffVersion(long id, LocalDate validFrom, double basePrice, double energyPrice,
+                                double energyTax, double vatRate, List<Tier> tiers) {}
+
+    private static final String SELECT_BY_USER = """
+            SELECT v.id, v.valid_from, v.base_price, v.energy_price, v.energy_tax, v.vat_rate, t.from_kwh, t.energy_price
+            FROM tariff_versions v LEFT JOIN tariff_tiers t ON t.tariff_id = v.id
+            WHERE v.user_id = ?
+            ORDER BY v.valid_from, t.from_kwh
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+
+    public TariffRepository(JdbcTemplate jdbcTemplate, @Qualifier("readDataSource") DataSource readDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+    }
+
+    /** Alle Versionen des Users über den Reader-Pool */
+    public List<TariffVersion> findByUserId(Long userId) {
+        return query(readJdbcTemplate, userId);
+    }
+
+    /** Alle Versionen des Users über die Schreibverbindung (sieht Änderungen der laufenden Transaktion) */
+    public List<TariffVersion> findByUserIdForWrite(Long userId) {
+        return query(jdbcTemplate, userId);
+    }
+
+    public boolean existsByUserIdAndValidFrom(Long userId, LocalDate validFrom) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tariff_versions WHERE user_id = ? AND valid_from = ?",
+                Integer.class, userId, validFrom.toString());
+        return count != null && count > 0;
+    }
+
+    public long insert(Long userId, LocalDate validFrom, double basePrice, double energyPrice,
+                       double energyTax, double vatRate, List<Tier> tiers) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                    INSERT INTO tariff_versions (user_id, valid_from, base_price, energy_price, energy_tax, vat_rate)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            ps.setString(2, validFrom.toString());
+            ps.setDouble(3, basePrice);
+            ps.setDouble(4, energyPrice);
+            ps.setDouble(5, energyTax);
+            ps.setDouble(6, vatRate);
+            return ps;
+        }, keyHolder);
+        long id = keyHolder.getKeyAs(Number.class).longValue();
+
+        if (!tiers.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO tariff_tiers (tariff_id, from_kwh, energy_price) VALUES (?, ?, ?)",
+                    tiers, tiers.size(), (ps, tier) -> {
+                        ps.setLong(1, id);
+                        ps.setDouble(2, tier.fromKwh());
+                        ps.setDouble(3, tier.energyPrice());
+                    });
+        }
+        return id;
+    }
+
+    /** Entfernt die Version inkl. Stufen (nur, wenn sie dem User gehört) */
+    public boolean delete(Long userId, long id) {
+        jdbcTemplate.update("DELETE FROM tariff_tiers WHERE tariff_id IN (SELECT id FROM tariff_versions WHERE id = ? AND user_id = ?)", id, userId);
+        return jdbcTemplate.update("DELETE FROM tariff_versions WHERE id = ? AND user_id = ?", id, userId) > 0;
+    }
+
+    /** Hilfsfunktion: Fasst die Zeilen des LEFT JOIN zu Versionen mit ihren Stufen zusammen */
+    private static List<TariffVersion> query(JdbcTemplate template, Long userId) {
+        List<TariffVersion> versions = new ArrayList<>();
+
+        template.query(SELECT_BY_USER, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            if (versions.isEmpty() || versions.getLast().id() != id) {
+                versions.add(new TariffVersion(id, LocalDate.parse(rs.getString(2)), rs.getDouble(3), rs.getDouble(4),
+                        rs.getDouble(5), rs.getDouble(6), new ArrayList<>()));
+            }
+
+            double fromKwh = rs.getDouble(7);
+            if (!rs.wasNull()) {
+                versions.getLast().tiers().add(new Tier(fromKwh, rs.getDouble(8)));
+            }
+        }, userId);
+
+        return versions.stream()
+                .map(v -> new TariffVersion(v.id(), v.validFrom(), v.basePrice(), v.energyPrice(), v.energyTax(),
+                        v.vatRate(), List.copyOf(v.tiers())))
+                .toList();
+    }
+}
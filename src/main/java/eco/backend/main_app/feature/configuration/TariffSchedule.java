@@ -0,0 +1,72 @@
+package eco.backend.main_app.feature.configuration;
+
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Intervall-Index über die Tarifversionen eines Users: Version i gilt von validFrom[i] (inklusive)
+ * bis validFrom[i + 1] (exklusive), vor der ersten Version gilt der Tarif aus der Config.
+ * Der Index wird einmalig pro User aufgebaut (siehe TariffService) und per Binärsuche abgefragt.
+ */
+public final class TariffSchedule {
+
+    public static final TariffSchedule EMPTY = new TariffSchedule(List.of());
+
+    private final List<TariffVersion> versions;
+    private final int[] validFrom;                 // Tage seit Epoche, aufsteigend
+
+    public TariffSchedule(List<TariffVersion> versions) {
+        this.versions = List.copyOf(versions);
+        this.validFrom = new int[versions.size()];
+        for (int i = 0; i < validFrom.length; i++) {
+            validFrom[i] = (int) this.versions.get(i).validFrom().toEpochDay();
+            if (i > 0 && validFrom[i] <= validFrom[i - 1]) {
+                throw new IllegalArgumentException("Tarifversionen müssen aufsteigend nach Gültigkeitsbeginn sortiert sein.");
+            }
+        }
+    }
+
+    public boolean isEmpty() { return versions.isEmpty(); }
+
+    public int size() { return versions.size(); }
+
+    public List<TariffVersion> versions() { return versions; }
+
+    public TariffVersion version(int index) { return versions.get(index); }
+
+    /** Gültigkeitsbeginn der Version (Tage seit Epoche) */
+    public int validFrom(int index) { return validFrom[index]; }
+
+    /**
+     * Index der Version, die am Tag gilt.
+     *
+     * @param epochDay Tag seit Epoche
+     * @return Index der Version oder -1, falls der Tarif aus der Config gilt
+     */
+    public int indexAt(int epochDay) {
+        int position = Arrays.binarySearch(validFrom, epochDay);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    /** true, falls nach dem Tag eine weitere Version beginnt (Perioden ab dem Tag werden aufgeteilt) */
+    public boolean hasBoundaryAfter(int epochDay) {
+        return indexAt(epochDay) + 1 < versions.size();
+    }
+
+    /** Version, die am Tag gilt (null: Tarif aus der Config) */
+    public TariffVersion versionAt(LocalDate day) {
+        int index = indexAt((int) day.toEpochDay());
+        return index < 0 ? null : versions.get(index);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TariffSchedule schedule && versions.equals(schedule.versions);
+    }
+
+    @Override
+    public int hashCode() { return versions.hashCode(); }
+}
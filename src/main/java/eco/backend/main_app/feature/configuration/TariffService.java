@@ -0,0 +1,235 @@
+package eco.backend.main_app.feature.configuration;
+
+import eco.backend.main_app.core.event.ConfigChangedEvent;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffRepository.Tier;
+import eco.backend.main_app.feature.configuration.dto.TariffVersionDto;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.ReuseHelper;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tarifversionen pro User (Gültigkeitsbeginn, Grund- und Verbrauchspreis, Staffelpreise, Stromsteuer, Umsatzsteuer).
+ * Der Intervall-Index (TariffSchedule) wird pro User einmalig geladen und zwischengespeichert (LRU);
+ * Änderungen entfernen den Eintrag und lösen ein ConfigChangedEvent aus, damit die Ergebnisse neu aufgebaut werden.
+ */
+@Service
+public class TariffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TariffService.class);
+    private static final int GENERATION_STRIPES = 64;
+
+    private final TariffRepository tariffRepository;
+    private final ConfigService configService;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, TariffSchedule> schedules;
+
+    // Änderungszähler pro User (Stripe): ein vor der Invalidierung begonnener Ladevorgang darf den Index nicht mehr speichern
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public TariffService(TariffRepository tariffRepository,
+                         ConfigService configService,
+                         UserService userService,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${app.tariffs.cache.max-entries:10000}") int maxEntries) {
+
+        this.tariffRepository = tariffRepository;
+        this.configService = configService;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+
+        // LRU: Zugriffsreihenfolge, ältester Eintrag wird bei Überschreitung entfernt
+        this.schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TariffSchedule> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Intervall-Index der Tarifversionen des Users (leer, falls nur der Tarif aus der Config gilt).
+     * Innerhalb einer schreibenden Transaktion (z.B. Neuaufbau nach einer Tarifänderung) wird über die
+     * Schreibverbindung geladen, damit noch nicht bestätigte Änderungen sichtbar sind; das Ergebnis wird nicht gespeichert.
+     */
+    public TariffSchedule getSchedule(Long userId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return toSchedule(tariffRepository.findByUserIdForWrite(userId));
+        }
+
+        synchronized (schedules) {
+            TariffSchedule cached = schedules.get(userId);
+            if (cached != null) { return cached; }
+        }
+
+        long generationBefore = generations.get(stripe(userId));
+        TariffSchedule schedule = toSchedule(tariffRepository.findByUserId(userId));
+
+        synchronized (schedules) {
+            // Nur speichern, wenn während des Ladens keine Tarifänderung erfolgt ist
+            if (generations.get(stripe(userId)) == generationBefore) {
+                schedules.put(userId, schedule);
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * READ: Alle Tarifversionen des Users (aufsteigend nach Gültigkeitsbeginn).
+     */
+    public List<TariffVersionDto> getVersions(String username) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
+        }
+        return getSchedule(user.id()).versions().stream().map(TariffService::toDto).toList();
+    }
+
+    /**
+     * WRITE: Legt eine neue Tarifversion an. Fehlende Werte werden aus dem Tarif übernommen,
+     * der am Gültigkeitsbeginn gilt (z.B. nur Änderung der Umsatzsteuer).
+     */
+    @Transactional
+    public TariffVersionDto addVersion(String username, TariffVersionDto dto) {
+        UserEntity user = findValidUser(username);
+        ConfigEntity config = configService.getConfigByUsername(username);
+
+        LocalDate validFrom = ReuseHelper.getParsedDateOrDefault(dto.validFrom(), null);
+        if (validFrom == null) {
+            throw new GenericException("Gültigkeitsbeginn (validFrom) fehlt.", HttpStatus.BAD_REQUEST);
+        }
+        if (tariffRepository.existsByUserIdAndValidFrom(user.getId(), validFrom)) {
+            throw new GenericException("Für dieses Datum existiert bereits eine Tarifversion.", HttpStatus.CONFLICT);
+        }
+
+        TariffVersion inherited = toSchedule(tariffRepository.findByUserIdForWrite(user.getId())).versionAt(validFrom);
+        double basePrice = checkedValue(dto.basePrice(), inherited != null ? inherited.basePrice() : config.getBasePrice(), "basePrice");
+        double energyPrice = checkedValue(dto.energyPrice(), inherited != null ? inherited.energyPrice() : config.getEnergyPrice(), "energyPrice");
+        double energyTax = checkedValue(dto.energyTax(), inherited != null ? inherited.energyTax() : config.getEnergyTax(), "energyTax");
+        double vatRate = checkedValue(dto.vatRate(), inherited != null ? inherited.vatRate() : config.getVatRate(), "vatRate");
+        List<Tier> tiers = dto.tiers() != null ? checkedTiers(dto.tiers()) : (inherited != null ? inherited.tiers() : List.of());
+
+        long id = tariffRepository.insert(user.getId(), validFrom, basePrice, energyPrice, energyTax, vatRate, tiers);
+        invalidate(user.getId());
+        eventPublisher.publishEvent(new ConfigChangedEvent(this, user, config));
+
+        logger.debug("Tarifversion ab {} für {} angelegt.", validFrom, username);
+        return toDto(new TariffVersion(id, validFrom, basePrice, energyPrice, energyTax, vatRate, tiers));
+    }
+
+    /**
+     * WRITE: Entfernt eine Tarifversion (die vorherige Version gilt danach bis zur nächsten weiter).
+     */
+    @Transactional
+    public void deleteVersion(String username, long id) {
+        UserEntity user = findValidUser(username);
+        ConfigEntity config = configService.getConfigByUsername(username);
+
+        if (!tariffRepository.delete(user.getId(), id)) {
+            throw new GenericException("Tarifversion wurde nicht gefunden.", HttpStatus.NOT_FOUND);
+        }
+        invalidate(user.getId());
+        eventPublisher.publishEvent(new ConfigChangedEvent(this, user, config));
+
+        logger.debug("Tarifversion {} von {} entfernt.", id, username);
+    }
+
+    private UserEntity findValidUser(String username) {
+        UserEntity user = userService.findUserByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
+        }
+        return user;
+    }
+
+    /** Entfernt den Index sofort und erneut nach Abschluss der Transaktion (kein zwischenzeitlich geladener Stand) */
+    private void invalidate(Long userId) {
+        remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        synchronized (schedules) {
+            schedules.remove(userId);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (GENERATION_STRIPES - 1));
+    }
+
+    private static TariffSchedule toSchedule(List<TariffVersion> versions) {
+        return versions.isEmpty() ? TariffSchedule.EMPTY : new TariffSchedule(versions);
+    }
+
+    private static double checkedValue(Double value, double fallback, String name) {
+        double checked = value != null ? value : fallback;
+        if (!Double.isFinite(checked) || checked < 0) {
+            throw new GenericException("Ungültiger Wert für " + name + ".", HttpStatus.BAD_REQUEST);
+        }
+        return checked;
+    }
+
+    /** Hilfsfunktion: Prüft die Staffelpreise (Grenzen > 0 und eindeutig) und sortiert sie aufsteigend */
+    private static List<Tier> checkedTiers(List<TariffVersionDto.Tier> tiers) {
+        List<Tier> checked = new ArrayList<>(tiers.size());
+        for (TariffVersionDto.Tier tier : tiers) {
+            if (tier == null || tier.fromKwh() == null || !Double.isFinite(tier.fromKwh()) || tier.fromKwh() <= 0) {
+                throw new GenericException("Ungültige Stufengrenze (fromKwh muss größer 0 sein).", HttpStatus.BAD_REQUEST);
+            }
+            checked.add(new Tier(tier.fromKwh(), checkedValue(tier.energyPrice(), Double.NaN, "energyPrice")));
+        }
+
+        checked.sort(Comparator.comparingDouble(Tier::fromKwh));
+        for (int i = 1; i < checked.size(); i++) {
+            if (checked.get(i).fromKwh() == checked.get(i - 1).fromKwh()) {
+                throw new GenericException("Stufengrenzen müssen eindeutig sein.", HttpStatus.BAD_REQUEST);
+            }
+        }
+        return List.copyOf(checked);
+    }
+
+    private static TariffVersionDto toDto(TariffVersion version) {
+        return new TariffVersionDto(
+                version.id(),
+                version.validFrom().format(AppConstants.JSON_DATE_FORMATTER),
+                version.basePrice(),
+                version.energyPrice(),
+                version.energyTax(),
+                version.vatRate(),
+                version.tiers().stream().map(tier -> new TariffVersionDto.Tier(tier.fromKwh(), tier.energyPrice())).toList()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package eco.backend.main_app.feature.configuration.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Tarifversion ab 'validFrom' (dd.MM.yyyy). Beim Anlegen werden fehlende Werte aus dem Tarif übernommen,
+ * der zu diesem Datum gilt; eine leere Liste 'tiers' bedeutet einen einheitlichen Verbrauchspreis.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TariffVersionDto(
+        Long id,
+        String validFrom,
+        Double basePrice,           // Grundpreis EUR/Monat (brutto)
+        Double energyPrice,         // Verbrauchspreis EUR/kWh (brutto, erste Stufe)
+        Double energyTax,           // Stromsteuer in EUR/kWh
+        Double vatRate,             // Umsatzsteuer (Relativ z.B. 0.19)
+        List<Tier> tiers            // Staffelpreise (aufsteigend nach Grenze)
+) {
+
+    /** Ab 'fromKwh' (Verbrauch seit dem Referenzdatum) gilt 'energyPrice' (brutto) */
+    public record Tier(Double fromKwh, Double energyPrice) {}
+}
@@ -0,0 +1,76 @@
+package eco.backend.main_app.feature.export;
+
+import eco.backend.main_app.feature.export.ExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ExportService exportService;
+    private final long timeoutMs;
+
+    public ExportController(ExportService exportService,
+                            @Value("${app.export.timeout-ms:600000}") long timeoutMs) {
+        this.exportService = exportService;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * GET /api/export/readings: Streamt alle Zählerstände (Accept: application/x-ndjson)
+     */
+    @GetMapping(value = "/readings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportReadingsNdjson(@AuthenticationPrincipal UserDetails user, HttpServletResponse response) {
+        return stream(exportService.exportReadings(user.getUsername(), Format.NDJSON), MediaType.APPLICATION_NDJSON_VALUE, "readings.ndjson", response);
+    }
+
+    /**
+     * GET /api/export/readings: Streamt alle Zählerstände (Accept: text/csv)
+     */
+    @GetMapping(value = "/readings", produces = TEXT_CSV_VALUE)
+    public WebAsyncTask<Void> exportReadingsCsv(@AuthenticationPrincipal UserDetails user, HttpServletResponse response) {
+        return stream(exportService.exportReadings(user.getUsername(), Format.CSV), TEXT_CSV_VALUE, "readings.csv", response);
+    }
+
+    /**
+     * GET /api/export/results: Streamt alle gespeicherten Berechnungsergebnisse (Accept: application/x-ndjson)
+     */
+    @GetMapping(value = "/results", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportResultsNdjson(@AuthenticationPrincipal UserDetails user, HttpServletResponse response) {
+        return stream(exportService.exportResults(user.getUsername(), Format.NDJSON), MediaType.APPLICATION_NDJSON_VALUE, "results.ndjson", response);
+    }
+
+    /**
+     * GET /api/export/results: Streamt alle gespeicherten Berechnungsergebnisse (Accept: text/csv)
+     */
+    @GetMapping(value = "/results", produces = TEXT_CSV_VALUE)
+    public WebAsyncTask<Void> exportResultsCsv(@AuthenticationPrincipal UserDetails user, HttpServletResponse response) {
+        return stream(exportService.exportResults(user.getUsername(), Format.CSV), TEXT_CSV_VALUE, "results.csv", response);
+    }
+
+    /**
+     * Hilfsfunktion: Schreibt den Export asynchron in die Antwort.
+     * Das Timeout gilt nur für die Export-Endpunkte (app.export.timeout-ms), nicht für alle asynchronen Anfragen.
+     */
+    private WebAsyncTask<Void> stream(StreamingResponseBody body, String mediaType, String fileName, HttpServletResponse response) {
+        response.setContentType(mediaType + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        return new WebAsyncTask<>(timeoutMs, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+}
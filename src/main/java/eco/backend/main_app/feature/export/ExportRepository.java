@@ -0,0 +1,48 @@
+package eco.backend.main_app.feature.export;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Lesender Zugriff für Exporte über JDBC-Cursor.
+ * Zeilen werden einzeln an den RowCallbackHandler übergeben, ohne Entities oder Listen aufzubauen.
+ */
+@Repository
+public class ExportRepository {
+
+    private static final String SELECT_READINGS = """
+            SELECT id, kwh_reading, timestamp
+            FROM meter_readings WHERE user_id = ? ORDER BY timestamp ASC
+            """;
+
+    private static final String SELECT_RESULTS = """
+            SELECT id, period_start, period_end, days_period, payments_period, total_costs_period,
+                   cost_diff_period, sum_used_energy, used_energy_per_day
+            FROM calculated_results WHERE user_id = ? ORDER BY period_end ASC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportRepository(@Qualifier("readDataSource") DataSource dataSource,
+                            @Value("${app.export.fetch-size:500}") int fetchSize) {
+        // Eigenes Template auf dem Reader-Pool, damit die Fetch-Size nur für Exporte gilt
+        // und lange Exporte die Schreibverbindung nicht blockieren
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /** Spalten: id, kwh_reading, timestamp (ältester Eintrag zuerst) */
+    public void streamReadings(Long userId, RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_READINGS, handler, userId);
+    }
+
+    /** Spalten wie in 'calculated_results' (ältester Eintrag zuerst) */
+    public void streamResults(Long userId, RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_RESULTS, handler, userId);
+    }
+}
@@ -0,0 +1,204 @@
+package eco.backend.main_app.feature.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Export der Zählerstände und Berechnungsergebnisse als NDJSON oder CSV.
+ * Jede Zeile wird direkt aus dem JDBC-Cursor in den Response-Stream geschrieben,
+ * der Speicherbedarf bleibt daher unabhängig von der Länge der Historie konstant.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final String READINGS_CSV_HEADER = "id,readingValue,timestamp";
+    private static final String RESULTS_CSV_HEADER = "id,periodStart,periodEnd,daysPeriod,paidAmountPeriod,"
+            + "totalCostsPeriod,costDiffPeriod,sumUsedEnergy,usedEnergyPerDay";
+
+    private final ExportRepository exportRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    public enum Format { NDJSON, CSV }
+
+    public ExportService(ExportRepository exportRepository, UserService userService, ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Zählerstände des Users (Felder wie in /api/tracking/get-all) */
+    public StreamingResponseBody exportReadings(String username, Format format) {
+        Long userId = findValidUser(username).id();
+
+        return outputStream -> {
+            long rows = (format == Format.NDJSON)
+                    ? writeNdjson(outputStream, handler -> exportRepository.streamReadings(userId, handler), ExportService::writeReadingJson)
+                    : writeCsv(outputStream, READINGS_CSV_HEADER, handler -> exportRepository.streamReadings(userId, handler), ExportService::writeReadingCsv);
+
+            logger.debug("Export der Zählerstände für User-ID {} abgeschlossen ({} Zeilen, {}).", userId, rows, format);
+        };
+    }
+
+    /** Berechnungsergebnisse des Users (Felder wie in /api/calculation/get-results) */
+    public StreamingResponseBody exportResults(String username, Format format) {
+        Long userId = findValidUser(username).id();
+
+        return outputStream -> {
+            long rows = (format == Format.NDJSON)
+                    ? writeNdjson(outputStream, handler -> exportRepository.streamResults(userId, handler), ExportService::writeResultJson)
+                    : writeCsv(outputStream, RESULTS_CSV_HEADER, handler -> exportRepository.streamResults(userId, handler), ExportService::writeResultCsv);
+
+            logger.debug("Export der Berechnungsergebnisse für User-ID {} abgeschlossen ({} Zeilen, {}).", userId, rows, format);
+        };
+    }
+
+    private AuthenticatedUser findValidUser(String username) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
+        }
+        return user;
+    }
+
+    /** Schreibt eine Zeile des Cursors in das Zielformat */
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(ResultSet rs, T target) throws SQLException, IOException;
+    }
+
+    /** Startet die Abfrage mit dem übergebenen Handler */
+    @FunctionalInterface
+    private interface RowSource {
+        void stream(RowCallbackHandler handler);
+    }
+
+    private long writeNdjson(OutputStream outputStream, RowSource source, RowWriter<JsonGenerator> rowWriter) throws IOException {
+        long[] rows = {0};
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            source.stream(rs -> {
+                try {
+                    rowWriter.write(rs, generator);
+                    generator.writeRaw('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return rows[0];
+    }
+
+    private long writeCsv(OutputStream outputStream, String header, RowSource source, RowWriter<Writer> rowWriter) throws IOException {
+        long[] rows = {0};
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        try {
+            writer.write(header);
+            writer.write('\n');
+
+            source.stream(rs -> {
+                try {
+                    rowWriter.write(rs, writer);
+                    writer.write('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        return rows[0];
+    }
+
+    private static void writeReadingJson(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeNumberField("readingValue", rs.getDouble("kwh_reading"));
+        generator.writeStringField("timestamp", toJsonDate(rs.getString("timestamp")));
+        generator.writeEndObject();
+    }
+
+    private static void writeReadingCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("kwh_reading")));
+        writer.write(',');
+        writer.write(toJsonDate(rs.getString("timestamp")));
+    }
+
+    private static void writeResultJson(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", rs.getLong("id"));
+        generator.writeStringField("periodStart", toIsoDateTime(rs.getString("period_start")));
+        generator.writeStringField("periodEnd", toIsoDateTime(rs.getString("period_end")));
+        generator.writeNumberField("daysPeriod", rs.getLong("days_period"));
+        generator.writeNumberField("paidAmountPeriod", rs.getDouble("payments_period"));
+        generator.writeNumberField("totalCostsPeriod", rs.getDouble("total_costs_period"));
+        generator.writeNumberField("costDiffPeriod", rs.getDouble("cost_diff_period"));
+        generator.writeNumberField("sumUsedEnergy", rs.getDouble("sum_used_energy"));
+        generator.writeNumberField("usedEnergyPerDay", rs.getDouble("used_energy_per_day"));
+        generator.writeEndObject();
+    }
+
+    private static void writeResultCsv(ResultSet rs, Writer writer) throws SQLException, IOException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(toIsoDateTime(rs.getString("period_start")));
+        writer.write(',');
+        writer.write(toIsoDateTime(rs.getString("period_end")));
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong("days_period")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("payments_period")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("total_costs_period")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("cost_diff_period")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("sum_used_energy")));
+        writer.write(',');
+        writer.write(Double.toString(rs.getDouble("used_energy_per_day")));
+    }
+
+    /** Hilfsmethode: DB-Format 'yyyy-MM-dd HH:mm:ss' -> 'dd.MM.yyyy' (ohne Parsen) */
+    private static String toJsonDate(String dbValue) {
+        return dbValue.substring(8, 10) + '.' + dbValue.substring(5, 7) + '.' + dbValue.substring(0, 4);
+    }
+
+    /** Hilfsmethode: DB-Format 'yyyy-MM-dd HH:mm:ss' -> ISO 'yyyy-MM-ddTHH:mm:ss' (ohne Parsen) */
+    private static String toIsoDateTime(String dbValue) {
+        return dbValue.replace(' ', 'T');
+    }
+}
@@ -0,0 +1,41 @@
+package eco.backend.main_app.feature.rollup;
+
+import eco.backend.main_app.core.cache.ConditionalGet;
+import eco.backend.main_app.feature.rollup.dto.RollupDto;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rollups")
+public class RollupController {
+
+    private final RollupService rollupService;
+    private final ConditionalGet conditionalGet;
+
+    public RollupController(RollupService rollupService, ConditionalGet conditionalGet) {
+        this.rollupService = rollupService;
+        this.conditionalGet = conditionalGet;
+    }
+
+    /**
+     * GET /api/rollups?granularity=month&from=01.01.2024&to=31.12.2024: Lädt die Verbrauchsaggregate im Zeitraum
+     * (granularity: day, month oder year; from/to optional im Format dd.MM.yyyy)
+     */
+    @GetMapping
+    public ResponseEntity<List<RollupDto>> getRollups(@AuthenticationPrincipal UserDetails user,
+                                                      @RequestParam(defaultValue = "month") String granularity,
+                                                      @RequestParam(required = false) String from,
+                                                      @RequestParam(required = false) String to,
+                                                      HttpServletRequest request) {
+        return conditionalGet.respond(user, "rollups", request,
+                () -> ResponseEntity.ok(rollupService.getRollups(user.getUsername(), granularity, from, to)));
+    }
+}
@@ -0,0 +1,232 @@
+package eco.backend.main_app.feature.rollup;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC-Zugriff auf 'consumption_rollups' und die dafür benötigten Ausschnitte aus 'meter_readings'.
+ * Schreibzugriffe laufen in der Transaktion des Aufrufers, die Bereichsabfrage über den Reader-Pool.
+ * Zeiträume werden als 'yyyy-MM-dd' gespeichert, Vergleiche und Gruppierungen erfolgen direkt auf dem Text.
+ */
+@Repository
+public class RollupRepository {
+
+    /** Aggregationsstufe; Monats-/Jahresbeginn entsteht aus dem Präfix des Tages + festem Suffix */
+    public enum Granularity {
+        DAY(10, ""),
+        MONTH(8, "01"),
+        YEAR(5, "01-01");
+
+        private final int prefixLength;
+        private final String suffix;
+
+        Granularity(int prefixLength, String suffix) {
+            this.prefixLength = prefixLength;
+            this.suffix = suffix;
+        }
+
+        /** Beginn des Zeitraums, der den Tag enthält */
+        public LocalDate truncate(LocalDate day) {
+            return switch (this) {
+                case DAY -> day;
+                case MONTH -> day.withDayOfMonth(1);
+                case YEAR -> day.withDayOfYear(1);
+            };
+        }
+
+        /** Beginn des nachfolgenden Zeitraums */
+        public LocalDate next(LocalDate periodStart) {
+            return switch (this) {
+                case DAY -> periodStart.plusDays(1);
+                case MONTH -> periodStart.plusMonths(1);
+                case YEAR -> periodStart.plusYears(1);
+            };
+        }
+    }
+
+    /** Zählerstand (nur Tag und Wert) */
+    public record ReadingPoint(LocalDate date, double value) {}
+
+    /** Interpolierter Zählerstand zu Beginn des Tages und Tagesverbrauch */
+    public record DayRow(LocalDate day, double readingKwh, double energyKwh) {}
+
+    /** Staffelstufe: Ab dem Zählerstand 'fromReading' ändert sich der Arbeitspreis (brutto) um 'priceStep' */
+    public record TierStep(double fromReading, double priceStep) {}
+
+    /** Arbeitspreis der ersten Stufe, Grundpreis (brutto) und weitere Staffelstufen für die Tage in [from, to) */
+    public record DayTariff(LocalDate from, LocalDate to, double energyPrice, double basePrice, List<TierStep> steps) {}
+
+    /** Gespeichertes Aggregat */
+    public record RollupRow(LocalDate periodStart, double energyKwh, double cost, int days) {}
+
+    private static final String SELECT_READINGS = """
+            SELECT timestamp, kwh_reading FROM meter_readings
+            WHERE user_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp
+            """;
+
+    private static final String SELECT_PREDECESSOR = """
+            SELECT timestamp, kwh_reading FROM meter_readings
+            WHERE user_id = ? AND timestamp < ? ORDER BY timestamp DESC LIMIT 1
+            """;
+
+    private static final String SELECT_SUCCESSOR = """
+            SELECT timestamp, kwh_reading FROM meter_readings
+            WHERE user_id = ? AND timestamp >= ? ORDER BY timestamp LIMIT 1
+            """;
+
+    private static final String INSERT_DAY = """
+            INSERT INTO consumption_rollups (user_id, granularity, period_start, energy_kwh, cost, days, reading_kwh)
+            VALUES (?, 'DAY', ?, ?, 0, 1, ?)
+            """;
+
+    // Kosten pro Tag (brutto): Verbrauch * Arbeitspreis + Grundpreis * 12 / 365, je Staffelstufe zusätzlich die
+    // Preisänderung für den Teil des Tagesverbrauchs oberhalb des Zählerstands, ab dem die Stufe gilt.
+    // Die Berechnung rechnet netto (ohne Stromsteuer) und schlägt Steuern wieder auf; das Ergebnis ist bis auf
+    // Rundung gleich. Die Kosten werden ausschließlich hier berechnet, damit der Vergleich bei Tarifänderungen exakt ist.
+    private static final String DAY_COST = "energy_kwh * ? + ? * 12.0 / 365";
+    private static final String TIER_COST = " + ? * (max(reading_kwh + energy_kwh, ?) - max(reading_kwh, ?))";
+
+    private static final String AGGREGATE = """
+            INSERT INTO consumption_rollups (user_id, granularity, period_start, energy_kwh, cost, days)
+            SELECT user_id, ?, substr(period_start, 1, ?) || ?, SUM(energy_kwh), SUM(cost), COUNT(*)
+            FROM consumption_rollups
+            WHERE user_id = ? AND granularity = 'DAY' AND period_start >= ? AND period_start < ?
+            GROUP BY substr(period_start, 1, ?)
+            """;
+
+    private static final String DELETE_RANGE = """
+            DELETE FROM consumption_rollups
+            WHERE user_id = ? AND granularity = ? AND period_start >= ? AND period_start < ?
+            """;
+
+    private static final String SELECT_RANGE = """
+            SELECT period_start, energy_kwh, cost, days FROM consumption_rollups
+            WHERE user_id = ? AND granularity = ? AND period_start >= ? AND period_start < ?
+            ORDER BY period_start
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+
+    public RollupRepository(JdbcTemplate jdbcTemplate, @Qualifier("readDataSource") DataSource readDataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+    }
+
+    /** Zählerstände des Users von 'from' (inklusive) bis 'to' (exklusive), aufsteigend */
+    public List<ReadingPoint> findReadings(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_READINGS, (rs, rowNum) -> toPoint(rs.getString(1), rs.getDouble(2)),
+                userId, dayStart(from), dayStart(to));
+    }
+
+    /** Letzter Zählerstand vor dem Tag */
+    public Optional<ReadingPoint> findPredecessor(Long userId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_PREDECESSOR, (rs, rowNum) -> toPoint(rs.getString(1), rs.getDouble(2)),
+                userId, dayStart(day)).stream().findFirst();
+    }
+
+    /** Erster Zählerstand nach dem Tag */
+    public Optional<ReadingPoint> findSuccessor(Long userId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_SUCCESSOR, (rs, rowNum) -> toPoint(rs.getString(1), rs.getDouble(2)),
+                userId, dayStart(day.plusDays(1))).stream().findFirst();
+    }
+
+    /** Zählerstand am Tag (z.B. Referenzeintrag), falls vorhanden */
+    public Optional<Double> findReadingOn(Long userId, LocalDate day) {
+        return jdbcTemplate.queryForList("""
+                SELECT kwh_reading FROM meter_readings
+                WHERE user_id = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp LIMIT 1
+                """, Double.class, userId, dayStart(day), dayStart(day.plusDays(1))).stream().findFirst();
+    }
+
+    /**
+     * User, für die Aggregate entstehen würden, aber noch keine existieren (z.B. Daten vor Einführung der Aggregate).
+     * Ohne Config oder mit nur einer Ablesung entstehen keine Tageswerte; diese User werden nicht bei jedem Start erneut aufgebaut.
+     */
+    public List<Long> findUserIdsWithoutRollups() {
+        return jdbcTemplate.queryForList("""
+                SELECT r.user_id FROM meter_readings r
+                WHERE NOT EXISTS (SELECT 1 FROM consumption_rollups c WHERE c.user_id = r.user_id)
+                  AND EXISTS (SELECT 1 FROM configs k WHERE k.user_id = r.user_id)
+                GROUP BY r.user_id HAVING COUNT(*) >= 2
+                """, Long.class);
+    }
+
+    /** Ersetzt die Tageswerte im Zeitraum [from, to) und bewertet sie mit den Tarifen der Tage */
+    public void replaceDays(Long userId, LocalDate from, LocalDate to, List<DayRow> rows, List<DayTariff> tariffs) {
+        jdbcTemplate.update(DELETE_RANGE, userId, Granularity.DAY.name(), from.toString(), to.toString());
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DAY, rows, rows.size(), (ps, row) -> {
+                ps.setLong(1, userId);
+                ps.setString(2, row.day().toString());
+                ps.setDouble(3, row.energyKwh());
+                ps.setDouble(4, row.readingKwh());
+            });
+        }
+        applyTariff(userId, tariffs);
+    }
+
+    /**
+     * Bewertet die Tageswerte mit den Tarifen der jeweiligen Zeiträume.
+     *
+     * @return Anzahl der geänderten Tage (0: Tarif unverändert)
+     */
+    public int applyTariff(Long userId, List<DayTariff> tariffs) {
+        int changedDays = 0;
+        for (DayTariff tariff : tariffs) {
+            String cost = DAY_COST + TIER_COST.repeat(tariff.steps().size());
+            List<Object> costArgs = new ArrayList<>(List.of(tariff.energyPrice(), tariff.basePrice()));
+            for (TierStep step : tariff.steps()) {
+                costArgs.addAll(List.of(step.priceStep(), step.fromReading(), step.fromReading()));
+            }
+
+            // Nur Tage mit abweichenden Kosten werden geändert (Anzahl 0: Tarif im Zeitraum unverändert)
+            List<Object> args = new ArrayList<>(costArgs);
+            args.addAll(List.of(userId, tariff.from().toString(), tariff.to().toString()));
+            args.addAll(costArgs);
+            changedDays += jdbcTemplate.update("UPDATE consumption_rollups SET cost = " + cost
+                    + " WHERE user_id = ? AND granularity = 'DAY' AND period_start >= ? AND period_start < ? AND cost <> " + cost,
+                    args.toArray());
+        }
+        return changedDays;
+    }
+
+    /** Berechnet die Aggregate der Stufe für alle Zeiträume zwischen 'from' und 'to' (exklusive) aus den Tageswerten neu */
+    public void aggregate(Long userId, Granularity granularity, LocalDate from, LocalDate to) {
+        jdbcTemplate.update(DELETE_RANGE, userId, granularity.name(), from.toString(), to.toString());
+        jdbcTemplate.update(AGGREGATE, granularity.name(), granularity.prefixLength, granularity.suffix,
+                userId, from.toString(), to.toString(), granularity.prefixLength);
+    }
+
+    /** Entfernt alle Aggregate des Users */
+    public void deleteAll(Long userId) {
+        jdbcTemplate.update("DELETE FROM consumption_rollups WHERE user_id = ?", userId);
+    }
+
+    /** Bereichsabfrage: Aggregate mit Beginn in [from, to), aufsteigend */
+    public List<RollupRow> findRange(Long userId, Granularity granularity, LocalDate from, LocalDate to) {
+        return readJdbcTemplate.query(SELECT_RANGE, (rs, rowNum) -> new RollupRow(
+                LocalDate.parse(rs.getString(1)),
+                rs.getDouble(2),
+                rs.getDouble(3),
+                rs.getInt(4)
+        ), userId, granularity.name(), from.toString(), to.toString());
+    }
+
+    // Zeitstempel liegen als 'yyyy-MM-dd HH:mm:ss' vor; der Tagesbeginn ist damit eine untere Schranke des Tages
+    private static String dayStart(LocalDate day) {
+        return day + " 00:00:00";
+    }
+
+    private static ReadingPoint toPoint(String timestamp, double value) {
+        return new ReadingPoint(LocalDate.parse(timestamp.substring(0, 10)), value);
+    }
+}
@@ -0,0 +1,306 @@
+package eco.backend.main_app.feature.rollup;
+
+import eco.backend.main_app.core.event.ConfigChangedEvent;
+import eco.backend.main_app.core.event.TrackingChangedEvent;
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.configuration.ConfigRepository;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffRepository.Tier;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.TariffService;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.rollup.RollupRepository.DayRow;
+import eco.backend.main_app.feature.rollup.RollupRepository.DayTariff;
+import eco.backend.main_app.feature.rollup.RollupRepository.Granularity;
+import eco.backend.main_app.feature.rollup.RollupRepository.ReadingPoint;
+import eco.backend.main_app.feature.rollup.RollupRepository.TierStep;
+import eco.backend.main_app.feature.rollup.dto.RollupDto;
+import eco.backend.main_app.feature.tracking.TrackingRepository;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.ReuseHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Vorberechnete Verbrauchs- und Kostenaggregate pro User (Tag, Monat, Jahr).
+ * <ul>
+ *     <li>Tageswerte: Der Verbrauch zwischen zwei Ablesungen wird gleichmäßig auf die Tage dazwischen verteilt
+ *     (Tag der Ablesung inklusive, Tag der nächsten Ablesung exklusive).</li>
+ *     <li>Änderungen an Zählerständen betreffen nur die Tage zwischen Vorgänger und Nachfolger des geänderten
+ *     Eintrags; nur diese Tage sowie die zugehörigen Monate und Jahre werden neu berechnet.</li>
+ *     <li>Jeder Tag wird mit dem Tarif bewertet, der an diesem Tag gilt (Tarifversion bzw. vor der ersten Version
+ *     der Tarif aus der Config). Staffelpreise gelten wie in der Berechnung ab dem Verbrauch seit dem Referenzeintrag;
+ *     dafür wird der interpolierte Zählerstand zu Tagesbeginn gespeichert. Ohne Referenzeintrag gilt die erste Stufe.</li>
+ *     <li>Tarifänderungen (Config oder Tarifversionen) und Änderungen am Referenzeintrag bewerten die Tageswerte
+ *     per SQL neu, ohne die Zählerstände zu laden.</li>
+ * </ul>
+ * Die Aktualisierung läuft in der Transaktion der auslösenden Änderung (Ereignisse des TrackingService, ConfigService und TariffService).
+ */
+@Service
+public class RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    private final RollupRepository rollupRepository;
+    private final TrackingRepository trackingRepository;
+    private final ConfigRepository configRepository;
+    private final TariffService tariffService;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public RollupService(RollupRepository rollupRepository,
+                         TrackingRepository trackingRepository,
+                         ConfigRepository configRepository,
+                         TariffService tariffService,
+                         UserService userService,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+
+        this.rollupRepository = rollupRepository;
+        this.trackingRepository = trackingRepository;
+        this.configRepository = configRepository;
+        this.tariffService = tariffService;
+        this.userService = userService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Bereichsabfrage der Aggregate.
+     *
+     * @param username Name des (authentifizierten) Users
+     * @param granularity day, month oder year
+     * @param from Erster Tag (optional, dd.MM.yyyy); der Zeitraum, der ihn enthält, wird mit ausgegeben
+     * @param to Letzter Tag (optional, dd.MM.yyyy)
+     */
+    public List<RollupDto> getRollups(String username, String granularity, String from, String to) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
+        if (!userService.hasValidStatus(user)) {
+            throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
+        }
+
+        Granularity level = parseGranularity(granularity);
+        LocalDate start = ReuseHelper.getParsedDateOrDefault(from, AppConstants.MIN_QUERY_DATE);
+        LocalDate end = ReuseHelper.getParsedDateOrDefault(to, AppConstants.MAX_QUERY_DATE);
+        if (end.isBefore(start)) {
+            throw new GenericException("Ungültiger Zeitraum. Das Startdatum muss vor dem Enddatum liegen.", HttpStatus.BAD_REQUEST);
+        }
+
+        return rollupRepository.findRange(user.id(), level, level.truncate(start), end.plusDays(1)).stream()
+                .map(row -> new RollupDto(
+                        row.periodStart(),
+                        level.next(row.periodStart()).minusDays(1),
+                        row.days(),
+                        row.energyKwh(),
+                        row.cost()))
+                .toList();
+    }
+
+    /** Passt die Aggregate an geänderte Zählerstände an */
+    @EventListener
+    public void handleTrackingChange(TrackingChangedEvent event) {
+        Long userId = event.getUser().getId();
+
+        switch (event.getType()) {
+            case CLEARED -> {
+                rollupRepository.deleteAll(userId);
+                count("cleared");
+            }
+            case IMPORTED -> rebuild(userId);
+            default -> {
+                LocalDate day = event.getEntry().getTimestamp().toLocalDate();
+                LocalDate previous = event.getPreviousTimestamp() == null ? day : event.getPreviousTimestamp().toLocalDate();
+
+                LocalDate first = day.isBefore(previous) ? day : previous;
+                LocalDate last = day.isBefore(previous) ? previous : day;
+                update(userId, first, last);
+
+                // Geänderter Referenzeintrag verschiebt die Staffelgrenzen aller Tage
+                ConfigEntity config = configRepository.findByUserId(userId).orElse(null);
+                LocalDate referenceDay = config == null || config.getReferenceDate() == null
+                        ? null : config.getReferenceDate().toLocalDate();
+                if ((day.equals(referenceDay) || previous.equals(referenceDay)) && hasTiers(tariffService.getSchedule(userId))) {
+                    revalue(userId, config);
+                }
+            }
+        }
+    }
+
+    /** Bewertet die Aggregate bei Tarifänderungen neu (andere Config-Werte haben keinen Einfluss) */
+    @EventListener
+    public void handleConfigChange(ConfigChangedEvent event) {
+        revalue(event.getUser().getId(), event.getConfig());
+    }
+
+    /** Erstellt beim Start die Aggregate für User, deren Zählerstände noch nicht erfasst sind */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> userIds = rollupRepository.findUserIdsWithoutRollups();
+        for (Long userId : userIds) {
+            transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+        }
+        if (!userIds.isEmpty()) {
+            logger.info("Verbrauchsaggregate für {} User erstellt.", userIds.size());
+        }
+    }
+
+    /**
+     * Hilfsfunktion: Berechnet die Tage zwischen dem Vorgänger von 'first' und dem Nachfolger von 'last' neu
+     * (alle Intervalle, an denen ein Eintrag in [first, last] beteiligt ist oder war).
+     */
+    private void update(Long userId, LocalDate first, LocalDate last) {
+        // Ausstehende JPA-Änderungen schreiben, damit die JDBC-Abfragen den aktuellen Stand sehen
+        trackingRepository.flush();
+
+        ReadingPoint predecessor = rollupRepository.findPredecessor(userId, first).orElse(null);
+        ReadingPoint successor = rollupRepository.findSuccessor(userId, last).orElse(null);
+
+        List<ReadingPoint> points = new ArrayList<>();
+        if (predecessor != null) { points.add(predecessor); }
+        points.addAll(rollupRepository.findReadings(userId, first, last.plusDays(1)));
+        if (successor != null) { points.add(successor); }
+
+        LocalDate from = predecessor != null ? predecessor.date() : first;
+        LocalDate to = successor != null ? successor.date() : last.plusDays(1);
+
+        write(userId, from, to, points);
+        count("incremental");
+    }
+
+    /** Hilfsfunktion: Bewertet alle Tageswerte mit dem aktuellen Tarif neu (nur geänderte Tage, danach Monate und Jahre) */
+    private void revalue(Long userId, ConfigEntity config) {
+        TariffSchedule schedule = tariffService.getSchedule(userId);
+        List<DayTariff> tariffs = dayTariffs(config, schedule, referenceReading(userId, config, schedule),
+                AppConstants.MIN_QUERY_DATE, AppConstants.MAX_QUERY_DATE.plusDays(1));
+
+        int changedDays = rollupRepository.applyTariff(userId, tariffs);
+        if (changedDays == 0) { return; }
+
+        rollupRepository.aggregate(userId, Granularity.MONTH, AppConstants.MIN_QUERY_DATE, AppConstants.MAX_QUERY_DATE.plusDays(1));
+        rollupRepository.aggregate(userId, Granularity.YEAR, AppConstants.MIN_QUERY_DATE, AppConstants.MAX_QUERY_DATE.plusDays(1));
+        count("tariff");
+        logger.debug("Aggregate für User-ID {} mit neuem Tarif bewertet ({} Tage).", userId, changedDays);
+    }
+
+    /** Hilfsfunktion: Vollständiger Neuaufbau aller Aggregate des Users */
+    private void rebuild(Long userId) {
+        trackingRepository.flush();
+        rollupRepository.deleteAll(userId);
+
+        List<ReadingPoint> points = rollupRepository.findReadings(userId, AppConstants.MIN_QUERY_DATE, AppConstants.MAX_QUERY_DATE.plusDays(1));
+        if (points.isEmpty()) { return; }
+
+        write(userId, points.getFirst().date(), points.getLast().date().plusDays(1), points);
+        count("rebuild");
+    }
+
+    /** Hilfsfunktion: Ersetzt die Tageswerte in [from, to) und aktualisiert die betroffenen Monate und Jahre */
+    private void write(Long userId, LocalDate from, LocalDate to, List<ReadingPoint> points) {
+        ConfigEntity config = configRepository.findByUserId(userId).orElse(null);
+        if (config == null) { return; }
+        TariffSchedule schedule = tariffService.getSchedule(userId);
+        List<DayTariff> tariffs = dayTariffs(config, schedule, referenceReading(userId, config, schedule), from, to);
+
+        meterRegistry.timer("eco.rollup.update").record(() -> {
+            rollupRepository.replaceDays(userId, from, to, interpolate(points), tariffs);
+
+            LocalDate lastDay = to.minusDays(1);
+            for (Granularity level : List.of(Granularity.MONTH, Granularity.YEAR)) {
+                rollupRepository.aggregate(userId, level, level.truncate(from), level.next(level.truncate(lastDay)));
+            }
+        });
+    }
+
+    /** Hilfsfunktion: Verteilt den Verbrauch zwischen zwei aufeinanderfolgenden Ablesungen gleichmäßig auf die Tage */
+    static List<DayRow> interpolate(List<ReadingPoint> points) {
+        List<DayRow> rows = new ArrayList<>();
+
+        for (int i = 1; i < points.size(); i++) {
+            ReadingPoint start = points.get(i - 1), end = points.get(i);
+            long days = ChronoUnit.DAYS.between(start.date(), end.date());
+            if (days <= 0) { continue; }
+
+            double perDay = (end.value() - start.value()) / days;
+            for (long d = 0; d < days; d++) {
+                double reading = start.value() + (end.value() - start.value()) * d / days;
+                rows.add(new DayRow(start.date().plusDays(d), reading, perDay));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Hilfsfunktion: Teilt [from, to) an den Gültigkeitsgrenzen der Tarifversionen auf
+     * (vor der ersten Version gilt der Tarif aus der Config).
+     *
+     * @param referenceReading Zählerstand des Referenzeintrags (null: Staffelpreise bleiben unberücksichtigt)
+     */
+    static List<DayTariff> dayTariffs(ConfigEntity config, TariffSchedule schedule, Double referenceReading,
+                                      LocalDate from, LocalDate to) {
+        List<DayTariff> tariffs = new ArrayList<>();
+        int index = schedule.indexAt((int) from.toEpochDay());
+
+        for (LocalDate start = from; start.isBefore(to); index++) {
+            LocalDate end = index + 1 < schedule.size() ? LocalDate.ofEpochDay(schedule.validFrom(index + 1)) : to;
+            if (end.isAfter(to)) { end = to; }
+
+            TariffVersion version = index < 0 ? null : schedule.version(index);
+            tariffs.add(version == null
+                    ? new DayTariff(start, end, config.getEnergyPrice(), config.getBasePrice(), List.of())
+                    : new DayTariff(start, end, version.energyPrice(), version.basePrice(), tierSteps(version, referenceReading)));
+            start = end;
+        }
+        return tariffs;
+    }
+
+    /** Hilfsfunktion: Staffelpreise als Preisänderungen ab dem jeweiligen Zählerstand (Grenze + Referenzstand) */
+    private static List<TierStep> tierSteps(TariffVersion version, Double referenceReading) {
+        if (referenceReading == null || version.tiers().isEmpty()) { return List.of(); }
+
+        List<TierStep> steps = new ArrayList<>(version.tiers().size());
+        double price = version.energyPrice();
+        for (Tier tier : version.tiers()) {
+            steps.add(new TierStep(referenceReading + tier.fromKwh(), tier.energyPrice() - price));
+            price = tier.energyPrice();
+        }
+        return steps;
+    }
+
+    /** Hilfsfunktion: Zählerstand des Referenzeintrags (nur abgefragt, falls eine Version Staffelpreise hat) */
+    private Double referenceReading(Long userId, ConfigEntity config, TariffSchedule schedule) {
+        if (config.getReferenceDate() == null || !hasTiers(schedule)) { return null; }
+        return rollupRepository.findReadingOn(userId, config.getReferenceDate().toLocalDate()).orElse(null);
+    }
+
+    private static boolean hasTiers(TariffSchedule schedule) {
+        return schedule.versions().stream().anyMatch(version -> !version.tiers().isEmpty());
+    }
+
+    private static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new GenericException("Ungültige Granularität. Erlaubt: day, month, year.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private void count(String operation) {
+        meterRegistry.counter("eco.rollup.updates", "operation", operation).increment();
+    }
+}
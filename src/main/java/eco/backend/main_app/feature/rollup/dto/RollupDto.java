@@ -0,0 +1,16 @@
+package eco.backend.main_app.feature.rollup.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import eco.backend.main_app.utils.AppConstants;
+
+import java.time.LocalDate;
+
+public record RollupDto(
+        @JsonFormat(pattern = AppConstants.JSON_DATE_PATTERN)
+        LocalDate periodStart,          // Erster Tag des Zeitraums
+        @JsonFormat(pattern = AppConstants.JSON_DATE_PATTERN)
+        LocalDate periodEnd,            // Letzter Tag des Zeitraums
+        int daysCovered,                // Anzahl der Tage mit Verbrauchswerten (kleiner bei angebrochenen Zeiträumen)
+        double usedEnergy,              // Verbrauch im Zeitraum (interpoliert) [kWh]
+        double totalCosts               // Brutto-Kosten im Zeitraum (Verbrauch + anteiliger Grundpreis) [€]
+) {}
@@ -0,0 +1,295 @@
+package eco.backend.main_app.feature.tracking;
+
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * In-Memory-Index der Zählerstände pro aktivem User.
+ * Die Einträge liegen als sortierte primitive Arrays (Epoch-Day, kWh, ID) vor, sodass
+ * neuester Eintrag sowie Vorgänger/Nachfolger per Binärsuche (O(log n)) ermittelt werden.
+ * Schreibzugriffe gehen direkt an das TrackingRepository (Write-Through), der Index wird nach dem Commit angepasst.
+ * Der Speicher ist über die Gesamtzahl der Einträge begrenzt (ca. 20 Bytes pro Eintrag): Selten genutzte User werden
+ * per LRU verdrängt, bis die Grenze wieder eingehalten ist. Zeitreihen über der Grenze werden nicht gecacht.
+ */
+@Component
+public class ReadingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadingIndex.class);
+    private static final int MODIFICATION_STRIPES = 64;
+
+    private final TrackingRepository repository;
+    private final int maxEntries;
+    private final Map<Long, ReadingSeries> seriesByUser;
+
+    // Summe der Einträge aller gecachten Zeitreihen (geschützt durch seriesByUser)
+    private long cachedEntries;
+
+    // Änderungszähler pro Stripe: verhindert, dass ein veralteter Ladevorgang einen neueren Stand überschreibt
+    private final AtomicLongArray modifications = new AtomicLongArray(MODIFICATION_STRIPES);
+
+    /** Einzelner Zählerstand aus dem Index */
+    public record Reading(long id, LocalDate date, double value) {}
+
+    public ReadingIndex(TrackingRepository repository,
+                        @Value("${app.tracking.index.max-entries:1000000}") int maxEntries) {
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+
+        // LRU: Zugriffsreihenfolge, verdrängt wird ab dem ältesten Eintrag (siehe evictEldest)
+        this.seriesByUser = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** Neuester Eintrag des Users */
+    public Optional<Reading> findNewest(Long userId) {
+        ReadingSeries series = getSeries(userId);
+        synchronized (series) {
+            return series.size == 0 ? Optional.empty() : Optional.of(series.readingAt(series.size - 1));
+        }
+    }
+
+    /** Direkter Vorgänger: Neuester Eintrag am oder vor dem Datum, der nicht excludedId ist */
+    public Optional<Reading> findPredecessor(Long userId, LocalDate date, Long excludedId) {
+        ReadingSeries series = getSeries(userId);
+        synchronized (series) {
+            int index = series.floorIndex((int) date.toEpochDay());
+            while (index >= 0 && excludedId != null && series.ids[index] == excludedId) { index--; }
+            return index < 0 ? Optional.empty() : Optional.of(series.readingAt(index));
+        }
+    }
+
+    /** Direkter Nachfolger: Ältester Eintrag am oder nach dem Datum, der nicht excludedId ist */
+    public Optional<Reading> findSuccessor(Long userId, LocalDate date, Long excludedId) {
+        ReadingSeries series = getSeries(userId);
+        synchronized (series) {
+            int index = series.ceilingIndex((int) date.toEpochDay());
+            while (index < series.size && excludedId != null && series.ids[index] == excludedId) { index++; }
+            return index >= series.size ? Optional.empty() : Optional.of(series.readingAt(index));
+        }
+    }
+
+    /**
+     * Write-Through: Speichert den Eintrag im Repository und übernimmt ihn nach dem Commit in den Index.
+     *
+     * @param entity Neuer oder geänderter Eintrag
+     * @param previousTimestamp Zeitstempel vor der Änderung (null bei neuen Einträgen)
+     */
+    public TrackingEntity save(TrackingEntity entity, LocalDateTime previousTimestamp) {
+        TrackingEntity saved = repository.save(entity);
+
+        Long userId = saved.getUser().getId();
+        long id = saved.getId();
+        int epochDay = (int) saved.getTimestamp().toLocalDate().toEpochDay();
+        double value = saved.getReadingValue();
+        Integer previousDay = previousTimestamp == null ? null : (int) previousTimestamp.toLocalDate().toEpochDay();
+
+        afterCommit(userId, series -> {
+            if (previousDay != null) { series.remove(previousDay, id); }
+            series.insert(epochDay, value, id);
+        });
+        return saved;
+    }
+
+    /** Write-Through: Entfernt den Eintrag aus dem Repository und nach dem Commit aus dem Index */
+    public void delete(TrackingEntity entity) {
+        repository.delete(entity);
+
+        long id = entity.getId();
+        int epochDay = (int) entity.getTimestamp().toLocalDate().toEpochDay();
+        afterCommit(entity.getUser().getId(), series -> series.remove(epochDay, id));
+    }
+
+    /** Entfernt alle Daten des Users aus dem Index (z.B. nach Massenänderungen) */
+    public void evict(Long userId) {
+        modifications.incrementAndGet(stripe(userId));
+        synchronized (seriesByUser) {
+            removeSeries(userId);
+        }
+
+        // Nach dem Commit erneut entfernen, damit kein zwischenzeitlich geladener Stand bestehen bleibt
+        afterCommit(userId, null);
+    }
+
+    /** Hilfsmethode: Liefert die Zeitreihe des Users (lädt sie bei Bedarf aus der Datenbank) */
+    private ReadingSeries getSeries(Long userId) {
+        synchronized (seriesByUser) {
+            ReadingSeries cached = seriesByUser.get(userId);
+            if (cached != null) { return cached; }
+        }
+
+        long modificationsBefore = modifications.get(stripe(userId));
+        ReadingSeries loaded = ReadingSeries.of(repository.findAllProjectedByUserIdOrderByTimestampAsc(userId));
+
+        synchronized (seriesByUser) {
+            ReadingSeries cached = seriesByUser.get(userId);
+            if (cached != null) { return cached; }
+
+            // Nur cachen, wenn während des Ladens keine Änderung committed wurde und die Zeitreihe ins Limit passt
+            if (modifications.get(stripe(userId)) == modificationsBefore && loaded.size <= maxEntries) {
+                seriesByUser.put(userId, loaded);
+                loaded.cachedSize = loaded.size;
+                cachedEntries += loaded.size;
+                evictEldest();
+            }
+        }
+
+        logger.debug("Zählerstände für User-ID {} in den Index geladen ({} Einträge).", userId, loaded.size);
+        return loaded;
+    }
+
+    /** Hilfsmethode: Wendet die Änderung nach erfolgreichem Commit an bzw. verwirft den Index bei Rollback */
+    private void afterCommit(Long userId, Consumer<ReadingSeries> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChange(userId, change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                applyChange(userId, status == STATUS_COMMITTED ? change : null);
+            }
+        });
+    }
+
+    private void applyChange(Long userId, Consumer<ReadingSeries> change) {
+        modifications.incrementAndGet(stripe(userId));
+
+        ReadingSeries series;
+        synchronized (seriesByUser) {
+            series = (change == null) ? removeSeries(userId) : seriesByUser.get(userId);
+        }
+        if (series == null || change == null) { return; }
+
+        int size;
+        synchronized (series) {
+            change.accept(series);
+            size = series.size;
+        }
+
+        // Geänderte Größe anrechnen (nur, falls die Zeitreihe inzwischen nicht verdrängt wurde)
+        synchronized (seriesByUser) {
+            if (seriesByUser.get(userId) == series) {
+                cachedEntries += size - series.cachedSize;
+                series.cachedSize = size;
+                evictEldest();
+            }
+        }
+    }
+
+    /** Hilfsmethode: Entfernt die Zeitreihe aus dem Cache (Aufrufer hält die Sperre auf seriesByUser) */
+    private ReadingSeries removeSeries(Long userId) {
+        ReadingSeries removed = seriesByUser.remove(userId);
+        if (removed != null) { cachedEntries -= removed.cachedSize; }
+        return removed;
+    }
+
+    /** Hilfsmethode: Verdrängt die am längsten ungenutzten Zeitreihen, bis das Limit eingehalten ist (Sperre wie oben) */
+    private void evictEldest() {
+        Iterator<ReadingSeries> eldest = seriesByUser.values().iterator();
+        while (cachedEntries > maxEntries && eldest.hasNext()) {
+            cachedEntries -= eldest.next().cachedSize;
+            eldest.remove();
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (MODIFICATION_STRIPES - 1));
+    }
+
+    /** Sortierte Zeitreihe eines Users als primitive Arrays */
+    static final class ReadingSeries {
+        private int[] epochDays;
+        private double[] values;
+        private long[] ids;
+        private int size;
+        private int cachedSize;         // Im Limit angerechnete Größe (geschützt durch seriesByUser)
+
+        ReadingSeries(int capacity) {
+            this.epochDays = new int[Math.max(capacity, 8)];
+            this.values = new double[epochDays.length];
+            this.ids = new long[epochDays.length];
+        }
+
+        static ReadingSeries of(List<TrackingRepository.ReadingView> readings) {
+            ReadingSeries series = new ReadingSeries(readings.size());
+            for (TrackingRepository.ReadingView reading : readings) {
+                series.insert((int) reading.getTimestamp().toLocalDate().toEpochDay(), reading.getReadingValue(), reading.getId());
+            }
+            return series;
+        }
+
+        Reading readingAt(int index) {
+            return new Reading(ids[index], LocalDate.ofEpochDay(epochDays[index]), values[index]);
+        }
+
+        /** Letzter Index mit Tag <= epochDay (-1, falls keiner existiert) */
+        int floorIndex(int epochDay) {
+            int low = 0, high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] <= epochDay) { low = mid + 1; } else { high = mid - 1; }
+            }
+            return high;
+        }
+
+        /** Erster Index mit Tag >= epochDay (size, falls keiner existiert) */
+        int ceilingIndex(int epochDay) {
+            int low = 0, high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] < epochDay) { low = mid + 1; } else { high = mid - 1; }
+            }
+            return low;
+        }
+
+        void insert(int epochDay, double value, long id) {
+            if (size == epochDays.length) {
+                int capacity = size + (size >> 1);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                values = Arrays.copyOf(values, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+
+            // Einfügen hinter allen Einträgen desselben Tages (stabile Reihenfolge)
+            int position = floorIndex(epochDay) + 1;
+            int moved = size - position;
+            System.arraycopy(epochDays, position, epochDays, position + 1, moved);
+            System.arraycopy(values, position, values, position + 1, moved);
+            System.arraycopy(ids, position, ids, position + 1, moved);
+
+            epochDays[position] = epochDay;
+            values[position] = value;
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int epochDay, long id) {
+            for (int i = ceilingIndex(epochDay); i < size && epochDays[i] == epochDay; i++) {
+                if (ids[i] == id) {
+                    int moved = size - i - 1;
+                    System.arraycopy(epochDays, i + 1, epochDays, i, moved);
+                    System.arraycopy(values, i + 1, values, i, moved);
+                    System.arraycopy(ids, i + 1, ids, i, moved);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
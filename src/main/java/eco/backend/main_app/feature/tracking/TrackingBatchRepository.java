@@ -0,0 +1,37 @@
+package eco.backend.main_app.feature.tracking;
+
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk-Zugriff auf 'meter_readings' über JDBC-Batching (z.B. für den Import historischer Zählerstände).
+ */
+@Repository
+public class TrackingBatchRepository {
+
+    private static final String INSERT = "INSERT INTO meter_readings (kwh_reading, timestamp, user_id) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrackingBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Neuer Zählerstand (ohne Entity-Overhead) */
+    public record ReadingRow(LocalDateTime timestamp, double readingValue) {}
+
+    /** Fügt alle Zählerstände eines Users in einem Batch ein */
+    public void insertAll(Long userId, List<ReadingRow> rows) {
+        if (rows.isEmpty()) { return; }
+
+        jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), (ps, row) -> {
+            ps.setDouble(1, row.readingValue());
+            ps.setString(2, row.timestamp().format(DateTimeConverter.FORMATTER));
+            ps.setLong(3, userId);
+        });
+    }
+}
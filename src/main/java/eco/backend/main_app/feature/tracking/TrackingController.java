@@ -1,8 +1,14 @@
 package eco.backend.main_app.feature.tracking;
 
+import eco.backend.main_app.core.cache.ConditionalGet;
+import eco.backend.main_app.feature.tracking.dto.ImportResultDto;
+import eco.backend.main_app.feature.tracking.dto.ReadingDto;
 import eco.backend.main_app.feature.tracking.dto.TrackingDto;
 import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.KeysetPage;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,27 +21,49 @@ import java.util.Map;
 public class TrackingController {
 
     private final TrackingService service;
+    private final ConditionalGet conditionalGet;
 
-    public TrackingController(TrackingService service) {
+    public TrackingController(TrackingService service, ConditionalGet conditionalGet) {
         this.service = service;
+        this.conditionalGet = conditionalGet;
     }
 
+    /**
+     * GET /api/tracking/get-all?from=&to=&limit=&cursor=: Lädt die Einträge (optional im Zeitraum und seitenweise).
+     * Folgen weitere Einträge, enthält der Header X-Next-Cursor den Cursor für die nächste Seite.
+     * Bedingte Anfragen (If-None-Match) werden bei unverändertem Datenstand mit 304 beantwortet.
+     */
     @GetMapping("/get-all")
-    public ResponseEntity<List<TrackingEntity>> getAll(@AuthenticationPrincipal UserDetails user) {
-        return ResponseEntity.ok(service.getAllEntries(user.getUsername()));
+    public ResponseEntity<List<TrackingEntity>> getAll(@AuthenticationPrincipal UserDetails user,
+                                                       @RequestParam(required = false) String from,
+                                                       @RequestParam(required = false) String to,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String cursor,
+                                                       HttpServletRequest request) {
+        return conditionalGet.respond(user, "tracking", request, () -> {
+            KeysetPage<TrackingEntity> page = service.getEntries(user.getUsername(), from, to, limit, cursor);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(KeysetPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        });
     }
 
     @GetMapping("/get-newest")
-    public ResponseEntity<?> getNewest(@AuthenticationPrincipal UserDetails user) {
-        TrackingEntity result = service.getNewestEntry(user.getUsername());
+    public ResponseEntity<?> getNewest(@AuthenticationPrincipal UserDetails user, HttpServletRequest request) {
+        return conditionalGet.respond(user, "tracking-newest", request, () -> {
+            ReadingDto result = service.getNewestEntry(user.getUsername());
 
-        if (result == null) {
-            return ResponseEntity
-                    .status(HttpStatus.NOT_FOUND)
-                    .body("Kein Eintrag gefunden.");
-        }
+            if (result == null) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body("Kein Eintrag gefunden.");
+            }
 
-        return ResponseEntity.ok(result);
+            return ResponseEntity.ok(result);
+        });
     }
 
     @PostMapping("/add")
@@ -43,6 +71,16 @@ public class TrackingController {
         return ResponseEntity.ok(service.addEntry(user.getUsername(), dto));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResultDto> importEntries(@AuthenticationPrincipal UserDetails user, @RequestBody List<TrackingDto> dtos) {
+        return ResponseEntity.ok(service.importEntries(user.getUsername(), dtos));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportResultDto> importEntriesCsv(@AuthenticationPrincipal UserDetails user, @RequestBody String csv) {
+        return ResponseEntity.ok(service.importEntries(user.getUsername(), service.parseCsv(csv)));
+    }
+
     @DeleteMapping("/{id}/delete")
     public ResponseEntity<Map<String, String>> deleteEntry(@AuthenticationPrincipal UserDetails user, @PathVariable("id") Long id) {
         service.deleteEntryById(user.getUsername(), id);
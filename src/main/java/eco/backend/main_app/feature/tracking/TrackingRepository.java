@@ -1,18 +1,43 @@
 package eco.backend.main_app.feature.tracking;
 
 import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+// Abfragen laufen read-only und damit über den Reader-Pool; schreibende Methoden überschreiben dies
+@Transactional(readOnly = true)
 public interface TrackingRepository extends JpaRepository<TrackingEntity, Long> {
+
+    // Schlanke Projektion für den ReadingIndex (ohne Entity-Overhead)
+    interface ReadingView {
+        Long getId();
+        LocalDateTime getTimestamp();
+        Double getReadingValue();
+    }
+
+    // Alle Ablesungen eines Users als Projektion (ältester Eintrag zuerst)
+    List<ReadingView> findAllProjectedByUserIdOrderByTimestampAsc(Long userId);
+
     // Alle Ablesungen eines Users finden, sortiert nach Datum (neuester Eintrag zuerst)
     List<TrackingEntity> findByUserIdOrderByTimestampDesc(Long userId);
 
-    // Alle Ablesungen eines Users finden, sortiert nach Datum (ältester Eintrag zuerst)
-    List<TrackingEntity> findByUserIdOrderByTimestampAsc(Long userId);
+    // Keyset-Paginierung über idx_readings_user (user_id, timestamp; die ID ist als Rowid im Index enthalten):
+    // Einträge nach dem Schlüssel (afterTimestamp, afterId) und vor 'to', ältester Eintrag zuerst.
+    // Die Untergrenze (Zeitraumbeginn oder Cursor) bestimmt der Aufrufer, der Zeilenwertvergleich ergibt einen Range-Scan.
+    // Natives SQL, da Hibernate in Tupelvergleichen den DateTimeConverter nicht anwendet: Zeitstempel im Format
+    // von DateTimeConverter.FORMATTER übergeben
+    @Query(value = """
+            SELECT * FROM meter_readings
+            WHERE user_id = :userId AND (timestamp, id) > (:afterTimestamp, :afterId) AND timestamp < :to
+            ORDER BY timestamp ASC, id ASC
+            """, nativeQuery = true)
+    List<TrackingEntity> findPage(Long userId, String afterTimestamp, Long afterId, String to, Limit limit);
 
     // Finde alle Einträge eines Users innerhalb eines Zeitraums (Start bis Ende),
     // sortiert vom neuesten zum ältesten Eintrag.
@@ -30,11 +55,17 @@ public interface TrackingRepository extends JpaRepository<TrackingEntity, Long>
     Optional<TrackingEntity> findFirstByUserIdAndTimestampGreaterThanEqualAndIdNotOrderByTimestampAsc(
             Long userId, LocalDateTime timestamp, Long id);
 
+    // Letzter Eintrag vor bzw. erster Eintrag ab dem Zeitpunkt (Ablesungen an einer Tarifgrenze)
+    Optional<TrackingEntity> findFirstByUserIdAndTimestampLessThanOrderByTimestampDesc(Long userId, LocalDateTime timestamp);
+
+    Optional<TrackingEntity> findFirstByUserIdAndTimestampGreaterThanEqualOrderByTimestampAsc(Long userId, LocalDateTime timestamp);
+
     // Finde den (ersten) Eintrag eines Users an einem bestimmten Tag
     Optional<TrackingEntity> findFirstByUserIdAndTimestampBetween(
             Long userId, LocalDateTime start, LocalDateTime end
     );
 
     // Löscht alle Einträge einer bestimmten User-ID
+    @Transactional
     void deleteByUserId(Long userId);
 }
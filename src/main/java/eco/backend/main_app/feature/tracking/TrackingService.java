@@ -1,22 +1,36 @@
 package eco.backend.main_app.feature.tracking;
 
+import eco.backend.main_app.core.event.TrackingChangedEvent;
+import eco.backend.main_app.core.event.TrackingChangedEvent.ChangeType;
 import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.core.security.AuthenticatedUser;
 import eco.backend.main_app.feature.auth.UserService;
 import eco.backend.main_app.feature.auth.model.UserEntity;
 import eco.backend.main_app.feature.configuration.ConfigRepository;
 import eco.backend.main_app.feature.configuration.ConfigService;
 import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.tracking.dto.ImportResultDto;
+import eco.backend.main_app.feature.tracking.dto.ReadingDto;
 import eco.backend.main_app.feature.tracking.dto.TrackingDto;
 import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import eco.backend.main_app.utils.KeysetPage;
 import eco.backend.main_app.utils.ReuseHelper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,29 +38,77 @@ import java.util.Optional;
 public class TrackingService {
 
     private final TrackingRepository repository;
+    private final ReadingIndex readingIndex;
+    private final TrackingBatchRepository trackingBatchRepository;
     private final UserService userService;
     private final ConfigService configService;
     private final ConfigRepository configRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
     private static final Logger logger = LoggerFactory.getLogger(TrackingService.class);
 
+    @Value("${app.tracking.import.max-rows:50000}")
+    private int importMaxRows;
+
+    @Value("${app.pagination.max-limit:1000}")
+    private int maxPageLimit;
+
     public TrackingService(TrackingRepository repository,
+                           ReadingIndex readingIndex,
+                           TrackingBatchRepository trackingBatchRepository,
                            UserService userService,
                            ConfigService configService,
-                           ConfigRepository configRepository) {
+                           ConfigRepository configRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
 
         this.repository = repository;
+        this.readingIndex = readingIndex;
+        this.trackingBatchRepository = trackingBatchRepository;
         this.userService = userService;
         this.configService = configService;
         this.configRepository = configRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
     }
 
-    /** Alle getrackten Daten des Users laden */
-    public List<TrackingEntity> getAllEntries(String username) {
-        UserEntity user = userService.findUserByName(username);
+    /**
+     * Getrackte Daten des Users seitenweise laden (Keyset-Paginierung, ältester Eintrag zuerst).
+     * Ohne Parameter werden alle Einträge geladen.
+     *
+     * @param username Der Name des validierten Users
+     * @param from Erster Tag (optional, dd.MM.yyyy)
+     * @param to Letzter Tag (optional, dd.MM.yyyy)
+     * @param limit Seitengröße (optional, höchstens app.pagination.max-limit)
+     * @param cursor Cursor der vorherigen Seite (optional)
+     */
+    public KeysetPage<TrackingEntity> getEntries(String username, String from, String to, Integer limit, String cursor) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
         if(!userService.hasValidStatus(user)){
             throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
         }
-        return repository.findByUserIdOrderByTimestampAsc(user.getId());
+
+        LocalDateTime start = ReuseHelper.getParsedDateOrDefault(from, AppConstants.MIN_QUERY_DATE).atStartOfDay();
+        LocalDateTime end = ReuseHelper.getParsedDateOrDefault(to, AppConstants.MAX_QUERY_DATE).plusDays(1).atStartOfDay();
+        Integer pageLimit = KeysetPage.checkLimit(limit, maxPageLimit);
+
+        // Untergrenze: Anfang des Zeitraums (jede ID ist größer als 0) oder der spätere Cursor der vorherigen Seite
+        List<String> position = KeysetPage.decode(cursor, 2);
+        LocalDateTime afterTimestamp = start;
+        Long afterId = 0L;
+        if (position != null) {
+            LocalDateTime cursorTimestamp = parseCursorTimestamp(position.get(0));
+            Long cursorId = parseCursorId(position.get(1));
+            if (!cursorTimestamp.isBefore(start)) {
+                afterTimestamp = cursorTimestamp;
+                afterId = cursorId;
+            }
+        }
+
+        List<TrackingEntity> rows = repository.findPage(user.id(), afterTimestamp.format(DateTimeConverter.FORMATTER), afterId,
+                end.format(DateTimeConverter.FORMATTER), KeysetPage.fetchLimit(pageLimit));
+        return KeysetPage.of(rows, pageLimit, entry -> List.of(
+                entry.getTimestamp().format(DateTimeConverter.FORMATTER), String.valueOf(entry.getId())));
     }
 
     /** Eintrag hinzufügen */
@@ -79,23 +141,201 @@ public class TrackingService {
         LocalDateTime timestamp = ReuseHelper.getParsedDateTime(dto.date());
         entity.setTimestamp(timestamp);
 
-        isValidTrackingValue(username, dto).ifPresent(errorMsg -> {
+        isValidTrackingValue(user.getId(), dto).ifPresent(errorMsg -> {
             throw new GenericException(errorMsg, HttpStatus.BAD_REQUEST);
         });
 
+        TrackingEntity savedEntity = readingIndex.save(entity, null);
+        eventPublisher.publishEvent(new TrackingChangedEvent(this, user, ChangeType.ADDED, savedEntity, null));
+        countWrite(ChangeType.ADDED, 1);
+
         logger.debug("Eintrag hinzugefügt von: {}", username);
-        return repository.save(entity);
+        return savedEntity;
     }
 
-    /** Letzten neusten Eintrag ausgeben */
-    public TrackingEntity getNewestEntry(String username) {
+    /**
+     * Import historischer Zählerstände (z.B. aus einer Tabellenkalkulation).
+     * Die Zeilen werden einmal sortiert und in einem linearen Durchlauf gegen die bestehenden Einträge geprüft
+     * (ein Eintrag pro Tag, streng steigende Werte). Gültige Zeilen werden per Batch in einer Transaktion gespeichert,
+     * ungültige Zeilen werden mit Grund zurückgemeldet.
+     *
+     * @param username Der Name des validierten Users
+     * @param dtos Zu importierende Einträge (Reihenfolge beliebig)
+     */
+    @Transactional
+    public ImportResultDto importEntries(String username, List<TrackingDto> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new GenericException("Keine Daten übergeben.", HttpStatus.BAD_REQUEST);
+        }
+        if (dtos.size() > importMaxRows) {
+            throw new GenericException("Zu viele Einträge. Maximal " + importMaxRows + " Zeilen pro Import.", HttpStatus.BAD_REQUEST);
+        }
+
         UserEntity user = userService.findUserByName(username);
+        if(!userService.hasValidStatus(user)){
+            throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
+        }
+
+        List<ImportResultDto.RowError> errors = new ArrayList<>();
+        List<ImportCandidate> candidates = new ArrayList<>(dtos.size());
+
+        // 1. Einzelne Zeilen prüfen (Wert und Datum vorhanden und lesbar)
+        for (int i = 0; i < dtos.size(); i++) {
+            TrackingDto dto = dtos.get(i);
+            if (dto.value_kWh() == null || dto.value_kWh() < 0) {
+                errors.add(new ImportResultDto.RowError(i + 1, dto.date(), dto.value_kWh(), "Ungültiger Wert. Bitte Eingabe überprüfen."));
+                countRejection("invalid_value");
+                continue;
+            }
+
+            LocalDateTime timestamp = parseImportDate(dto.date());
+            if (timestamp == null) {
+                errors.add(new ImportResultDto.RowError(i + 1, dto.date(), dto.value_kWh(), "Ungültiges Datum. Bitte Eingabe überprüfen."));
+                countRejection("invalid_date");
+                continue;
+            }
+            candidates.add(new ImportCandidate(i + 1, dto, timestamp));
+        }
+
+        // 2. Einmal sortieren (stabil: bei gleichem Tag gewinnt die zuerst übergebene Zeile)
+        candidates.sort(Comparator.comparing(ImportCandidate::timestamp));
+
+        // 3. Linearer Durchlauf: Import und bestehende Einträge werden wie zwei sortierte Listen zusammengeführt
+        List<TrackingRepository.ReadingView> existing = repository.findAllProjectedByUserIdOrderByTimestampAsc(user.getId());
+        List<TrackingBatchRepository.ReadingRow> accepted = new ArrayList<>(candidates.size());
+
+        int next = 0;
+        LocalDate previousDate = null;
+        double previousValue = Double.NEGATIVE_INFINITY;
+
+        for (ImportCandidate candidate : candidates) {
+            LocalDate date = candidate.timestamp().toLocalDate();
+            double value = candidate.dto().value_kWh();
+
+            // Bestehende Einträge vor dem Datum werden zum Vorgänger
+            while (next < existing.size() && existing.get(next).getTimestamp().toLocalDate().isBefore(date)) {
+                TrackingRepository.ReadingView reading = existing.get(next++);
+                previousDate = reading.getTimestamp().toLocalDate();
+                previousValue = reading.getReadingValue();
+            }
+            TrackingRepository.ReadingView successor = next < existing.size() ? existing.get(next) : null;
+
+            String errorMsg = null, reason = null;
+            if ((previousDate != null && date.isEqual(previousDate))
+                    || (successor != null && successor.getTimestamp().toLocalDate().isEqual(date))) {
+                errorMsg = "Eintrag für den selben Tag existiert bereits.";
+                reason = "same_day";
+            } else if (value <= previousValue) {
+                errorMsg = "Ungültiger Wert. Konflikt mit dem vorherigen Eintrag.";
+                reason = "predecessor_conflict";
+            } else if (successor != null && value >= successor.getReadingValue()) {
+                errorMsg = "Ungültiger Wert. Konflikt mit dem nachfolgenden Eintrag.";
+                reason = "successor_conflict";
+            }
+
+            if (errorMsg != null) {
+                errors.add(new ImportResultDto.RowError(candidate.row(), candidate.dto().date(), value, errorMsg));
+                countRejection(reason);
+                continue;
+            }
+
+            accepted.add(new TrackingBatchRepository.ReadingRow(candidate.timestamp(), value));
+            previousDate = date;
+            previousValue = value;
+        }
+
+        // 4. Gültige Zeilen gebündelt speichern
+        trackingBatchRepository.insertAll(user.getId(), accepted);
+
+        if (!accepted.isEmpty()) {
+            // Referenzdatum einmalig setzen, falls noch nicht gesetzt (ältester importierter Eintrag)
+            ConfigEntity config = configService.getConfigByUsername(username);
+            if (config.getReferenceDate() == null) {
+                config.setReferenceDate(accepted.getFirst().timestamp());
+                configRepository.save(config);
+            }
+
+            readingIndex.evict(user.getId());
+            eventPublisher.publishEvent(new TrackingChangedEvent(this, user, ChangeType.IMPORTED, null, null));
+            countWrite(ChangeType.IMPORTED, accepted.size());
+        }
+
+        errors.sort(Comparator.comparingInt(ImportResultDto.RowError::row));
+        logger.debug("Import von {}: {} von {} Einträgen gespeichert.", username, accepted.size(), dtos.size());
+
+        return new ImportResultDto(dtos.size(), accepted.size(), errors);
+    }
+
+    /**
+     * Hilfsfunktion: Wandelt CSV-Text in Einträge um (Spalten: Datum, Wert).
+     * Unterstützt ',' und ';' als Trennzeichen, eine optionale Kopfzeile und Dezimalkomma bei ';'.
+     * Nicht lesbare Werte werden als null übernommen und beim Import als fehlerhaft gemeldet.
+     */
+    public List<TrackingDto> parseCsv(String csv) {
+        List<TrackingDto> dtos = new ArrayList<>();
+        if (csv == null || csv.isBlank()) { return dtos; }
+
+        List<String> lines = csv.lines().filter(line -> !line.isBlank()).toList();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            char separator = line.indexOf(';') >= 0 ? ';' : ',';
+            int split = line.indexOf(separator);
+
+            String date = split < 0 ? line : line.substring(0, split).strip();
+            String rawValue = split < 0 ? "" : line.substring(split + 1).strip();
+            if (separator == ';') { rawValue = rawValue.replace(',', '.'); }
+
+            Double value = null;
+            try {
+                value = Double.parseDouble(rawValue);
+            } catch (NumberFormatException e) {
+                // Kopfzeile überspringen
+                if (i == 0) { continue; }
+            }
+            dtos.add(new TrackingDto(value, date));
+        }
+        return dtos;
+    }
+
+    /** Hilfsmethode: Datum einer Importzeile parsen (Pflichtfeld, null bei ungültigem Datum) */
+    private LocalDateTime parseImportDate(String date) {
+        try {
+            return ReuseHelper.getParsedDateTimeNoFallback(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Hilfsmethoden: Bestandteile des Cursors (Zeitstempel und ID des letzten Eintrags der vorherigen Seite) */
+    private LocalDateTime parseCursorTimestamp(String value) {
+        try {
+            return LocalDateTime.parse(value, DateTimeConverter.FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new GenericException("Ungültiger Cursor.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private Long parseCursorId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new GenericException("Ungültiger Cursor.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /** Gültig geparste Importzeile inkl. ursprünglicher Zeilennummer */
+    private record ImportCandidate(int row, TrackingDto dto, LocalDateTime timestamp) {}
+
+    /** Letzten neusten Eintrag ausgeben (direkt aus dem Index, ohne Datenbankzugriff bei gecachter Zeitreihe) */
+    public ReadingDto getNewestEntry(String username) {
+        AuthenticatedUser user = userService.findPrincipalByName(username);
 
         if(!userService.hasValidStatus(user)){
             throw new GenericException("Ungültiger Accountstatus.", HttpStatus.FORBIDDEN);
         }
 
-        return repository.findFirstByUserIdOrderByTimestampDesc(user.getId())
+        return readingIndex.findNewest(user.id())
+                .map(newest -> new ReadingDto(newest.id(), newest.value(), newest.date()))
                 .orElse(null);
     }
 
@@ -115,7 +355,9 @@ public class TrackingService {
             throw new GenericException("Zugriff verweigert.", HttpStatus.FORBIDDEN);
         }
 
-        repository.delete(foundEntry);
+        readingIndex.delete(foundEntry);
+        eventPublisher.publishEvent(new TrackingChangedEvent(this, user, ChangeType.DELETED, foundEntry, foundEntry.getTimestamp()));
+        countWrite(ChangeType.DELETED, 1);
         logger.debug("Eintrag mit ID: {} erfolgreich entfernt.", foundEntry.getId());
     }
 
@@ -160,51 +402,57 @@ public class TrackingService {
             throw new GenericException(errorMsg, HttpStatus.BAD_REQUEST);
         });
 
+        LocalDateTime previousTimestamp = entryToUpdate.getTimestamp();
+
         // Wert und Datum aktualisieren (Mapping)
         if (updateDto.value_kWh() != null){
             entryToUpdate.setReadingValue(updateDto.value_kWh());
         }
         entryToUpdate.setTimestamp(updatedDate);
 
-        logger.debug("Eintrag mit ID: {} erfolgreich aktualisiert.", id);
         // Speichern
-        return repository.save(entryToUpdate);
+        TrackingEntity updatedEntry = readingIndex.save(entryToUpdate, previousTimestamp);
+        eventPublisher.publishEvent(new TrackingChangedEvent(this, currentUser, ChangeType.UPDATED, updatedEntry, previousTimestamp));
+        countWrite(ChangeType.UPDATED, 1);
+
+        logger.debug("Eintrag mit ID: {} erfolgreich aktualisiert.", id);
+        return updatedEntry;
     }
 
-    /** Hilfsmethode: Validierung des getrackten Eintrags */
-    private Optional<String> isValidTrackingValue(String username, TrackingDto dto) {
+    /** Hilfsmethode: Validierung des getrackten Eintrags (Binärsuche im ReadingIndex) */
+    private Optional<String> isValidTrackingValue(Long userId, TrackingDto dto) {
 
         // CHECK: Wert darf nicht null oder negativ sein
         if (dto.value_kWh() == null || dto.value_kWh() < 0) {
             logger.error("Ungültiger Wert.");
-            return Optional.of("Ungültiger Wert. Bitte Eingabe überprüfen.");
+            return reject("invalid_value", "Ungültiger Wert. Bitte Eingabe überprüfen.");
         }
 
-        TrackingEntity lastEntry = getNewestEntry(username);
+        ReadingIndex.Reading lastEntry = readingIndex.findNewest(userId).orElse(null);
         LocalDateTime currentTimestamp = ReuseHelper.getParsedDateTime(dto.date());
 
         // CHECK: Wenn es keinen letzten Eintrag gibt, ist der Wert gültig
-        if (lastEntry == null || lastEntry.getReadingValue() == null) {
+        if (lastEntry == null) {
             return Optional.empty();
         }
 
         // CHECK: Aktueller Eintrag darf nicht ÄLTER sein als der letzte Eintrag
-        if (currentTimestamp.toLocalDate().isBefore(lastEntry.getTimestamp().toLocalDate())) {
+        if (currentTimestamp.toLocalDate().isBefore(lastEntry.date())) {
             logger.error("Ungültiges Datum.");
-            return Optional.of("Ungültiges Datum. Bitte Eingabe überprüfen.");
+            return reject("date_before_newest", "Ungültiges Datum. Bitte Eingabe überprüfen.");
         }
 
         // CHECK: Es darf noch kein Eintrag am selben Tag existieren (ignoriert Uhrzeit)
-        boolean isSameDay = currentTimestamp.toLocalDate().isEqual(lastEntry.getTimestamp().toLocalDate());
+        boolean isSameDay = currentTimestamp.toLocalDate().isEqual(lastEntry.date());
         if (isSameDay) {
             logger.error("Eintrag für den selben Tag existiert bereits.");
-            return Optional.of("Eintrag für den selben Tag existiert bereits.");
+            return reject("same_day", "Eintrag für den selben Tag existiert bereits.");
         }
 
         // CHECK: Wert muss größer sein als der vorherige
-        return (dto.value_kWh() > lastEntry.getReadingValue()) ?
+        return (dto.value_kWh() > lastEntry.value()) ?
                 Optional.empty() :
-                Optional.of("Ungültiger Wert. Der aktuelle Wert muss größer sein als der vorherige.");
+                reject("not_increasing", "Ungültiger Wert. Der aktuelle Wert muss größer sein als der vorherige.");
     }
 
     /**
@@ -221,19 +469,19 @@ public class TrackingService {
 
         // CHECK: Wert darf nicht negativ sein
         if (value_kWh < 0) {
-            return Optional.of("Ungültiger Wert. Der aktuelle Wert darf nicht negativ sein.");
+            return reject("invalid_value", "Ungültiger Wert. Der aktuelle Wert darf nicht negativ sein.");
         }
 
         Long userId = entityToUpdate.getUser().getId();
         Long currentId = entityToUpdate.getId();
 
+        LocalDate newDate = newTimestamp.toLocalDate();
+
         // Vorgänger finden (Der neueste Eintrag, der zeitlich VOR oder GLEICH dem neuen Datum ist, aber NICHT dieser Eintrag selbst)
-        TrackingEntity predecessor = repository.findFirstByUserIdAndTimestampLessThanEqualAndIdNotOrderByTimestampDesc(
-                userId, newTimestamp, currentId).orElse(null);
+        ReadingIndex.Reading predecessor = readingIndex.findPredecessor(userId, newDate, currentId).orElse(null);
 
         // Nachfolger finden (Der älteste Eintrag, der zeitlich NACH oder GLEICH dem neuen Datum ist, aber NICHT dieser Eintrag selbst)
-        TrackingEntity successor = repository.findFirstByUserIdAndTimestampGreaterThanEqualAndIdNotOrderByTimestampAsc(
-                userId, newTimestamp, currentId).orElse(null);
+        ReadingIndex.Reading successor = readingIndex.findSuccessor(userId, newDate, currentId).orElse(null);
 
         // Falls nur ein Eintrag in der Datenbank vorhanden ist, ist der Wert gültig
         if (predecessor == null && successor == null) {
@@ -242,19 +490,19 @@ public class TrackingService {
 
         // --- PRÜFUNG GEGEN VORGÄNGER ---
         if (predecessor != null) {
-            predecessorCheck = (value_kWh > predecessor.getReadingValue() && !newTimestamp.toLocalDate().isBefore(predecessor.getTimestamp().toLocalDate()) && !newTimestamp.toLocalDate().isEqual(predecessor.getTimestamp().toLocalDate()));
+            predecessorCheck = (value_kWh > predecessor.value() && !newDate.isBefore(predecessor.date()) && !newDate.isEqual(predecessor.date()));
             if (successor == null) {
-                return predecessorCheck ? Optional.empty() : Optional.of("Ungültiger Wert. Konflikt mit dem vorherigen Eintrag.");
+                return predecessorCheck ? Optional.empty() : reject("predecessor_conflict", "Ungültiger Wert. Konflikt mit dem vorherigen Eintrag.");
             }
         }
 
         // --- PRÜFUNG GEGEN NACHFOLGER ---
-        boolean successorCheck = (value_kWh < successor.getReadingValue() && !newTimestamp.toLocalDate().isAfter(successor.getTimestamp().toLocalDate()) && !newTimestamp.toLocalDate().isEqual(successor.getTimestamp().toLocalDate()));
+        boolean successorCheck = (value_kWh < successor.value() && !newDate.isAfter(successor.date()) && !newDate.isEqual(successor.date()));
         if (predecessor == null) {
-            return successorCheck ? Optional.empty() : Optional.of("Ungültiger Wert. Konflikt mit dem nachfolgenden Eintrag.");
+            return successorCheck ? Optional.empty() : reject("successor_conflict", "Ungültiger Wert. Konflikt mit dem nachfolgenden Eintrag.");
         }
 
-        return (predecessorCheck && successorCheck)? Optional.empty() : Optional.of("Ungültiger Wert. Konflikt mit vorherigem oder nachfolgendem Eintrag.");
+        return (predecessorCheck && successorCheck)? Optional.empty() : reject("neighbour_conflict", "Ungültiger Wert. Konflikt mit vorherigem oder nachfolgendem Eintrag.");
     }
 
     /**
@@ -275,6 +523,8 @@ public class TrackingService {
 
         // Löschen aller Einträge, die diesem User gehören
         repository.deleteByUserId(user.getId());
+        readingIndex.evict(user.getId());
+        countWrite(ChangeType.CLEARED, 1);
 
         // Referenzdatum in der Config zurücksetzen
         ConfigEntity config = configService.getConfigByUsername(username);
@@ -282,20 +532,46 @@ public class TrackingService {
             config.setReferenceDate(null);
             configRepository.save(config);
         }
+        eventPublisher.publishEvent(new TrackingChangedEvent(this, user, ChangeType.CLEARED, null, null));
 
         logger.debug("Alle Daten von {} erfolgreich entfernt.", username);
     }
 
+    /** Hilfsmethode: Zählt die abgelehnte Eingabe (Metrik) und liefert die Fehlermeldung */
+    private Optional<String> reject(String reason, String message) {
+        countRejection(reason);
+        return Optional.of(message);
+    }
+
+    private void countRejection(String reason) {
+        meterRegistry.counter("eco.tracking.validation.rejected", "reason", reason).increment();
+    }
+
+    private void countWrite(ChangeType type, int entries) {
+        meterRegistry.counter("eco.tracking.writes", "operation", type.name().toLowerCase()).increment(entries);
+    }
+
     /**
      * Hilfsfunktion, um einen Eintrag anhand eines Datums in TrackingEntity zu finden.
+     * Die Liste muss nach Zeitstempel sortiert sein (auf- oder absteigend), gesucht wird per Binärsuche.
      *
-     * @param trackedData Getrackten Daten als Liste
+     * @param trackedData Getrackten Daten als sortierte Liste
      * @param date Zieldatum
      */
-    public TrackingEntity findEntryByDate(List<TrackingEntity> trackedData, LocalDate date){
-        return trackedData.stream()
-                .filter(e -> e.getTimestamp().toLocalDate().isEqual(date))
-                .findFirst()
-                .orElseThrow(() -> new GenericException("Kein Eintrag gefunden.", HttpStatus.BAD_REQUEST));
+    public static TrackingEntity findEntryByDate(List<TrackingEntity> trackedData, LocalDate date){
+        boolean descending = trackedData.size() > 1
+                && trackedData.getFirst().getTimestamp().isAfter(trackedData.getLast().getTimestamp());
+
+        int low = 0, high = trackedData.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = trackedData.get(mid).getTimestamp().toLocalDate().compareTo(date);
+            if (descending) { cmp = -cmp; }
+
+            if (cmp == 0) { return trackedData.get(mid); }
+            if (cmp < 0) { low = mid + 1; } else { high = mid - 1; }
+        }
+
+        throw new GenericException("Kein Eintrag gefunden.", HttpStatus.BAD_REQUEST);
     }
 }
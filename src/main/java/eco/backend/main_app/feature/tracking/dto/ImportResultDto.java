@@ -0,0 +1,16 @@
+package eco.backend.main_app.feature.tracking.dto;
+
+import java.util.List;
+
+public record ImportResultDto(
+        int received,                   // Anzahl der übergebenen Zeilen
+        int imported,                   // Anzahl der gespeicherten Zeilen
+        List<RowError> errors           // Abgelehnte Zeilen inkl. Grund
+) {
+    public record RowError(
+            int row,                    // Zeilennummer in der Eingabe (beginnend bei 1, ohne Kopfzeile)
+            String date,
+            Double value_kWh,
+            String message
+    ) {}
+}
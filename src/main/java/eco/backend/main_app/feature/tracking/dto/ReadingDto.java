@@ -0,0 +1,15 @@
+package eco.backend.main_app.feature.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import eco.backend.main_app.utils.AppConstants;
+
+import java.time.LocalDate;
+
+/** Zählerstand aus dem Index (gleiche JSON-Felder wie TrackingEntity) */
+public record ReadingDto(
+        Long id,
+        Double readingValue,
+
+        @JsonFormat(pattern = AppConstants.JSON_DATE_PATTERN)
+        LocalDate timestamp
+) {}
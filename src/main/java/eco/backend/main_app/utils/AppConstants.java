@@ -1,12 +1,18 @@
 package eco.backend.main_app.utils;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 public class AppConstants {
     public static final String JSON_DATE_PATTERN = "dd.MM.yyyy";
     public static final String DB_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    public static final String JSON_DATE_TIME_PATTERN = "dd.MM.yyyy HH:mm:ss";
     public static final DateTimeFormatter JSON_DATE_FORMATTER = DateTimeFormatter.ofPattern(JSON_DATE_PATTERN);
 
+    // Grenzen für unbeschränkte Zeiträume in Abfragen (vierstellige Jahre, damit der Textvergleich in SQLite gültig bleibt)
+    public static final LocalDate MIN_QUERY_DATE = LocalDate.of(1000, 1, 1);
+    public static final LocalDate MAX_QUERY_DATE = LocalDate.of(9998, 12, 31);
+
     public static final String TEXT_VERIFY_ACTION = """
             Hallo %s!
             
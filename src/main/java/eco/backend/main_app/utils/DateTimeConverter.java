@@ -8,7 +8,7 @@ import java.time.format.DateTimeFormatter;
 @Converter(autoApply = true) // WICHTIG: Wendet sich automatisch auf alle LocalDateTime Felder an!
 public class DateTimeConverter implements AttributeConverter<LocalDateTime, String> {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConstants.DB_DATE_PATTERN);
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(AppConstants.DB_DATE_PATTERN);
 
     @Override
     public String convertToDatabaseColumn(LocalDateTime attribute) {
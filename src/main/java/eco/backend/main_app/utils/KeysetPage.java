@@ -0,0 +1,72 @@
+package eco.backend.main_app.utils;
+
+import eco.backend.main_app.core.exception.GenericException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Seite einer Keyset-Paginierung: Einträge und Cursor für die nächste Seite (null: letzte Seite).
+ * Der Cursor enthält den Sortierschlüssel des letzten Eintrags (Base64, für den Client undurchsichtig);
+ * die nächste Seite beginnt per Indexzugriff direkt dahinter, unabhängig davon, wie weit geblättert wurde.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Erstellt die Seite aus 'limit + 1' geladenen Zeilen (die zusätzliche Zeile zeigt an, ob weitere Einträge folgen).
+     *
+     * @param rows Geladene Zeilen (höchstens limit + 1)
+     * @param limit Seitengröße (null: unbegrenzt)
+     * @param cursorOf Sortierschlüssel eines Eintrags als Cursor-Bestandteile
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, Integer limit, Function<T, List<String>> cursorOf) {
+        if (limit == null || rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, encode(cursorOf.apply(items.getLast())));
+    }
+
+    /** Anzahl der zu ladenden Zeilen (eine mehr als die Seitengröße) */
+    public static Limit fetchLimit(Integer limit) {
+        return limit == null ? Limit.unlimited() : Limit.of(limit + 1);
+    }
+
+    /**
+     * Prüft die angefragte Seitengröße.
+     *
+     * @return null (unbegrenzt) oder die Seitengröße, höchstens maxLimit
+     */
+    public static Integer checkLimit(Integer limit, int maxLimit) {
+        if (limit == null) { return null; }
+        if (limit < 1) {
+            throw new GenericException("Ungültige Seitengröße. Mindestens 1 Eintrag pro Seite.", HttpStatus.BAD_REQUEST);
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    /** Liest die Bestandteile des Cursors (null, falls kein Cursor übergeben wurde) */
+    public static List<String> decode(String cursor, int parts) {
+        if (cursor == null || cursor.isBlank()) { return null; }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = List.of(decoded.split("\\" + SEPARATOR, -1));
+            if (values.size() == parts) { return values; }
+        } catch (IllegalArgumentException e) {
+            // Ungültiges Base64: wie ein ungültiger Inhalt behandeln
+        }
+        throw new GenericException("Ungültiger Cursor.", HttpStatus.BAD_REQUEST);
+    }
+
+    private static String encode(List<String> parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, parts).getBytes(StandardCharsets.UTF_8));
+    }
+}
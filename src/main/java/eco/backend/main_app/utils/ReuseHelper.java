@@ -1,8 +1,12 @@
 package eco.backend.main_app.utils;
 
+import eco.backend.main_app.core.exception.GenericException;
+import org.springframework.http.HttpStatus;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 public class ReuseHelper {
 
@@ -37,4 +41,18 @@ public class ReuseHelper {
         }
         return timestamp;
     }
+
+    /** Hilfsmethode: Datum eines Request-Parameters (dd.MM.yyyy) parsen.
+     * Falls date leer ist, wird fallback ausgegeben; ungültige Werte werden mit 400 abgelehnt */
+    static public LocalDate getParsedDateOrDefault(String date, LocalDate fallback) {
+        if (date == null || date.isBlank()) {
+            return fallback;
+        }
+
+        try {
+            return LocalDate.parse(date, AppConstants.JSON_DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new GenericException("Ungültiges Datum. Bitte Eingabe überprüfen.", HttpStatus.BAD_REQUEST);
+        }
+    }
 }
@@ -0,0 +1,11 @@
+-- Eindeutiger Index für (user_id, period_end): Grundlage für Bulk-Upserts (INSERT ... ON CONFLICT)
+
+-- 1. Eventuelle Duplikate entfernen (neuester Eintrag pro Enddatum bleibt erhalten)
+DELETE FROM calculated_results
+WHERE id NOT IN (
+    SELECT MAX(id) FROM calculated_results GROUP BY user_id, period_end
+);
+
+-- 2. Bestehenden Index durch eindeutigen Index ersetzen
+DROP INDEX IF EXISTS idx_results_user_period;
+CREATE UNIQUE INDEX idx_results_user_period ON calculated_results(user_id, period_end);
@@ -0,0 +1,22 @@
+-- Persistenter Postausgang für E-Mails: Mails werden in der fachlichen Transaktion eingereiht
+-- und anschließend gebündelt versendet (Retry mit exponentiellem Backoff).
+CREATE TABLE email_outbox (
+    id               INTEGER PRIMARY KEY AUTOINCREMENT,
+    type             TEXT NOT NULL,             -- verification, status, removed
+    recipient        TEXT NOT NULL,
+    dedup_key        TEXT NOT NULL,             -- type + Empfänger: wiederholte Anfragen ersetzen die offene Mail
+    subject          TEXT NOT NULL,
+    body             TEXT NOT NULL,
+    status           TEXT NOT NULL,             -- PENDING oder FAILED (versendete Mails werden gelöscht)
+    attempts         INTEGER NOT NULL DEFAULT 0,
+    version          INTEGER NOT NULL DEFAULT 0, -- wird beim Ersetzen erhöht, damit eine währenddessen versendete
+                                                 -- ältere Fassung die neue Mail nicht aus dem Postausgang entfernt
+    next_attempt_at  TEXT NOT NULL,
+    created_at       TEXT NOT NULL,
+    last_error       TEXT
+);
+
+-- Höchstens eine offene Mail pro Empfänger und Typ
+CREATE UNIQUE INDEX idx_outbox_pending_dedup ON email_outbox(dedup_key) WHERE status = 'PENDING';
+-- Fällige Mails in Reihenfolge abrufen
+CREATE INDEX idx_outbox_due ON email_outbox(status, next_attempt_at);
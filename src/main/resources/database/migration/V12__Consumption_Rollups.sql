@@ -0,0 +1,13 @@
+-- Vorberechnete Verbrauchs- und Kostenaggregate pro User (Tag, Monat, Jahr).
+-- Tageswerte werden zwischen zwei Ablesungen linear interpoliert, Monats- und Jahreswerte sind deren Summen.
+-- Die Tabellen werden bei jeder Änderung der Zählerstände bzw. des Tarifs inkrementell angepasst.
+CREATE TABLE consumption_rollups (
+    user_id       INTEGER NOT NULL,
+    granularity   TEXT NOT NULL,                -- DAY, MONTH oder YEAR
+    period_start  TEXT NOT NULL,                -- 'yyyy-MM-dd' (Tag, Monatserster bzw. 1. Januar)
+    energy_kwh    REAL NOT NULL,                -- Verbrauch im Zeitraum [kWh]
+    cost          REAL NOT NULL,                -- Brutto-Kosten im Zeitraum (Verbrauch + anteiliger Grundpreis) [€]
+    days          INTEGER NOT NULL,             -- Anzahl der abgedeckten Tage (Monat/Jahr ggf. nur teilweise)
+    PRIMARY KEY (user_id, granularity, period_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) WITHOUT ROWID;
@@ -0,0 +1,24 @@
+-- Asynchrone Berechnungsaufträge (Einreichen, Status abfragen, Ergebnis abholen, abbrechen).
+-- Der Zustand bleibt über Neustarts erhalten; unterbrochene Aufträge werden beim Start erneut eingereiht.
+CREATE TABLE calculation_jobs (
+    id                INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id           INTEGER NOT NULL,
+    status            TEXT NOT NULL,              -- PENDING, RUNNING, SUCCEEDED, FAILED oder CANCELLED
+    end_date          TEXT,                       -- Enddatum der Berechnung (dd.MM.yyyy wie in der Anfrage, optional)
+    submissions       INTEGER NOT NULL DEFAULT 1, -- Anzahl der zusammengeführten Anfragen
+    cancel_requested  INTEGER NOT NULL DEFAULT 0, -- Abbruch eines laufenden Auftrags angefordert
+    submitted_at      TEXT NOT NULL,
+    started_at        TEXT,
+    finished_at       TEXT,
+    result_count      INTEGER,                    -- Anzahl der berechneten Perioden
+    result            TEXT,                       -- Ergebnisliste als JSON (nur SUCCEEDED)
+    error             TEXT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Höchstens ein wartender Auftrag pro User (weitere Anfragen werden mit ihm zusammengeführt)
+CREATE UNIQUE INDEX idx_jobs_pending_user ON calculation_jobs(user_id) WHERE status = 'PENDING';
+-- Wartende Aufträge in Reihenfolge abrufen
+CREATE INDEX idx_jobs_status ON calculation_jobs(status, id);
+-- Aufträge eines Users (Statusabfrage, laufende Aufträge pro User)
+CREATE INDEX idx_jobs_user ON calculation_jobs(user_id, status);
@@ -0,0 +1,19 @@
+-- Neuberechnung der gespeicherten Ergebnisse aller User (z.B. nach Tarifänderungen oder Daten-Migrationen).
+-- Der Fortschritt wird nach jedem Abschnitt gesichert (last_user_id), ein unterbrochener Lauf wird beim Start fortgesetzt.
+CREATE TABLE recompute_runs (
+    id               INTEGER PRIMARY KEY AUTOINCREMENT,
+    triggered_by     TEXT NOT NULL,                -- ADMIN oder SCHEDULED
+    status           TEXT NOT NULL,                -- RUNNING, COMPLETED, CANCELLED oder FAILED
+    total_users      INTEGER NOT NULL,             -- Anzahl der User mit gespeicherten Ergebnissen beim Start
+    processed_users  INTEGER NOT NULL DEFAULT 0,   -- Bearbeitete User (inkl. übersprungener und fehlgeschlagener)
+    skipped_users    INTEGER NOT NULL DEFAULT 0,   -- Ohne Referenzeintrag oder gesperrt
+    failed_users     INTEGER NOT NULL DEFAULT 0,
+    last_user_id     INTEGER NOT NULL DEFAULT 0,   -- Checkpoint: Alle User bis einschließlich dieser ID sind bearbeitet
+    started_at       TEXT NOT NULL,
+    updated_at       TEXT NOT NULL,
+    finished_at      TEXT,
+    error            TEXT
+);
+
+-- Höchstens ein laufender Lauf
+CREATE UNIQUE INDEX idx_recompute_running ON recompute_runs(status) WHERE status = 'RUNNING';
@@ -0,0 +1,23 @@
+-- Tarifversionen pro User: Ab 'valid_from' gelten die Preise der Version bis zur nächsten Version.
+-- Vor der ersten Version gilt der Tarif aus 'configs'. Perioden werden an den Tarifgrenzen aufgeteilt.
+CREATE TABLE tariff_versions (
+    id            INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id       INTEGER NOT NULL,
+    valid_from    TEXT NOT NULL,        -- 'yyyy-MM-dd' (erster Tag, an dem die Version gilt)
+    base_price    REAL NOT NULL,        -- Grundpreis EUR/Monat (brutto)
+    energy_price  REAL NOT NULL,        -- Verbrauchspreis EUR/kWh (brutto, erste Stufe)
+    energy_tax    REAL NOT NULL,        -- Stromsteuer in EUR/kWh
+    vat_rate      REAL NOT NULL,        -- Umsatzsteuer (z.B. 0.19)
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+CREATE UNIQUE INDEX idx_tariff_versions_user_from ON tariff_versions(user_id, valid_from);
+
+-- Staffelpreise einer Version: Ab 'from_kwh' (Verbrauch seit dem Referenzdatum) gilt 'energy_price'.
+-- Versionen ohne Stufen haben einen einheitlichen Verbrauchspreis.
+CREATE TABLE tariff_tiers (
+    tariff_id     INTEGER NOT NULL,
+    from_kwh      REAL NOT NULL,        -- Untere Grenze der Stufe in kWh (> 0)
+    energy_price  REAL NOT NULL,        -- Verbrauchspreis EUR/kWh (brutto)
+    PRIMARY KEY (tariff_id, from_kwh),
+    FOREIGN KEY (tariff_id) REFERENCES tariff_versions(id) ON DELETE CASCADE
+) WITHOUT ROWID;
@@ -0,0 +1,5 @@
+-- Interpolierter Zählerstand zu Beginn des Tages (nur Tageswerte), für die Bewertung mit Staffelpreisen.
+ALTER TABLE consumption_rollups ADD COLUMN reading_kwh REAL;
+
+-- Bestehende Aggregate verwerfen; sie werden beim Start mit Zählerstand neu erstellt (RollupService.backfill)
+DELETE FROM consumption_rollups;
@@ -0,0 +1,190 @@
+package eco.backend.main_app.feature.auth;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Versand über den E-Mail-Postausgang gegen einen lokalen SMTP-Server (GreenMail):
+ * Deduplizierung offener Mails, Retry mit Backoff bei nicht erreichbarem Server und gebündelter Versand.
+ */
+@SpringBootTest
+class EmailOutboxDispatcherTest {
+
+    // Zugangsdaten aus application.properties werden akzeptiert, ohne Postfächer anzulegen
+    private static final GreenMail smtp = new GreenMail(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempDirectory("eco-outbox-test").resolve("eco_app.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database + "?foreign_keys=true");
+
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("spring.mail.properties.mail.debug", () -> "false");
+
+        registry.add("app.email.outbox.batch-size", () -> "2");
+        registry.add("app.email.outbox.poll-interval-ms", () -> "200");
+        registry.add("app.email.outbox.retry.initial-delay-seconds", () -> "1");
+        registry.add("app.email.outbox.retry.max-delay-seconds", () -> "2");
+    }
+
+    @BeforeAll
+    static void startSmtp() {
+        smtp.start();
+    }
+
+    @AfterAll
+    static void stopSmtp() {
+        smtp.stop();
+    }
+
+    @BeforeEach
+    void reset() throws Exception {
+        if (!smtp.isRunning()) { smtp.start(); }
+        awaitTrue(() -> countOutbox() == 0, "Postausgang wurde nicht geleert");
+        smtp.purgeEmailFromAllMailboxes();
+    }
+
+    @Test
+    void replacesPendingMailForSameRecipient() throws Exception {
+        double deduplicated = counter("eco.email.outbox.deduplicated");
+
+        // Beide Anfragen in einer Transaktion: Der Versand sieht erst den committeten Stand
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("anna", "Anna@example.org", "111111", AppConstants.TEXT_VERIFY_ACTION);
+            emailService.sendVerificationEmail("anna", "anna@example.org", "222222", AppConstants.TEXT_VERIFY_ACTION);
+        });
+
+        assertTrue(smtp.waitForIncomingEmail(5000, 1));
+        awaitTrue(() -> countOutbox() == 0, "Mail wurde nicht aus dem Postausgang entfernt");
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertTrue(String.valueOf(received[0].getContent()).contains("222222"));
+        assertEquals(deduplicated + 1, counter("eco.email.outbox.deduplicated"));
+    }
+
+    @Test
+    void retriesWithBackoffUntilServerIsReachable() {
+        smtp.stop();
+        LocalDateTime before = LocalDateTime.now().withNano(0);
+
+        emailService.sendUserRemovedEmail("bert", "bert@example.org");
+
+        awaitTrue(() -> attempts("bert@example.org") == 1, "Fehlgeschlagener Versand wurde nicht erneut eingeplant");
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT status, next_attempt_at, last_error FROM email_outbox WHERE recipient = ?", "bert@example.org");
+        LocalDateTime nextAttemptAt = LocalDateTime.parse((String) row.get("next_attempt_at"), DateTimeConverter.FORMATTER);
+
+        assertEquals("PENDING", row.get("status"));
+        assertNotNull(row.get("last_error"));
+        assertFalse(nextAttemptAt.isBefore(before.plusSeconds(1)), "Erster Retry erst nach der initialen Wartezeit");
+
+        // Nach dem Neustart des Servers wird die Mail beim nächsten fälligen Versuch zugestellt
+        smtp.start();
+        assertTrue(smtp.waitForIncomingEmail(10_000, 1));
+        awaitTrue(() -> countOutbox() == 0, "Zugestellte Mail wurde nicht aus dem Postausgang entfernt");
+    }
+
+    @Test
+    void sendsDueMailsInBatches() {
+        long batchesBefore = successfulSends();
+        List<String> recipients = List.of("a@example.org", "b@example.org", "c@example.org", "d@example.org", "e@example.org");
+
+        transactionTemplate.executeWithoutResult(status ->
+                recipients.forEach(recipient -> emailService.sendUserStatusEmail("user", recipient, true)));
+
+        assertTrue(smtp.waitForIncomingEmail(5000, recipients.size()));
+        awaitTrue(() -> countOutbox() == 0, "Mails wurden nicht aus dem Postausgang entfernt");
+
+        List<String> delivered = Arrays.stream(smtp.getReceivedMessages()).map(this::recipient).sorted().toList();
+        assertEquals(recipients, delivered);
+
+        // Batchgröße 2: fünf Mails werden in drei SMTP-Aufrufen versendet
+        assertEquals(3, successfulSends() - batchesBefore);
+    }
+
+    private long countOutbox() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private int attempts(String recipient) {
+        List<Integer> attempts = jdbcTemplate.queryForList(
+                "SELECT attempts FROM email_outbox WHERE recipient = ?", Integer.class, recipient);
+        return attempts.isEmpty() ? 0 : attempts.getFirst();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private long successfulSends() {
+        Timer timer = meterRegistry.find("eco.email.send").tag("outcome", "success").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private String recipient(MimeMessage message) {
+        try {
+            return message.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) { fail(message); }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.auth.UserService;
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.calculation.CalculationBatchRepository.ResultRow;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.ConfigService;
+import eco.backend.main_app.feature.configuration.TariffService;
+import eco.backend.main_app.feature.configuration.dto.TariffVersionDto;
+import eco.backend.main_app.feature.tracking.TrackingService;
+import eco.backend.main_app.feature.tracking.dto.TrackingDto;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inkrementeller Modus der Berechnung: Nach jeder Änderung an einem Zählerstand müssen die gespeicherten Ergebnisse
+ * exakt einem vollständigen Neuaufbau aus dem aktuellen Datenstand entsprechen (Anhängen, Ändern, Verschieben,
+ * Löschen sowie Änderungen am Referenzeintrag).
+ */
+@SpringBootTest
+class CalculationIncrementalTest {
+
+    private static final LocalDate FIRST_READING = LocalDate.of(2023, 3, 14);
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private CalculationBatchRepository calculationBatchRepository;
+
+    @Autowired
+    private TrackingService trackingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempDirectory("eco-incremental-test").resolve("eco_app.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database + "?foreign_keys=true");
+        registry.add("app.calculation.incremental", () -> "true");
+    }
+
+    @Test
+    void appendedReadingAddsMatchingPeriod() {
+        String username = userWithStoredResults("inc-append", 40);
+        List<TrackingEntity> before = readings(username);
+
+        trackingService.addEntry(username, new TrackingDto(
+                before.getLast().getReadingValue() + 87.3, format(before.getLast().getTimestamp().toLocalDate().plusDays(23))));
+
+        assertEquals(before.size(), storedResults(username).size());
+        assertMatchesFullRebuild(username);
+    }
+
+    @Test
+    void updatedValueAndMovedDateMatchFullRebuild() {
+        String username = userWithStoredResults("inc-update", 30);
+        List<TrackingEntity> entries = readings(username);
+
+        // Wert in der Mitte der Historie ändern
+        TrackingEntity middle = entries.get(12);
+        trackingService.updateEntryById(username, middle.getId(), new TrackingDto(middle.getReadingValue() + 4.5, ""));
+        assertMatchesFullRebuild(username);
+
+        // Datum zwischen die Nachbarn verschieben: alte Periode entfällt, neue entsteht
+        TrackingEntity moved = entries.get(20);
+        LocalDate newDate = entries.get(19).getTimestamp().toLocalDate().plusDays(1);
+        trackingService.updateEntryById(username, moved.getId(), new TrackingDto(null, format(newDate)));
+
+        Map<LocalDateTime, ResultRow> stored = storedResults(username);
+        assertFalse(stored.containsKey(moved.getTimestamp().toLocalDate().atStartOfDay()));
+        assertTrue(stored.containsKey(newDate.atStartOfDay()));
+        assertMatchesFullRebuild(username);
+    }
+
+    @Test
+    void deletedReadingRemovesOnlyItsPeriod() {
+        String username = userWithStoredResults("inc-delete", 25);
+        List<TrackingEntity> entries = readings(username);
+        TrackingEntity deleted = entries.get(7);
+
+        trackingService.deleteEntryById(username, deleted.getId());
+
+        Map<LocalDateTime, ResultRow> stored = storedResults(username);
+        assertEquals(entries.size() - 2, stored.size());
+        assertFalse(stored.containsKey(deleted.getTimestamp().toLocalDate().atStartOfDay()));
+        assertMatchesFullRebuild(username);
+    }
+
+    @Test
+    void changedReferenceValueRebuildsAllPeriods() {
+        String username = userWithStoredResults("inc-reference", 20);
+        TrackingEntity reference = readings(username).getFirst();
+        Map<LocalDateTime, ResultRow> before = storedResults(username);
+
+        trackingService.updateEntryById(username, reference.getId(), new TrackingDto(reference.getReadingValue() - 15.0, ""));
+
+        Map<LocalDateTime, ResultRow> after = storedResults(username);
+        assertEquals(before.keySet(), after.keySet());
+        before.forEach((periodEnd, row) -> assertNotEquals(row, after.get(periodEnd)));
+        assertMatchesFullRebuild(username);
+    }
+
+    @Test
+    void deletedReferenceEntryDropsStoredResults() {
+        String username = userWithStoredResults("inc-reference-deleted", 12);
+        TrackingEntity reference = readings(username).getFirst();
+
+        trackingService.deleteEntryById(username, reference.getId());
+
+        assertTrue(storedResults(username).isEmpty());
+    }
+
+    @Test
+    void changesAroundTariffBoundariesMatchFullRebuild() {
+        String username = userWithStoredResults("inc-tariff", 30);
+        List<TrackingEntity> entries = readings(username);
+
+        // Grenzen zwischen zwei Ablesungen und genau auf einer Ablesung
+        LocalDate between = entries.get(9).getTimestamp().toLocalDate().plusDays(3);
+        LocalDate onReading = entries.get(17).getTimestamp().toLocalDate();
+        tariffService.addVersion(username, new TariffVersionDto(null, format(between), 14.9, 0.341, null, null,
+                List.of(new TariffVersionDto.Tier(400.0, 0.37))));
+        tariffService.addVersion(username, new TariffVersionDto(null, format(onReading), null, 0.298, null, 0.07, null));
+        assertMatchesFullRebuild(username);
+
+        // Nachbarn einer Grenze ändern: die interpolierten Grenzstände aller späteren Perioden verschieben sich
+        TrackingEntity beforeBoundary = entries.get(9);
+        trackingService.updateEntryById(username, beforeBoundary.getId(), new TrackingDto(beforeBoundary.getReadingValue() + 3.5, ""));
+        assertMatchesFullRebuild(username);
+
+        trackingService.deleteEntryById(username, entries.get(10).getId());
+        assertMatchesFullRebuild(username);
+
+        TrackingEntity moved = entries.get(18);
+        trackingService.updateEntryById(username, moved.getId(), new TrackingDto(null,
+                format(entries.get(17).getTimestamp().toLocalDate().plusDays(1))));
+        assertMatchesFullRebuild(username);
+
+        trackingService.addEntry(username, new TrackingDto(entries.getLast().getReadingValue() + 60.0,
+                format(entries.getLast().getTimestamp().toLocalDate().plusDays(30))));
+        assertMatchesFullRebuild(username);
+    }
+
+    /** User mit importierter Historie (unregelmäßige Abstände) und gespeicherten Ergebnissen wie nach run-and-save */
+    private String userWithStoredResults(String username, int readings) {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, password, email, created_at, tfa_code, role, is_enabled, is_validated_email)
+                VALUES (?, 'x', ?, ?, '000000', 'USER', 1, 1)
+                """, username, username + "@example.org", LocalDateTime.now().format(DateTimeConverter.FORMATTER));
+        jdbcTemplate.update("""
+                INSERT INTO configs (user_id, base_price, energy_price, energy_tax, vat_rate, monthly_advance,
+                                     additional_credit, due_day, sepa_processing_days, meter_identifier)
+                SELECT id, 13.75, 0.3125, 0.0205, 0.19, 62.0, 18.5, 15, 10, 'INC-METER' FROM users WHERE username = ?
+                """, username);
+
+        List<TrackingDto> history = new ArrayList<>();
+        LocalDate date = FIRST_READING;
+        double value = 20_431.2;
+        for (int i = 0; i < readings; i++) {
+            history.add(new TrackingDto(value, format(date)));
+            date = date.plusDays(9 + (i * 7) % 26);
+            value += 21.4 + (i % 5) * 6.8;
+        }
+        assertEquals(readings, trackingService.importEntries(username, history).imported());
+
+        calculationService.saveResultsInEntity(user(username), fullRebuild(username));
+        assertEquals(readings - 1, storedResults(username).size());
+        return username;
+    }
+
+    private void assertMatchesFullRebuild(String username) {
+        Map<LocalDateTime, ResultRow> expected = new HashMap<>();
+        for (CalculationResultsDto result : fullRebuild(username)) {
+            ResultRow row = new ResultRow(result.periodStart().atStartOfDay(), result.periodEnd().atStartOfDay(),
+                    result.daysPeriod(), result.paidAmountPeriod(), result.totalCostsPeriod(), result.costDiffPeriod(),
+                    result.sumUsedEnergy(), result.usedEnergyPerDay());
+            expected.put(row.periodEnd(), row);
+        }
+        assertEquals(expected, storedResults(username));
+    }
+
+    private List<CalculationResultsDto> fullRebuild(String username) {
+        return calculationService.prepareFullCalculation(user(username), configService.getConfigByUsername(username))
+                .map(PeriodCalculator.PreparedCalculation::compute)
+                .orElseThrow();
+    }
+
+    private Map<LocalDateTime, ResultRow> storedResults(String username) {
+        return calculationBatchRepository.findAllByUserIdKeyedByPeriodEnd(user(username).getId());
+    }
+
+    private List<TrackingEntity> readings(String username) {
+        return trackingService.getEntries(username, null, null, 1000, null).items();
+    }
+
+    private UserEntity user(String username) {
+        return userService.findUserByName(username);
+    }
+
+    private static String format(LocalDate date) {
+        return date.format(AppConstants.JSON_DATE_FORMATTER);
+    }
+}
@@ -0,0 +1,205 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CalculationKernel gegen die ursprüngliche Einzelberechnung pro Periode (calculateSinglePeriod vor der Umstellung
+ * auf spaltenweise Arrays). Die Rechenreihenfolge ist unverändert, die Ergebnisse müssen daher bitgleich sein –
+ * seriell, bei langen Reihen oberhalb der Parallelisierungsgrenze und bei mehreren Eingaben per Fork/Join.
+ */
+class CalculationKernelTest {
+
+    @Test
+    void shortSeriesMatchesPerPeriodCalculation() {
+        ConfigEntity config = config(11.9, 0.2874, 0.0205, 0.19, 74.0, 0.0, 3, 14);
+        Series series = Series.irregular(new Random(7), LocalDate.of(2024, 1, 28), 8_412.6, 60);
+
+        assertEquals(baseline(config, series), kernel(config, series));
+    }
+
+    @Test
+    void skippedAdvanceAndNegativeConsumptionMatchPerPeriodCalculation() {
+        // Fälligkeit drei Tage nach dem Referenzdatum: ein Abschlag entfällt; Zählerstände fallen teils (Korrektur)
+        ConfigEntity config = config(15.2, 0.3412, 0.0205, 0.07, 55.5, -12.75, 20, 5);
+        Series series = Series.withCorrections(new Random(99), LocalDate.of(2025, 2, 17), 301.0, 45);
+
+        List<CalculationResultsDto> expected = baseline(config, series);
+        assertEquals(1, skippedMonths(series.refDate(), 20, 5));
+        assertEquals(expected, kernel(config, series));
+    }
+
+    @Test
+    void computeAllSplitsLongSeriesAndMatchesPerPeriodCalculation() {
+        // Eine Reihe oberhalb der Parallelisierungsgrenze (Aufteilung innerhalb der Eingabe) und mehrere kurze Reihen
+        List<ConfigEntity> configs = List.of(
+                config(11.9, 0.2874, 0.0205, 0.19, 74.0, 0.0, 3, 14),
+                config(9.5, 0.3099, 0.0205, 0.19, 41.0, 7.3, 28, 10),
+                config(14.0, 0.2651, 0.0, 0.16, 89.0, 0.0, 1, 0),
+                config(12.35, 0.3311, 0.0205, 0.19, 63.0, 25.0, 15, 30)
+        );
+        Random random = new Random(2024);
+        List<Series> series = List.of(
+                Series.daily(random, LocalDate.of(1996, 5, 1), 45_000.0, 10_500),
+                Series.irregular(random, LocalDate.of(2022, 9, 30), 1_120.4, 17),
+                Series.irregular(random, LocalDate.of(2023, 12, 31), 77_301.9, 1),
+                Series.irregular(random, LocalDate.of(2020, 2, 29), 5_000.0, 380)
+        );
+
+        List<CalculationKernel.Input> inputs = new ArrayList<>();
+        for (int u = 0; u < series.size(); u++) {
+            inputs.add(prepare(configs.get(u), series.get(u)).input());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CalculationKernel.Periods> periods = CalculationKernel.computeAll(inputs, pool);
+
+            assertEquals(series.size(), periods.size());
+            for (int u = 0; u < series.size(); u++) {
+                List<CalculationResultsDto> results = prepare(configs.get(u), series.get(u)).toResults(periods.get(u));
+                assertEquals(baseline(configs.get(u), series.get(u)), results, "Eingabe " + u);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void serialAndForkJoinResultsAreIdentical() {
+        ConfigEntity config = config(10.0, 0.30, 0.0205, 0.19, 50.0, 0.0, 10, 14);
+        Series series = Series.daily(new Random(3), LocalDate.of(2001, 1, 1), 0.0, 9_000);
+        CalculationKernel.Input input = prepare(config, series).input();
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            CalculationKernel.Periods serial = CalculationKernel.compute(input);
+            CalculationKernel.Periods parallel = CalculationKernel.computeAll(List.of(input), pool).getFirst();
+
+            assertArrayEquals(serial.daysPeriod(), parallel.daysPeriod());
+            assertArrayEquals(serial.totalCostsPeriod(), parallel.totalCostsPeriod());
+            assertArrayEquals(serial.paidAmountPeriod(), parallel.paidAmountPeriod());
+            assertArrayEquals(serial.costDiffPeriod(), parallel.costDiffPeriod());
+            assertArrayEquals(serial.sumUsedEnergy(), parallel.sumUsedEnergy());
+            assertArrayEquals(serial.usedEnergyPerDay(), parallel.usedEnergyPerDay());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<CalculationResultsDto> kernel(ConfigEntity config, Series series) {
+        return prepare(config, series).compute();
+    }
+
+    private static PeriodCalculator.PreparedCalculation prepare(ConfigEntity config, Series series) {
+        int[] epochDays = new int[series.dates().size()];
+        double[] readings = new double[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = (int) series.dates().get(i).toEpochDay();
+            readings[i] = series.values().get(i);
+        }
+        return PeriodCalculator.prepare(series.refDate(), series.refValue(), epochDays, readings, config, TariffSchedule.EMPTY);
+    }
+
+    /** Ursprüngliche Berechnung: jede Periode einzeln vom Referenzeintrag bis zur Ablesung */
+    private static List<CalculationResultsDto> baseline(ConfigEntity config, Series series) {
+        List<CalculationResultsDto> results = new ArrayList<>();
+        for (int i = 0; i < series.dates().size(); i++) {
+            results.add(baselinePeriod(config, series.refDate(), series.refValue(), series.dates().get(i), series.values().get(i)));
+        }
+        return results;
+    }
+
+    private static CalculationResultsDto baselinePeriod(ConfigEntity config, LocalDate refDate, double refValue,
+                                                        LocalDate date, double value) {
+        int DAYS_IN_YEAR = 365;
+        int MONTHS_IN_YEAR = 12;
+
+        long daysBetween = ChronoUnit.DAYS.between(refDate, date);
+        double diffTrackedValues = value - refValue;
+        int skipped = skippedMonths(refDate, config.getDueDay(), config.getSepaProcessingDays());
+
+        double normConsumptionPerDay   = diffTrackedValues / daysBetween;
+        double netConsumptionPrice     = config.getEnergyPrice() / (1 + config.getVatRate()) - config.getEnergyTax();
+        double netConsumptionCostPeriod = diffTrackedValues * netConsumptionPrice;
+        double netBasePrice            = config.getBasePrice() / (1 + config.getVatRate());
+        double netBaseCostPeriod       = netBasePrice * MONTHS_IN_YEAR / DAYS_IN_YEAR * daysBetween;
+        double netEnergyTaxCostPeriod  = config.getEnergyTax() * diffTrackedValues;
+        double netTotalCostPeriod      = netConsumptionCostPeriod + netBaseCostPeriod + netEnergyTaxCostPeriod;
+        double bruttoTotalCostPeriod   = netTotalCostPeriod * (1 + config.getVatRate());
+        double paidAmountPeriod        = config.getMonthlyAdvance() * (MONTHS_IN_YEAR - skipped) / DAYS_IN_YEAR * daysBetween;
+        double costDiffPeriod          = (paidAmountPeriod - bruttoTotalCostPeriod) + config.getAdditionalCredit();
+
+        return new CalculationResultsDto(config.getMeterIdentifier(), refDate, date, daysBetween, paidAmountPeriod,
+                bruttoTotalCostPeriod, diffTrackedValues, costDiffPeriod, normConsumptionPerDay,
+                skipped > 0 ? " " + skipped + " Abrechnungsmonat(e) wurde(n) übersprungen." : null);
+    }
+
+    private static int skippedMonths(LocalDate startDate, int dueDay, int sepaProcessingDays) {
+        LocalDate due = startDate.withDayOfMonth(dueDay);
+        if (due.isBefore(startDate)) { due = due.plusMonths(1); }
+        return ChronoUnit.DAYS.between(startDate, due) <= sepaProcessingDays ? 1 : 0;
+    }
+
+    private static ConfigEntity config(double basePrice, double energyPrice, double energyTax, double vatRate,
+                                       double monthlyAdvance, double additionalCredit, int dueDay, int sepaDays) {
+        ConfigEntity config = new ConfigEntity();
+        config.setBasePrice(basePrice);
+        config.setEnergyPrice(energyPrice);
+        config.setEnergyTax(energyTax);
+        config.setVatRate(vatRate);
+        config.setMonthlyAdvance(monthlyAdvance);
+        config.setAdditionalCredit(additionalCredit);
+        config.setDueDay(dueDay);
+        config.setSepaProcessingDays(sepaDays);
+        config.setMeterIdentifier("KERNEL-" + dueDay);
+        return config;
+    }
+
+    /** Referenzeintrag und Ablesungen danach (aufsteigend) */
+    private record Series(LocalDate refDate, double refValue, List<LocalDate> dates, List<Double> values) {
+
+        /** Abstände von 1 bis 45 Tagen, Verbrauch mit Nachkommastellen (auch 0 kWh) */
+        static Series irregular(Random random, LocalDate refDate, double refValue, int readings) {
+            return generate(random, refDate, refValue, readings, 45, false);
+        }
+
+        /** Tägliche Ablesungen (lange Historie) */
+        static Series daily(Random random, LocalDate refDate, double refValue, int readings) {
+            return generate(random, refDate, refValue, readings, 1, false);
+        }
+
+        /** Wie irregular, aber gelegentlich kleinere Zählerstände als zuvor */
+        static Series withCorrections(Random random, LocalDate refDate, double refValue, int readings) {
+            return generate(random, refDate, refValue, readings, 45, true);
+        }
+
+        private static Series generate(Random random, LocalDate refDate, double refValue, int readings,
+                                       int maxGap, boolean corrections) {
+            List<LocalDate> dates = new ArrayList<>(readings);
+            List<Double> values = new ArrayList<>(readings);
+            LocalDate date = refDate;
+            double value = refValue;
+
+            for (int i = 0; i < readings; i++) {
+                date = date.plusDays(1 + random.nextInt(maxGap));
+                double step = random.nextInt(10) == 0 ? 0 : random.nextDouble() * 40;
+                value += (corrections && random.nextInt(4) == 0) ? -step : step;
+                dates.add(date);
+                values.add(value);
+            }
+            return new Series(refDate, refValue, dates, values);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package eco.backend.main_app.feature.calculation;
+
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffRepository.Tier;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perioden mit Tarifversionen: Jede Periode wird an den Gültigkeitsgrenzen aufgeteilt, der Zählerstand an einer
+ * Grenze wird zwischen den benachbarten Ablesungen interpoliert. Erwartet wird die Summe der Abschnitte, jeweils
+ * nach der ursprünglichen Formel pro Periode berechnet (Staffelpreise als Integral über den Verbrauch seit dem
+ * Referenzdatum).
+ */
+class TariffSegmentTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private static final LocalDate REFERENCE = LocalDate.of(2024, 1, 16);
+
+    @Test
+    void boundariesBetweenAndOnReadingsMatchSummedSegments() {
+        ConfigEntity config = config();
+        TariffSchedule schedule = new TariffSchedule(List.of(
+                version(1, LocalDate.of(2024, 3, 1), 14.2, 0.331, 0.0205, 0.19, List.of()),
+                version(2, LocalDate.of(2024, 3, 20), 14.2, 0.312, 0.0205, 0.07, List.of()),    // gleiche Periode wie die vorherige Grenze
+                version(3, LocalDate.of(2024, 5, 2), 15.0, 0.298, 0.0, 0.19, List.of()),         // genau auf einer Ablesung
+                version(4, LocalDate.of(2025, 6, 1), 99.0, 9.99, 0.0205, 0.19, List.of())));     // nach der letzten Ablesung
+
+        assertSegmented(config, schedule, readings(
+                LocalDate.of(2024, 2, 10), LocalDate.of(2024, 4, 7), LocalDate.of(2024, 5, 2),
+                LocalDate.of(2024, 5, 3), LocalDate.of(2024, 8, 30), LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void versionBeforeReferenceAppliesFromReferenceDate() {
+        ConfigEntity config = config();
+        TariffSchedule schedule = new TariffSchedule(List.of(
+                version(1, LocalDate.of(2023, 7, 1), 16.0, 0.355, 0.0205, 0.19, List.of()),
+                version(2, LocalDate.of(2024, 6, 15), 13.0, 0.301, 0.0205, 0.19, List.of())));
+
+        assertSegmented(config, schedule, readings(
+                LocalDate.of(2024, 1, 30), LocalDate.of(2024, 6, 14), LocalDate.of(2024, 6, 16), LocalDate.of(2024, 9, 9)));
+    }
+
+    @Test
+    void tiersAreCountedFromReferenceAcrossBoundaries() {
+        ConfigEntity config = config();
+        TariffSchedule schedule = new TariffSchedule(List.of(
+                version(1, LocalDate.of(2024, 2, 20), 12.0, 0.30, 0.0205, 0.19,
+                        List.of(new Tier(150, 0.36), new Tier(420, 0.44))),
+                version(2, LocalDate.of(2024, 7, 1), 12.5, 0.28, 0.0205, 0.19,
+                        List.of(new Tier(300, 0.33)))));
+
+        // Ein Abschnitt überschreitet mehrere Stufen, ein anderer liegt vollständig in einer Stufe
+        assertSegmented(config, schedule, readings(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 15), LocalDate.of(2024, 4, 1),
+                LocalDate.of(2024, 6, 20), LocalDate.of(2024, 7, 12), LocalDate.of(2024, 11, 2)));
+    }
+
+    @Test
+    void singlePeriodMatchesSameReadingInFullSeries() {
+        // Der inkrementelle Modus berechnet einzelne Perioden; ohne Zwischenablesung wird über die ganze Periode interpoliert
+        ConfigEntity config = config();
+        TariffSchedule schedule = new TariffSchedule(List.of(
+                version(1, LocalDate.of(2024, 4, 1), 14.0, 0.32, 0.0205, 0.19, List.of())));
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        double value = 1_000.0 + 3.1 * ChronoUnit.DAYS.between(REFERENCE, date);
+
+        CalculationResultsDto single = PeriodCalculator.calculateSinglePeriod(REFERENCE, 1_000.0, date, value, config, schedule);
+        CalculationResultsDto expected = expectedPeriod(config, schedule, List.of(REFERENCE), List.of(1_000.0), date, value);
+        assertEquals(expected.totalCostsPeriod(), single.totalCostsPeriod(), TOLERANCE);
+        assertEquals(expected.costDiffPeriod(), single.costDiffPeriod(), TOLERANCE);
+    }
+
+    /** Kernel (alle Perioden in einem Durchlauf) gegen die Abschnittssumme pro Periode */
+    private static void assertSegmented(ConfigEntity config, TariffSchedule schedule, Readings readings) {
+        int[] epochDays = new int[readings.dates().size()];
+        double[] values = new double[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = (int) readings.dates().get(i).toEpochDay();
+            values[i] = readings.values().get(i);
+        }
+        List<CalculationResultsDto> actual = PeriodCalculator.prepare(REFERENCE, readings.values().getFirst() - readings.firstStep(),
+                epochDays, values, config, schedule).compute();
+
+        List<LocalDate> pointDates = new ArrayList<>(List.of(REFERENCE));
+        List<Double> pointValues = new ArrayList<>(List.of(readings.values().getFirst() - readings.firstStep()));
+        pointDates.addAll(readings.dates());
+        pointValues.addAll(readings.values());
+
+        assertEquals(epochDays.length, actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            CalculationResultsDto expected = expectedPeriod(config, schedule, pointDates, pointValues,
+                    readings.dates().get(i), readings.values().get(i));
+            CalculationResultsDto period = actual.get(i);
+
+            assertEquals(expected.periodEnd(), period.periodEnd());
+            assertEquals(expected.daysPeriod(), period.daysPeriod());
+            assertEquals(expected.sumUsedEnergy(), period.sumUsedEnergy(), TOLERANCE);
+            assertEquals(expected.paidAmountPeriod(), period.paidAmountPeriod(), TOLERANCE);
+            assertEquals(expected.totalCostsPeriod(), period.totalCostsPeriod(), TOLERANCE, "Periode bis " + period.periodEnd());
+            assertEquals(expected.costDiffPeriod(), period.costDiffPeriod(), TOLERANCE, "Periode bis " + period.periodEnd());
+        }
+    }
+
+    /**
+     * Erwartete Periode vom Referenzdatum bis 'end': Grenzen innerhalb der Periode teilen sie in Abschnitte,
+     * der Zählerstand an einer Grenze wird zwischen der letzten Ablesung davor und der ersten am oder nach der
+     * Grenze interpoliert (Ablesungen nach 'end' sind für die Periode unbekannt).
+     */
+    private static CalculationResultsDto expectedPeriod(ConfigEntity config, TariffSchedule schedule,
+                                                        List<LocalDate> pointDates, List<Double> pointValues,
+                                                        LocalDate end, double endValue) {
+        double refValue = pointValues.getFirst();
+        List<LocalDate> cuts = new ArrayList<>(List.of(REFERENCE));
+        for (TariffVersion version : schedule.versions()) {
+            if (version.validFrom().isAfter(REFERENCE) && version.validFrom().isBefore(end)) { cuts.add(version.validFrom()); }
+        }
+        cuts.add(end);
+
+        double brutto = 0;
+        for (int s = 0; s + 1 < cuts.size(); s++) {
+            LocalDate from = cuts.get(s), to = cuts.get(s + 1);
+            double fromUsed = readingAt(pointDates, pointValues, from, end, endValue) - refValue;
+            double toUsed = readingAt(pointDates, pointValues, to, end, endValue) - refValue;
+            brutto += segmentCost(config, schedule.versionAt(from), ChronoUnit.DAYS.between(from, to), fromUsed, toUsed);
+        }
+
+        long days = ChronoUnit.DAYS.between(REFERENCE, end);
+        double paid = config.getMonthlyAdvance() * (12 - skippedMonths(config)) / 365 * days;
+        return new CalculationResultsDto(config.getMeterIdentifier(), REFERENCE, end, days, paid, brutto,
+                endValue - refValue, (paid - brutto) + config.getAdditionalCredit(), (endValue - refValue) / days, null);
+    }
+
+    /** Brutto-Kosten eines Abschnitts wie in der ursprünglichen Einzelberechnung, Verbrauchskosten je Staffelstufe */
+    private static double segmentCost(ConfigEntity config, TariffVersion version, long days, double fromUsed, double toUsed) {
+        double vat = version == null ? config.getVatRate() : version.vatRate();
+        double tax = version == null ? config.getEnergyTax() : version.energyTax();
+        double basePrice = version == null ? config.getBasePrice() : version.basePrice();
+
+        List<double[]> tiers = new ArrayList<>();         // {ab Verbrauch, Brutto-Preis}
+        tiers.add(new double[]{Double.NEGATIVE_INFINITY, version == null ? config.getEnergyPrice() : version.energyPrice()});
+        if (version != null) {
+            for (Tier tier : version.tiers()) { tiers.add(new double[]{tier.fromKwh(), tier.energyPrice()}); }
+        }
+
+        double netConsumptionCost = 0;
+        for (int k = 0; k < tiers.size(); k++) {
+            double lower = tiers.get(k)[0];
+            double upper = k + 1 < tiers.size() ? tiers.get(k + 1)[0] : Double.POSITIVE_INFINITY;
+            double inTier = Math.max(0, Math.min(toUsed, upper) - Math.max(fromUsed, lower));
+            netConsumptionCost += inTier * (tiers.get(k)[1] / (1 + vat) - tax);
+        }
+
+        double netBaseCost = basePrice / (1 + vat) * 12 / 365 * days;
+        double netEnergyTaxCost = tax * (toUsed - fromUsed);
+        return (netConsumptionCost + netBaseCost + netEnergyTaxCost) * (1 + vat);
+    }
+
+    /** Zählerstand an einem Tag: linear zwischen der letzten Ablesung davor und der ersten ab dem Tag (höchstens 'end') */
+    private static double readingAt(List<LocalDate> dates, List<Double> values, LocalDate day, LocalDate end, double endValue) {
+        int before = 0;
+        while (before + 1 < dates.size() && dates.get(before + 1).isBefore(day)) { before++; }
+        LocalDate afterDate = before + 1 < dates.size() && !dates.get(before + 1).isAfter(end) ? dates.get(before + 1) : end;
+        double afterValue = afterDate.equals(end) ? endValue : values.get(before + 1);
+
+        if (!dates.get(before).isBefore(day)) { return values.get(before); }
+        double share = (double) ChronoUnit.DAYS.between(dates.get(before), day) / ChronoUnit.DAYS.between(dates.get(before), afterDate);
+        return values.get(before) + (afterValue - values.get(before)) * share;
+    }
+
+    private static int skippedMonths(ConfigEntity config) {
+        LocalDate due = REFERENCE.withDayOfMonth(config.getDueDay());
+        if (due.isBefore(REFERENCE)) { due = due.plusMonths(1); }
+        return ChronoUnit.DAYS.between(REFERENCE, due) <= config.getSepaProcessingDays() ? 1 : 0;
+    }
+
+    /** Ablesungen nach dem Referenzdatum mit unterschiedlichem Tagesverbrauch (der Referenzstand liegt 'firstStep' darunter) */
+    private static Readings readings(LocalDate... dates) {
+        List<Double> values = new ArrayList<>();
+        LocalDate previous = REFERENCE;
+        double value = 5_000.0;
+        double firstStep = 0;
+        for (int i = 0; i < dates.length; i++) {
+            double step = ChronoUnit.DAYS.between(previous, dates[i]) * (2.5 + i * 1.75);
+            if (i == 0) { firstStep = step; }
+            value += step;
+            values.add(value);
+            previous = dates[i];
+        }
+        return new Readings(List.of(dates), values, firstStep);
+    }
+
+    private record Readings(List<LocalDate> dates, List<Double> values, double firstStep) {}
+
+    private static TariffVersion version(long id, LocalDate validFrom, double basePrice, double energyPrice,
+                                         double energyTax, double vatRate, List<Tier> tiers) {
+        return new TariffVersion(id, validFrom, basePrice, energyPrice, energyTax, vatRate, tiers);
+    }
+
+    private static ConfigEntity config() {
+        ConfigEntity config = new ConfigEntity();
+        config.setBasePrice(11.5);
+        config.setEnergyPrice(0.347);
+        config.setEnergyTax(0.0205);
+        config.setVatRate(0.19);
+        config.setMonthlyAdvance(68.0);
+        config.setAdditionalCredit(4.2);
+        config.setDueDay(22);
+        config.setSepaProcessingDays(10);
+        config.setMeterIdentifier("SEGMENT-METER");
+        return config;
+    }
+}
@@ -0,0 +1,258 @@
+package eco.backend.main_app.feature.rollup;
+
+import eco.backend.main_app.feature.calculation.CalculationService;
+import eco.backend.main_app.feature.calculation.dto.CalculationRequestDto;
+import eco.backend.main_app.feature.calculation.dto.CalculationResultsDto;
+import eco.backend.main_app.feature.configuration.TariffRepository.TariffVersion;
+import eco.backend.main_app.feature.configuration.TariffRepository.Tier;
+import eco.backend.main_app.feature.configuration.TariffSchedule;
+import eco.backend.main_app.feature.configuration.TariffService;
+import eco.backend.main_app.feature.configuration.dto.TariffVersionDto;
+import eco.backend.main_app.feature.configuration.model.ConfigEntity;
+import eco.backend.main_app.feature.rollup.RollupRepository.DayRow;
+import eco.backend.main_app.feature.rollup.RollupRepository.DayTariff;
+import eco.backend.main_app.feature.rollup.RollupRepository.ReadingPoint;
+import eco.backend.main_app.feature.rollup.RollupRepository.TierStep;
+import eco.backend.main_app.feature.rollup.dto.RollupDto;
+import eco.backend.main_app.feature.tracking.TrackingService;
+import eco.backend.main_app.feature.tracking.dto.TrackingDto;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verbrauchsaggregate: Verteilung auf Tage, Aufteilung an Tarifgrenzen und die Neuberechnung von Tagen, Monaten
+ * und Jahren nach Änderungen. Erwartete Tageswerte werden unabhängig pro Tag aus den Ablesungen bestimmt; mit
+ * Staffelpreisen müssen die summierten Tageskosten den Gesamtkosten der Berechnung entsprechen.
+ */
+@SpringBootTest
+class RollupServiceTest {
+
+    private static final double ENERGY_PRICE = 0.3217;
+    private static final double BASE_PRICE = 12.4;
+    private static final double TOLERANCE = 1e-9;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private TrackingService trackingService;
+
+    @Autowired
+    private TariffService tariffService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempDirectory("eco-rollup-test").resolve("eco_app.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database + "?foreign_keys=true");
+    }
+
+    @Test
+    void interpolateSpreadsConsumptionUntilNextReading() {
+        LocalDate day = LocalDate.of(2024, 2, 27);
+        List<DayRow> rows = RollupService.interpolate(List.of(
+                new ReadingPoint(day, 100.0),
+                new ReadingPoint(day.plusDays(4), 112.0),
+                new ReadingPoint(day.plusDays(4), 113.0),       // selber Tag: kein eigenes Intervall
+                new ReadingPoint(day.plusDays(5), 113.5)
+        ));
+
+        assertEquals(List.of(
+                new DayRow(day, 100.0, 3.0),
+                new DayRow(day.plusDays(1), 103.0, 3.0),
+                new DayRow(day.plusDays(2), 106.0, 3.0),
+                new DayRow(day.plusDays(3), 109.0, 3.0),
+                new DayRow(day.plusDays(4), 113.0, 0.5)), rows);
+        assertTrue(RollupService.interpolate(List.of(new ReadingPoint(day, 1.0))).isEmpty());
+    }
+
+    @Test
+    void dayTariffsSplitAtVersionBoundaries() {
+        ConfigEntity config = new ConfigEntity();
+        config.setEnergyPrice(ENERGY_PRICE);
+        config.setBasePrice(BASE_PRICE);
+
+        LocalDate first = LocalDate.of(2024, 4, 1), second = LocalDate.of(2024, 7, 15);
+        TariffSchedule schedule = new TariffSchedule(List.of(
+                new TariffVersion(1, first, 13.0, 0.35, 0.0205, 0.19, List.of(new Tier(500, 0.40), new Tier(1500, 0.45))),
+                new TariffVersion(2, second, 14.0, 0.30, 0.0205, 0.19, List.of())));
+
+        LocalDate from = LocalDate.of(2024, 1, 1), to = LocalDate.of(2024, 12, 1);
+        assertEquals(List.of(
+                new DayTariff(from, first, ENERGY_PRICE, BASE_PRICE, List.of()),
+                new DayTariff(first, second, 0.35, 13.0, List.of(new TierStep(10_500, 0.40 - 0.35), new TierStep(11_500, 0.45 - 0.40))),
+                new DayTariff(second, to, 0.30, 14.0, List.of())), RollupService.dayTariffs(config, schedule, 10_000.0, from, to));
+
+        // Ohne Referenzstand keine Staffelstufen; Zeitraum innerhalb einer Version
+        assertEquals(List.of(new DayTariff(first.plusDays(3), first.plusDays(10), 0.35, 13.0, List.of())),
+                RollupService.dayTariffs(config, schedule, null, first.plusDays(3), first.plusDays(10)));
+    }
+
+    @Test
+    void daysMonthsAndYearsFollowChangedReadings() {
+        String username = user("rollup-changes");
+        List<TrackingDto> history = new ArrayList<>();
+        LocalDate date = LocalDate.of(2023, 11, 20);
+        double value = 3_100.0;
+        for (int i = 0; i < 18; i++) {
+            history.add(new TrackingDto(value, format(date)));
+            date = date.plusDays(11 + (i * 13) % 29);
+            value += 55.0 + (i % 4) * 17.25;
+        }
+        trackingService.importEntries(username, history);
+        assertMatchesPerDayRecomputation(username);
+
+        List<TrackingEntity> entries = readings(username);
+
+        // Wert ändern (betrifft die Intervalle vor und nach dem Eintrag)
+        TrackingEntity changed = entries.get(6);
+        trackingService.updateEntryById(username, changed.getId(), new TrackingDto(changed.getReadingValue() + 9.5, ""));
+        assertMatchesPerDayRecomputation(username);
+
+        // Datum über eine Monatsgrenze verschieben
+        TrackingEntity moved = entries.get(10);
+        LocalDate movedTo = entries.get(11).getTimestamp().toLocalDate().minusDays(1);
+        trackingService.updateEntryById(username, moved.getId(), new TrackingDto(null, format(movedTo)));
+        assertMatchesPerDayRecomputation(username);
+
+        // Löschen (Nachbarintervalle verschmelzen) und neuen Eintrag am Ende anhängen
+        trackingService.deleteEntryById(username, entries.get(3).getId());
+        assertMatchesPerDayRecomputation(username);
+
+        TrackingEntity last = entries.getLast();
+        trackingService.addEntry(username, new TrackingDto(last.getReadingValue() + 140.0, format(last.getTimestamp().toLocalDate().plusDays(47))));
+        assertMatchesPerDayRecomputation(username);
+    }
+
+    @Test
+    void tieredDayCostsAddUpToCalculatedPeriodCosts() {
+        String username = user("rollup-tiers");
+        List<TrackingDto> history = new ArrayList<>();
+        LocalDate date = LocalDate.of(2024, 1, 8);
+        double value = 8_020.0;
+        for (int i = 0; i < 14; i++) {
+            history.add(new TrackingDto(value, format(date)));
+            date = date.plusDays(20 + (i * 5) % 17);
+            value += 130.0 + (i % 3) * 45.5;
+        }
+        trackingService.importEntries(username, history);
+
+        tariffService.addVersion(username, new TariffVersionDto(null, "01.04.2024", 13.1, 0.335, null, null,
+                List.of(new TariffVersionDto.Tier(600.0, 0.37), new TariffVersionDto.Tier(1_400.0, 0.41))));
+        tariffService.addVersion(username, new TariffVersionDto(null, "19.09.2024", null, 0.29, null, 0.16, null));
+        assertMatchesCalculation(username);
+
+        // Geänderter Referenzstand verschiebt alle Staffelgrenzen
+        TrackingEntity reference = readings(username).getFirst();
+        trackingService.updateEntryById(username, reference.getId(), new TrackingDto(reference.getReadingValue() - 250.0, ""));
+        assertMatchesCalculation(username);
+    }
+
+    /** Tageswerte unabhängig pro Tag (umgebende Ablesungen suchen), Monate und Jahre als Summe der Tage */
+    private void assertMatchesPerDayRecomputation(String username) {
+        List<TrackingEntity> entries = readings(username);
+        TreeMap<LocalDate, double[]> expectedDays = new TreeMap<>();
+
+        for (LocalDate day = date(entries.getFirst()); day.isBefore(date(entries.getLast())); day = day.plusDays(1)) {
+            TrackingEntity before = null, after = null;
+            for (TrackingEntity entry : entries) {
+                if (!date(entry).isAfter(day)) { before = entry; }
+                if (after == null && date(entry).isAfter(day)) { after = entry; }
+            }
+            double energy = (after.getReadingValue() - before.getReadingValue()) / ChronoUnit.DAYS.between(date(before), date(after));
+            expectedDays.put(day, new double[]{energy, energy * ENERGY_PRICE + BASE_PRICE * 12.0 / 365, 1});
+        }
+
+        assertRollups(expectedDays, rollupService.getRollups(username, "day", null, null));
+        assertRollups(sum(expectedDays, day -> day.withDayOfMonth(1)), rollupService.getRollups(username, "month", null, null));
+        assertRollups(sum(expectedDays, day -> day.withDayOfYear(1)), rollupService.getRollups(username, "year", null, null));
+    }
+
+    /** Summe der Tageskosten vom Referenzdatum bis zu jeder Ablesung gegen die Gesamtkosten der Periode */
+    private void assertMatchesCalculation(String username) {
+        List<TrackingEntity> entries = readings(username);
+        List<RollupDto> days = rollupService.getRollups(username, "day", null, null);
+        List<CalculationResultsDto> periods = calculationService.runCalculation(username,
+                new CalculationRequestDto(format(date(entries.getLast()))));
+
+        assertEquals(entries.size() - 1, periods.size());
+        for (CalculationResultsDto period : periods) {
+            double costs = days.stream()
+                    .filter(day -> day.periodStart().isBefore(period.periodEnd()))
+                    .mapToDouble(RollupDto::totalCosts)
+                    .sum();
+            assertEquals(period.totalCostsPeriod(), costs, TOLERANCE, "Periode bis " + period.periodEnd());
+        }
+    }
+
+    private static TreeMap<LocalDate, double[]> sum(TreeMap<LocalDate, double[]> days, Function<LocalDate, LocalDate> period) {
+        TreeMap<LocalDate, double[]> sums = new TreeMap<>();
+        days.forEach((day, values) -> {
+            double[] total = sums.computeIfAbsent(period.apply(day), start -> new double[3]);
+            for (int k = 0; k < 3; k++) { total[k] += values[k]; }
+        });
+        return sums;
+    }
+
+    private static void assertRollups(Map<LocalDate, double[]> expected, List<RollupDto> actual) {
+        assertEquals(new ArrayList<>(expected.keySet()), actual.stream().map(RollupDto::periodStart).toList());
+        for (RollupDto rollup : actual) {
+            double[] values = expected.get(rollup.periodStart());
+            assertEquals(values[0], rollup.usedEnergy(), TOLERANCE, "Verbrauch " + rollup.periodStart());
+            assertEquals(values[1], rollup.totalCosts(), TOLERANCE, "Kosten " + rollup.periodStart());
+            assertEquals((int) values[2], rollup.daysCovered(), "Tage " + rollup.periodStart());
+        }
+    }
+
+    private List<TrackingEntity> readings(String username) {
+        return trackingService.getEntries(username, null, null, 1000, null).items();
+    }
+
+    private static LocalDate date(TrackingEntity entry) {
+        return entry.getTimestamp().toLocalDate();
+    }
+
+    private static String format(LocalDate date) {
+        return date.format(AppConstants.JSON_DATE_FORMATTER);
+    }
+
+    /** User mit Config (Tarif der Aggregate ohne Tarifversionen) */
+    private String user(String username) {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, password, email, created_at, tfa_code, role, is_enabled, is_validated_email)
+                VALUES (?, 'x', ?, ?, '000000', 'USER', 1, 1)
+                """, username, username + "@example.org", LocalDateTime.now().format(DateTimeConverter.FORMATTER));
+        jdbcTemplate.update("""
+                INSERT INTO configs (user_id, base_price, energy_price, energy_tax, vat_rate, monthly_advance,
+                                     additional_credit, due_day, sepa_processing_days, meter_identifier)
+                SELECT id, ?, ?, 0.0205, 0.19, 80.0, 0.0, 28, 7, 'ROLLUP-METER' FROM users WHERE username = ?
+                """, BASE_PRICE, ENERGY_PRICE, username);
+        return username;
+    }
+}
@@ -0,0 +1,278 @@
+package eco.backend.main_app.feature.tracking;
+
+import eco.backend.main_app.feature.auth.model.UserEntity;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReadingIndex gegen die Abfragen, die er ersetzt (neuester Eintrag, Vorgänger/Nachfolger per Datenbank-Query).
+ * Das Repository wird durch eine Liste im Speicher ersetzt, die Abfragen werden als lineare Suche nachgebildet.
+ * Ohne aktive Transaktion werden Änderungen sofort in den Index übernommen.
+ */
+class ReadingIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2021, 6, 1);
+
+    private final Map<Long, List<TrackingEntity>> rows = new HashMap<>();
+    private final Map<Long, Integer> loads = new HashMap<>();
+    private long nextId = 1;
+    private Consumer<Long> duringLoad = userId -> {};
+
+    @Test
+    void seriesFloorAndCeilingFollowSortedDays() {
+        ReadingIndex.ReadingSeries series = new ReadingIndex.ReadingSeries(2);
+        for (int day : new int[]{40, 10, 30, 20, 30}) {
+            series.insert(day, day * 1.5, day);
+        }
+
+        assertEquals(-1, series.floorIndex(9));
+        assertEquals(0, series.floorIndex(10));
+        assertEquals(3, series.floorIndex(30));
+        assertEquals(3, series.floorIndex(39));
+        assertEquals(4, series.floorIndex(99));
+
+        assertEquals(0, series.ceilingIndex(0));
+        assertEquals(2, series.ceilingIndex(21));
+        assertEquals(2, series.ceilingIndex(30));
+        assertEquals(5, series.ceilingIndex(41));
+
+        series.remove(30, 30);
+        assertEquals(2, series.floorIndex(30));
+        series.remove(30, 99);              // unbekannte ID: keine Änderung
+        assertEquals(2, series.floorIndex(30));
+        series.remove(30, 30);
+        assertEquals(1, series.floorIndex(30));
+        assertEquals(new ReadingIndex.Reading(40, LocalDate.ofEpochDay(40), 60.0), series.readingAt(2));
+    }
+
+    @Test
+    void lookupsMatchLinearSearchAfterInsertsUpdatesAndDeletes() {
+        ReadingIndex index = new ReadingIndex(repository(), 10_000);
+        UserEntity user = user(7L);
+        Random random = new Random(11);
+
+        List<LocalDate> freeDays = new ArrayList<>();
+        for (int d = 0; d < 400; d++) { freeDays.add(START.plusDays(d)); }
+
+        // Einträge in zufälliger Reihenfolge anlegen (je Tag höchstens ein Eintrag)
+        for (int i = 0; i < 150; i++) {
+            LocalDate day = freeDays.remove(random.nextInt(freeDays.size()));
+            index.save(entity(user, day, 1000 + i), null);
+        }
+        assertLookupsMatch(index, user, random);
+
+        // Datum verschieben, Wert ändern, löschen
+        for (int i = 0; i < 60; i++) {
+            List<TrackingEntity> stored = rows.get(user.getId());
+            TrackingEntity entry = stored.get(random.nextInt(stored.size()));
+
+            switch (i % 3) {
+                case 0 -> {
+                    LocalDateTime previous = entry.getTimestamp();
+                    freeDays.add(previous.toLocalDate());
+                    entry.setTimestamp(freeDays.remove(random.nextInt(freeDays.size())).atTime(12, 0));
+                    index.save(entry, previous);
+                }
+                case 1 -> {
+                    entry.setReadingValue(entry.getReadingValue() + 0.5);
+                    index.save(entry, entry.getTimestamp());
+                }
+                default -> {
+                    freeDays.add(entry.getTimestamp().toLocalDate());
+                    index.delete(entry);
+                }
+            }
+            assertLookupsMatch(index, user, random);
+        }
+        assertEquals(1, loads.get(user.getId()));
+    }
+
+    @Test
+    void sameDayEntriesKeepInsertionOrderAndHonourExcludedId() {
+        ReadingIndex index = new ReadingIndex(repository(), 100);
+        UserEntity user = user(3L);
+        LocalDate day = START.plusDays(5);
+
+        TrackingEntity before = index.save(entity(user, day.minusDays(2), 10.0), null);
+        TrackingEntity first = index.save(entity(user, day, 11.0), null);
+        TrackingEntity second = index.save(entity(user, day, 12.0), null);
+        TrackingEntity after = index.save(entity(user, day.plusDays(3), 13.0), null);
+
+        assertEquals(second.getId(), index.findPredecessor(user.getId(), day, null).orElseThrow().id());
+        assertEquals(first.getId(), index.findPredecessor(user.getId(), day, second.getId()).orElseThrow().id());
+        assertEquals(first.getId(), index.findSuccessor(user.getId(), day, null).orElseThrow().id());
+        assertEquals(second.getId(), index.findSuccessor(user.getId(), day, first.getId()).orElseThrow().id());
+        assertEquals(before.getId(), index.findPredecessor(user.getId(), day.minusDays(1), null).orElseThrow().id());
+        assertEquals(after.getId(), index.findNewest(user.getId()).orElseThrow().id());
+        assertTrue(index.findSuccessor(user.getId(), day.plusDays(3), after.getId()).isEmpty());
+        assertTrue(index.findPredecessor(user.getId(), day.minusDays(2), before.getId()).isEmpty());
+    }
+
+    @Test
+    void leastRecentlyUsedSeriesAreEvictedAboveMaxEntries() {
+        ReadingIndex index = new ReadingIndex(repository(), 10);
+        for (long userId = 1; userId <= 3; userId++) {
+            UserEntity user = user(userId);
+            for (int d = 0; d < 4; d++) { stored(user, START.plusDays(d), d); }
+        }
+
+        index.findNewest(1L);
+        index.findNewest(2L);
+        index.findNewest(1L);               // User 1 zuletzt genutzt
+        index.findNewest(3L);               // 12 Einträge > 10: User 2 wird verdrängt
+
+        index.findNewest(1L);
+        index.findNewest(3L);
+        index.findNewest(2L);
+        assertEquals(Map.of(1L, 1, 2L, 2, 3L, 1), loads);
+
+        // Wachstum durch neue Einträge wird angerechnet: User 2 wächst auf 8 Einträge und verdrängt User 3,
+        // das erneute Laden von User 1 verdrängt danach User 2
+        UserEntity user = user(2L);
+        for (int d = 10; d < 14; d++) { index.save(entity(user, START.plusDays(d), d), null); }
+        index.findNewest(2L);
+        index.findNewest(1L);
+        index.findNewest(3L);
+        index.findNewest(2L);
+        assertEquals(Map.of(1L, 2, 2L, 3, 3L, 2), loads);
+    }
+
+    @Test
+    void seriesAboveMaxEntriesIsNotCached() {
+        ReadingIndex index = new ReadingIndex(repository(), 5);
+        UserEntity user = user(9L);
+        for (int d = 0; d < 6; d++) { stored(user, START.plusDays(d), d); }
+
+        assertEquals(5.0, index.findNewest(9L).orElseThrow().value());
+        assertEquals(5.0, index.findNewest(9L).orElseThrow().value());
+        assertEquals(2, loads.get(9L));
+    }
+
+    @Test
+    void changeCommittedDuringLoadPreventsCachingOfStaleSeries() {
+        ReadingIndex index = new ReadingIndex(repository(), 100);
+        UserEntity user = user(4L);
+        TrackingEntity oldest = stored(user, START, 1.0);
+        stored(user, START.plusDays(1), 2.0);
+
+        // Während des ersten Ladens wird ein neuer Eintrag committed (der geladene Stand kennt ihn noch nicht)
+        duringLoad = userId -> {
+            duringLoad = id -> {};
+            index.save(entity(user, START.plusDays(2), 3.0), null);
+        };
+
+        assertEquals(2.0, index.findNewest(4L).orElseThrow().value());
+        assertEquals(3.0, index.findNewest(4L).orElseThrow().value());
+        assertEquals(3.0, index.findNewest(4L).orElseThrow().value());
+        assertEquals(2, loads.get(4L));
+
+        // Evict erzwingt ein erneutes Laden
+        index.evict(4L);
+        assertEquals(oldest.getId(), index.findPredecessor(4L, START, null).orElseThrow().id());
+        assertEquals(3, loads.get(4L));
+    }
+
+    /** Abfragen des Index gegen die lineare Suche über alle gespeicherten Einträge (Tage zufällig, inkl. Ränder) */
+    private void assertLookupsMatch(ReadingIndex index, UserEntity user, Random random) {
+        List<TrackingEntity> stored = rows.get(user.getId());
+        assertEquals(linearNewest(stored), index.findNewest(user.getId()));
+
+        for (int i = 0; i < 25; i++) {
+            LocalDate day = START.plusDays(random.nextInt(420) - 10);
+            Long excluded = random.nextBoolean() ? stored.get(random.nextInt(stored.size())).getId() : null;
+
+            assertEquals(linearNeighbour(stored, day, excluded, true), index.findPredecessor(user.getId(), day, excluded));
+            assertEquals(linearNeighbour(stored, day, excluded, false), index.findSuccessor(user.getId(), day, excluded));
+        }
+    }
+
+    private static Optional<ReadingIndex.Reading> linearNewest(List<TrackingEntity> stored) {
+        return stored.stream().max(Comparator.comparing(TrackingEntity::getTimestamp)).map(ReadingIndexTest::reading);
+    }
+
+    private static Optional<ReadingIndex.Reading> linearNeighbour(List<TrackingEntity> stored, LocalDate day,
+                                                                  Long excluded, boolean predecessor) {
+        Comparator<TrackingEntity> byTimestamp = Comparator.comparing(TrackingEntity::getTimestamp);
+        return stored.stream()
+                .filter(e -> !e.getId().equals(excluded))
+                .filter(e -> predecessor ? !e.getTimestamp().toLocalDate().isAfter(day) : !e.getTimestamp().toLocalDate().isBefore(day))
+                .max(predecessor ? byTimestamp : byTimestamp.reversed())
+                .map(ReadingIndexTest::reading);
+    }
+
+    private static ReadingIndex.Reading reading(TrackingEntity entity) {
+        return new ReadingIndex.Reading(entity.getId(), entity.getTimestamp().toLocalDate(), entity.getReadingValue());
+    }
+
+    /** Repository im Speicher: speichert, löscht und zählt die Ladevorgänge pro User */
+    private TrackingRepository repository() {
+        return (TrackingRepository) Proxy.newProxyInstance(
+                TrackingRepository.class.getClassLoader(),
+                new Class<?>[]{TrackingRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllProjectedByUserIdOrderByTimestampAsc" -> {
+                        Long userId = (Long) args[0];
+                        loads.merge(userId, 1, Integer::sum);
+                        List<TrackingRepository.ReadingView> views = rows.getOrDefault(userId, List.of()).stream()
+                                .sorted(Comparator.comparing(TrackingEntity::getTimestamp))
+                                .map(e -> (TrackingRepository.ReadingView) new View(e.getId(), e.getTimestamp(), e.getReadingValue()))
+                                .toList();
+                        duringLoad.accept(userId);
+                        yield views;
+                    }
+                    case "save" -> {
+                        TrackingEntity entity = (TrackingEntity) args[0];
+                        if (entity.getId() == null) {
+                            ReflectionTestUtils.setField(entity, "id", nextId++);
+                            rows.computeIfAbsent(entity.getUser().getId(), id -> new ArrayList<>()).add(entity);
+                        }
+                        yield entity;
+                    }
+                    case "delete" -> {
+                        TrackingEntity entity = (TrackingEntity) args[0];
+                        rows.get(entity.getUser().getId()).remove(entity);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private TrackingEntity entity(UserEntity user, LocalDate day, double value) {
+        TrackingEntity entity = new TrackingEntity();
+        entity.setUser(user);
+        entity.setTimestamp(day.atTime(12, 0));
+        entity.setReadingValue(value);
+        return entity;
+    }
+
+    /** Eintrag, der bereits in der Datenbank liegt (am Index vorbei gespeichert) */
+    private TrackingEntity stored(UserEntity user, LocalDate day, double value) {
+        TrackingEntity entity = entity(user, day, value);
+        ReflectionTestUtils.setField(entity, "id", nextId++);
+        rows.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(entity);
+        return entity;
+    }
+
+    private static UserEntity user(Long id) {
+        UserEntity user = new UserEntity();
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+
+    private record View(Long getId, LocalDateTime getTimestamp, Double getReadingValue) implements TrackingRepository.ReadingView {}
+}
@@ -0,0 +1,221 @@
+package eco.backend.main_app.feature.tracking;
+
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.feature.configuration.ConfigService;
+import eco.backend.main_app.feature.tracking.dto.ImportResultDto;
+import eco.backend.main_app.feature.tracking.dto.TrackingDto;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import eco.backend.main_app.utils.AppConstants;
+import eco.backend.main_app.utils.DateTimeConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Import historischer Zählerstände: Prüfung der einzelnen Zeilen, Zusammenführung mit bestehenden Einträgen
+ * (sortierter Durchlauf statt Einzelprüfung pro Zeile), Zeilenlimit und CSV-Format.
+ */
+@SpringBootTest
+class TrackingImportTest {
+
+    private static final int MAX_ROWS = 40;
+
+    @Autowired
+    private TrackingService trackingService;
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempDirectory("eco-import-test").resolve("eco_app.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database + "?foreign_keys=true");
+        registry.add("app.tracking.import.max-rows", () -> String.valueOf(MAX_ROWS));
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirRowNumber() {
+        String username = user("import-invalid");
+
+        ImportResultDto result = trackingService.importEntries(username, List.of(
+                new TrackingDto(100.0, "01.02.2024"),
+                new TrackingDto(null, "02.02.2024"),
+                new TrackingDto(-1.0, "03.02.2024"),
+                new TrackingDto(110.0, "2024-02-04"),
+                new TrackingDto(120.0, ""),
+                new TrackingDto(130.0, "05.02.2024")
+        ));
+
+        assertEquals(6, result.received());
+        assertEquals(2, result.imported());
+        assertEquals(List.of(2, 3, 4, 5), result.errors().stream().map(ImportResultDto.RowError::row).toList());
+        assertEquals("Ungültiger Wert. Bitte Eingabe überprüfen.", result.errors().get(0).message());
+        assertEquals("Ungültiges Datum. Bitte Eingabe überprüfen.", result.errors().get(2).message());
+        assertEquals(List.of(100.0, 130.0), values(username));
+    }
+
+    @Test
+    void unsortedInputIsMergedWithExistingEntries() {
+        String username = user("import-merge");
+        trackingService.importEntries(username, List.of(
+                new TrackingDto(500.0, "10.01.2024"),
+                new TrackingDto(700.0, "10.03.2024")
+        ));
+
+        ImportResultDto result = trackingService.importEntries(username, List.of(
+                new TrackingDto(800.0, "01.04.2024"),       // nach allen Einträgen
+                new TrackingDto(600.0, "10.02.2024"),       // zwischen den bestehenden Einträgen
+                new TrackingDto(650.0, "10.03.2024"),       // selber Tag wie ein bestehender Eintrag
+                new TrackingDto(450.0, "01.01.2024"),       // vor allen Einträgen
+                new TrackingDto(590.0, "20.02.2024"),       // kleiner als der importierte Vorgänger
+                new TrackingDto(750.0, "01.03.2024"),       // größer als der bestehende Nachfolger
+                new TrackingDto(605.0, "10.02.2024")        // selber Tag wie eine vorherige Importzeile
+        ));
+
+        assertEquals(3, result.imported());
+        assertEquals(List.of(
+                        new ImportResultDto.RowError(3, "10.03.2024", 650.0, "Eintrag für den selben Tag existiert bereits."),
+                        new ImportResultDto.RowError(5, "20.02.2024", 590.0, "Ungültiger Wert. Konflikt mit dem vorherigen Eintrag."),
+                        new ImportResultDto.RowError(6, "01.03.2024", 750.0, "Ungültiger Wert. Konflikt mit dem nachfolgenden Eintrag."),
+                        new ImportResultDto.RowError(7, "10.02.2024", 605.0, "Eintrag für den selben Tag existiert bereits.")),
+                result.errors());
+        assertEquals(List.of(450.0, 500.0, 600.0, 700.0, 800.0), values(username));
+
+        // Das Referenzdatum wurde beim ersten Import gesetzt und bleibt unverändert
+        assertEquals(LocalDate.of(2024, 1, 10), configService.getConfigByUsername(username).getReferenceDate().toLocalDate());
+    }
+
+    @Test
+    void randomImportMatchesRowByRowValidation() {
+        String username = user("import-random");
+        Random random = new Random(5);
+        TreeMap<LocalDate, Double> stored = new TreeMap<>();
+
+        for (int round = 0; round < 6; round++) {
+            List<TrackingDto> rows = new ArrayList<>();
+            for (int i = 0; i < MAX_ROWS; i++) {
+                LocalDate date = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(365));
+                double value = 1_000 + date.getDayOfYear() * 3.0 + (random.nextInt(5) == 0 ? random.nextInt(60) - 30 : 0);
+                rows.add(new TrackingDto(value, date.format(AppConstants.JSON_DATE_FORMATTER)));
+            }
+            Collections.shuffle(rows, random);
+
+            List<Integer> expectedErrors = validateRowByRow(stored, rows);
+            ImportResultDto result = trackingService.importEntries(username, rows);
+
+            assertEquals(expectedErrors, result.errors().stream().map(ImportResultDto.RowError::row).toList(), "Runde " + round);
+            assertEquals(new ArrayList<>(stored.values()), values(username), "Runde " + round);
+        }
+    }
+
+    @Test
+    void rowLimitRejectsWholeImport() {
+        String username = user("import-limit");
+        List<TrackingDto> rows = new ArrayList<>();
+        for (int i = 0; i <= MAX_ROWS; i++) {
+            rows.add(new TrackingDto(10.0 + i, LocalDate.of(2024, 5, 1).plusDays(i).format(AppConstants.JSON_DATE_FORMATTER)));
+        }
+
+        GenericException tooMany = assertThrows(GenericException.class, () -> trackingService.importEntries(username, rows));
+        assertEquals(HttpStatus.BAD_REQUEST, tooMany.getStatus());
+        assertTrue(values(username).isEmpty());
+
+        GenericException empty = assertThrows(GenericException.class, () -> trackingService.importEntries(username, List.of()));
+        assertEquals(HttpStatus.BAD_REQUEST, empty.getStatus());
+
+        assertEquals(MAX_ROWS, trackingService.importEntries(username, rows.subList(0, MAX_ROWS)).imported());
+    }
+
+    @Test
+    void csvSupportsHeaderSeparatorsAndDecimalComma() {
+        List<TrackingDto> dtos = trackingService.parseCsv("""
+                Datum;Zählerstand
+                01.01.2024;1234,5
+
+                02.01.2024 ; 1240
+                03.01.2024;abc
+                """);
+        assertEquals(List.of(
+                new TrackingDto(1234.5, "01.01.2024"),
+                new TrackingDto(1240.0, "02.01.2024"),
+                new TrackingDto(null, "03.01.2024")), dtos);
+
+        assertEquals(List.of(new TrackingDto(99.25, "05.06.2024"), new TrackingDto(null, "06.06.2024")),
+                trackingService.parseCsv("05.06.2024,99.25\n06.06.2024"));
+        assertTrue(trackingService.parseCsv("  ").isEmpty());
+    }
+
+    /**
+     * Erwartete Fehlerzeilen, indem jede Zeile in Datumsreihenfolge einzeln gegen alle bereits gespeicherten bzw.
+     * angenommenen Einträge geprüft wird (übernimmt angenommene Zeilen in 'stored').
+     */
+    private static List<Integer> validateRowByRow(TreeMap<LocalDate, Double> stored, List<TrackingDto> rows) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) { order.add(i); }
+        order.sort((a, b) -> date(rows.get(a)).compareTo(date(rows.get(b))));
+
+        TreeMap<LocalDate, Double> before = new TreeMap<>(stored);
+        List<Integer> errors = new ArrayList<>();
+        for (int i : order) {
+            LocalDate date = date(rows.get(i));
+            double value = rows.get(i).value_kWh();
+
+            Double predecessor = stored.lowerKey(date) == null ? null : stored.lowerEntry(date).getValue();
+            Double successor = before.higherKey(date) == null ? null : before.higherEntry(date).getValue();
+
+            if (stored.containsKey(date)
+                    || (predecessor != null && value <= predecessor)
+                    || (successor != null && value >= successor)) {
+                errors.add(i + 1);
+            } else {
+                stored.put(date, value);
+            }
+        }
+        Collections.sort(errors);
+        return errors;
+    }
+
+    private static LocalDate date(TrackingDto dto) {
+        return LocalDate.parse(dto.date(), AppConstants.JSON_DATE_FORMATTER);
+    }
+
+    private List<Double> values(String username) {
+        return trackingService.getEntries(username, null, null, 1000, null).items().stream()
+                .map(TrackingEntity::getReadingValue)
+                .toList();
+    }
+
+    /** User mit Config ohne Referenzdatum (wird beim ersten Import gesetzt) */
+    private String user(String username) {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, password, email, created_at, tfa_code, role, is_enabled, is_validated_email)
+                VALUES (?, 'x', ?, ?, '000000', 'USER', 1, 1)
+                """, username, username + "@example.org", LocalDateTime.now().format(DateTimeConverter.FORMATTER));
+        jdbcTemplate.update("""
+                INSERT INTO configs (user_id, base_price, energy_price, energy_tax, vat_rate, monthly_advance,
+                                     additional_credit, due_day, sepa_processing_days, meter_identifier)
+                SELECT id, 9.9, 0.29, 0.0205, 0.19, 48.0, 0.0, 1, 14, 'IMPORT-METER' FROM users WHERE username = ?
+                """, username);
+        return username;
+    }
+}
@@ -0,0 +1,215 @@
+package eco.backend.main_app.utils;
+
+import eco.backend.main_app.core.exception.GenericException;
+import eco.backend.main_app.feature.calculation.CalculationService;
+import eco.backend.main_app.feature.calculation.model.CalculationEntity;
+import eco.backend.main_app.feature.tracking.TrackingService;
+import eco.backend.main_app.feature.tracking.model.TrackingEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset-Paginierung der Zählerstände und der Berechnungshistorie: Aneinandergehängte Seiten müssen genau der
+ * bisherigen ungeteilten Abfrage entsprechen (keine Lücken, keine Duplikate, auch bei gleichen Zeitstempeln).
+ */
+@SpringBootTest
+class KeysetPaginationTest {
+
+    private static final int MAX_LIMIT = 7;
+
+    @Autowired
+    private TrackingService trackingService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException {
+        Path database = Files.createTempDirectory("eco-pagination-test").resolve("eco_app.db");
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + database + "?foreign_keys=true");
+        registry.add("app.pagination.max-limit", () -> String.valueOf(MAX_LIMIT));
+    }
+
+    @Test
+    void readingPagesConcatenateToUnpagedQuery() {
+        String username = userWithReadings("page-readings");
+
+        for (int limit : new int[]{1, 2, 3, MAX_LIMIT, MAX_LIMIT + 20}) {
+            assertEquals(expectedIds(username, null, null), pagedIds(username, null, null, limit), "limit " + limit);
+            assertEquals(expectedIds(username, "03.03.2024", "09.03.2024"), pagedIds(username, "03.03.2024", "09.03.2024", limit), "limit " + limit);
+            assertEquals(expectedIds(username, "12.03.2024", null), pagedIds(username, "12.03.2024", null, limit), "limit " + limit);
+        }
+
+        // Ohne limit: alle Einträge auf einer Seite
+        KeysetPage<TrackingEntity> all = trackingService.getEntries(username, null, null, null, null);
+        assertNull(all.nextCursor());
+        assertEquals(expectedIds(username, null, null), all.items().stream().map(TrackingEntity::getId).toList());
+
+        // Zeitraum ohne Einträge
+        KeysetPage<TrackingEntity> empty = trackingService.getEntries(username, "01.01.2030", null, 3, null);
+        assertTrue(empty.items().isEmpty());
+        assertNull(empty.nextCursor());
+    }
+
+    @Test
+    void cursorBeforeRangeStartsAtRangeAndLastPageHasNoCursor() {
+        String username = userWithReadings("page-bounds");
+
+        // Cursor einer Seite ohne Zeitraum, weitergeblättert mit einem späteren 'from'
+        KeysetPage<TrackingEntity> first = trackingService.getEntries(username, null, null, 2, null);
+        KeysetPage<TrackingEntity> ranged = trackingService.getEntries(username, "10.03.2024", null, 2, first.nextCursor());
+        assertEquals(expectedIds(username, "10.03.2024", null).subList(0, 2), ranged.items().stream().map(TrackingEntity::getId).toList());
+
+        // Genau limit Einträge bis zum Ende: die Seite ist die letzte
+        List<Long> ids = expectedIds(username, "12.03.2024", null);
+        assertTrue(ids.size() > 1 && ids.size() <= MAX_LIMIT);
+        assertNull(trackingService.getEntries(username, "12.03.2024", null, ids.size(), null).nextCursor());
+        assertNotNull(trackingService.getEntries(username, "12.03.2024", null, ids.size() - 1, null).nextCursor());
+    }
+
+    @Test
+    void invalidCursorAndLimitAreRejected() {
+        String username = userWithReadings("page-invalid");
+
+        for (String cursor : List.of("%%%", encode("2024-03-01 12:00:00"), encode("2024-03-01|5"),
+                encode("nicht-datum|5"), encode("2024-03-01 12:00:00|x"), encode("a|b|c"))) {
+            GenericException e = assertThrows(GenericException.class,
+                    () -> trackingService.getEntries(username, null, null, 3, cursor), cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+
+        for (int limit : new int[]{0, -4}) {
+            GenericException e = assertThrows(GenericException.class,
+                    () -> trackingService.getEntries(username, null, null, limit, null));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        }
+
+        // limit über dem Maximum wird begrenzt
+        assertEquals(MAX_LIMIT, trackingService.getEntries(username, null, null, 500, null).items().size());
+    }
+
+    @Test
+    void historyPagesConcatenateToUnpagedQuery() {
+        String username = userWithReadings("page-history");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+
+        LocalDate periodEnd = LocalDate.of(2023, 12, 30);
+        for (int i = 0; i < 17; i++) {
+            periodEnd = periodEnd.plusDays(1 + i % 4);
+            jdbcTemplate.update("""
+                    INSERT INTO calculated_results (period_start, period_end, days_period, payments_period, total_costs_period,
+                                                    cost_diff_period, sum_used_energy, used_energy_per_day, user_id)
+                    VALUES ('2023-12-30 00:00:00', ?, ?, 1.0, 2.0, -1.0, 3.0, 0.5, ?)
+                    """, periodEnd.atStartOfDay().format(DateTimeConverter.FORMATTER), i + 1, userId);
+        }
+
+        for (String[] range : new String[][]{{null, null}, {"05.01.2024", "20.01.2024"}, {"31.12.2023", null}}) {
+            List<LocalDateTime> expected = jdbcTemplate.queryForList("""
+                    SELECT period_end FROM calculated_results WHERE user_id = ? AND period_end >= ? AND period_end < ?
+                    ORDER BY period_end
+                    """, String.class, userId, start(range[0]), end(range[1])).stream()
+                    .map(value -> LocalDateTime.parse(value, DateTimeConverter.FORMATTER))
+                    .toList();
+
+            for (int limit : new int[]{1, 4, MAX_LIMIT}) {
+                List<LocalDateTime> paged = new ArrayList<>();
+                String cursor = null;
+                do {
+                    KeysetPage<CalculationEntity> page = calculationService.getHistoryPage(username, range[0], range[1], limit, cursor);
+                    assertTrue(page.items().size() <= limit);
+                    page.items().forEach(result -> paged.add(result.getPeriodEnd()));
+                    cursor = page.nextCursor();
+                } while (cursor != null);
+
+                assertEquals(expected, paged, "limit " + limit);
+            }
+        }
+
+        GenericException e = assertThrows(GenericException.class,
+                () -> calculationService.getHistoryPage(username, null, null, 2, encode("31.01.2024")));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+    }
+
+    /** Blättert mit dem Cursor bis zur letzten Seite und prüft Seitengröße und Eindeutigkeit */
+    private List<Long> pagedIds(String username, String from, String to, int limit) {
+        List<Long> ids = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            KeysetPage<TrackingEntity> page = trackingService.getEntries(username, from, to, limit, cursor);
+            assertTrue(page.items().size() <= Math.min(limit, MAX_LIMIT));
+            assertTrue(page.nextCursor() == null || page.items().size() == Math.min(limit, MAX_LIMIT));
+            for (TrackingEntity entry : page.items()) {
+                assertTrue(seen.add(entry.getId()), "Duplikat " + entry.getId());
+                ids.add(entry.getId());
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    /** Ungeteilte Abfrage wie vor der Paginierung: ganzer Zeitraum, sortiert nach Zeitstempel (und ID) */
+    private List<Long> expectedIds(String username, String from, String to) {
+        return jdbcTemplate.queryForList("""
+                SELECT r.id FROM meter_readings r JOIN users u ON u.id = r.user_id
+                WHERE u.username = ? AND r.timestamp >= ? AND r.timestamp < ?
+                ORDER BY r.timestamp, r.id
+                """, Long.class, username, start(from), end(to));
+    }
+
+    private static String start(String from) {
+        return ReuseHelper.getParsedDateOrDefault(from, AppConstants.MIN_QUERY_DATE).atStartOfDay().format(DateTimeConverter.FORMATTER);
+    }
+
+    private static String end(String to) {
+        return ReuseHelper.getParsedDateOrDefault(to, AppConstants.MAX_QUERY_DATE).plusDays(1).atStartOfDay().format(DateTimeConverter.FORMATTER);
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * User mit 20 Zählerständen direkt in der Datenbank: teils mehrere Einträge mit identischem Zeitstempel
+     * (Reihenfolge dann nach ID) und Einträge genau an Tagesgrenzen.
+     */
+    private String userWithReadings(String username) {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, password, email, created_at, tfa_code, role, is_enabled, is_validated_email)
+                VALUES (?, 'x', ?, ?, '000000', 'USER', 1, 1)
+                """, username, username + "@example.org", LocalDateTime.now().format(DateTimeConverter.FORMATTER));
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+
+        // Einfügen in gemischter Reihenfolge, damit die IDs nicht der Zeitreihenfolge entsprechen
+        LocalDateTime base = LocalDate.of(2024, 3, 1).atStartOfDay();
+        int[] dayOffsets = {9, 2, 2, 14, 0, 5, 9, 9, 11, 3, 17, 6, 2, 8, 8, 1, 20, 12, 4, 9};
+        for (int i = 0; i < dayOffsets.length; i++) {
+            LocalDateTime timestamp = base.plusDays(dayOffsets[i]).plusHours(i % 3 == 0 ? 0 : 12);
+            jdbcTemplate.update("INSERT INTO meter_readings (kwh_reading, timestamp, user_id) VALUES (?, ?, ?)",
+                    1000.0 + i, timestamp.format(DateTimeConverter.FORMATTER), userId);
+        }
+        return username;
+    }
+}